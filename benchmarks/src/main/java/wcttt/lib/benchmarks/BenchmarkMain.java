@@ -0,0 +1,56 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of the benchmark jar. Passes all arguments to JMH, but writes
+ * the results as JSON to 'jmh-result.json' unless another result format or
+ * file is specified, such that results can be tracked over time.
+ */
+public class BenchmarkMain {
+
+	private static final String RESULT_FORMAT_OPTION = "-rf";
+	private static final String RESULT_FILE_OPTION = "-rff";
+	private static final String DEFAULT_RESULT_FORMAT = "json";
+	private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	public static void main(String[] args) throws Exception {
+		List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+		if (!jmhArgs.contains(RESULT_FORMAT_OPTION)) {
+			jmhArgs.add(RESULT_FORMAT_OPTION);
+			jmhArgs.add(DEFAULT_RESULT_FORMAT);
+		}
+		if (!jmhArgs.contains(RESULT_FILE_OPTION)) {
+			jmhArgs.add(RESULT_FILE_OPTION);
+			jmhArgs.add(DEFAULT_RESULT_FILE);
+		}
+		org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.SaturationDegreeHeuristic;
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures parsing and writing semester XML files, including a timetable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BinderBenchmark {
+
+	@Param({SemesterInstances.SMALL, SemesterInstances.MEDIUM,
+			SemesterInstances.LARGE})
+	public String size;
+
+	private Semester semester;
+	private File parseFile;
+	private File writeFile;
+	private WctttBinder parseBinder;
+	private WctttBinder writeBinder;
+
+	@Setup
+	public void setup() throws Exception {
+		semester = SemesterInstances.create(size);
+		Timetable timetable = new SaturationDegreeHeuristic(semester).
+				generateFeasibleSolutions(1, new AtomicBoolean(false)).get(0);
+		semester.addTimetable(timetable);
+		parseFile = File.createTempFile("libwcttt-benchmark-parse", ".xml");
+		writeFile = File.createTempFile("libwcttt-benchmark-write", ".xml");
+		parseBinder = new WctttBinder(parseFile);
+		parseBinder.write(semester);
+		writeBinder = new WctttBinder(writeFile);
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(parseFile.toPath());
+		Files.deleteIfExists(writeFile.toPath());
+	}
+
+	@Benchmark
+	public Semester parse() throws Exception {
+		return parseBinder.parse();
+	}
+
+	@Benchmark
+	public void write() throws Exception {
+		writeBinder.write(semester);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.SaturationDegreeHeuristic;
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the construction of a feasible timetable with the saturation
+ * degree heuristic (DSatur).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConstructionBenchmark {
+
+	@Param({SemesterInstances.SMALL, SemesterInstances.MEDIUM,
+			SemesterInstances.LARGE})
+	public String size;
+
+	private Semester semester;
+	private SaturationDegreeHeuristic satDegHeuristic;
+	private final AtomicBoolean isCancelled = new AtomicBoolean(false);
+
+	@Setup
+	public void setup() throws Exception {
+		semester = SemesterInstances.create(size);
+		satDegHeuristic = new SaturationDegreeHeuristic(semester);
+	}
+
+	@Benchmark
+	public List<Timetable> saturationDegreeHeuristic() throws Exception {
+		return satDegHeuristic.generateFeasibleSolutions(1, isCancelled);
+	}
+
+	@Benchmark
+	public SaturationDegreeHeuristic saturationDegreeHeuristicWithMatrices() {
+		return new SaturationDegreeHeuristic(semester);
+	}
+}
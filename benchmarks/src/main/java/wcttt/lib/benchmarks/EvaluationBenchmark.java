@@ -0,0 +1,142 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.SaturationDegreeHeuristic;
+import wcttt.lib.model.*;
+import wcttt.lib.util.ConflictMatrixCalculator;
+import wcttt.lib.util.ConstraintViolationsCalculator;
+import wcttt.lib.util.PenaltyCache;
+import wcttt.lib.util.PenaltyReport;
+import wcttt.lib.util.ProblemIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the evaluation of timetables: the soft constraint penalty of a
+ * whole timetable and its breakdown by constraint, the hard constraint check
+ * of a single assignment, the conflict matrices and copying a timetable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EvaluationBenchmark {
+
+	@Param({SemesterInstances.SMALL, SemesterInstances.MEDIUM,
+			SemesterInstances.LARGE})
+	public String size;
+
+	private Semester semester;
+	private Timetable timetable;
+	private ConstraintViolationsCalculator constrCalc;
+	private ConflictMatrixCalculator matrixCalc;
+	private ConflictMatrixCalculator identityMatrixCalc;
+	private PenaltyCache penaltyCache;
+	private TimetablePeriod[] checkPeriods;
+	private TimetableAssignment[] checkAssignments;
+	private int nextCheck = 0;
+
+	@Setup
+	public void setup() throws Exception {
+		semester = SemesterInstances.create(size);
+		timetable = new SaturationDegreeHeuristic(semester).
+				generateFeasibleSolutions(1, new AtomicBoolean(false)).get(0);
+		constrCalc = new ConstraintViolationsCalculator(semester);
+		matrixCalc = new ConflictMatrixCalculator(semester);
+		identityMatrixCalc = new ConflictMatrixCalculator(semester, true);
+		penaltyCache = new PenaltyCache(new ProblemIndex(semester), 1024);
+
+		// Every assignment is checked against the next period of the week:
+		List<TimetablePeriod> periods = new ArrayList<>();
+		timetable.getDays().forEach(day -> periods.addAll(day.getPeriods()));
+		List<TimetablePeriod> targetPeriods = new ArrayList<>();
+		List<TimetableAssignment> assignments = new ArrayList<>();
+		for (int i = 0; i < periods.size(); i++) {
+			for (TimetableAssignment assgmt : periods.get(i).getAssignments()) {
+				targetPeriods.add(periods.get((i + 1) % periods.size()));
+				assignments.add(new TimetableAssignment(assgmt.getSession(),
+						assgmt.getRoom()));
+			}
+		}
+		checkPeriods = targetPeriods.toArray(new TimetablePeriod[0]);
+		checkAssignments = assignments.toArray(new TimetableAssignment[0]);
+	}
+
+	@Benchmark
+	public double timetablePenalty() {
+		return constrCalc.calcTimetablePenalty(timetable);
+	}
+
+	@Benchmark
+	public double cachedTimetablePenalty() {
+		return penaltyCache.calcTimetablePenalty(timetable);
+	}
+
+	@Benchmark
+	public PenaltyReport timetablePenaltyReport() {
+		return constrCalc.calcPenaltyReport(timetable, 5);
+	}
+
+	@Benchmark
+	public List<ConstraintType> assignmentHardViolations() {
+		int i = nextCheck;
+		nextCheck = (i + 1) % checkAssignments.length;
+		return constrCalc.calcAssignmentHardViolations(timetable,
+				checkPeriods[i], checkAssignments[i]);
+	}
+
+	@Benchmark
+	public void conflictMatrices(Blackhole blackhole) {
+		blackhole.consume(matrixCalc.calcSessionSessionConflicts());
+		blackhole.consume(matrixCalc.calcSessionRoomConflicts());
+		blackhole.consume(matrixCalc.calcTeacherPeriodConflicts());
+	}
+
+	@Benchmark
+	public void conflictMatricesIdentityKeys(Blackhole blackhole) {
+		blackhole.consume(identityMatrixCalc.calcSessionSessionConflicts());
+		blackhole.consume(identityMatrixCalc.calcSessionRoomConflicts());
+		blackhole.consume(identityMatrixCalc.calcTeacherPeriodConflicts());
+	}
+
+	@Benchmark
+	public Timetable timetableCopy() {
+		return new Timetable(timetable);
+	}
+
+	@Benchmark
+	public Timetable timetableDerive() {
+		return timetable.derive();
+	}
+}
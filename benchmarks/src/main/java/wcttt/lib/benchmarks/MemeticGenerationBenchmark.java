@@ -0,0 +1,92 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wcttt.lib.algorithms.ParameterDefinition;
+import wcttt.lib.algorithms.ParameterType;
+import wcttt.lib.algorithms.ParameterValue;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.TabuBasedMemeticApproach;
+import wcttt.lib.model.Timetable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single generation of the tabu-based memetic approach, i.e.
+ * selection, crossover, mutation, local search, evaluation and the update of
+ * the population. The population is generated once per trial, its size is
+ * reduced compared to the default to keep the setup of large instances short.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MemeticGenerationBenchmark {
+
+	@Param({SemesterInstances.SMALL, SemesterInstances.MEDIUM,
+			SemesterInstances.LARGE})
+	public String size;
+
+	@Param({"10"})
+	public int populationSize;
+
+	private TabuBasedMemeticApproach approach;
+	private TabuBasedMemeticApproach.GenerationStepper stepper;
+
+	@Setup
+	public void setup() throws Exception {
+		approach = new TabuBasedMemeticApproach(
+				SemesterInstances.create(size));
+		approach.setParameterValues(defaultParameterValues());
+		stepper = approach.startGenerationStepper();
+	}
+
+	private List<ParameterValue> defaultParameterValues() {
+		List<ParameterValue> values = new ArrayList<>();
+		for (ParameterDefinition definition : approach.getParameters()) {
+			if (definition.getName().equals("Population size")) {
+				values.add(new ParameterValue<>(definition, populationSize));
+			} else if (definition.getType() == ParameterType.INT) {
+				values.add(new ParameterValue<>(definition,
+						Integer.parseInt(definition.getDefaultValue())));
+			} else {
+				values.add(new ParameterValue<>(definition,
+						Double.parseDouble(definition.getDefaultValue())));
+			}
+		}
+		return values;
+	}
+
+	@Benchmark
+	public Timetable generation() throws Exception {
+		stepper.runGeneration();
+		return stepper.getBestSolution();
+	}
+}
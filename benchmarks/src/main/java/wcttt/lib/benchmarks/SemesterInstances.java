@@ -0,0 +1,102 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.benchmarks;
+
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.binder.WctttBinderException;
+import wcttt.lib.model.Semester;
+import wcttt.lib.util.SemesterGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Provides the semesters the benchmarks are run on. The 'small' instance is
+ * the tiny WIAI semester, the larger instances are generated with a fixed
+ * seed, such that results stay comparable between runs.
+ */
+public class SemesterInstances {
+
+	public static final String SMALL = "small";
+	public static final String MEDIUM = "medium";
+	public static final String LARGE = "large";
+
+	// Copied from the test resources of the library by the build
+	private static final String TINY_WIAI_RESOURCE = "/tiny-wiai.xml";
+	private static final long SEED = 20181001L;
+
+	private SemesterInstances() {}
+
+	/**
+	 * Creates the semester of an instance size.
+	 *
+	 * @param size one of {@link #SMALL}, {@link #MEDIUM} or {@link #LARGE}.
+	 * @return the semester, without timetables.
+	 */
+	public static Semester create(String size) throws IOException,
+			WctttBinderException {
+		switch (size) {
+			case SMALL:
+				Semester tinyWiai = parseTinyWiai();
+				tinyWiai.getTimetables().clear();
+				return tinyWiai;
+			case MEDIUM:
+				return generate(10, 25, 60, 12);
+			case LARGE:
+				return generate(30, 80, 200, 40);
+			default:
+				throw new IllegalArgumentException("Unknown instance size '" +
+						size + "'");
+		}
+	}
+
+	private static Semester generate(int chairs, int rooms, int courses,
+	                                 int curricula) {
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setChairs(chairs);
+		generator.setInternalRooms(rooms);
+		generator.setCourses(courses);
+		generator.setPracticalsPerCourse(2);
+		generator.setCurricula(curricula);
+		generator.setCoursesPerCurriculum(6);
+		return generator.generate(SEED);
+	}
+
+	private static Semester parseTinyWiai() throws IOException,
+			WctttBinderException {
+		File file = File.createTempFile("libwcttt-benchmark", ".xml");
+		try (InputStream in = SemesterInstances.class.getResourceAsStream(
+				TINY_WIAI_RESOURCE)) {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return new WctttBinder(file).parse();
+		} finally {
+			Files.delete(file.toPath());
+		}
+	}
+}
@@ -1,11 +1,20 @@
 module wcttt.lib {
 	requires java.xml.bind;
 	requires javafx.base;
+	requires java.management;
+	requires jdk.management;
+	requires jdk.jfr;
 
 	exports wcttt.lib.model;
 	exports wcttt.lib.binder;
 	exports wcttt.lib.algorithms;
 	exports wcttt.lib.algorithms.tabu_based_memetic_approach;
+	exports wcttt.lib.algorithms.decomposition;
+	exports wcttt.lib.algorithms.great_deluge;
+	exports wcttt.lib.algorithms.large_neighborhood_search;
+	exports wcttt.lib.algorithms.late_acceptance_hill_climbing;
+	exports wcttt.lib.algorithms.simulated_annealing;
+	exports wcttt.lib.util;
 
 	opens wcttt.lib.model to java.xml.bind;
 }
@@ -38,6 +38,7 @@ public abstract class AbstractAlgorithm implements Algorithm {
 
 	private final Semester semester;
 	private final AtomicBoolean isCancelled = new AtomicBoolean(false);
+	private volatile AlgorithmMetrics metrics = AlgorithmMetrics.DISABLED;
 
 	/**
 	 * Initializion of the class.
@@ -61,6 +62,30 @@ public abstract class AbstractAlgorithm implements Algorithm {
 		return semester;
 	}
 
+	/**
+	 * Getter for the metrics registry, which is disabled by default.
+	 *
+	 * @return the registry the algorithm records its metrics in.
+	 */
+	public AlgorithmMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Setter for the metrics registry. The registry is reset at the start of
+	 * every call to {@link #generate()}.
+	 *
+	 * @param metrics the registry, {@link AlgorithmMetrics#DISABLED} disables
+	 *                   the recording of metrics.
+	 */
+	public void setMetrics(AlgorithmMetrics metrics) {
+		if (metrics == null) {
+			throw new IllegalArgumentException("Parameter 'metrics' must not" +
+					" be null");
+		}
+		this.metrics = metrics;
+	}
+
 	/**
 	 * Runs the actual algorithm.
 	 *
@@ -75,7 +100,25 @@ public abstract class AbstractAlgorithm implements Algorithm {
 	@Override
 	public Timetable generate() throws WctttAlgorithmException {
 		isCancelled.set(false);
-		return runAlgorithm(isCancelled);
+		metrics.start();
+		AlgorithmRunEvent event = new AlgorithmRunEvent();
+		event.begin();
+		Timetable timetable = null;
+		try {
+			timetable = runAlgorithm(isCancelled);
+			return timetable;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.algorithm = getName();
+				event.setInstanceSize(semester);
+				if (timetable != null) {
+					event.penalty = timetable.getSoftConstraintPenalty();
+				}
+				event.cancelled = isCancelled.get();
+				event.commit();
+			}
+		}
 	}
 
 	@Override
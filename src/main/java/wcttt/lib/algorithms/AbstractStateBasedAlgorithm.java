@@ -0,0 +1,285 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms;
+
+import wcttt.lib.algorithms.tabu_based_memetic_approach.*;
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.RoomAssignmentOptimizer;
+import wcttt.lib.util.SolutionState;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Abstract class for algorithms that improve a single feasible solution with
+ * the moves of the neighborhood structures of the tabu-based memetic approach,
+ * e.g. simulated annealing. The initial solution is created by the saturation
+ * degree heuristic, the penalties of the sampled moves are calculated
+ * incrementally by the {@link SolutionState}. Subclasses only decide which
+ * moves are accepted.
+ *
+ * @param <S> the type of the search state of the algorithm.
+ */
+public abstract class AbstractStateBasedAlgorithm<
+		S extends AbstractStateBasedAlgorithm.SearchState>
+		extends AbstractAlgorithm {
+
+	/**
+	 * The neighborhood structures whose moves are sampled uniformly.
+	 */
+	protected static final List<NeighborhoodStructure> NBS_LIST =
+			Collections.unmodifiableList(Arrays.asList(
+					new NeighborhoodStructure1(),
+					new NeighborhoodStructure2(),
+					new NeighborhoodStructure3(),
+					new NeighborhoodStructure4(),
+					new NeighborhoodStructure5(),
+					new NeighborhoodStructure6(),
+					new NeighborhoodStructure7(),
+					new NeighborhoodStructure8()));
+	private static final int MOVES_PER_BATCH = 10000;
+	private static final String METRIC_EVALUATIONS = "evaluations";
+	private static final String METRIC_NBS = "nbs.";
+
+	public AbstractStateBasedAlgorithm(Semester semester) {
+		super(semester);
+	}
+
+	@Override
+	protected Timetable runAlgorithm(AtomicBoolean isCancelled)
+			throws WctttAlgorithmException {
+		S state = initSearch(isCancelled);
+
+		// If the initial solution could not be created before the algorithm
+		// was cancelled, then return no feasible solution:
+		if (state == null) {
+			return null;
+		}
+
+		while (state.getBestSolution().getPenalty() != 0 &&
+				!isCancelled.get()) {
+			runBatch(state, isCancelled);
+		}
+		return finishSearch(state);
+	}
+
+	/**
+	 * Creates the initial solution, assigns its rooms optimally and creates
+	 * the state of the search.
+	 *
+	 * @param isCancelled the status of the algorithm.
+	 * @return the initial state of the search, or {@code null} if the
+	 * algorithm was cancelled before a feasible solution was found.
+	 * @throws WctttAlgorithmException if no feasible solution can be
+	 * generated.
+	 */
+	S initSearch(AtomicBoolean isCancelled) throws WctttAlgorithmException {
+		AlgorithmMetrics metrics = getMetrics();
+		long start = metrics.nanoTime();
+
+		List<Timetable> initial = new SaturationDegreeHeuristic(getSemester()).
+				generateFeasibleSolutions(1, isCancelled);
+		if (initial.isEmpty()) {
+			return null;
+		}
+		SolutionState current = new SolutionState(
+				new ProblemIndex(getSemester()), initial.get(0));
+		RoomAssignmentOptimizer.optimize(current);
+		S state = createSearchState(current, metrics);
+
+		metrics.summary("phase.initialization",
+				AlgorithmMetrics.Summary.NANOS).recordSince(start);
+		metrics.recordBestPenalty(state.getBestSolution().getPenalty());
+		return state;
+	}
+
+	/**
+	 * Performs up to {@link #getMovesPerBatch()} iterations. Every iteration
+	 * samples a move of a random neighborhood structure and keeps it if it is
+	 * accepted.
+	 *
+	 * @param state the state of the search.
+	 * @param isCancelled the status of the algorithm.
+	 */
+	void runBatch(S state, AtomicBoolean isCancelled) {
+		SearchState search = state;
+		SolutionState current = search.current;
+		Random random = search.random;
+		double bestPenalty = search.best.getPenalty();
+		boolean improved = false;
+
+		for (int i = 0; i < getMovesPerBatch() && bestPenalty != 0 &&
+				!isCancelled.get(); i++) {
+			int nbs = random.nextInt(NBS_LIST.size());
+			Move move = NBS_LIST.get(nbs).sample(current, random);
+			boolean accepted = false;
+			if (move == null) {
+				search.failed[nbs].increment();
+			} else {
+				double before = current.getPenalty();
+				move.apply();
+				double after = current.getPenalty();
+				search.evaluations.increment();
+				if (accept(state, before, after)) {
+					accepted = true;
+					search.accepted[nbs].increment();
+					if (after < bestPenalty) {
+						search.best.copyFrom(current);
+						bestPenalty = after;
+						improved = true;
+					}
+				} else {
+					move.undo();
+					search.rejected[nbs].increment();
+				}
+			}
+			iterationDone(state, accepted);
+		}
+
+		if (improved) {
+			search.metrics.recordBestPenalty(bestPenalty);
+		}
+		batchDone(state, improved);
+	}
+
+	/**
+	 * Assigns the rooms of the best solution optimally.
+	 *
+	 * @param state the state of the search.
+	 * @return the best solution as timetable.
+	 */
+	Timetable finishSearch(S state) {
+		RoomAssignmentOptimizer.optimize(state.getBestSolution());
+		return state.getBestSolution().toTimetable();
+	}
+
+	/**
+	 * Creates the state of the search for the initial solution.
+	 *
+	 * @param current the initial solution, its rooms are assigned optimally.
+	 * @param metrics the registry the search records its metrics in.
+	 * @return the initial state of the search.
+	 */
+	protected abstract S createSearchState(SolutionState current,
+	                                       AlgorithmMetrics metrics);
+
+	/**
+	 * The acceptance criterion, which decides whether an applied move is kept.
+	 *
+	 * @param state the state of the search.
+	 * @param before the penalty of the current solution before the move.
+	 * @param after the penalty of the current solution after the move.
+	 * @return {@code true} if the move is kept, {@code false} if it is undone.
+	 */
+	protected abstract boolean accept(S state, double before, double after);
+
+	/**
+	 * Is called after every iteration of a batch, also if no move was found.
+	 *
+	 * @param state the state of the search.
+	 * @param accepted whether a move was accepted in the iteration.
+	 */
+	protected void iterationDone(S state, boolean accepted) {
+	}
+
+	/**
+	 * Is called after every batch.
+	 *
+	 * @param state the state of the search.
+	 * @param improved whether the best solution was improved in the batch.
+	 */
+	protected void batchDone(S state, boolean improved) {
+	}
+
+	/**
+	 * Getter for the number of iterations of a batch.
+	 *
+	 * @return the number of iterations, {@value MOVES_PER_BATCH} by default.
+	 */
+	protected int getMovesPerBatch() {
+		return MOVES_PER_BATCH;
+	}
+
+	/**
+	 * Contains everything that changes during the search, subclasses add the
+	 * state of their acceptance criterion.
+	 */
+	protected static class SearchState {
+
+		private final SolutionState current;
+		private final SolutionState best;
+		private final Random random = new Random();
+
+		private final AlgorithmMetrics metrics;
+		private final AlgorithmMetrics.Counter evaluations;
+		private final AlgorithmMetrics.Counter[] accepted;
+		private final AlgorithmMetrics.Counter[] rejected;
+		private final AlgorithmMetrics.Counter[] failed;
+
+		protected SearchState(SolutionState current, AlgorithmMetrics metrics) {
+			this.current = current;
+			this.best = new SolutionState(current);
+			this.metrics = metrics;
+			evaluations = metrics.counter(METRIC_EVALUATIONS);
+			accepted = nbsCounters(metrics, "accepted");
+			rejected = nbsCounters(metrics, "rejected");
+			failed = nbsCounters(metrics, "failed");
+		}
+
+		private static AlgorithmMetrics.Counter[] nbsCounters(
+				AlgorithmMetrics metrics, String event) {
+			AlgorithmMetrics.Counter[] counters =
+					new AlgorithmMetrics.Counter[NBS_LIST.size()];
+			for (int i = 0; i < counters.length; i++) {
+				counters[i] = metrics.counter(METRIC_NBS +
+						NBS_LIST.get(i).getClass().getSimpleName() + "." + event);
+			}
+			return counters;
+		}
+
+		public SolutionState getCurrentSolution() {
+			return current;
+		}
+
+		public SolutionState getBestSolution() {
+			return best;
+		}
+
+		public Random getRandom() {
+			return random;
+		}
+
+		public AlgorithmMetrics getMetrics() {
+			return metrics;
+		}
+	}
+}
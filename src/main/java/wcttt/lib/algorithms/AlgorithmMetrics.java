@@ -0,0 +1,309 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry for the counters and summaries that an algorithm records while it
+ * is running, e.g. the number of evaluations or the time spent in a phase.
+ *
+ * Metrics are disabled by default, see {@link #DISABLED}. The disabled
+ * registry hands out shared no-op counters and summaries and never reads the
+ * clock, thus the instrumentation costs nothing more than a virtual call.
+ * Counters and summaries should be looked up once before a hot loop, not for
+ * every increment.
+ */
+public class AlgorithmMetrics {
+
+	/**
+	 * Registry that ignores every record.
+	 */
+	public static final AlgorithmMetrics DISABLED = new AlgorithmMetrics(false);
+
+	private static final Counter NOOP_COUNTER = new Counter("") {
+		@Override
+		public void add(long value) {}
+	};
+	private static final Summary NOOP_SUMMARY = new Summary("", "", false);
+
+	private final boolean enabled;
+	private final Map<String, Counter> counters = new LinkedHashMap<>();
+	private final Map<String, Summary> summaries = new LinkedHashMap<>();
+	private final List<PenaltyRecord> bestPenaltyHistory = new ArrayList<>();
+	private final ThreadMXBean threadBean;
+	private volatile long startNanos = System.nanoTime();
+
+	public AlgorithmMetrics() {
+		this(true);
+	}
+
+	private AlgorithmMetrics(boolean enabled) {
+		this.enabled = enabled;
+		ThreadMXBean bean = enabled ? ManagementFactory.getThreadMXBean() : null;
+		if (bean instanceof com.sun.management.ThreadMXBean &&
+				((com.sun.management.ThreadMXBean) bean)
+						.isThreadAllocatedMemorySupported()) {
+			this.threadBean = bean;
+		} else {
+			this.threadBean = null;
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Resets all values and marks the start of a new run. Registered counters
+	 * and summaries stay valid.
+	 */
+	public synchronized void start() {
+		counters.values().forEach(Counter::reset);
+		summaries.values().forEach(Summary::reset);
+		bestPenaltyHistory.clear();
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Getter for the time since the start of the run.
+	 *
+	 * @return the elapsed time in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return System.nanoTime() - startNanos;
+	}
+
+	/**
+	 * Looks up a counter and registers it, if it does not exist yet.
+	 *
+	 * @param name the name of the counter.
+	 * @return the counter, a no-op counter if the registry is disabled.
+	 */
+	public synchronized Counter counter(String name) {
+		if (!enabled) {
+			return NOOP_COUNTER;
+		}
+		return counters.computeIfAbsent(name, Counter::new);
+	}
+
+	/**
+	 * Looks up a summary and registers it, if it does not exist yet.
+	 *
+	 * @param name the name of the summary.
+	 * @param unit the unit of the recorded values, e.g. {@link Summary#NANOS}.
+	 * @return the summary, a no-op summary if the registry is disabled.
+	 */
+	public synchronized Summary summary(String name, String unit) {
+		if (!enabled) {
+			return NOOP_SUMMARY;
+		}
+		return summaries.computeIfAbsent(name, n -> new Summary(n, unit, true));
+	}
+
+	/**
+	 * Reads the clock for the measurement of a duration, see
+	 * {@link Summary#recordSince(long)}.
+	 *
+	 * @return the current time in nanoseconds, 0 if the registry is disabled.
+	 */
+	public long nanoTime() {
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Reads the number of bytes the current thread has allocated so far.
+	 *
+	 * @return the allocated bytes, 0 if the registry is disabled or the JVM
+	 * does not support the measurement.
+	 */
+	public long allocatedBytes() {
+		if (threadBean == null) {
+			return 0;
+		}
+		return ((com.sun.management.ThreadMXBean) threadBean)
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Records a new best soft constraint penalty.
+	 *
+	 * @param penalty the penalty of the new best solution.
+	 */
+	public void recordBestPenalty(double penalty) {
+		if (enabled) {
+			synchronized (this) {
+				bestPenaltyHistory.add(new PenaltyRecord(getElapsedNanos(),
+						penalty));
+			}
+		}
+	}
+
+	public synchronized List<PenaltyRecord> getBestPenaltyHistory() {
+		return new ArrayList<>(bestPenaltyHistory);
+	}
+
+	public synchronized List<Counter> getCounters() {
+		return new ArrayList<>(counters.values());
+	}
+
+	public synchronized List<Summary> getSummaries() {
+		return new ArrayList<>(summaries.values());
+	}
+
+	/**
+	 * Counts events, e.g. evaluations or accepted moves.
+	 */
+	public static class Counter {
+
+		private final String name;
+		private final LongAdder value = new LongAdder();
+
+		private Counter(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void increment() {
+			add(1);
+		}
+
+		public void add(long value) {
+			this.value.add(value);
+		}
+
+		public long get() {
+			return value.sum();
+		}
+
+		private void reset() {
+			value.reset();
+		}
+	}
+
+	/**
+	 * Summarizes recorded values, e.g. durations or allocated bytes, by
+	 * their count, total and maximum.
+	 */
+	public static class Summary {
+
+		public static final String NANOS = "ns";
+		public static final String BYTES = "bytes";
+
+		private final String name;
+		private final String unit;
+		private final boolean enabled;
+		private long count;
+		private long total;
+		private long max;
+
+		private Summary(String name, String unit, boolean enabled) {
+			this.name = name;
+			this.unit = unit;
+			this.enabled = enabled;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getUnit() {
+			return unit;
+		}
+
+		public synchronized void record(long value) {
+			if (!enabled) {
+				return;
+			}
+			count++;
+			total += value;
+			max = Math.max(max, value);
+		}
+
+		/**
+		 * Records the time since a start time. Does not read the clock if the
+		 * summary belongs to a disabled registry.
+		 *
+		 * @param startNanos the start time, as returned by
+		 * {@link AlgorithmMetrics#nanoTime()}.
+		 */
+		public void recordSince(long startNanos) {
+			if (enabled) {
+				record(System.nanoTime() - startNanos);
+			}
+		}
+
+		public synchronized long getCount() {
+			return count;
+		}
+
+		public synchronized long getTotal() {
+			return total;
+		}
+
+		public synchronized long getMax() {
+			return max;
+		}
+
+		public synchronized double getMean() {
+			return count == 0 ? 0.0 : (double) total / count;
+		}
+
+		private synchronized void reset() {
+			count = 0;
+			total = 0;
+			max = 0;
+		}
+	}
+
+	/**
+	 * A new best penalty and the time at which it was found.
+	 */
+	public static class PenaltyRecord {
+
+		private final long elapsedNanos;
+		private final double penalty;
+
+		private PenaltyRecord(long elapsedNanos, double penalty) {
+			this.elapsedNanos = elapsedNanos;
+			this.penalty = penalty;
+		}
+
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		public double getPenalty() {
+			return penalty;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms;
+
+import jdk.jfr.*;
+import wcttt.lib.model.Course;
+import wcttt.lib.model.Semester;
+
+/**
+ * Flight recorder event that spans a complete run of an algorithm, i.e. a
+ * call to {@link AbstractAlgorithm#generate()}.
+ */
+@Name("wcttt.AlgorithmRun")
+@Label("Algorithm Run")
+@Category({"WCTTT", "Algorithms"})
+@Description("Creation of a new timetable by an algorithm")
+final class AlgorithmRunEvent extends Event {
+
+	@Label("Algorithm")
+	String algorithm;
+
+	@Label("Courses")
+	int courses;
+
+	@Label("Sessions")
+	int sessions;
+
+	@Label("Internal Rooms")
+	int internalRooms;
+
+	@Label("Periods")
+	int periods;
+
+	@Label("Penalty")
+	@Description("Soft constraint penalty of the created timetable, -1 if " +
+			"no timetable was created")
+	double penalty = -1;
+
+	@Label("Cancelled")
+	boolean cancelled;
+
+	/**
+	 * Sets the fields describing the size of the problem instance.
+	 *
+	 * @param semester the semester the algorithm was run on.
+	 */
+	void setInstanceSize(Semester semester) {
+		courses = semester.getCourses().size();
+		for (Course course : semester.getCourses()) {
+			sessions += course.getLectures().size() +
+					course.getPracticals().size();
+		}
+		internalRooms = semester.getInternalRooms().size();
+		periods = semester.getDaysPerWeek() * semester.getTimeSlotsPerDay();
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registers the metrics as MBean at the platform MBean server, e.g. to watch
+ * a running algorithm with JConsole. The attributes are read live from the
+ * registry, thus exporting once is sufficient. Every counter provides its
+ * value and its rate per second, every summary its count, total, mean and
+ * maximum.
+ */
+public class JmxMetricsExporter implements MetricsExporter {
+
+	private static final String DOMAIN = "wcttt.lib";
+
+	private final ObjectName objectName;
+
+	/**
+	 * Creates an exporter for the object name
+	 * {@code wcttt.lib:type=AlgorithmMetrics,name=<name>}.
+	 *
+	 * @param name the name of the MBean, e.g. the name of the algorithm.
+	 * @throws WctttAlgorithmException if the name is not a valid object name.
+	 */
+	public JmxMetricsExporter(String name) throws WctttAlgorithmException {
+		if (name == null) {
+			throw new IllegalArgumentException("Parameter 'name' must not be " +
+					"null");
+		}
+		try {
+			objectName = new ObjectName(DOMAIN + ":type=AlgorithmMetrics," +
+					"name=" + ObjectName.quote(name));
+		} catch (MalformedObjectNameException e) {
+			throw new WctttAlgorithmException("Invalid MBean name '" + name +
+					"'", e);
+		}
+	}
+
+	public ObjectName getObjectName() {
+		return objectName;
+	}
+
+	/**
+	 * Registers the metrics, a previously registered MBean with the same name
+	 * is replaced.
+	 *
+	 * @param metrics the metrics that should be exported.
+	 * @throws WctttAlgorithmException if the MBean could not be registered.
+	 */
+	@Override
+	public void export(AlgorithmMetrics metrics)
+			throws WctttAlgorithmException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(new MetricsMBean(metrics), objectName);
+		} catch (JMException e) {
+			throw new WctttAlgorithmException("Error while registering the " +
+					"metrics MBean", e);
+		}
+	}
+
+	/**
+	 * Removes the MBean from the platform MBean server, if it is registered.
+	 *
+	 * @throws WctttAlgorithmException if the MBean could not be removed.
+	 */
+	public void unregister() throws WctttAlgorithmException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			throw new WctttAlgorithmException("Error while removing the " +
+					"metrics MBean", e);
+		}
+	}
+
+	/**
+	 * Read-only MBean whose attributes are derived from the registered
+	 * counters and summaries.
+	 */
+	private static class MetricsMBean implements DynamicMBean {
+
+		private static final String ELAPSED_SECONDS = "elapsedSeconds";
+		private static final String BEST_PENALTY = "bestPenalty";
+		private static final String RATE_SUFFIX = ".rate";
+		private static final String COUNT_SUFFIX = ".count";
+		private static final String TOTAL_SUFFIX = ".total";
+		private static final String MEAN_SUFFIX = ".mean";
+		private static final String MAX_SUFFIX = ".max";
+
+		private final AlgorithmMetrics metrics;
+
+		private MetricsMBean(AlgorithmMetrics metrics) {
+			this.metrics = metrics;
+		}
+
+		@Override
+		public Object getAttribute(String attribute)
+				throws AttributeNotFoundException {
+			double seconds = metrics.getElapsedNanos() / 1e9;
+			if (ELAPSED_SECONDS.equals(attribute)) {
+				return seconds;
+			} else if (BEST_PENALTY.equals(attribute)) {
+				List<AlgorithmMetrics.PenaltyRecord> history =
+						metrics.getBestPenaltyHistory();
+				return history.isEmpty() ? Double.NaN :
+						history.get(history.size() - 1).getPenalty();
+			}
+			for (AlgorithmMetrics.Counter counter : metrics.getCounters()) {
+				if (counter.getName().equals(attribute)) {
+					return counter.get();
+				} else if ((counter.getName() + RATE_SUFFIX).equals(attribute)) {
+					return counter.get() / seconds;
+				}
+			}
+			for (AlgorithmMetrics.Summary summary : metrics.getSummaries()) {
+				String name = summary.getName();
+				if ((name + COUNT_SUFFIX).equals(attribute)) {
+					return summary.getCount();
+				} else if ((name + TOTAL_SUFFIX).equals(attribute)) {
+					return summary.getTotal();
+				} else if ((name + MEAN_SUFFIX).equals(attribute)) {
+					return summary.getMean();
+				} else if ((name + MAX_SUFFIX).equals(attribute)) {
+					return summary.getMax();
+				}
+			}
+			throw new AttributeNotFoundException("Unknown attribute '" +
+					attribute + "'");
+		}
+
+		@Override
+		public void setAttribute(Attribute attribute)
+				throws AttributeNotFoundException {
+			throw new AttributeNotFoundException("Attribute '" +
+					attribute.getName() + "' is read-only");
+		}
+
+		@Override
+		public AttributeList getAttributes(String[] attributes) {
+			AttributeList list = new AttributeList();
+			for (String attribute : attributes) {
+				try {
+					list.add(new Attribute(attribute, getAttribute(attribute)));
+				} catch (AttributeNotFoundException e) {
+					// skip unknown attributes, as required by DynamicMBean
+				}
+			}
+			return list;
+		}
+
+		@Override
+		public AttributeList setAttributes(AttributeList attributes) {
+			return new AttributeList();
+		}
+
+		@Override
+		public Object invoke(String actionName, Object[] params,
+		                     String[] signature) throws ReflectionException {
+			throw new ReflectionException(new NoSuchMethodException(
+					actionName), "Operations are not supported");
+		}
+
+		@Override
+		public MBeanInfo getMBeanInfo() {
+			List<MBeanAttributeInfo> attributes = new ArrayList<>();
+			attributes.add(attribute(ELAPSED_SECONDS, Double.class));
+			attributes.add(attribute(BEST_PENALTY, Double.class));
+			for (AlgorithmMetrics.Counter counter : metrics.getCounters()) {
+				attributes.add(attribute(counter.getName(), Long.class));
+				attributes.add(attribute(counter.getName() + RATE_SUFFIX,
+						Double.class));
+			}
+			for (AlgorithmMetrics.Summary summary : metrics.getSummaries()) {
+				String name = summary.getName();
+				attributes.add(attribute(name + COUNT_SUFFIX, Long.class));
+				attributes.add(attribute(name + TOTAL_SUFFIX, Long.class));
+				attributes.add(attribute(name + MEAN_SUFFIX, Double.class));
+				attributes.add(attribute(name + MAX_SUFFIX, Long.class));
+			}
+			return new MBeanInfo(AlgorithmMetrics.class.getName(),
+					"Metrics of an algorithm",
+					attributes.toArray(new MBeanAttributeInfo[0]), null, null,
+					null);
+		}
+
+		private static MBeanAttributeInfo attribute(String name,
+		                                            Class<?> type) {
+			return new MBeanAttributeInfo(name, type.getName(), name, true,
+					false, false);
+		}
+	}
+}
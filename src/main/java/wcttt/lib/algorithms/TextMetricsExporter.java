@@ -0,0 +1,102 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Writes a plain text dump of the current values of the metrics. Rates are
+ * given per second since the start of the run.
+ */
+public class TextMetricsExporter implements MetricsExporter {
+
+	private static final double NANOS_PER_SECOND = 1e9;
+	private static final double NANOS_PER_MILLI = 1e6;
+
+	private final Writer writer;
+
+	public TextMetricsExporter(Writer writer) {
+		if (writer == null) {
+			throw new IllegalArgumentException("Parameter 'writer' must not " +
+					"be null");
+		}
+		this.writer = writer;
+	}
+
+	@Override
+	public void export(AlgorithmMetrics metrics)
+			throws WctttAlgorithmException {
+		StringBuilder text = new StringBuilder();
+		double seconds = metrics.getElapsedNanos() / NANOS_PER_SECOND;
+		text.append(format("Metrics after %.3f s%n", seconds));
+
+		text.append(format("Counters:%n"));
+		for (AlgorithmMetrics.Counter counter : metrics.getCounters()) {
+			text.append(format("  %-40s %12d  %12.1f/s%n", counter.getName(),
+					counter.get(), counter.get() / seconds));
+		}
+
+		text.append(format("Summaries:%n"));
+		for (AlgorithmMetrics.Summary summary : metrics.getSummaries()) {
+			if (AlgorithmMetrics.Summary.NANOS.equals(summary.getUnit())) {
+				text.append(format("  %-40s count=%d total=%.3f ms mean=%.3f " +
+								"ms max=%.3f ms%n", summary.getName(),
+						summary.getCount(),
+						summary.getTotal() / NANOS_PER_MILLI,
+						summary.getMean() / NANOS_PER_MILLI,
+						summary.getMax() / NANOS_PER_MILLI));
+			} else {
+				text.append(format("  %-40s count=%d total=%d %s mean=%.1f %s " +
+								"max=%d %s%n", summary.getName(),
+						summary.getCount(), summary.getTotal(),
+						summary.getUnit(), summary.getMean(), summary.getUnit(),
+						summary.getMax(), summary.getUnit()));
+			}
+		}
+
+		text.append(format("Best penalty history:%n"));
+		for (AlgorithmMetrics.PenaltyRecord record :
+				metrics.getBestPenaltyHistory()) {
+			text.append(format("  %10.3f s  %f%n",
+					record.getElapsedNanos() / NANOS_PER_SECOND,
+					record.getPenalty()));
+		}
+
+		try {
+			writer.write(text.toString());
+			writer.flush();
+		} catch (IOException e) {
+			throw new WctttAlgorithmException("Error while writing the " +
+					"metrics", e);
+		}
+	}
+
+	private static String format(String format, Object... args) {
+		return String.format(Locale.ROOT, format, args);
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.decomposition;
+
+import wcttt.lib.algorithms.*;
+import wcttt.lib.algorithms.great_deluge.GreatDeluge;
+import wcttt.lib.algorithms.late_acceptance_hill_climbing.LateAcceptanceHillClimbing;
+import wcttt.lib.algorithms.simulated_annealing.SimulatedAnnealing;
+import wcttt.lib.model.Semester;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The algorithms that can be used to solve the components of a decomposed
+ * semester. They are run with the default values of their parameters.
+ */
+public enum ComponentAlgorithm {
+
+	SIMULATED_ANNEALING {
+		@Override
+		AbstractAlgorithm instantiate(Semester semester) {
+			return new SimulatedAnnealing(semester);
+		}
+	},
+	LATE_ACCEPTANCE_HILL_CLIMBING {
+		@Override
+		AbstractAlgorithm instantiate(Semester semester) {
+			return new LateAcceptanceHillClimbing(semester);
+		}
+	},
+	GREAT_DELUGE {
+		@Override
+		AbstractAlgorithm instantiate(Semester semester) {
+			return new GreatDeluge(semester);
+		}
+	};
+
+	abstract AbstractAlgorithm instantiate(Semester semester);
+
+	/**
+	 * Creates the algorithm for a semester and sets its parameters to their
+	 * default values.
+	 *
+	 * @param semester the semester that should be solved.
+	 * @return the algorithm.
+	 * @throws WctttAlgorithmException if a default value is invalid.
+	 */
+	AbstractAlgorithm create(Semester semester)
+			throws WctttAlgorithmException {
+		AbstractAlgorithm algorithm = instantiate(semester);
+		List<ParameterValue> values = new ArrayList<>();
+		for (ParameterDefinition definition : algorithm.getParameters()) {
+			switch (definition.getType()) {
+				case INT:
+					values.add(new ParameterValue<>(definition,
+							Integer.parseInt(definition.getDefaultValue())));
+					break;
+				case DOUBLE:
+					values.add(new ParameterValue<>(definition,
+							Double.parseDouble(definition.getDefaultValue())));
+					break;
+				default:
+					throw new WctttAlgorithmFatalException("Implementation " +
+							"error, unknown parameter type '" +
+							definition.getType() + "'");
+			}
+		}
+		algorithm.setParameterValues(values);
+		return algorithm;
+	}
+}
@@ -0,0 +1,349 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.decomposition;
+
+import wcttt.lib.algorithms.*;
+import wcttt.lib.model.*;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.RoomAssignmentOptimizer;
+import wcttt.lib.util.SolutionState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decomposes a semester into components that do not share any curricula or
+ * teachers, see {@link SemesterDecomposition}. The components are grouped
+ * into parts, which are solved concurrently by a {@link ComponentAlgorithm}.
+ * If the algorithm is cancelled, the solving of the parts is cancelled as
+ * well and their best solutions are merged.
+ *
+ * Because all rooms are shared, the merged solution can contain room
+ * clashes, and teacher clashes if near-components were split. Such sessions
+ * are moved to another free suitable room of the same period if possible,
+ * otherwise they are reinserted at the best feasible period and room. If a
+ * session cannot be reinserted, the whole semester is solved without
+ * decomposition.
+ */
+public class DecompositionApproach extends AbstractAlgorithm {
+
+	private static final String NAME = "Decomposition approach";
+	private static final List<ParameterDefinition> PARAMETERS = Arrays.asList(
+			new ParameterDefinition("Component algorithm (0 = simulated " +
+					"annealing, 1 = late acceptance hill climbing, 2 = great " +
+					"deluge)", "0", ParameterType.INT),
+			new ParameterDefinition("Threads (0 = number of processors)", "0",
+					ParameterType.INT),
+			new ParameterDefinition("Shared teacher sessions (0 = never " +
+					"split teachers)", "0", ParameterType.INT));
+	private static final int THREADS_MIN = 0;
+	private static final int SHARED_TEACHER_SESSIONS_MIN = 0;
+	private static final long POLL_INTERVAL_MILLIS = 100;
+	private static final String METRIC_COMPONENTS = "components";
+	private static final String METRIC_PARTS = "parts";
+	private static final String METRIC_MERGE_CONFLICTS = "mergeConflicts";
+	private static final String METRIC_REINSERTIONS = "reinsertions";
+
+	private ComponentAlgorithm componentAlgorithm;
+	private int threads;
+	private int sharedTeacherSessions;
+
+	public DecompositionApproach(Semester semester) {
+		super(semester);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public List<ParameterDefinition> getParameters() {
+		return PARAMETERS;
+	}
+
+	@Override
+	public void setParameterValues(List<ParameterValue> parameterValues)
+			throws WctttAlgorithmException {
+		List<ParameterDefinition> expected = new ArrayList<>(PARAMETERS);
+		for (ParameterValue value : parameterValues) {
+			for (int i = 0; i < PARAMETERS.size(); i++) {
+				if (value.getDefinition().equals(PARAMETERS.get(i))) {
+					expected.remove(PARAMETERS.get(i));
+					switch (i) {
+						case 0:
+							componentAlgorithm = toComponentAlgorithm(
+									(Integer) value.getValue());
+							break;
+						case 1:
+							threads = (Integer) value.getValue();
+							validateThreads();
+							break;
+						case 2:
+							sharedTeacherSessions = (Integer) value.getValue();
+							validateSharedTeacherSessions();
+							break;
+					}
+				}
+			}
+		}
+		if (!expected.isEmpty()) {
+			throw new WctttAlgorithmFatalException("List of parameter values " +
+					"was not complete");
+		}
+	}
+
+	private ComponentAlgorithm toComponentAlgorithm(int value)
+			throws WctttAlgorithmException {
+		if (value < 0 || value >= ComponentAlgorithm.values().length) {
+			throw new WctttAlgorithmException("Component algorithm must be " +
+					">= 0 and <= " + (ComponentAlgorithm.values().length - 1));
+		}
+		return ComponentAlgorithm.values()[value];
+	}
+
+	private void validateThreads() throws WctttAlgorithmException {
+		if (threads < THREADS_MIN) {
+			throw new WctttAlgorithmException("Threads must be >= " +
+					THREADS_MIN + ", 0 uses the number of processors");
+		}
+	}
+
+	private void validateSharedTeacherSessions()
+			throws WctttAlgorithmException {
+		if (sharedTeacherSessions < SHARED_TEACHER_SESSIONS_MIN) {
+			throw new WctttAlgorithmException("Shared teacher sessions must " +
+					"be >= " + SHARED_TEACHER_SESSIONS_MIN);
+		}
+	}
+
+	@Override
+	protected Timetable runAlgorithm(AtomicBoolean isCancelled)
+			throws WctttAlgorithmException {
+		AlgorithmMetrics metrics = getMetrics();
+		long start = metrics.nanoTime();
+		int threadCount = threads == 0 ?
+				Runtime.getRuntime().availableProcessors() : threads;
+		List<List<Course>> components = SemesterDecomposition.findComponents(
+				getSemester(), sharedTeacherSessions);
+		List<List<Course>> parts =
+				SemesterDecomposition.groupComponents(components, threadCount);
+		List<Semester> partSemesters = new ArrayList<>(parts.size());
+		if (parts.size() == 1) {
+			partSemesters.add(getSemester());
+		} else {
+			for (List<Course> part : parts) {
+				partSemesters.add(SemesterDecomposition.createSubSemester(
+						getSemester(), part));
+			}
+		}
+		metrics.counter(METRIC_COMPONENTS).add(components.size());
+		metrics.counter(METRIC_PARTS).add(partSemesters.size());
+		metrics.summary("phase.decomposition",
+				AlgorithmMetrics.Summary.NANOS).recordSince(start);
+
+		List<Timetable> solutions = solveConcurrently(partSemesters,
+				threadCount, isCancelled);
+		if (solutions == null) {
+			return null;
+		} else if (solutions.size() == 1) {
+			metrics.recordBestPenalty(
+					solutions.get(0).getSoftConstraintPenalty());
+			return solutions.get(0);
+		}
+
+		start = metrics.nanoTime();
+		SolutionState merged = merge(solutions);
+		metrics.summary("phase.merge",
+				AlgorithmMetrics.Summary.NANOS).recordSince(start);
+		if (merged == null) {
+			// Some sessions could not be reinserted, solve the whole semester:
+			solutions = solveConcurrently(Arrays.asList(getSemester()), 1,
+					isCancelled);
+			return solutions == null ? null : solutions.get(0);
+		}
+		metrics.recordBestPenalty(merged.getPenalty());
+		return merged.toTimetable();
+	}
+
+	/**
+	 * Solves semesters concurrently, until every solution is optimal or the
+	 * algorithm is cancelled.
+	 *
+	 * @return the solutions, or {@code null} if a semester could not be
+	 * solved before the algorithm was cancelled.
+	 * @throws WctttAlgorithmException if no feasible solution can be
+	 * generated for a semester.
+	 */
+	private List<Timetable> solveConcurrently(List<Semester> semesters,
+	                                          int threadCount,
+	                                          AtomicBoolean isCancelled)
+			throws WctttAlgorithmException {
+		List<AbstractAlgorithm> algorithms = new ArrayList<>(semesters.size());
+		for (Semester semester : semesters) {
+			algorithms.add(componentAlgorithm.create(semester));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(threadCount, semesters.size()));
+		try {
+			List<Future<Timetable>> futures = new ArrayList<>(algorithms.size());
+			for (AbstractAlgorithm algorithm : algorithms) {
+				futures.add(executor.submit(algorithm::generate));
+			}
+			List<Timetable> solutions = new ArrayList<>(futures.size());
+			for (Future<Timetable> future : futures) {
+				Timetable solution = null;
+				boolean done = false;
+				while (!done) {
+					try {
+						solution = future.get(POLL_INTERVAL_MILLIS,
+								TimeUnit.MILLISECONDS);
+						done = true;
+					} catch (TimeoutException e) {
+						if (isCancelled.get()) {
+							// Repeated, because generate() resets the status
+							algorithms.forEach(AbstractAlgorithm::cancel);
+						}
+					}
+				}
+				if (solution == null) {
+					algorithms.forEach(AbstractAlgorithm::cancel);
+					return null;
+				}
+				solutions.add(solution);
+			}
+			return solutions;
+		} catch (ExecutionException e) {
+			algorithms.forEach(AbstractAlgorithm::cancel);
+			if (e.getCause() instanceof WctttAlgorithmException) {
+				throw (WctttAlgorithmException) e.getCause();
+			}
+			throw new WctttAlgorithmFatalException("Implementation error, " +
+					"solving a component failed", e.getCause());
+		} catch (InterruptedException e) {
+			algorithms.forEach(AbstractAlgorithm::cancel);
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Merges the solutions of the parts into a solution of the semester and
+	 * repairs room and teacher clashes.
+	 *
+	 * @return the merged solution, or {@code null} if a session could not be
+	 * reinserted feasibly.
+	 */
+	private SolutionState merge(List<Timetable> solutions) {
+		ProblemIndex index = new ProblemIndex(getSemester());
+		SolutionState state = new SolutionState(index);
+		List<Integer> conflicting = new ArrayList<>();
+		boolean[] isConflicting = new boolean[index.getSessionCount()];
+		for (Timetable solution : solutions) {
+			for (TimetableDay day : solution.getDays()) {
+				for (TimetablePeriod period : day.getPeriods()) {
+					for (TimetableAssignment assgmt :
+							period.getAssignments()) {
+						int session = index.indexOf(assgmt.getSession());
+						if (state.getPeriod(session) == -1 &&
+								!isConflicting[session] &&
+								!assign(state, session, index.toPeriod(period),
+										index.indexOf(assgmt.getRoom()))) {
+							isConflicting[session] = true;
+							conflicting.add(session);
+						}
+					}
+				}
+			}
+		}
+		getMetrics().counter(METRIC_MERGE_CONFLICTS).add(conflicting.size());
+
+		// Double sessions are harder to place, thus they are reinserted first:
+		conflicting.sort((a, b) -> Boolean.compare(
+				index.isDoubleSession(b), index.isDoubleSession(a)));
+		for (int session : conflicting) {
+			if (!reinsert(state, session)) {
+				return null;
+			}
+			getMetrics().counter(METRIC_REINSERTIONS).increment();
+		}
+		RoomAssignmentOptimizer.optimize(state);
+		return state;
+	}
+
+	/**
+	 * Assigns a session to a period, preferably in the given room, otherwise
+	 * in another free suitable room.
+	 */
+	private boolean assign(SolutionState state, int session, int period,
+	                       int room) {
+		if (state.isAssignable(session, period, room)) {
+			state.assign(session, period, room);
+			return true;
+		}
+		for (int other : state.getIndex().getSuitableRooms(session)) {
+			if (state.isAssignable(session, period, other)) {
+				state.assign(session, period, other);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Assigns a session to the feasible period and room with the lowest
+	 * resulting penalty.
+	 */
+	private boolean reinsert(SolutionState state, int session) {
+		ProblemIndex index = state.getIndex();
+		int bestPeriod = -1;
+		int bestRoom = -1;
+		double bestPenalty = Double.POSITIVE_INFINITY;
+		for (int period : index.getDomainPeriods(session)) {
+			for (int room : index.getSuitableRooms(session)) {
+				if (state.isAssignable(session, period, room)) {
+					state.assign(session, period, room);
+					if (state.getPenalty() < bestPenalty) {
+						bestPenalty = state.getPenalty();
+						bestPeriod = period;
+						bestRoom = room;
+					}
+					state.unassign(session);
+				}
+			}
+		}
+		if (bestPeriod == -1) {
+			return false;
+		}
+		state.assign(session, bestPeriod, bestRoom);
+		return true;
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.decomposition;
+
+import wcttt.lib.algorithms.WctttAlgorithmFatalException;
+import wcttt.lib.model.*;
+
+import java.util.*;
+
+/**
+ * Splits the courses of a semester into components that do not share any
+ * curricula or teachers. Sessions of different components never conflict,
+ * except for the rooms, which are shared by all components.
+ *
+ * Teachers with only a few sessions can be ignored when the components are
+ * determined, such that components that are only linked by these teachers are
+ * split as well (near-components). Their teacher conflicts have to be
+ * repaired when the solutions of the components are merged.
+ *
+ * Rooms do not link components: the rooms of internal sessions are chosen by
+ * the algorithm and any of them can be used by every component, so they
+ * would link all components or none. External sessions have a fixed room and
+ * a pre-assigned period, solving them together would not avoid any of their
+ * clashes. Room clashes are therefore always left to the merge.
+ */
+class SemesterDecomposition {
+
+	private SemesterDecomposition() {}
+
+	/**
+	 * Determines the components of a semester.
+	 *
+	 * @param semester the semester.
+	 * @param sharedTeacherSessions teachers with at most this number of
+	 *                              sessions do not link components.
+	 * @return the courses of each component, the largest component first.
+	 */
+	static List<List<Course>> findComponents(Semester semester,
+	                                         int sharedTeacherSessions) {
+		List<Course> courses = new ArrayList<>(semester.getCourses());
+		Map<Course, Integer> courseIndices = new IdentityHashMap<>();
+		for (int i = 0; i < courses.size(); i++) {
+			courseIndices.put(courses.get(i), i);
+		}
+		int[] parents = new int[courses.size()];
+		for (int i = 0; i < parents.length; i++) {
+			parents[i] = i;
+		}
+
+		for (Curriculum curriculum : semester.getCurricula()) {
+			Course first = null;
+			for (Course course : curriculum.getCourses()) {
+				if (first == null) {
+					first = course;
+				} else {
+					union(parents, courseIndices.get(first),
+							courseIndices.get(course));
+				}
+			}
+		}
+
+		Map<Teacher, List<Course>> teacherCourses = new IdentityHashMap<>();
+		Map<Teacher, Integer> teacherSessions = new IdentityHashMap<>();
+		for (Course course : courses) {
+			for (Session session : allSessions(course)) {
+				teacherCourses.computeIfAbsent(session.getTeacher(),
+						teacher -> new ArrayList<>()).add(course);
+				teacherSessions.merge(session.getTeacher(), 1, Integer::sum);
+			}
+		}
+		teacherCourses.forEach((teacher, taught) -> {
+			if (teacherSessions.get(teacher) > sharedTeacherSessions) {
+				for (Course course : taught) {
+					union(parents, courseIndices.get(taught.get(0)),
+							courseIndices.get(course));
+				}
+			}
+		});
+
+		Map<Integer, List<Course>> components = new LinkedHashMap<>();
+		for (int i = 0; i < courses.size(); i++) {
+			components.computeIfAbsent(find(parents, i),
+					root -> new ArrayList<>()).add(courses.get(i));
+		}
+		List<List<Course>> result = new ArrayList<>(components.values());
+		result.sort(Comparator.comparingInt(
+				SemesterDecomposition::countSessions).reversed());
+		return result;
+	}
+
+	/**
+	 * Groups components into a number of parts with a similar number of
+	 * sessions, by assigning the largest remaining component to the smallest
+	 * part.
+	 *
+	 * @param components the components, the largest component first.
+	 * @param parts the maximum number of parts.
+	 * @return the courses of each part.
+	 */
+	static List<List<Course>> groupComponents(List<List<Course>> components,
+	                                          int parts) {
+		int partCount = Math.min(parts, components.size());
+		List<List<Course>> result = new ArrayList<>(partCount);
+		int[] sizes = new int[partCount];
+		for (int i = 0; i < partCount; i++) {
+			result.add(new ArrayList<>());
+		}
+		for (List<Course> component : components) {
+			int smallest = 0;
+			for (int i = 1; i < partCount; i++) {
+				if (sizes[i] < sizes[smallest]) {
+					smallest = i;
+				}
+			}
+			result.get(smallest).addAll(component);
+			sizes[smallest] += countSessions(component);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a semester that contains only a subset of the courses and the
+	 * curricula of these courses. The entities are shared with the original
+	 * semester, thus timetables of the new semester refer to the sessions and
+	 * rooms of the original semester. Neither semester must be changed while
+	 * the new semester is in use.
+	 *
+	 * @param semester the original semester.
+	 * @param courses the courses of the new semester, every curriculum must
+	 *                either contain only these courses or none of them.
+	 * @return the new semester.
+	 */
+	static Semester createSubSemester(Semester semester, List<Course> courses) {
+		try {
+			Semester subSemester = new SemesterImpl(semester.getName(),
+					semester.getDaysPerWeek(), semester.getTimeSlotsPerDay(),
+					semester.getMaxDailyLecturesPerCur(),
+					semester.getConstrWeightings());
+			for (Chair chair : semester.getChairs()) {
+				subSemester.addChair(chair);
+			}
+			for (InternalRoom room : semester.getInternalRooms()) {
+				subSemester.addInternalRoom(room);
+			}
+			for (ExternalRoom room : semester.getExternalRooms()) {
+				subSemester.addExternalRoom(room);
+			}
+			Set<Course> included =
+					Collections.newSetFromMap(new IdentityHashMap<>());
+			included.addAll(courses);
+			for (Course course : courses) {
+				subSemester.addCourse(course);
+			}
+			for (Curriculum curriculum : semester.getCurricula()) {
+				if (!curriculum.getCourses().isEmpty() &&
+						included.contains(curriculum.getCourses().get(0))) {
+					subSemester.addCurriculum(curriculum);
+				}
+			}
+			return subSemester;
+		} catch (WctttModelException e) {
+			throw new WctttAlgorithmFatalException("Implementation error, " +
+					"could not create the semester of a component", e);
+		}
+	}
+
+	private static List<Session> allSessions(Course course) {
+		List<Session> sessions = new ArrayList<>(course.getLectures());
+		sessions.addAll(course.getPracticals());
+		return sessions;
+	}
+
+	private static int countSessions(List<Course> courses) {
+		int count = 0;
+		for (Course course : courses) {
+			count += course.getLectures().size() +
+					course.getPracticals().size();
+		}
+		return count;
+	}
+
+	private static int find(int[] parents, int i) {
+		while (parents[i] != i) {
+			parents[i] = parents[parents[i]];
+			i = parents[i];
+		}
+		return i;
+	}
+
+	private static void union(int[] parents, int a, int b) {
+		parents[find(parents, a)] = find(parents, b);
+	}
+}
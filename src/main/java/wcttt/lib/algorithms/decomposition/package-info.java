@@ -0,0 +1,10 @@
+/**
+ * <p>Contains an algorithm that decomposes a semester into independent
+ * components, which are solved in parallel.</p>
+ *
+ * <p>The main algorithm is implemented in
+ * {@link wcttt.lib.algorithms.decomposition.DecompositionApproach}. The
+ * components are solved by the single-solution algorithms listed in
+ * {@link wcttt.lib.algorithms.decomposition.ComponentAlgorithm}.</p>
+ */
+package wcttt.lib.algorithms.decomposition;
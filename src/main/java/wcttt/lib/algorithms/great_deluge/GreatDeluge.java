@@ -0,0 +1,190 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.great_deluge;
+
+import wcttt.lib.algorithms.*;
+import wcttt.lib.model.Semester;
+import wcttt.lib.util.SolutionState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implementation of the great deluge algorithm, which was proposed by Gunter
+ * Dueck in 'New Optimization Heuristics: The Great Deluge Algorithm and the
+ * Record-to-Record Travel', 1993.
+ *
+ * A move is accepted if the resulting penalty is not worse than the current
+ * penalty or not above the water level. The level starts at the penalty of the
+ * initial solution and decreases linearly, such that it reaches 0 after the
+ * estimated number of iterations. If no move was accepted for a number of
+ * iterations, the level is raised to the current penalty again.
+ */
+public class GreatDeluge extends
+		AbstractStateBasedAlgorithm<GreatDeluge.DelugeState> {
+
+	private static final String NAME = "Great deluge";
+	private static final List<ParameterDefinition> PARAMETERS = Arrays.asList(
+			new ParameterDefinition("Estimated iterations", "10000000",
+					ParameterType.INT),
+			new ParameterDefinition("Initial level ratio", "1.0",
+					ParameterType.DOUBLE),
+			new ParameterDefinition("Idle iterations", "100000",
+					ParameterType.INT));
+	private static final int ESTIMATED_ITERATIONS_MIN = 1;
+	private static final double INITIAL_LEVEL_RATIO_MIN = 1.0;
+	private static final int IDLE_ITERATIONS_MIN = 0;
+	private static final String METRIC_LEVEL_RESETS = "levelResets";
+
+	private int estimatedIterations;
+	private double initialLevelRatio;
+	private int idleIterations;
+
+	public GreatDeluge(Semester semester) {
+		super(semester);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public List<ParameterDefinition> getParameters() {
+		return PARAMETERS;
+	}
+
+	@Override
+	public void setParameterValues(List<ParameterValue> parameterValues)
+			throws WctttAlgorithmException {
+		List<ParameterDefinition> expected = new ArrayList<>(PARAMETERS);
+		for (ParameterValue value : parameterValues) {
+			for (int i = 0; i < PARAMETERS.size(); i++) {
+				if (value.getDefinition().equals(PARAMETERS.get(i))) {
+					expected.remove(PARAMETERS.get(i));
+					switch (i) {
+						case 0:
+							estimatedIterations = (Integer) value.getValue();
+							validateEstimatedIterations();
+							break;
+						case 1:
+							initialLevelRatio = (Double) value.getValue();
+							validateInitialLevelRatio();
+							break;
+						case 2:
+							idleIterations = (Integer) value.getValue();
+							validateIdleIterations();
+							break;
+					}
+				}
+			}
+		}
+		if (!expected.isEmpty()) {
+			throw new WctttAlgorithmFatalException("List of parameter values " +
+					"was not complete");
+		}
+	}
+
+	private void validateEstimatedIterations() throws WctttAlgorithmException {
+		if (estimatedIterations < ESTIMATED_ITERATIONS_MIN) {
+			throw new WctttAlgorithmException("Estimated iterations must be " +
+					">= " + ESTIMATED_ITERATIONS_MIN);
+		}
+	}
+
+	private void validateInitialLevelRatio() throws WctttAlgorithmException {
+		if (initialLevelRatio < INITIAL_LEVEL_RATIO_MIN) {
+			throw new WctttAlgorithmException("Initial level ratio must be " +
+					">= " + INITIAL_LEVEL_RATIO_MIN);
+		}
+	}
+
+	private void validateIdleIterations() throws WctttAlgorithmException {
+		if (idleIterations < IDLE_ITERATIONS_MIN) {
+			throw new WctttAlgorithmException("Idle iterations must be >= " +
+					IDLE_ITERATIONS_MIN + ", 0 disables raising the level");
+		}
+	}
+
+	/**
+	 * Creates the state of the search and sets the initial level.
+	 *
+	 * @param current the initial solution.
+	 * @param metrics the registry the search records its metrics in.
+	 * @return the initial state of the search.
+	 */
+	@Override
+	protected DelugeState createSearchState(SolutionState current,
+	                                        AlgorithmMetrics metrics) {
+		DelugeState state = new DelugeState(current, metrics);
+		state.level = initialLevelRatio * current.getPenalty();
+		state.decay = state.level / estimatedIterations;
+		return state;
+	}
+
+	/**
+	 * Accepts every move that does not worsen the penalty or does not exceed
+	 * the level.
+	 */
+	@Override
+	protected boolean accept(DelugeState state, double before, double after) {
+		return after <= before || after <= state.level;
+	}
+
+	/**
+	 * Lowers the level, and raises it to the current penalty again if no move
+	 * was accepted for a number of iterations.
+	 */
+	@Override
+	protected void iterationDone(DelugeState state, boolean accepted) {
+		state.level = Math.max(state.level - state.decay, 0.0);
+		state.idle = accepted ? 0 : state.idle + 1;
+		if (idleIterations > 0 && state.idle >= idleIterations) {
+			state.level = initialLevelRatio *
+					state.getCurrentSolution().getPenalty();
+			state.idle = 0;
+			state.levelResets.increment();
+		}
+	}
+
+	/**
+	 * Contains the level of the search.
+	 */
+	protected static class DelugeState extends SearchState {
+
+		private double level;
+		private double decay;
+		private int idle = 0;
+
+		private final AlgorithmMetrics.Counter levelResets;
+
+		private DelugeState(SolutionState current, AlgorithmMetrics metrics) {
+			super(current, metrics);
+			levelResets = metrics.counter(METRIC_LEVEL_RESETS);
+		}
+	}
+}
@@ -0,0 +1,9 @@
+/**
+ * <p>Contains the implementation of the great deluge algorithm.</p>
+ *
+ * <p>The main algorithm is implemented in
+ * {@link wcttt.lib.algorithms.great_deluge.GreatDeluge}. It works on a
+ * {@link wcttt.lib.util.SolutionState} and uses the moves of the neighborhood
+ * structures of the tabu-based memetic approach.</p>
+ */
+package wcttt.lib.algorithms.great_deluge;
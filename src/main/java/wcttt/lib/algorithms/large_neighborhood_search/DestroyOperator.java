@@ -0,0 +1,168 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.large_neighborhood_search;
+
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
+
+import java.util.Random;
+
+/**
+ * The destroy operators of the large neighborhood search. Each operator
+ * selects a set of related movable sessions, which are then unassigned and
+ * reinserted by a {@link RepairOperator}. If more sessions are related than
+ * the destroy size permits, a random subset is selected.
+ */
+enum DestroyOperator {
+
+	/**
+	 * Selects the sessions of the courses of a random curriculum.
+	 */
+	CURRICULUM {
+		@Override
+		int[] select(SolutionState state, SessionRelations relations,
+		             int size, Random random) {
+			ProblemIndex index = state.getIndex();
+			if (index.getCurriculumCount() == 0) {
+				return new int[0];
+			}
+			return randomSubset(relations.getCurriculumSessions(
+					random.nextInt(index.getCurriculumCount())), size, random);
+		}
+	},
+
+	/**
+	 * Selects the sessions of a random teacher.
+	 */
+	TEACHER {
+		@Override
+		int[] select(SolutionState state, SessionRelations relations,
+		             int size, Random random) {
+			ProblemIndex index = state.getIndex();
+			if (index.getTeacherCount() == 0) {
+				return new int[0];
+			}
+			return randomSubset(relations.getTeacherSessions(
+					random.nextInt(index.getTeacherCount())), size, random);
+		}
+	},
+
+	/**
+	 * Selects the sessions that start on a random day.
+	 */
+	DAY {
+		@Override
+		int[] select(SolutionState state, SessionRelations relations,
+		             int size, Random random) {
+			ProblemIndex index = state.getIndex();
+			int timeSlots = index.getTimeSlotsPerDay();
+			int first = random.nextInt(index.getDaysPerWeek()) * timeSlots;
+			int[] sessions = new int[timeSlots * index.getRoomCount()];
+			int count = 0;
+			for (int period = first; period < first + timeSlots; period++) {
+				for (int room = 0; room < index.getRoomCount(); room++) {
+					int session = state.getOccupant(period, room);
+					if (session != -1 && index.isMovable(session) &&
+							state.getPeriod(session) == period) {
+						sessions[count++] = session;
+					}
+				}
+			}
+			int[] daySessions = new int[count];
+			System.arraycopy(sessions, 0, daySessions, 0, count);
+			return randomSubset(daySessions, size, random);
+		}
+	},
+
+	/**
+	 * Selects a connected cluster of the session conflict graph, starting
+	 * with a random session. The cluster is grown in breadth-first order with
+	 * the neighbors of a session in random order.
+	 */
+	CLUSTER {
+		@Override
+		int[] select(SolutionState state, SessionRelations relations,
+		             int size, Random random) {
+			int[] movable = state.getIndex().getMovableSessions();
+			if (movable.length == 0) {
+				return new int[0];
+			}
+			int[] cluster = new int[Math.min(size, movable.length)];
+			boolean[] included =
+					new boolean[state.getIndex().getSessionCount()];
+			cluster[0] = movable[random.nextInt(movable.length)];
+			included[cluster[0]] = true;
+			int count = 1;
+			for (int next = 0; next < count && count < cluster.length; next++) {
+				int[] neighbors =
+						relations.getConflictingSessions(cluster[next]);
+				int offset = neighbors.length == 0 ? 0 :
+						random.nextInt(neighbors.length);
+				for (int i = 0; i < neighbors.length && count < cluster.length;
+				     i++) {
+					int neighbor = neighbors[(offset + i) % neighbors.length];
+					if (!included[neighbor]) {
+						included[neighbor] = true;
+						cluster[count++] = neighbor;
+					}
+				}
+			}
+			int[] result = new int[count];
+			System.arraycopy(cluster, 0, result, 0, count);
+			return result;
+		}
+	};
+
+	/**
+	 * Selects the sessions that should be removed from the solution.
+	 *
+	 * @param state the current solution.
+	 * @param relations the relations between the sessions of the semester.
+	 * @param size the maximum number of sessions that are selected.
+	 * @param random the source of randomness.
+	 * @return the movable sessions that should be removed, can be empty.
+	 */
+	abstract int[] select(SolutionState state, SessionRelations relations,
+	                      int size, Random random);
+
+	private static int[] randomSubset(int[] sessions, int size,
+	                                  Random random) {
+		int[] subset = sessions.clone();
+		int count = Math.min(size, subset.length);
+		for (int i = 0; i < count; i++) {
+			int j = i + random.nextInt(subset.length - i);
+			int tmp = subset[i];
+			subset[i] = subset[j];
+			subset[j] = tmp;
+		}
+		if (count == subset.length) {
+			return subset;
+		}
+		int[] result = new int[count];
+		System.arraycopy(subset, 0, result, 0, count);
+		return result;
+	}
+}
@@ -0,0 +1,433 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.large_neighborhood_search;
+
+import wcttt.lib.algorithms.*;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.SaturationDegreeHeuristic;
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.RoomAssignmentOptimizer;
+import wcttt.lib.util.SolutionState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Implementation of an adaptive large neighborhood search, based on 'A General
+ * Heuristic for Vehicle Routing Problems' by David Pisinger and Stefan Ropke,
+ * 2007.
+ *
+ * In every iteration, a destroy operator unassigns a set of related sessions
+ * and a repair operator reinserts them. The result is accepted if its penalty
+ * is not worse than before. The operators are chosen by roulette wheel
+ * selection, their weights are adapted according to the success of the
+ * operators.
+ *
+ * The search runs in parallel on several threads, each one working on its
+ * own solution with a different subset of the destroy operators. The threads
+ * exchange their best solutions periodically.
+ */
+public class LargeNeighborhoodSearch extends AbstractAlgorithm {
+
+	private static final String NAME = "Large neighborhood search";
+	private static final List<ParameterDefinition> PARAMETERS = Arrays.asList(
+			new ParameterDefinition("Threads (0 = number of processors)", "0",
+					ParameterType.INT),
+			new ParameterDefinition("Destroy size", "12", ParameterType.INT),
+			new ParameterDefinition("Adaptation rate", "0.1",
+					ParameterType.DOUBLE),
+			new ParameterDefinition("Synchronization interval", "100",
+					ParameterType.INT));
+	private static final int THREADS_MIN = 0;
+	private static final int DESTROY_SIZE_MIN = 1;
+	private static final double ADAPTATION_RATE_MIN = 0.0;
+	private static final double ADAPTATION_RATE_MAX = 1.0;
+	private static final int SYNCHRONIZATION_INTERVAL_MIN = 1;
+	private static final double SCORE_GLOBAL_BEST = 3.0;
+	private static final double SCORE_IMPROVED = 2.0;
+	private static final double SCORE_ACCEPTED = 1.0;
+	private static final double MIN_WEIGHT = 0.01;
+	private static final String METRIC_ITERATIONS = "iterations";
+	private static final String METRIC_DESTROY = "destroy.";
+	private static final String METRIC_REPAIR = "repair.";
+
+	private int threads;
+	private int destroySize;
+	private double adaptationRate;
+	private int synchronizationInterval;
+
+	public LargeNeighborhoodSearch(Semester semester) {
+		super(semester);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public List<ParameterDefinition> getParameters() {
+		return PARAMETERS;
+	}
+
+	@Override
+	public void setParameterValues(List<ParameterValue> parameterValues)
+			throws WctttAlgorithmException {
+		List<ParameterDefinition> expected = new ArrayList<>(PARAMETERS);
+		for (ParameterValue value : parameterValues) {
+			for (int i = 0; i < PARAMETERS.size(); i++) {
+				if (value.getDefinition().equals(PARAMETERS.get(i))) {
+					expected.remove(PARAMETERS.get(i));
+					switch (i) {
+						case 0:
+							threads = (Integer) value.getValue();
+							validateThreads();
+							break;
+						case 1:
+							destroySize = (Integer) value.getValue();
+							validateDestroySize();
+							break;
+						case 2:
+							adaptationRate = (Double) value.getValue();
+							validateAdaptationRate();
+							break;
+						case 3:
+							synchronizationInterval =
+									(Integer) value.getValue();
+							validateSynchronizationInterval();
+							break;
+					}
+				}
+			}
+		}
+		if (!expected.isEmpty()) {
+			throw new WctttAlgorithmFatalException("List of parameter values " +
+					"was not complete");
+		}
+	}
+
+	private void validateThreads() throws WctttAlgorithmException {
+		if (threads < THREADS_MIN) {
+			throw new WctttAlgorithmException("Threads must be >= " +
+					THREADS_MIN + ", 0 uses the number of processors");
+		}
+	}
+
+	private void validateDestroySize() throws WctttAlgorithmException {
+		if (destroySize < DESTROY_SIZE_MIN) {
+			throw new WctttAlgorithmException("Destroy size must be >= " +
+					DESTROY_SIZE_MIN);
+		}
+	}
+
+	private void validateAdaptationRate() throws WctttAlgorithmException {
+		if (adaptationRate <= ADAPTATION_RATE_MIN ||
+				adaptationRate > ADAPTATION_RATE_MAX) {
+			throw new WctttAlgorithmException("Adaptation rate must be > " +
+					ADAPTATION_RATE_MIN + " and <= " + ADAPTATION_RATE_MAX);
+		}
+	}
+
+	private void validateSynchronizationInterval()
+			throws WctttAlgorithmException {
+		if (synchronizationInterval < SYNCHRONIZATION_INTERVAL_MIN) {
+			throw new WctttAlgorithmException("Synchronization interval must " +
+					"be >= " + SYNCHRONIZATION_INTERVAL_MIN);
+		}
+	}
+
+	@Override
+	protected Timetable runAlgorithm(AtomicBoolean isCancelled)
+			throws WctttAlgorithmException {
+		AlgorithmMetrics metrics = getMetrics();
+		long start = metrics.nanoTime();
+		List<Timetable> initial = new SaturationDegreeHeuristic(getSemester()).
+				generateFeasibleSolutions(1, isCancelled);
+
+		// If the initial solution could not be created before the algorithm
+		// was cancelled, then return no feasible solution:
+		if (initial.isEmpty()) {
+			return null;
+		}
+		ProblemIndex index = new ProblemIndex(getSemester());
+		SolutionState initialState = new SolutionState(index, initial.get(0));
+		RoomAssignmentOptimizer.optimize(initialState);
+		GlobalBest globalBest = new GlobalBest(initialState, metrics);
+		SessionRelations relations = new SessionRelations(index);
+		metrics.summary("phase.initialization",
+				AlgorithmMetrics.Summary.NANOS).recordSince(start);
+		metrics.recordBestPenalty(initialState.getPenalty());
+
+		int threadCount = threads == 0 ?
+				Runtime.getRuntime().availableProcessors() : threads;
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<?>> futures = new ArrayList<>(threadCount);
+			for (int i = 0; i < threadCount; i++) {
+				Worker worker = new Worker(initialState, relations, globalBest,
+						destroyOperators(i, threadCount), metrics);
+				futures.add(executor.submit(() -> worker.run(isCancelled)));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			throw new WctttAlgorithmFatalException("Implementation error, a " +
+					"search thread failed", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		SolutionState best = globalBest.copy();
+		RoomAssignmentOptimizer.optimize(best);
+		return best.toTimetable();
+	}
+
+	/**
+	 * Distributes the destroy operators among the threads. With at least as
+	 * many threads as operators, every thread uses a single operator,
+	 * otherwise the operators are split among the threads.
+	 */
+	private static List<DestroyOperator> destroyOperators(int thread,
+	                                                      int threadCount) {
+		DestroyOperator[] operators = DestroyOperator.values();
+		List<DestroyOperator> selected = new ArrayList<>();
+		for (int i = 0; i < operators.length; i++) {
+			if (threadCount >= operators.length ?
+					i == thread % operators.length :
+					i % threadCount == thread) {
+				selected.add(operators[i]);
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * The best solution found by any thread.
+	 */
+	private static final class GlobalBest {
+
+		private final SolutionState best;
+		private final AlgorithmMetrics metrics;
+		private volatile double penalty;
+
+		private GlobalBest(SolutionState initial, AlgorithmMetrics metrics) {
+			this.best = new SolutionState(initial);
+			this.metrics = metrics;
+			this.penalty = initial.getPenalty();
+		}
+
+		private double getPenalty() {
+			return penalty;
+		}
+
+		/**
+		 * Replaces the global best solution if the offered solution is
+		 * better.
+		 *
+		 * @return {@code true} if the offered solution was better.
+		 */
+		private synchronized boolean offer(SolutionState solution) {
+			if (solution.getPenalty() < penalty) {
+				best.copyFrom(solution);
+				penalty = solution.getPenalty();
+				metrics.recordBestPenalty(penalty);
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Copies the global best solution to a solution that is worse.
+		 */
+		private synchronized void update(SolutionState solution) {
+			if (penalty < solution.getPenalty()) {
+				solution.copyFrom(best);
+			}
+		}
+
+		private synchronized SolutionState copy() {
+			return new SolutionState(best);
+		}
+	}
+
+	/**
+	 * Runs the search on one thread, with its own solution and operator
+	 * weights.
+	 */
+	private final class Worker {
+
+		private final SolutionState current;
+		private final SolutionState best;
+		private final SessionRelations relations;
+		private final GlobalBest globalBest;
+		private final DestroyOperator[] destroyOperators;
+		private final RepairOperator[] repairOperators =
+				RepairOperator.values();
+		private final double[] weights;
+		private final Random random = new Random();
+
+		private final AlgorithmMetrics.Counter iterations;
+		private final AlgorithmMetrics.Counter[] destroyAccepted;
+		private final AlgorithmMetrics.Counter[] destroyFailed;
+		private final AlgorithmMetrics.Counter[] repairAccepted;
+		private final AlgorithmMetrics.Counter[] repairFailed;
+
+		private Worker(SolutionState initial, SessionRelations relations,
+		               GlobalBest globalBest,
+		               List<DestroyOperator> destroyOperators,
+		               AlgorithmMetrics metrics) {
+			this.current = new SolutionState(initial);
+			this.best = new SolutionState(initial);
+			this.relations = relations;
+			this.globalBest = globalBest;
+			this.destroyOperators =
+					destroyOperators.toArray(new DestroyOperator[0]);
+			int destroyCount = this.destroyOperators.length;
+			this.weights = new double[destroyCount * repairOperators.length];
+			Arrays.fill(weights, 1.0);
+			iterations = metrics.counter(METRIC_ITERATIONS);
+			destroyAccepted = new AlgorithmMetrics.Counter[destroyCount];
+			destroyFailed = new AlgorithmMetrics.Counter[destroyCount];
+			for (int i = 0; i < destroyCount; i++) {
+				String name = METRIC_DESTROY +
+						this.destroyOperators[i].name().toLowerCase() + ".";
+				destroyAccepted[i] = metrics.counter(name + "accepted");
+				destroyFailed[i] = metrics.counter(name + "failed");
+			}
+			int repairCount = repairOperators.length;
+			repairAccepted = new AlgorithmMetrics.Counter[repairCount];
+			repairFailed = new AlgorithmMetrics.Counter[repairCount];
+			for (int i = 0; i < repairCount; i++) {
+				String name = METRIC_REPAIR +
+						repairOperators[i].name().toLowerCase() + ".";
+				repairAccepted[i] = metrics.counter(name + "accepted");
+				repairFailed[i] = metrics.counter(name + "failed");
+			}
+		}
+
+		private void run(AtomicBoolean isCancelled) {
+			long iteration = 0;
+			while (globalBest.getPenalty() != 0 && !isCancelled.get() &&
+					!Thread.currentThread().isInterrupted()) {
+				runIteration();
+				iterations.increment();
+				if (++iteration % synchronizationInterval == 0) {
+					globalBest.update(best);
+					if (best.getPenalty() < current.getPenalty()) {
+						current.copyFrom(best);
+					}
+				}
+			}
+		}
+
+		private void runIteration() {
+			int pair = selectPair();
+			int destroy = pair / repairOperators.length;
+			int repair = pair % repairOperators.length;
+			int[] sessions = destroyOperators[destroy].select(current,
+					relations, destroySize, random);
+			if (sessions.length == 0) {
+				destroyFailed[destroy].increment();
+				updateWeight(pair, 0.0);
+				return;
+			}
+
+			double before = current.getPenalty();
+			int[] periods = new int[sessions.length];
+			int[] rooms = new int[sessions.length];
+			for (int i = 0; i < sessions.length; i++) {
+				periods[i] = current.getPeriod(sessions[i]);
+				rooms[i] = current.getRoom(sessions[i]);
+				current.unassign(sessions[i]);
+			}
+			boolean repaired =
+					repairOperators[repair].repair(current, sessions, random);
+			if (!repaired) {
+				repairFailed[repair].increment();
+			}
+			if (!repaired || current.getPenalty() > before) {
+				if (repaired) {
+					for (int session : sessions) {
+						current.unassign(session);
+					}
+				}
+				for (int i = 0; i < sessions.length; i++) {
+					current.assign(sessions[i], periods[i], rooms[i]);
+				}
+				updateWeight(pair, 0.0);
+				return;
+			}
+
+			destroyAccepted[destroy].increment();
+			repairAccepted[repair].increment();
+			double score = SCORE_ACCEPTED;
+			if (current.getPenalty() < best.getPenalty()) {
+				best.copyFrom(current);
+				score = globalBest.offer(best) ? SCORE_GLOBAL_BEST :
+						SCORE_IMPROVED;
+			} else if (current.getPenalty() < before) {
+				score = SCORE_IMPROVED;
+			}
+			updateWeight(pair, score);
+		}
+
+		/**
+		 * Selects a combination of destroy and repair operator by roulette
+		 * wheel selection.
+		 */
+		private int selectPair() {
+			double total = 0.0;
+			for (double weight : weights) {
+				total += weight;
+			}
+			double value = random.nextDouble() * total;
+			for (int i = 0; i < weights.length - 1; i++) {
+				value -= weights[i];
+				if (value < 0) {
+					return i;
+				}
+			}
+			return weights.length - 1;
+		}
+
+		private void updateWeight(int pair, double score) {
+			weights[pair] = Math.max(MIN_WEIGHT,
+					(1 - adaptationRate) * weights[pair] +
+							adaptationRate * score);
+		}
+	}
+}
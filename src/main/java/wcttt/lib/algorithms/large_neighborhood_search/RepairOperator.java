@@ -0,0 +1,192 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.large_neighborhood_search;
+
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
+
+import java.util.Random;
+
+/**
+ * The repair operators of the large neighborhood search. They reinsert the
+ * sessions that were removed by a {@link DestroyOperator}, only feasible
+ * assignments are considered.
+ */
+enum RepairOperator {
+
+	/**
+	 * Inserts the sessions in random order, double sessions first. Every
+	 * session is assigned to the period and room that increase the penalty
+	 * the least.
+	 */
+	GREEDY {
+		@Override
+		boolean repair(SolutionState state, int[] sessions, Random random) {
+			ProblemIndex index = state.getIndex();
+			int[] shuffled = sessions.clone();
+			for (int i = shuffled.length - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int tmp = shuffled[i];
+				shuffled[i] = shuffled[j];
+				shuffled[j] = tmp;
+			}
+			int[] order = new int[shuffled.length];
+			int count = 0;
+			for (int session : shuffled) {
+				if (index.isDoubleSession(session)) {
+					order[count++] = session;
+				}
+			}
+			for (int session : shuffled) {
+				if (!index.isDoubleSession(session)) {
+					order[count++] = session;
+				}
+			}
+			for (int session : order) {
+				Insertion insertion = evaluate(state, session, random);
+				if (insertion.options == 0) {
+					unassignAll(state, sessions);
+					return false;
+				}
+				state.assign(session, insertion.period, insertion.room);
+			}
+			return true;
+		}
+	},
+
+	/**
+	 * Inserts the sessions like the saturation degree heuristic: the session
+	 * with the fewest feasible assignments is inserted next, ties are broken
+	 * by the largest regret, i.e. the difference between the penalties of the
+	 * best and the second best assignment. Every session is assigned to the
+	 * period and room that increase the penalty the least.
+	 */
+	REGRET {
+		@Override
+		boolean repair(SolutionState state, int[] sessions, Random random) {
+			int[] remaining = sessions.clone();
+			for (int count = remaining.length; count > 0; count--) {
+				int selected = -1;
+				Insertion selectedInsertion = null;
+				for (int i = 0; i < count; i++) {
+					Insertion insertion = evaluate(state, remaining[i], random);
+					if (insertion.options == 0) {
+						unassignAll(state, sessions);
+						return false;
+					}
+					if (selectedInsertion == null ||
+							insertion.options < selectedInsertion.options ||
+							(insertion.options == selectedInsertion.options &&
+									insertion.regret() >
+											selectedInsertion.regret())) {
+						selected = i;
+						selectedInsertion = insertion;
+					}
+				}
+				state.assign(remaining[selected], selectedInsertion.period,
+						selectedInsertion.room);
+				remaining[selected] = remaining[count - 1];
+			}
+			return true;
+		}
+	};
+
+	/**
+	 * Reinserts unassigned sessions into a solution. If a session cannot be
+	 * inserted feasibly, the sessions that were already inserted are
+	 * unassigned again.
+	 *
+	 * @param state the solution, the sessions must be unassigned.
+	 * @param sessions the sessions that should be inserted.
+	 * @param random the source of randomness.
+	 * @return {@code true} if every session was inserted, otherwise {@code
+	 * false}.
+	 */
+	abstract boolean repair(SolutionState state, int[] sessions, Random random);
+
+	/**
+	 * Evaluates every feasible assignment of an unassigned session within its
+	 * domain, starting with a random period such that ties are broken
+	 * randomly.
+	 */
+	private static Insertion evaluate(SolutionState state, int session,
+	                                  Random random) {
+		ProblemIndex index = state.getIndex();
+		int[] periods = index.getDomainPeriods(session);
+		Insertion insertion = new Insertion();
+		if (periods.length == 0) {
+			return insertion;
+		}
+		int offset = random.nextInt(periods.length);
+		for (int i = 0; i < periods.length; i++) {
+			int period = periods[(offset + i) % periods.length];
+			for (int room : index.getSuitableRooms(session)) {
+				if (state.isAssignable(session, period, room)) {
+					state.assign(session, period, room);
+					insertion.add(period, room, state.getPenalty());
+					state.unassign(session);
+				}
+			}
+		}
+		return insertion;
+	}
+
+	private static void unassignAll(SolutionState state, int[] sessions) {
+		for (int session : sessions) {
+			if (state.getPeriod(session) != -1) {
+				state.unassign(session);
+			}
+		}
+	}
+
+	/**
+	 * The best and second best feasible assignment of a session.
+	 */
+	private static final class Insertion {
+
+		private int options = 0;
+		private int period = -1;
+		private int room = -1;
+		private double best = Double.POSITIVE_INFINITY;
+		private double secondBest = Double.POSITIVE_INFINITY;
+
+		private void add(int period, int room, double penalty) {
+			options++;
+			if (penalty < best) {
+				secondBest = best;
+				best = penalty;
+				this.period = period;
+				this.room = room;
+			} else if (penalty < secondBest) {
+				secondBest = penalty;
+			}
+		}
+
+		private double regret() {
+			return secondBest - best;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.large_neighborhood_search;
+
+import wcttt.lib.util.ProblemIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Groups the movable sessions of a semester by curriculum and teacher, and
+ * determines the movable sessions that conflict with each session, i.e.
+ * sessions of the same course or teacher or of a common curriculum. The
+ * relations are immutable and can be shared between threads.
+ */
+class SessionRelations {
+
+	private final ProblemIndex index;
+	private final int[][] curriculumSessions;
+	private final int[][] teacherSessions;
+	private final int[][] conflictingSessions;
+
+	SessionRelations(ProblemIndex index) {
+		this.index = index;
+		List<List<Integer>> byCourse = createLists(index.getCourseCount());
+		List<List<Integer>> byCurriculum =
+				createLists(index.getCurriculumCount());
+		List<List<Integer>> byTeacher = createLists(index.getTeacherCount());
+		for (int session : index.getMovableSessions()) {
+			int course = index.getCourse(session);
+			byCourse.get(course).add(session);
+			byTeacher.get(index.getTeacher(session)).add(session);
+			for (int curriculum : index.getCurricula(course)) {
+				byCurriculum.get(curriculum).add(session);
+			}
+		}
+		curriculumSessions = toArrays(byCurriculum);
+		teacherSessions = toArrays(byTeacher);
+
+		conflictingSessions = new int[index.getSessionCount()][];
+		boolean[] marked = new boolean[index.getSessionCount()];
+		List<Integer> conflicts = new ArrayList<>();
+		for (int session = 0; session < index.getSessionCount(); session++) {
+			int course = index.getCourse(session);
+			collect(byCourse.get(course), marked, conflicts);
+			collect(byTeacher.get(index.getTeacher(session)), marked,
+					conflicts);
+			for (int curriculum : index.getCurricula(course)) {
+				collect(byCurriculum.get(curriculum), marked, conflicts);
+			}
+			conflicts.remove((Integer) session);
+			conflictingSessions[session] = toArray(conflicts);
+			conflicts.forEach(other -> marked[other] = false);
+			marked[session] = false;
+			conflicts.clear();
+		}
+	}
+
+	private static List<List<Integer>> createLists(int count) {
+		List<List<Integer>> lists = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			lists.add(new ArrayList<>());
+		}
+		return lists;
+	}
+
+	private static void collect(List<Integer> sessions, boolean[] marked,
+	                            List<Integer> collected) {
+		for (int session : sessions) {
+			if (!marked[session]) {
+				marked[session] = true;
+				collected.add(session);
+			}
+		}
+	}
+
+	private static int[][] toArrays(List<List<Integer>> lists) {
+		int[][] arrays = new int[lists.size()][];
+		for (int i = 0; i < arrays.length; i++) {
+			arrays[i] = toArray(lists.get(i));
+		}
+		return arrays;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		return list.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	ProblemIndex getIndex() {
+		return index;
+	}
+
+	int[] getCurriculumSessions(int curriculum) {
+		return curriculumSessions[curriculum];
+	}
+
+	int[] getTeacherSessions(int teacher) {
+		return teacherSessions[teacher];
+	}
+
+	int[] getConflictingSessions(int session) {
+		return conflictingSessions[session];
+	}
+}
@@ -0,0 +1,12 @@
+/**
+ * <p>Contains the implementation of a parallel adaptive large neighborhood
+ * search.</p>
+ *
+ * <p>The main algorithm is implemented in
+ * {@link wcttt.lib.algorithms.large_neighborhood_search.LargeNeighborhoodSearch}.
+ * The destroy operators are defined in
+ * {@link wcttt.lib.algorithms.large_neighborhood_search.DestroyOperator}, the
+ * repair operators in
+ * {@link wcttt.lib.algorithms.large_neighborhood_search.RepairOperator}.</p>
+ */
+package wcttt.lib.algorithms.large_neighborhood_search;
@@ -0,0 +1,148 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.late_acceptance_hill_climbing;
+
+import wcttt.lib.algorithms.*;
+import wcttt.lib.model.Semester;
+import wcttt.lib.util.SolutionState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implementation of late acceptance hill climbing, which was proposed by
+ * Edmund K. Burke and Yuri Bykov in 'The late acceptance Hill-Climbing
+ * heuristic', 2017.
+ *
+ * A move is accepted if the resulting penalty is not worse than the current
+ * penalty or the penalty of the current solution a fixed number of iterations
+ * ago. The only parameter is the length of this history.
+ */
+public class LateAcceptanceHillClimbing extends AbstractStateBasedAlgorithm<
+		LateAcceptanceHillClimbing.LateAcceptanceState> {
+
+	private static final String NAME = "Late acceptance hill climbing";
+	private static final List<ParameterDefinition> PARAMETERS =
+			Arrays.asList(new ParameterDefinition("History length", "1000",
+					ParameterType.INT));
+	private static final int HISTORY_LENGTH_MIN = 1;
+
+	private int historyLength;
+
+	public LateAcceptanceHillClimbing(Semester semester) {
+		super(semester);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public List<ParameterDefinition> getParameters() {
+		return PARAMETERS;
+	}
+
+	@Override
+	public void setParameterValues(List<ParameterValue> parameterValues)
+			throws WctttAlgorithmException {
+		List<ParameterDefinition> expected = new ArrayList<>(PARAMETERS);
+		for (ParameterValue value : parameterValues) {
+			if (value.getDefinition().equals(PARAMETERS.get(0))) {
+				expected.remove(PARAMETERS.get(0));
+				historyLength = (Integer) value.getValue();
+				validateHistoryLength();
+			}
+		}
+		if (!expected.isEmpty()) {
+			throw new WctttAlgorithmFatalException("List of parameter values " +
+					"was not complete");
+		}
+	}
+
+	private void validateHistoryLength() throws WctttAlgorithmException {
+		if (historyLength < HISTORY_LENGTH_MIN) {
+			throw new WctttAlgorithmException("History length must be >= " +
+					HISTORY_LENGTH_MIN);
+		}
+	}
+
+	/**
+	 * Creates the state of the search and fills the history with the penalty
+	 * of the initial solution.
+	 *
+	 * @param current the initial solution.
+	 * @param metrics the registry the search records its metrics in.
+	 * @return the initial state of the search.
+	 */
+	@Override
+	protected LateAcceptanceState createSearchState(SolutionState current,
+	                                                AlgorithmMetrics metrics) {
+		return new LateAcceptanceState(current, historyLength, metrics);
+	}
+
+	/**
+	 * Accepts every move that does not worsen the penalty or is not worse
+	 * than the penalty of the current solution as many iterations ago as the
+	 * history is long.
+	 */
+	@Override
+	protected boolean accept(LateAcceptanceState state, double before,
+	                         double after) {
+		return after <= before || after <= state.history[state.historyIndex()];
+	}
+
+	/**
+	 * Replaces the oldest penalty of the history with the current penalty.
+	 */
+	@Override
+	protected void iterationDone(LateAcceptanceState state, boolean accepted) {
+		state.history[state.historyIndex()] =
+				state.getCurrentSolution().getPenalty();
+		state.iteration++;
+	}
+
+	/**
+	 * Contains the history of the search.
+	 */
+	protected static class LateAcceptanceState extends SearchState {
+
+		private final double[] history;
+		private long iteration = 0;
+
+		private LateAcceptanceState(SolutionState current, int historyLength,
+		                            AlgorithmMetrics metrics) {
+			super(current, metrics);
+			this.history = new double[historyLength];
+			Arrays.fill(history, current.getPenalty());
+		}
+
+		private int historyIndex() {
+			return (int) (iteration % history.length);
+		}
+	}
+}
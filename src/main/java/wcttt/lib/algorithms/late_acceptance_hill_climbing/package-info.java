@@ -0,0 +1,9 @@
+/**
+ * <p>Contains the implementation of late acceptance hill climbing.</p>
+ *
+ * <p>The main algorithm is implemented in
+ * {@link wcttt.lib.algorithms.late_acceptance_hill_climbing.LateAcceptanceHillClimbing}.
+ * It works on a {@link wcttt.lib.util.SolutionState} and uses the moves of the
+ * neighborhood structures of the tabu-based memetic approach.</p>
+ */
+package wcttt.lib.algorithms.late_acceptance_hill_climbing;
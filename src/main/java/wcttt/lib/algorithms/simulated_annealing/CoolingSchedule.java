@@ -0,0 +1,81 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.simulated_annealing;
+
+/**
+ * Represents the schedule that is used to lower the temperature after a
+ * number of moves.
+ */
+public enum CoolingSchedule {
+
+	/**
+	 * Multiplies the temperature with the cooling rate.
+	 */
+	GEOMETRIC {
+		@Override
+		double next(double temperature, double initialTemperature,
+		            double coolingRate) {
+			return temperature * coolingRate;
+		}
+	},
+
+	/**
+	 * Cooling as proposed by Lundy and Mees, the first step is equal to the
+	 * one of the geometric schedule, afterwards the temperature is lowered more
+	 * slowly.
+	 */
+	LUNDY_MEES {
+		@Override
+		double next(double temperature, double initialTemperature,
+		            double coolingRate) {
+			double beta = (1 - coolingRate) / (coolingRate * initialTemperature);
+			return temperature / (1 + beta * temperature);
+		}
+	},
+
+	/**
+	 * Lowers the temperature by {@code (1 - coolingRate) * initialTemperature}
+	 * per step.
+	 */
+	LINEAR {
+		@Override
+		double next(double temperature, double initialTemperature,
+		            double coolingRate) {
+			return temperature - (1 - coolingRate) * initialTemperature;
+		}
+	};
+
+	/**
+	 * Calculates the next temperature.
+	 *
+	 * @param temperature the current temperature.
+	 * @param initialTemperature the temperature at the start of the search.
+	 * @param coolingRate the cooling rate, > 0 and < 1.
+	 * @return the next temperature, can be <= 0.
+	 */
+	abstract double next(double temperature, double initialTemperature,
+	                     double coolingRate);
+}
@@ -0,0 +1,303 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.simulated_annealing;
+
+import wcttt.lib.algorithms.*;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.NeighborhoodStructure;
+import wcttt.lib.model.Semester;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.SolutionState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Implementation of simulated annealing, which was proposed by Scott
+ * Kirkpatrick, C. Daniel Gelatt and Mario P. Vecchi in 'Optimization by
+ * Simulated Annealing', 1983.
+ *
+ * The search starts with a single feasible solution that is created by the
+ * saturation degree heuristic. Only feasible moves are sampled, their penalty
+ * is calculated incrementally by the {@link SolutionState}. If the best
+ * solution was not improved for a number of temperature steps, the
+ * temperature is raised again (reheating).
+ */
+public class SimulatedAnnealing extends
+		AbstractStateBasedAlgorithm<SimulatedAnnealing.AnnealingState> {
+
+	private static final String NAME = "Simulated annealing";
+	private static final List<ParameterDefinition> PARAMETERS = Arrays.asList(
+			new ParameterDefinition("Initial acceptance rate", "0.5",
+					ParameterType.DOUBLE),
+			new ParameterDefinition("Cooling schedule (0 = geometric, 1 = " +
+					"Lundy-Mees, 2 = linear)", "0", ParameterType.INT),
+			new ParameterDefinition("Cooling rate", "0.95",
+					ParameterType.DOUBLE),
+			new ParameterDefinition("Moves per temperature", "10000",
+					ParameterType.INT),
+			new ParameterDefinition("Reheating interval", "100",
+					ParameterType.INT),
+			new ParameterDefinition("Reheating ratio", "0.5",
+					ParameterType.DOUBLE));
+	private static final double ACCEPTANCE_RATE_MIN = 0.0;
+	private static final double ACCEPTANCE_RATE_MAX = 1.0;
+	private static final double COOLING_RATE_MIN = 0.0;
+	private static final double COOLING_RATE_MAX = 1.0;
+	private static final int MOVES_PER_TEMPERATURE_MIN = 1;
+	private static final int REHEATING_INTERVAL_MIN = 0;
+	private static final double REHEATING_RATIO_MIN = 0.0;
+	private static final double REHEATING_RATIO_MAX = 1.0;
+	private static final double MIN_TEMPERATURE_RATIO = 1e-4;
+	private static final int TEMPERATURE_SAMPLES = 100;
+	private static final String METRIC_TEMPERATURE_STEPS = "temperatureSteps";
+	private static final String METRIC_REHEATS = "reheats";
+
+	private double initialAcceptanceRate;
+	private CoolingSchedule coolingSchedule;
+	private double coolingRate;
+	private int movesPerTemperature;
+	private int reheatingInterval;
+	private double reheatingRatio;
+
+	public SimulatedAnnealing(Semester semester) {
+		super(semester);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public List<ParameterDefinition> getParameters() {
+		return PARAMETERS;
+	}
+
+	@Override
+	public void setParameterValues(List<ParameterValue> parameterValues)
+			throws WctttAlgorithmException {
+		List<ParameterDefinition> expected = new ArrayList<>(PARAMETERS);
+		for (ParameterValue value : parameterValues) {
+			for (int i = 0; i < PARAMETERS.size(); i++) {
+				if (value.getDefinition().equals(PARAMETERS.get(i))) {
+					expected.remove(PARAMETERS.get(i));
+					switch (i) {
+						case 0:
+							initialAcceptanceRate = (Double) value.getValue();
+							validateInitialAcceptanceRate();
+							break;
+						case 1:
+							coolingSchedule =
+									toCoolingSchedule((Integer) value.getValue());
+							break;
+						case 2:
+							coolingRate = (Double) value.getValue();
+							validateCoolingRate();
+							break;
+						case 3:
+							movesPerTemperature = (Integer) value.getValue();
+							validateMovesPerTemperature();
+							break;
+						case 4:
+							reheatingInterval = (Integer) value.getValue();
+							validateReheatingInterval();
+							break;
+						case 5:
+							reheatingRatio = (Double) value.getValue();
+							validateReheatingRatio();
+							break;
+					}
+				}
+			}
+		}
+		if (!expected.isEmpty()) {
+			throw new WctttAlgorithmFatalException("List of parameter values " +
+					"was not complete");
+		}
+	}
+
+	private void validateInitialAcceptanceRate()
+			throws WctttAlgorithmException {
+		if (initialAcceptanceRate <= ACCEPTANCE_RATE_MIN ||
+				initialAcceptanceRate >= ACCEPTANCE_RATE_MAX) {
+			throw new WctttAlgorithmException("Initial acceptance rate must " +
+					"be > " + ACCEPTANCE_RATE_MIN + " and < " +
+					ACCEPTANCE_RATE_MAX);
+		}
+	}
+
+	private CoolingSchedule toCoolingSchedule(int value)
+			throws WctttAlgorithmException {
+		if (value < 0 || value >= CoolingSchedule.values().length) {
+			throw new WctttAlgorithmException("Cooling schedule must be >= 0 " +
+					"and <= " + (CoolingSchedule.values().length - 1));
+		}
+		return CoolingSchedule.values()[value];
+	}
+
+	private void validateCoolingRate() throws WctttAlgorithmException {
+		if (coolingRate <= COOLING_RATE_MIN || coolingRate >= COOLING_RATE_MAX) {
+			throw new WctttAlgorithmException("Cooling rate must be > " +
+					COOLING_RATE_MIN + " and < " + COOLING_RATE_MAX);
+		}
+	}
+
+	private void validateMovesPerTemperature() throws WctttAlgorithmException {
+		if (movesPerTemperature < MOVES_PER_TEMPERATURE_MIN) {
+			throw new WctttAlgorithmException("Moves per temperature must be " +
+					">= " + MOVES_PER_TEMPERATURE_MIN);
+		}
+	}
+
+	private void validateReheatingInterval() throws WctttAlgorithmException {
+		if (reheatingInterval < REHEATING_INTERVAL_MIN) {
+			throw new WctttAlgorithmException("Reheating interval must be >= " +
+					REHEATING_INTERVAL_MIN + ", 0 disables reheating");
+		}
+	}
+
+	private void validateReheatingRatio() throws WctttAlgorithmException {
+		if (reheatingRatio <= REHEATING_RATIO_MIN ||
+				reheatingRatio > REHEATING_RATIO_MAX) {
+			throw new WctttAlgorithmException("Reheating ratio must be > " +
+					REHEATING_RATIO_MIN + " and <= " + REHEATING_RATIO_MAX);
+		}
+	}
+
+	/**
+	 * Creates the state of the search and determines the initial temperature.
+	 *
+	 * @param current the initial solution.
+	 * @param metrics the registry the search records its metrics in.
+	 * @return the initial state of the search.
+	 */
+	@Override
+	protected AnnealingState createSearchState(SolutionState current,
+	                                           AlgorithmMetrics metrics) {
+		AnnealingState state = new AnnealingState(current, metrics);
+		state.initialTemperature = estimateInitialTemperature(state);
+		state.temperature = state.initialTemperature;
+		return state;
+	}
+
+	/**
+	 * Estimates a temperature at which an average worsening move is accepted
+	 * with the initial acceptance rate. The estimation is based on random
+	 * moves that are reverted afterwards.
+	 */
+	private double estimateInitialTemperature(AnnealingState state) {
+		SolutionState current = state.getCurrentSolution();
+		Random random = state.getRandom();
+		double worsening = 0.0;
+		int worseningMoves = 0;
+		for (int i = 0; i < TEMPERATURE_SAMPLES; i++) {
+			NeighborhoodStructure nbs =
+					NBS_LIST.get(random.nextInt(NBS_LIST.size()));
+			Move move = nbs.sample(current, random);
+			if (move == null) {
+				continue;
+			}
+			double before = current.getPenalty();
+			move.apply();
+			double delta = current.getPenalty() - before;
+			move.undo();
+			if (delta > 0) {
+				worsening += delta;
+				worseningMoves++;
+			}
+		}
+		if (worseningMoves == 0) {
+			return 1.0;
+		}
+		return -(worsening / worseningMoves) / Math.log(initialAcceptanceRate);
+	}
+
+	/**
+	 * Accepts every move that does not worsen the penalty, and worsening moves
+	 * with a probability that decreases with the temperature.
+	 */
+	@Override
+	protected boolean accept(AnnealingState state, double before,
+	                         double after) {
+		double delta = after - before;
+		return delta <= 0 || state.getRandom().nextDouble() <
+				Math.exp(-delta / state.temperature);
+	}
+
+	/**
+	 * A batch contains the moves of a single temperature.
+	 */
+	@Override
+	protected int getMovesPerBatch() {
+		return movesPerTemperature;
+	}
+
+	/**
+	 * Lowers the temperature after the moves of a single temperature, or
+	 * raises it again if the best solution was not improved for a number of
+	 * temperature steps.
+	 */
+	@Override
+	protected void batchDone(AnnealingState state, boolean improved) {
+		if (improved) {
+			state.stepsWithoutImprovement = 0;
+		} else {
+			state.stepsWithoutImprovement++;
+		}
+		if (reheatingInterval > 0 &&
+				state.stepsWithoutImprovement >= reheatingInterval) {
+			state.temperature = reheatingRatio * state.initialTemperature;
+			state.stepsWithoutImprovement = 0;
+			state.reheats.increment();
+		} else {
+			state.temperature = Math.max(coolingSchedule.next(
+					state.temperature, state.initialTemperature, coolingRate),
+					MIN_TEMPERATURE_RATIO * state.initialTemperature);
+		}
+		state.temperatureSteps.increment();
+	}
+
+	/**
+	 * Contains the temperature of the search.
+	 */
+	protected static class AnnealingState extends SearchState {
+
+		private double initialTemperature;
+		private double temperature;
+		private int stepsWithoutImprovement = 0;
+
+		private final AlgorithmMetrics.Counter temperatureSteps;
+		private final AlgorithmMetrics.Counter reheats;
+
+		private AnnealingState(SolutionState current, AlgorithmMetrics metrics) {
+			super(current, metrics);
+			temperatureSteps = metrics.counter(METRIC_TEMPERATURE_STEPS);
+			reheats = metrics.counter(METRIC_REHEATS);
+		}
+	}
+}
@@ -0,0 +1,9 @@
+/**
+ * <p>Contains the implementation of simulated annealing.</p>
+ *
+ * <p>The main algorithm is implemented in
+ * {@link wcttt.lib.algorithms.simulated_annealing.SimulatedAnnealing}. It
+ * works on a {@link wcttt.lib.util.SolutionState} and uses the moves of the
+ * neighborhood structures of the tabu-based memetic approach.</p>
+ */
+package wcttt.lib.algorithms.simulated_annealing;
@@ -0,0 +1,57 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event that spans a single generation of the
+ * {@link TabuBasedMemeticApproach}.
+ */
+@Name("wcttt.MemeticGeneration")
+@Label("Memetic Generation")
+@Category({"WCTTT", "Algorithms"})
+@Description("Single generation of the tabu-based memetic approach")
+final class MemeticGenerationEvent extends Event {
+
+	@Label("Generation")
+	long generation;
+
+	@Label("Neighborhood Structure")
+	@Description("Neighborhood structure used by the local search")
+	String neighborhoodStructure;
+
+	@Label("Best New Penalty")
+	@Description("Lowest penalty among the offspring of this generation")
+	double bestNewPenalty;
+
+	@Label("Best Penalty")
+	@Description("Lowest penalty found so far, including this generation")
+	double bestPenalty;
+
+	@Label("Improved")
+	boolean improved;
+}
@@ -0,0 +1,245 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import wcttt.lib.algorithms.WctttAlgorithmFatalException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * Adaptive selection of neighborhood structures. For every neighborhood
+ * structure, the improvement of the penalty per millisecond of CPU time is
+ * tracked as its quality, which is then used by the selection strategy.
+ * Recent rewards have a higher influence on the quality than older ones.
+ */
+public class NeighborhoodSelector {
+
+	private static final double ADAPTATION_RATE = 0.2;
+	private static final double MIN_PROBABILITY_SHARE = 0.1;
+	private static final double NANOS_PER_MILLI = 1_000_000.0;
+	private static final ThreadMXBean THREAD_MX_BEAN =
+			ManagementFactory.getThreadMXBean();
+
+	private final List<NeighborhoodStructure> nbsList;
+	private final NbsSelectionStrategy strategy;
+	private final Random random;
+	private final double[] qualities;
+	private final long[] uses;
+	private long totalUses = 0;
+
+	/**
+	 * Initialization of the class.
+	 *
+	 * @param nbsList the neighborhood structures that can be selected.
+	 * @param strategy the selection strategy.
+	 * @param random the source of randomness.
+	 */
+	public NeighborhoodSelector(List<NeighborhoodStructure> nbsList,
+	                            NbsSelectionStrategy strategy, Random random) {
+		if (nbsList == null || strategy == null || random == null) {
+			throw new IllegalArgumentException("Parameters 'nbsList', " +
+					"'strategy' and 'random' must not be null");
+		} else if (nbsList.isEmpty()) {
+			throw new IllegalArgumentException("Parameter 'nbsList' must not" +
+					" be empty");
+		}
+		this.nbsList = new ArrayList<>(nbsList);
+		this.strategy = strategy;
+		this.random = random;
+		qualities = new double[nbsList.size()];
+		uses = new long[nbsList.size()];
+	}
+
+	public NbsSelectionStrategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Reads the CPU time of the current thread, which is used to measure the
+	 * cost of applying a neighborhood structure.
+	 *
+	 * @return the CPU time in nanoseconds, or the wall-clock time if the JVM
+	 * does not support measuring the CPU time.
+	 */
+	public static long cpuTime() {
+		if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+			return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Selects a neighborhood structure that is not in the tabu list.
+	 *
+	 * @param tabuList the neighborhood structures that must not be selected,
+	 *                 can be {@code null}.
+	 * @return the selected neighborhood structure.
+	 */
+	public NeighborhoodStructure select(
+			Collection<NeighborhoodStructure> tabuList) {
+		boolean[] allowed = new boolean[nbsList.size()];
+		int allowedCount = 0;
+		for (int i = 0; i < allowed.length; i++) {
+			allowed[i] = tabuList == null || !tabuList.contains(nbsList.get(i));
+			if (allowed[i]) {
+				allowedCount++;
+			}
+		}
+		if (allowedCount == 0) {
+			throw new WctttAlgorithmFatalException("Implementation error, all" +
+					" neighborhood structures are in the tabu list");
+		}
+
+		int selected;
+		switch (strategy) {
+			case ROULETTE_WHEEL:
+				selected = selectProportionally(allowed, allowedCount, 0.0);
+				break;
+			case UCB:
+				selected = selectUcb(allowed);
+				break;
+			case PROBABILITY_MATCHING:
+				selected = selectProportionally(allowed, allowedCount,
+						MIN_PROBABILITY_SHARE / allowedCount);
+				break;
+			default:
+				selected = selectRandomly(allowed, allowedCount);
+		}
+		return nbsList.get(selected);
+	}
+
+	/**
+	 * Updates the quality of a neighborhood structure after it was applied.
+	 *
+	 * @param nbs the applied neighborhood structure.
+	 * @param improvement the improvement of the penalty, negative values are
+	 *                    treated as 0.
+	 * @param cpuNanos the CPU time that was spent, see {@link #cpuTime()}.
+	 */
+	public void reward(NeighborhoodStructure nbs, double improvement,
+	                   long cpuNanos) {
+		int i = nbsList.indexOf(nbs);
+		if (i == -1) {
+			throw new IllegalArgumentException("Unknown neighborhood " +
+					"structure '" + nbs + "'");
+		}
+		double reward = Math.max(improvement, 0.0) /
+				Math.max(cpuNanos / NANOS_PER_MILLI, Double.MIN_NORMAL);
+		qualities[i] = uses[i] == 0 ? reward :
+				qualities[i] + ADAPTATION_RATE * (reward - qualities[i]);
+		uses[i]++;
+		totalUses++;
+	}
+
+	/**
+	 * Returns the current quality of a neighborhood structure.
+	 *
+	 * @param nbs the neighborhood structure.
+	 * @return the improvement per millisecond of CPU time, weighted towards
+	 * recent applications.
+	 */
+	public double getQuality(NeighborhoodStructure nbs) {
+		int i = nbsList.indexOf(nbs);
+		return i == -1 ? 0.0 : qualities[i];
+	}
+
+	private int selectRandomly(boolean[] allowed, int allowedCount) {
+		int selection = random.nextInt(allowedCount);
+		for (int i = 0; i < allowed.length; i++) {
+			if (allowed[i] && selection-- == 0) {
+				return i;
+			}
+		}
+		throw new WctttAlgorithmFatalException("Implementation error, no " +
+				"neighborhood structure was selected");
+	}
+
+	/**
+	 * Selects with a probability of {@code minProbability + (1 - allowedCount
+	 * * minProbability) * quality / qualitySum}. Neighborhood structures that
+	 * were never applied are selected first.
+	 */
+	private int selectProportionally(boolean[] allowed, int allowedCount,
+	                                 double minProbability) {
+		double qualitySum = 0.0;
+		for (int i = 0; i < allowed.length; i++) {
+			if (allowed[i]) {
+				if (uses[i] == 0) {
+					return i;
+				}
+				qualitySum += qualities[i];
+			}
+		}
+		if (qualitySum == 0.0) {
+			return selectRandomly(allowed, allowedCount);
+		}
+		double selection = random.nextDouble();
+		int last = -1;
+		for (int i = 0; i < allowed.length; i++) {
+			if (allowed[i]) {
+				selection -= minProbability + (1 - allowedCount *
+						minProbability) * qualities[i] / qualitySum;
+				last = i;
+				if (selection <= 0) {
+					return i;
+				}
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Selects the neighborhood structure with the highest upper confidence
+	 * bound, qualities are normalized by the highest quality.
+	 */
+	private int selectUcb(boolean[] allowed) {
+		double maxQuality = 0.0;
+		for (int i = 0; i < allowed.length; i++) {
+			if (allowed[i]) {
+				if (uses[i] == 0) {
+					return i;
+				}
+				maxQuality = Math.max(maxQuality, qualities[i]);
+			}
+		}
+		int best = -1;
+		double bestBound = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < allowed.length; i++) {
+			if (allowed[i]) {
+				double bound = (maxQuality == 0.0 ? 0.0 :
+						qualities[i] / maxQuality) +
+						Math.sqrt(2 * Math.log(totalUses) / uses[i]);
+				if (bound > bestBound) {
+					best = i;
+					bestBound = bound;
+				}
+			}
+		}
+		return best;
+	}
+}
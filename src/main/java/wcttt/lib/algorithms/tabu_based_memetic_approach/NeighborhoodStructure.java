@@ -28,6 +28,11 @@ package wcttt.lib.algorithms.tabu_based_memetic_approach;
 import wcttt.lib.algorithms.WctttAlgorithmException;
 import wcttt.lib.model.Semester;
 import wcttt.lib.model.Timetable;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
+
+import java.util.Random;
 
 /**
  * Defines the functionality of a neighborhood structure.
@@ -36,4 +41,33 @@ public interface NeighborhoodStructure {
 
 	void apply(Timetable timetable, Semester semester)
 			throws WctttAlgorithmException;
+
+	/**
+	 * Like {@link #apply(Timetable, Semester)}, for a search that already
+	 * indexed the semester. Neighborhood structures that are implemented on
+	 * solution states use the index instead of creating their own one.
+	 *
+	 * @param timetable the timetable to which the neighborhood structure should
+	 *                  be applied.
+	 * @param index the index of the semester the timetable belongs to.
+	 * @throws WctttAlgorithmException if an error occurred in the neighborhood
+	 * structure.
+	 */
+	default void apply(Timetable timetable, ProblemIndex index)
+			throws WctttAlgorithmException {
+		apply(timetable, index.getSemester());
+	}
+
+	/**
+	 * Selects a random feasible move of the neighborhood structure for a
+	 * solution state, without changing the state.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param random the source of randomness.
+	 * @return the move, or {@code null} if no feasible move was found or the
+	 * neighborhood structure does not support solution states.
+	 */
+	default Move sample(SolutionState state, Random random) {
+		return null;
+	}
 }
@@ -0,0 +1,273 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import wcttt.lib.algorithms.WctttAlgorithmException;
+import wcttt.lib.algorithms.WctttAlgorithmFatalException;
+import wcttt.lib.model.*;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class NeighborhoodStructure1 implements NeighborhoodStructure {
+
+	private static final int APPLY_ATTEMPTS = 100;
+	private static final int SAMPLE_ATTEMPTS = 10;
+
+	/**
+	 * Creates the neighborhood structure that swaps the periods and rooms of
+	 * two sessions.
+	 */
+	public NeighborhoodStructure1() {
+	}
+
+	/**
+	 * Chooses two sessions at random and swaps their periods and rooms. Both
+	 * sessions must not have a pre-assignment and must either both be double
+	 * sessions or not. The method tries up to 99 random pairs of sessions.
+	 *
+	 * @param timetable the timetable to which the neighborhood structure should
+	 *                  be applied.
+	 * @param semester the semester the timetable belongs to.
+	 */
+	@Override
+	public void apply(Timetable timetable, Semester semester)
+			throws WctttAlgorithmException {
+		Random random = new Random();
+		for (int i = 1; i < APPLY_ATTEMPTS; i++) {
+			TimetableAssignment assgmtA = selectRandomAssignment(timetable,
+					random);
+			TimetableAssignment assgmtB = selectRandomAssignment(timetable,
+					random);
+			Session sessionA = assgmtA.getSession();
+			Session sessionB = assgmtB.getSession();
+			if (sessionA.equals(sessionB) ||
+					sessionA.getPreAssignment().isPresent() ||
+					sessionB.getPreAssignment().isPresent() ||
+					sessionA.isDoubleSession() != sessionB.isDoubleSession()) {
+				continue;
+			}
+			List<TimetablePeriod> periodsA = findPeriods(timetable, sessionA);
+			List<TimetablePeriod> periodsB = findPeriods(timetable, sessionB);
+			if (periodsA.get(0) == periodsB.get(0)) {
+				continue;
+			}
+			if (swapSessions(timetable, semester, assgmtA, periodsA, assgmtB,
+					periodsB)) {
+				return;
+			}
+		}
+	}
+
+	private TimetableAssignment selectRandomAssignment(Timetable timetable,
+	                                                   Random random) {
+		TimetableDay randomDay;
+		TimetablePeriod randomPeriod;
+		do {
+			randomDay = timetable.getDays().get(
+					random.nextInt(timetable.getDays().size()));
+			randomPeriod = randomDay.getPeriods().get(
+					random.nextInt(randomDay.getPeriods().size()));
+		} while (randomPeriod.getAssignments().isEmpty());
+		return randomPeriod.getAssignments().get(
+				random.nextInt(randomPeriod.getAssignments().size()));
+	}
+
+	/**
+	 * Finds the periods a session is assigned to, in chronological order.
+	 */
+	private List<TimetablePeriod> findPeriods(Timetable timetable,
+	                                          Session session) {
+		List<TimetablePeriod> periods = new ArrayList<>(2);
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				for (TimetableAssignment assgmt : period.getAssignments()) {
+					if (assgmt.getSession().equals(session)) {
+						periods.add(period);
+					}
+				}
+			}
+		}
+		return periods;
+	}
+
+	/**
+	 * Tries to swap two sessions, restores the previous assignments if the
+	 * swap would violate any hard constraints.
+	 *
+	 * @return {@code true} if the sessions were swapped, otherwise {@code
+	 * false}.
+	 */
+	private boolean swapSessions(Timetable timetable, Semester semester,
+	                             TimetableAssignment assgmtA,
+	                             List<TimetablePeriod> periodsA,
+	                             TimetableAssignment assgmtB,
+	                             List<TimetablePeriod> periodsB)
+			throws WctttAlgorithmException {
+		List<TimetableAssignment> removedA = removeAssignments(periodsA,
+				assgmtA.getSession());
+		List<TimetableAssignment> removedB = removeAssignments(periodsB,
+				assgmtB.getSession());
+		try {
+			Util.assignSession(assgmtA.getSession(), periodsB.get(0),
+					assgmtB.getRoom(), timetable, semester, null, null, null);
+		} catch (WctttAlgorithmException e) {
+			restoreAssignments(periodsA, removedA);
+			restoreAssignments(periodsB, removedB);
+			return false;
+		}
+		try {
+			Util.assignSession(assgmtB.getSession(), periodsA.get(0),
+					assgmtA.getRoom(), timetable, semester, null, null, null);
+		} catch (WctttAlgorithmException e) {
+			removeAssignments(periodsB, assgmtA.getSession());
+			restoreAssignments(periodsA, removedA);
+			restoreAssignments(periodsB, removedB);
+			return false;
+		}
+		return true;
+	}
+
+	private List<TimetableAssignment> removeAssignments(
+			List<TimetablePeriod> periods, Session session) {
+		List<TimetableAssignment> removed = new ArrayList<>(periods.size());
+		for (TimetablePeriod period : periods) {
+			for (TimetableAssignment assgmt : period.getAssignments()) {
+				if (assgmt.getSession().equals(session)) {
+					removed.add(assgmt);
+					period.removeAssignment(assgmt);
+					break;
+				}
+			}
+		}
+		return removed;
+	}
+
+	private void restoreAssignments(List<TimetablePeriod> periods,
+	                                List<TimetableAssignment> assignments) {
+		try {
+			for (int i = 0; i < periods.size(); i++) {
+				periods.get(i).addAssignment(assignments.get(i));
+			}
+		} catch (WctttModelException e) {
+			throw new WctttAlgorithmFatalException("Implementation error, " +
+					"problem while restoring an assignment", e);
+		}
+	}
+
+	/**
+	 * Chooses two sessions at random and checks whether their periods and
+	 * rooms can be swapped. Up to {@value SAMPLE_ATTEMPTS} random pairs of
+	 * sessions are tried.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param random the source of randomness.
+	 * @return the move, or {@code null} if no feasible pair was found.
+	 */
+	@Override
+	public Move sample(SolutionState state, Random random) {
+		ProblemIndex index = state.getIndex();
+		int[] movable = index.getMovableSessions();
+		if (movable.length < 2) {
+			return null;
+		}
+		for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+			int sessionA = movable[random.nextInt(movable.length)];
+			int sessionB = movable[random.nextInt(movable.length)];
+			if (state.getPeriod(sessionA) != state.getPeriod(sessionB) &&
+					index.isDoubleSession(sessionA) ==
+							index.isDoubleSession(sessionB) &&
+					index.isSuitableRoom(sessionA, state.getRoom(sessionB)) &&
+					index.isSuitableRoom(sessionB, state.getRoom(sessionA)) &&
+					isSwappable(state, sessionA, sessionB)) {
+				return new SwapMove(state, sessionA, sessionB);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks the swap by applying it temporarily, the state is restored
+	 * afterwards.
+	 */
+	private boolean isSwappable(SolutionState state, int sessionA,
+	                            int sessionB) {
+		int periodA = state.getPeriod(sessionA);
+		int roomA = state.getRoom(sessionA);
+		int periodB = state.getPeriod(sessionB);
+		int roomB = state.getRoom(sessionB);
+		state.unassign(sessionB);
+		boolean swappable = state.isAssignable(sessionA, periodB, roomB);
+		if (swappable) {
+			state.move(sessionA, periodB, roomB);
+			swappable = state.isAssignable(sessionB, periodA, roomA);
+			state.move(sessionA, periodA, roomA);
+		}
+		state.assign(sessionB, periodB, roomB);
+		return swappable;
+	}
+
+	private static final class SwapMove implements Move {
+
+		private final SolutionState state;
+		private final int sessionA;
+		private final int periodA;
+		private final int roomA;
+		private final int sessionB;
+		private final int periodB;
+		private final int roomB;
+
+		private SwapMove(SolutionState state, int sessionA, int sessionB) {
+			this.state = state;
+			this.sessionA = sessionA;
+			this.periodA = state.getPeriod(sessionA);
+			this.roomA = state.getRoom(sessionA);
+			this.sessionB = sessionB;
+			this.periodB = state.getPeriod(sessionB);
+			this.roomB = state.getRoom(sessionB);
+		}
+
+		@Override
+		public void apply() {
+			state.unassign(sessionA);
+			state.unassign(sessionB);
+			state.assign(sessionA, periodB, roomB);
+			state.assign(sessionB, periodA, roomA);
+		}
+
+		@Override
+		public void undo() {
+			state.unassign(sessionA);
+			state.unassign(sessionB);
+			state.assign(sessionA, periodA, roomA);
+			state.assign(sessionB, periodB, roomB);
+		}
+	}
+}
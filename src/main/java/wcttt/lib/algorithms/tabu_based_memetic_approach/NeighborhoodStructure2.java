@@ -28,6 +28,9 @@ package wcttt.lib.algorithms.tabu_based_memetic_approach;
 import wcttt.lib.algorithms.WctttAlgorithmException;
 import wcttt.lib.algorithms.WctttAlgorithmFatalException;
 import wcttt.lib.model.*;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -36,6 +39,8 @@ import java.util.Random;
 
 public class NeighborhoodStructure2 implements NeighborhoodStructure {
 
+	private static final int SAMPLE_ATTEMPTS = 10;
+
 	/**
 	 * Chooses a single lecture at random and moves it to a new random feasible
 	 * timeslot.
@@ -63,7 +68,7 @@ public class NeighborhoodStructure2 implements NeighborhoodStructure {
 
 		if (!Util.assignSessionRandomly(
 				(InternalSession) randomAssgmt.getSession(), timetable,
-				semester, periods, null, null, null, null)) {
+				semester, periods, null, null, null, null, null)) {
 			throw new WctttAlgorithmFatalException("Implementation error, " +
 					"could not find suitable room and period for new " +
 					"assignment, at least the period and room of the previous" +
@@ -71,6 +76,39 @@ public class NeighborhoodStructure2 implements NeighborhoodStructure {
 		}
 	}
 
+	/**
+	 * Chooses a single session at random and tries up to
+	 * {@value SAMPLE_ATTEMPTS} random periods and suitable rooms to find a new
+	 * feasible assignment.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param random the source of randomness.
+	 * @return the move, or {@code null} if no feasible assignment was found.
+	 */
+	@Override
+	public Move sample(SolutionState state, Random random) {
+		ProblemIndex index = state.getIndex();
+		int[] movable = index.getMovableSessions();
+		if (movable.length == 0) {
+			return null;
+		}
+		int session = movable[random.nextInt(movable.length)];
+		int[] periods = index.getDomainPeriods(session);
+		int[] rooms = index.getSuitableRooms(session);
+		if (periods.length == 0) {
+			return null;
+		}
+		for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+			int period = periods[random.nextInt(periods.length)];
+			int room = rooms[random.nextInt(rooms.length)];
+			if (period != state.getPeriod(session) &&
+					state.isAssignable(session, period, room)) {
+				return new RelocationMove(state, session, period, room);
+			}
+		}
+		return null;
+	}
+
 	private TimetableAssignment selectRandomAssignment(Timetable timetable) {
 		Random random = new Random();
 		TimetableDay randomDay;
@@ -27,11 +27,16 @@ package wcttt.lib.algorithms.tabu_based_memetic_approach;
 
 import wcttt.lib.algorithms.WctttAlgorithmFatalException;
 import wcttt.lib.model.*;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
 
 import java.util.Random;
 
 public class NeighborhoodStructure3 implements NeighborhoodStructure {
 
+	private static final int SAMPLE_ATTEMPTS = 10;
+
 	/**
 	 * Select two timeslots at random and simply swap all the lectures in one
 	 * timeslot with all the lectures in the other timeslot.
@@ -76,6 +81,99 @@ public class NeighborhoodStructure3 implements NeighborhoodStructure {
 		}
 	}
 
+	/**
+	 * Selects two periods at random that can be interchanged, like {@link
+	 * #apply(Timetable, Semester)} does. Additionally, the teachers must be
+	 * available in the new periods. Up to {@value SAMPLE_ATTEMPTS} random
+	 * combinations of periods are tried.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param random the source of randomness.
+	 * @return the move, or {@code null} if no suitable pair of periods was
+	 * found.
+	 */
+	@Override
+	public Move sample(SolutionState state, Random random) {
+		ProblemIndex index = state.getIndex();
+		for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+			int periodA = random.nextInt(index.getPeriodCount());
+			int periodB = random.nextInt(index.getPeriodCount());
+			if (periodA == periodB) {
+				continue;
+			}
+			int[] sessionsA = swappableSessions(state, periodA);
+			int[] sessionsB = swappableSessions(state, periodB);
+			if (sessionsA != null && sessionsB != null &&
+					sessionsA.length + sessionsB.length > 0 &&
+					canSwap(state, sessionsA, periodA, sessionsB, periodB) &&
+					canSwap(state, sessionsB, periodB, sessionsA, periodA)) {
+				return new PeriodSwapMove(state, sessionsA, periodA, sessionsB,
+						periodB);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Collects the sessions of a period.
+	 *
+	 * @return the sessions, or {@code null} if the period contains
+	 * pre-assignments or double sessions.
+	 */
+	private int[] swappableSessions(SolutionState state, int period) {
+		ProblemIndex index = state.getIndex();
+		int count = 0;
+		for (int room = 0; room < index.getRoomCount(); room++) {
+			int session = state.getOccupant(period, room);
+			if (session != -1) {
+				if (!index.isMovable(session) ||
+						index.isDoubleSession(session)) {
+					return null;
+				}
+				count++;
+			}
+		}
+		int[] sessions = new int[count];
+		for (int room = 0; count > 0; room++) {
+			int session = state.getOccupant(period, room);
+			if (session != -1) {
+				sessions[--count] = session;
+			}
+		}
+		return sessions;
+	}
+
+	/**
+	 * Checks whether the sessions of one period can be moved to another
+	 * period, whose sessions are moved in the opposite direction.
+	 */
+	private boolean canSwap(SolutionState state, int[] moving, int from,
+	                        int[] staying, int to) {
+		ProblemIndex index = state.getIndex();
+		int timeSlots = index.getTimeSlotsPerDay();
+		for (int session : moving) {
+			if (!index.isInDomain(session, to)) {
+				return false;
+			}
+			if (from / timeSlots != to / timeSlots &&
+					index.isLecture(session)) {
+				int course = index.getCourse(session);
+				int leaving = 0;
+				for (int other : staying) {
+					if (index.isLecture(other) &&
+							index.getCourse(other) == course) {
+						leaving++;
+					}
+				}
+				if (state.getLectureCount(course, to / timeSlots) - leaving >
+						0) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Selects two periods that can be interchanged. These periods must not
 	 * contain pre-assignments or double sessions. The method tries up to 99
@@ -103,11 +201,11 @@ public class NeighborhoodStructure3 implements NeighborhoodStructure {
 			periodB = dayB.getPeriods().get(
 					random.nextInt(dayB.getPeriods().size()));
 			counter++;
-		} while (counter < 100 && periodA == periodB || (dayA != dayB &&
+		} while (counter < 100 && (periodA == periodB || (dayA != dayB &&
 				(twoCourseLecturesInDay(dayA, periodB, periodA) ||
 						twoCourseLecturesInDay(dayB, periodA, periodB))) ||
 				containsPreAssignmentOrDoubleSession(periodA) ||
-				containsPreAssignmentOrDoubleSession(periodB) );
+				containsPreAssignmentOrDoubleSession(periodB)));
 
 		if (counter == 100) {
 			// No suitable pair of periods could be found, probably too many
@@ -160,4 +258,59 @@ public class NeighborhoodStructure3 implements NeighborhoodStructure {
 		}
 		return false;
 	}
+
+	private static final class PeriodSwapMove implements Move {
+
+		private final SolutionState state;
+		private final int[] sessionsA;
+		private final int[] roomsA;
+		private final int periodA;
+		private final int[] sessionsB;
+		private final int[] roomsB;
+		private final int periodB;
+
+		private PeriodSwapMove(SolutionState state, int[] sessionsA,
+		                       int periodA, int[] sessionsB, int periodB) {
+			this.state = state;
+			this.sessionsA = sessionsA;
+			this.roomsA = rooms(state, sessionsA);
+			this.periodA = periodA;
+			this.sessionsB = sessionsB;
+			this.roomsB = rooms(state, sessionsB);
+			this.periodB = periodB;
+		}
+
+		private static int[] rooms(SolutionState state, int[] sessions) {
+			int[] rooms = new int[sessions.length];
+			for (int i = 0; i < sessions.length; i++) {
+				rooms[i] = state.getRoom(sessions[i]);
+			}
+			return rooms;
+		}
+
+		@Override
+		public void apply() {
+			swap(periodB, periodA);
+		}
+
+		@Override
+		public void undo() {
+			swap(periodA, periodB);
+		}
+
+		private void swap(int newPeriodA, int newPeriodB) {
+			for (int session : sessionsA) {
+				state.unassign(session);
+			}
+			for (int session : sessionsB) {
+				state.unassign(session);
+			}
+			for (int i = 0; i < sessionsA.length; i++) {
+				state.assign(sessionsA[i], newPeriodA, roomsA[i]);
+			}
+			for (int i = 0; i < sessionsB.length; i++) {
+				state.assign(sessionsB[i], newPeriodB, roomsB[i]);
+			}
+		}
+	}
 }
@@ -0,0 +1,144 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import wcttt.lib.algorithms.WctttAlgorithmException;
+import wcttt.lib.model.*;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class NeighborhoodStructure4 implements NeighborhoodStructure {
+
+	private static final int SAMPLE_ATTEMPTS = 10;
+
+	/**
+	 * Creates the neighborhood structure that moves an internal session to
+	 * another room.
+	 */
+	public NeighborhoodStructure4() {
+	}
+
+	/**
+	 * Chooses a single internal session at random and moves it to another
+	 * suitable room that is free in its period(s).
+	 *
+	 * @param timetable the timetable to which the neighborhood structure should
+	 *                  be applied.
+	 * @param semester the semester the timetable belongs to.
+	 * @throws WctttAlgorithmException if no suitable room exists for the
+	 * session.
+	 */
+	@Override
+	public void apply(Timetable timetable, Semester semester)
+			throws WctttAlgorithmException {
+		Random random = new Random();
+		TimetableDay randomDay;
+		TimetablePeriod randomPeriod;
+		do {
+			randomDay = timetable.getDays().get(
+					random.nextInt(timetable.getDays().size()));
+			randomPeriod = randomDay.getPeriods().get(
+					random.nextInt(randomDay.getPeriods().size()));
+		} while (randomPeriod.getAssignments().isEmpty());
+		TimetableAssignment randomAssgmt = randomPeriod.getAssignments().get(
+				random.nextInt(randomPeriod.getAssignments().size()));
+		if (!(randomAssgmt.getSession() instanceof InternalSession)) {
+			return;
+		}
+
+		List<TimetableAssignment> assignments = new ArrayList<>(2);
+		List<TimetablePeriod> periods = new ArrayList<>(2);
+		for (TimetablePeriod period : randomDay.getPeriods()) {
+			for (TimetableAssignment assgmt : period.getAssignments()) {
+				if (assgmt.getSession().equals(randomAssgmt.getSession())) {
+					assignments.add(assgmt);
+					periods.add(period);
+				}
+			}
+		}
+
+		List<InternalRoom> suitableRooms = Util.findSuitableRooms(
+				(InternalSession) randomAssgmt.getSession(), semester);
+		Collections.shuffle(suitableRooms, random);
+		for (InternalRoom room : suitableRooms) {
+			if (room.equals(randomAssgmt.getRoom())) {
+				continue;
+			}
+			boolean free = true;
+			for (TimetablePeriod period : periods) {
+				free &= Util.roomIsFree(room, period, timetable, null);
+			}
+			if (free) {
+				// Assignments may be shared with other timetables, so they
+				// are replaced instead of changing their room:
+				for (int i = 0; i < periods.size(); i++) {
+					List<TimetableAssignment> periodAssgmts =
+							periods.get(i).getAssignments();
+					for (int j = 0; j < periodAssgmts.size(); j++) {
+						if (periodAssgmts.get(j) == assignments.get(i)) {
+							periodAssgmts.set(j, new TimetableAssignment(
+									randomAssgmt.getSession(), room));
+						}
+					}
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Chooses a single session at random and tries up to
+	 * {@value SAMPLE_ATTEMPTS} of its other suitable rooms.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param random the source of randomness.
+	 * @return the move, or {@code null} if no free suitable room was found.
+	 */
+	@Override
+	public Move sample(SolutionState state, Random random) {
+		ProblemIndex index = state.getIndex();
+		int session = random.nextInt(index.getSessionCount());
+		int[] rooms = index.getSuitableRooms(session);
+		if (rooms.length < 2) {
+			return null;
+		}
+		int period = state.getPeriod(session);
+		for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+			int room = rooms[random.nextInt(rooms.length)];
+			if (room != state.getRoom(session) &&
+					state.isAssignable(session, period, room)) {
+				return new RelocationMove(state, session, period, room);
+			}
+		}
+		return null;
+	}
+}
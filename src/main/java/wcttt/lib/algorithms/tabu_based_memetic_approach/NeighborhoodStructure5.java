@@ -0,0 +1,188 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class NeighborhoodStructure5 implements NeighborhoodStructure {
+
+	private static final int APPLY_ATTEMPTS = 100;
+	private static final int SAMPLE_ATTEMPTS = 10;
+
+	/**
+	 * Creates the neighborhood structure that swaps Kempe chains between two
+	 * periods.
+	 */
+	public NeighborhoodStructure5() {
+	}
+
+	/**
+	 * Chooses a single session and a second period at random and swaps the
+	 * Kempe chain of the session between its period and the second period.
+	 * The chain contains every session of both periods that is connected to
+	 * the chosen session by a sequence of conflicting sessions, i.e. sessions
+	 * of the same course or teacher or of a common curriculum. The method
+	 * tries up to {@value APPLY_ATTEMPTS} random combinations, i.e. it samples
+	 * {@value APPLY_ATTEMPTS} / {@value SAMPLE_ATTEMPTS} moves with {@link
+	 * #sample(SolutionState, Random)}.
+	 *
+	 * @param timetable the timetable to which the neighborhood structure should
+	 *                  be applied.
+	 * @param semester the semester the timetable belongs to.
+	 */
+	@Override
+	public void apply(Timetable timetable, Semester semester) {
+		apply(timetable, new ProblemIndex(semester));
+	}
+
+	@Override
+	public void apply(Timetable timetable, ProblemIndex index) {
+		Util.applySampledMove(this, timetable, index,
+				APPLY_ATTEMPTS / SAMPLE_ATTEMPTS);
+	}
+
+	/**
+	 * Chooses a single session and a second period at random and checks
+	 * whether their Kempe chain can be swapped, like {@link #apply(Timetable,
+	 * Semester)} does. The chain must not contain pre-assignments or double
+	 * sessions. Up to {@value SAMPLE_ATTEMPTS} random combinations are tried.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param random the source of randomness.
+	 * @return the move, or {@code null} if no feasible chain was found.
+	 */
+	@Override
+	public Move sample(SolutionState state, Random random) {
+		ProblemIndex index = state.getIndex();
+		int[] movable = index.getMovableSessions();
+		if (movable.length == 0) {
+			return null;
+		}
+		for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+			int session = movable[random.nextInt(movable.length)];
+			int periodA = state.getPeriod(session);
+			int periodB = random.nextInt(index.getPeriodCount());
+			if (index.isDoubleSession(session) || periodA == periodB) {
+				continue;
+			}
+			Move move = createKempeMove(state, session, periodA, periodB);
+			if (move != null) {
+				return move;
+			}
+		}
+		return null;
+	}
+
+	private Move createKempeMove(SolutionState state, int session, int periodA,
+	                             int periodB) {
+		ProblemIndex index = state.getIndex();
+		int[] chainA = new int[index.getRoomCount()];
+		int[] chainB = new int[index.getRoomCount()];
+		chainA[0] = session;
+		int sizeA = 1;
+		int sizeB = 0;
+		boolean extended = true;
+		while (extended) {
+			int previousSizeA = sizeA;
+			int previousSizeB = sizeB;
+			sizeB = extendChain(state, periodB, chainB, sizeB, chainA, sizeA);
+			sizeA = extendChain(state, periodA, chainA, sizeA, chainB, sizeB);
+			if (sizeA < 0 || sizeB < 0) {
+				return null;
+			}
+			extended = sizeA != previousSizeA || sizeB != previousSizeB;
+		}
+		int[] sessions = new int[sizeA + sizeB];
+		int[] toPeriods = new int[sizeA + sizeB];
+		System.arraycopy(chainA, 0, sessions, 0, sizeA);
+		System.arraycopy(chainB, 0, sessions, sizeA, sizeB);
+		Arrays.fill(toPeriods, 0, sizeA, periodB);
+		Arrays.fill(toPeriods, sizeA, sizeA + sizeB, periodA);
+		return ReassignmentMove.create(state, sessions, toPeriods);
+	}
+
+	/**
+	 * Adds every session of a period to the chain of that period that
+	 * conflicts with a session of the opposite chain.
+	 *
+	 * @return the new size of the chain, or -1 if a session that must be
+	 * added is pre-assigned or a double session.
+	 */
+	private int extendChain(SolutionState state, int period, int[] chain,
+	                        int size, int[] opposite, int oppositeSize) {
+		ProblemIndex index = state.getIndex();
+		for (int room = 0; room < index.getRoomCount(); room++) {
+			int session = state.getOccupant(period, room);
+			if (session == -1 || contains(chain, size, session)) {
+				continue;
+			}
+			for (int i = 0; i < oppositeSize; i++) {
+				if (conflicting(index, session, opposite[i])) {
+					if (!index.isMovable(session) ||
+							index.isDoubleSession(session)) {
+						return -1;
+					}
+					chain[size++] = session;
+					break;
+				}
+			}
+		}
+		return size;
+	}
+
+	private boolean contains(int[] chain, int size, int session) {
+		for (int i = 0; i < size; i++) {
+			if (chain[i] == session) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean conflicting(ProblemIndex index, int sessionA,
+	                            int sessionB) {
+		if (index.getTeacher(sessionA) == index.getTeacher(sessionB) ||
+				index.getCourse(sessionA) == index.getCourse(sessionB)) {
+			return true;
+		}
+		for (int curriculumA : index.getCurricula(index.getCourse(sessionA))) {
+			for (int curriculumB :
+					index.getCurricula(index.getCourse(sessionB))) {
+				if (curriculumA == curriculumB) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
+
+import java.util.Random;
+
+public class NeighborhoodStructure6 implements NeighborhoodStructure {
+
+	private static final int APPLY_ATTEMPTS = 100;
+	private static final int SAMPLE_ATTEMPTS = 10;
+
+	/**
+	 * Creates the neighborhood structure that moves a double session.
+	 */
+	public NeighborhoodStructure6() {
+	}
+
+	/**
+	 * Chooses a double session at random and moves both of its periods to a
+	 * new random feasible pair of consecutive periods and a suitable room.
+	 * The method tries up to {@value APPLY_ATTEMPTS} random periods and
+	 * rooms, i.e. it samples {@value APPLY_ATTEMPTS} / {@value
+	 * SAMPLE_ATTEMPTS} moves with {@link #sample(SolutionState, Random)}.
+	 *
+	 * @param timetable the timetable to which the neighborhood structure should
+	 *                  be applied.
+	 * @param semester the semester the timetable belongs to.
+	 */
+	@Override
+	public void apply(Timetable timetable, Semester semester) {
+		apply(timetable, new ProblemIndex(semester));
+	}
+
+	@Override
+	public void apply(Timetable timetable, ProblemIndex index) {
+		Util.applySampledMove(this, timetable, index,
+				APPLY_ATTEMPTS / SAMPLE_ATTEMPTS);
+	}
+
+	/**
+	 * Chooses a double session at random and tries up to
+	 * {@value SAMPLE_ATTEMPTS} random start periods and suitable rooms to find
+	 * a new feasible assignment.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param random the source of randomness.
+	 * @return the move, or {@code null} if no feasible assignment was found or
+	 * there are no movable double sessions.
+	 */
+	@Override
+	public Move sample(SolutionState state, Random random) {
+		ProblemIndex index = state.getIndex();
+		int[] doubleSessions = index.getMovableDoubleSessions();
+		if (doubleSessions.length == 0) {
+			return null;
+		}
+		int session = doubleSessions[random.nextInt(doubleSessions.length)];
+		int[] periods = index.getDomainPeriods(session);
+		int[] rooms = index.getSuitableRooms(session);
+		if (periods.length == 0) {
+			return null;
+		}
+		for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+			int period = periods[random.nextInt(periods.length)];
+			int room = rooms[random.nextInt(rooms.length)];
+			if (period != state.getPeriod(session) &&
+					state.isAssignable(session, period, room)) {
+				return new RelocationMove(state, session, period, room);
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
+
+import java.util.Random;
+
+public class NeighborhoodStructure7 implements NeighborhoodStructure {
+
+	private static final int APPLY_ATTEMPTS = 100;
+	private static final int SAMPLE_ATTEMPTS = 10;
+
+	/**
+	 * Creates the neighborhood structure that moves the session blocks of
+	 * teachers.
+	 */
+	public NeighborhoodStructure7() {
+	}
+
+	/**
+	 * Chooses a single session at random and determines the block of
+	 * consecutive periods of that day in which its teacher holds sessions.
+	 * The block is swapped with an equally long range of periods at another
+	 * random position, such that the teacher's sessions of that range take
+	 * the place of the block. This targets the number of consecutive sessions
+	 * of a teacher (s6). The method tries up to {@value APPLY_ATTEMPTS}
+	 * random combinations, i.e. it samples {@value APPLY_ATTEMPTS} / {@value
+	 * SAMPLE_ATTEMPTS} moves with {@link #sample(SolutionState, Random)}.
+	 *
+	 * @param timetable the timetable to which the neighborhood structure should
+	 *                  be applied.
+	 * @param semester the semester the timetable belongs to.
+	 */
+	@Override
+	public void apply(Timetable timetable, Semester semester) {
+		apply(timetable, new ProblemIndex(semester));
+	}
+
+	@Override
+	public void apply(Timetable timetable, ProblemIndex index) {
+		Util.applySampledMove(this, timetable, index,
+				APPLY_ATTEMPTS / SAMPLE_ATTEMPTS);
+	}
+
+	/**
+	 * Chooses a teacher's block and a target range at random and checks
+	 * whether they can be swapped, like {@link #apply(Timetable, Semester)}
+	 * does. Both must not contain pre-assignments or double sessions. Up to
+	 * {@value SAMPLE_ATTEMPTS} random combinations are tried.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param random the source of randomness.
+	 * @return the move, or {@code null} if no feasible swap was found.
+	 */
+	@Override
+	public Move sample(SolutionState state, Random random) {
+		ProblemIndex index = state.getIndex();
+		int[] movable = index.getMovableSessions();
+		if (movable.length == 0) {
+			return null;
+		}
+		int timeSlots = index.getTimeSlotsPerDay();
+		for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+			int session = movable[random.nextInt(movable.length)];
+			int teacher = index.getTeacher(session);
+			int period = state.getPeriod(session);
+			int dayStart = period - period % timeSlots;
+			int first = period;
+			while (first > dayStart &&
+					teacherSession(state, teacher, first - 1) != -1) {
+				first--;
+			}
+			int last = period;
+			while (last < dayStart + timeSlots - 1 &&
+					teacherSession(state, teacher, last + 1) != -1) {
+				last++;
+			}
+			int length = last - first + 1;
+			int target = random.nextInt(index.getDaysPerWeek()) * timeSlots +
+					random.nextInt(timeSlots - length + 1);
+			if (target + length > first && target <= last) {
+				continue; // Overlapping ranges
+			}
+			Move move = createBlockSwap(state, teacher, first, target, length);
+			if (move != null) {
+				return move;
+			}
+		}
+		return null;
+	}
+
+	private Move createBlockSwap(SolutionState state, int teacher, int first,
+	                             int target, int length) {
+		ProblemIndex index = state.getIndex();
+		int[] sessions = new int[2 * length];
+		int[] toPeriods = new int[2 * length];
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			int blockSession = teacherSession(state, teacher, first + i);
+			int targetSession = teacherSession(state, teacher, target + i);
+			for (int session : new int[]{blockSession, targetSession}) {
+				if (session != -1 && (!index.isMovable(session) ||
+						index.isDoubleSession(session))) {
+					return null;
+				}
+			}
+			if (blockSession != -1) {
+				sessions[count] = blockSession;
+				toPeriods[count++] = target + i;
+			}
+			if (targetSession != -1) {
+				sessions[count] = targetSession;
+				toPeriods[count++] = first + i;
+			}
+		}
+		int[] movedSessions = new int[count];
+		int[] movedToPeriods = new int[count];
+		System.arraycopy(sessions, 0, movedSessions, 0, count);
+		System.arraycopy(toPeriods, 0, movedToPeriods, 0, count);
+		return ReassignmentMove.create(state, movedSessions, movedToPeriods);
+	}
+
+	/**
+	 * Finds the session a teacher holds in a period.
+	 *
+	 * @return the session, or -1 if the teacher is free.
+	 */
+	private int teacherSession(SolutionState state, int teacher, int period) {
+		ProblemIndex index = state.getIndex();
+		for (int room = 0; room < index.getRoomCount(); room++) {
+			int session = state.getOccupant(period, room);
+			if (session != -1 && index.getTeacher(session) == teacher) {
+				return session;
+			}
+		}
+		return -1;
+	}
+}
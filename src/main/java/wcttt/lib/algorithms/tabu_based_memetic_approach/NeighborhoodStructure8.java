@@ -0,0 +1,92 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.RoomAssignmentOptimizer;
+import wcttt.lib.util.SolutionState;
+
+import java.util.Random;
+
+public class NeighborhoodStructure8 implements NeighborhoodStructure {
+
+	private static final int APPLY_ATTEMPTS = 100;
+	private static final int SAMPLE_ATTEMPTS = 10;
+
+	/**
+	 * Creates the neighborhood structure that reassigns the rooms of a
+	 * period.
+	 */
+	public NeighborhoodStructure8() {
+	}
+
+	/**
+	 * Chooses a single period at random and reassigns the rooms of its
+	 * sessions optimally with respect to s1 and s4, see {@link
+	 * RoomAssignmentOptimizer}. The method tries up to {@value APPLY_ATTEMPTS}
+	 * random periods until the rooms of one of them can be improved, i.e. it
+	 * samples {@value APPLY_ATTEMPTS} / {@value SAMPLE_ATTEMPTS} moves with
+	 * {@link #sample(SolutionState, Random)}.
+	 *
+	 * @param timetable the timetable to which the neighborhood structure should
+	 *                  be applied.
+	 * @param semester the semester the timetable belongs to.
+	 */
+	@Override
+	public void apply(Timetable timetable, Semester semester) {
+		apply(timetable, new ProblemIndex(semester));
+	}
+
+	@Override
+	public void apply(Timetable timetable, ProblemIndex index) {
+		Util.applySampledMove(this, timetable, index,
+				APPLY_ATTEMPTS / SAMPLE_ATTEMPTS);
+	}
+
+	/**
+	 * Chooses a single period at random and calculates the optimal rooms of
+	 * its sessions. Up to {@value SAMPLE_ATTEMPTS} random periods are tried.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param random the source of randomness.
+	 * @return the move, or {@code null} if the rooms of the tried periods are
+	 * already optimal.
+	 */
+	@Override
+	public Move sample(SolutionState state, Random random) {
+		for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+			Move move = RoomAssignmentOptimizer.createMove(state,
+					random.nextInt(state.getIndex().getPeriodCount()));
+			if (move != null) {
+				return move;
+			}
+		}
+		return null;
+	}
+}
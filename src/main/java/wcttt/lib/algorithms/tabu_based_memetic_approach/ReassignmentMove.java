@@ -0,0 +1,135 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
+
+/**
+ * Moves several sessions of a solution state to new periods at once. The
+ * sessions keep their rooms if possible, otherwise another free suitable room
+ * is chosen when the move is created.
+ */
+final class ReassignmentMove implements Move {
+
+	private final SolutionState state;
+	private final int[] sessions;
+	private final int[] fromPeriods;
+	private final int[] fromRooms;
+	private final int[] toPeriods;
+	private final int[] toRooms;
+
+	private ReassignmentMove(SolutionState state, int[] sessions,
+	                         int[] toPeriods, int[] toRooms) {
+		this.state = state;
+		this.sessions = sessions;
+		this.fromPeriods = new int[sessions.length];
+		this.fromRooms = new int[sessions.length];
+		for (int i = 0; i < sessions.length; i++) {
+			fromPeriods[i] = state.getPeriod(sessions[i]);
+			fromRooms[i] = state.getRoom(sessions[i]);
+		}
+		this.toPeriods = toPeriods;
+		this.toRooms = toRooms;
+	}
+
+	/**
+	 * Creates the move if the sessions can be moved to the new periods
+	 * without violating any hard constraints. The feasibility is checked by
+	 * applying the move temporarily, the state is restored afterwards.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param sessions the sessions that are moved, none of them must be a
+	 *                 double session.
+	 * @param toPeriods the new periods of the sessions.
+	 * @return the move, or {@code null} if the move is infeasible.
+	 */
+	static ReassignmentMove create(SolutionState state, int[] sessions,
+	                               int[] toPeriods) {
+		ProblemIndex index = state.getIndex();
+		int[] fromPeriods = new int[sessions.length];
+		int[] fromRooms = new int[sessions.length];
+		for (int i = 0; i < sessions.length; i++) {
+			fromPeriods[i] = state.getPeriod(sessions[i]);
+			fromRooms[i] = state.getRoom(sessions[i]);
+			state.unassign(sessions[i]);
+		}
+		int[] toRooms = new int[sessions.length];
+		int assigned = 0;
+		for (; assigned < sessions.length; assigned++) {
+			int session = sessions[assigned];
+			int room = findRoom(state, index, session, toPeriods[assigned],
+					fromRooms[assigned]);
+			if (room == -1) {
+				break;
+			}
+			state.assign(session, toPeriods[assigned], room);
+			toRooms[assigned] = room;
+		}
+		for (int i = 0; i < assigned; i++) {
+			state.unassign(sessions[i]);
+		}
+		for (int i = 0; i < sessions.length; i++) {
+			state.assign(sessions[i], fromPeriods[i], fromRooms[i]);
+		}
+		return assigned == sessions.length ?
+				new ReassignmentMove(state, sessions, toPeriods, toRooms) : null;
+	}
+
+	private static int findRoom(SolutionState state, ProblemIndex index,
+	                            int session, int period, int preferredRoom) {
+		if (state.isAssignable(session, period, preferredRoom)) {
+			return preferredRoom;
+		}
+		for (int room : index.getSuitableRooms(session)) {
+			if (room != preferredRoom &&
+					state.isAssignable(session, period, room)) {
+				return room;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void apply() {
+		reassign(toPeriods, toRooms);
+	}
+
+	@Override
+	public void undo() {
+		reassign(fromPeriods, fromRooms);
+	}
+
+	private void reassign(int[] periods, int[] rooms) {
+		for (int session : sessions) {
+			state.unassign(session);
+		}
+		for (int i = 0; i < sessions.length; i++) {
+			state.assign(sessions[i], periods[i], rooms[i]);
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import wcttt.lib.util.Move;
+import wcttt.lib.util.SolutionState;
+
+/**
+ * Moves a single session of a solution state to another period and/or room.
+ */
+final class RelocationMove implements Move {
+
+	private final SolutionState state;
+	private final int session;
+	private final int fromPeriod;
+	private final int fromRoom;
+	private final int toPeriod;
+	private final int toRoom;
+
+	RelocationMove(SolutionState state, int session, int period, int room) {
+		this.state = state;
+		this.session = session;
+		this.fromPeriod = state.getPeriod(session);
+		this.fromRoom = state.getRoom(session);
+		this.toPeriod = period;
+		this.toRoom = room;
+	}
+
+	@Override
+	public void apply() {
+		state.move(session, toPeriod, toRoom);
+	}
+
+	@Override
+	public void undo() {
+		state.move(session, fromPeriod, fromRoom);
+	}
+}
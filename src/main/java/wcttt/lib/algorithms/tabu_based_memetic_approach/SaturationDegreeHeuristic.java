@@ -29,6 +29,7 @@ import wcttt.lib.algorithms.WctttAlgorithmException;
 import wcttt.lib.algorithms.WctttAlgorithmFatalException;
 import wcttt.lib.model.*;
 import wcttt.lib.util.ConflictMatrixCalculator;
+import wcttt.lib.util.ProblemIndex;
 import wcttt.lib.util.SessionRoomConflict;
 import wcttt.lib.util.SessionSessionConflict;
 import wcttt.lib.util.TeacherPeriodConflict;
@@ -44,17 +45,19 @@ import java.util.stream.Stream;
  * Session == Vertex
  * Period == Color
  */
-class SaturationDegreeHeuristic {
+public class SaturationDegreeHeuristic {
 
 	private Semester semester;
+	private ProblemIndex index;
 	private Map<Session, Map<Session, SessionSessionConflict>> sessionSessionConflicts;
 	private Map<InternalSession, Map<InternalRoom, SessionRoomConflict>> sessionRoomConflicts;
 	private Map<Teacher, Map<Period, TeacherPeriodConflict>> teacherPeriodConflicts;
 
-	SaturationDegreeHeuristic(Semester semester) {
+	public SaturationDegreeHeuristic(Semester semester) {
 		this.semester = semester;
+		index = new ProblemIndex(semester);
 		ConflictMatrixCalculator matrixCalculator =
-				new ConflictMatrixCalculator(semester);
+				new ConflictMatrixCalculator(semester, true);
 		sessionSessionConflicts = matrixCalculator.calcSessionSessionConflicts();
 		sessionRoomConflicts = matrixCalculator.calcSessionRoomConflicts();
 		teacherPeriodConflicts = matrixCalculator.calcTeacherPeriodConflicts();
@@ -70,8 +73,11 @@ class SaturationDegreeHeuristic {
 	 * @throws WctttAlgorithmException if an error occurred, e.g. unrealizable
 	 * room requirements.
 	 */
-	List<Timetable> generateFeasibleSolutions(int count, AtomicBoolean isCancelled)
+	public List<Timetable> generateFeasibleSolutions(int count,
+	                                                 AtomicBoolean isCancelled)
 			throws WctttAlgorithmException {
+		ConstructionEvent event = new ConstructionEvent();
+		event.begin();
 		List<InternalSession> internalSessions = new LinkedList<>();
 		List<ExternalSession> externalSessions = new LinkedList<>();
 		fillSessionLists(internalSessions, externalSessions);
@@ -80,17 +86,20 @@ class SaturationDegreeHeuristic {
 		List<Timetable> generatedTimetables = new LinkedList<>();
 
 		for (int i = 0; i < count && !isCancelled.get(); i++) {
+			event.attempts++;
 			List<InternalSession> unassignedSessions =
 					new LinkedList<>(internalSessions);
 
 			Map<Period, Integer> periodUsages = new HashMap<>();
 			periods.forEach(period -> periodUsages.put(period, 0));
 
-			Map<InternalRoom, List<Period>> unassignedPeriods = new HashMap<>();
+			Map<InternalRoom, List<Period>> unassignedPeriods =
+					new IdentityHashMap<>();
 			semester.getInternalRooms().forEach(
 					room -> unassignedPeriods.put(room, new LinkedList<>(periods)));
 
-			Map<Session, TimetablePeriod> assignmentMap = new HashMap<>();
+			Map<Session, TimetablePeriod> assignmentMap =
+					new IdentityHashMap<>();
 			Stream.concat(internalSessions.stream(), externalSessions.stream()).
 					forEach(session -> assignmentMap.put(session, null));
 
@@ -119,7 +128,7 @@ class SaturationDegreeHeuristic {
 						getPeriodsOrderedByLowestUsage(periodUsages);
 				couldFindAssignment = Util.assignSessionRandomly(nextSession,
 						timetable, semester, orderedPeriods, unassignedSessions,
-						periodUsages, unassignedPeriods, assignmentMap);
+						periodUsages, unassignedPeriods, assignmentMap, index);
 			}
 
 			if (couldFindAssignment && !isCancelled.get()) {
@@ -132,6 +141,13 @@ class SaturationDegreeHeuristic {
 			}
 		}
 
+		event.end();
+		if (event.shouldCommit()) {
+			event.requested = count;
+			event.constructed = generatedTimetables.size();
+			event.internalSessions = internalSessions.size();
+			event.commit();
+		}
 		return generatedTimetables;
 	}
 
@@ -234,15 +250,17 @@ class SaturationDegreeHeuristic {
 			List<InternalSession> unassignedSessions,
 			Map<Session, TimetablePeriod> assignmentMap, Timetable timetable) {
 		List<InternalSession> maxSatDegrees = new LinkedList<>();
-		Map<InternalSession, Integer> saturationDegrees = new HashMap<>();
+		int[] saturationDegrees = new int[unassignedSessions.size()];
 		int max = 0;
+		int i = 0;
 		for (InternalSession session : unassignedSessions) {
-			Set<TimetablePeriod> distinctColors = new HashSet<>();
+			Set<TimetablePeriod> distinctColors =
+					Collections.newSetFromMap(new IdentityHashMap<>());
 			for (Map.Entry<Session, SessionSessionConflict> entry :
 					sessionSessionConflicts.get(session).entrySet()) {
 				Session otherSession = entry.getKey();
 				SessionSessionConflict conflict = entry.getValue();
-				if (!otherSession.equals(session) &&
+				if (otherSession != session &&
 						(!conflict.getCurricula().isEmpty() ||
 								conflict.isSessionConflict() ||
 								conflict.isTeacherConflict())) {
@@ -262,12 +280,13 @@ class SaturationDegreeHeuristic {
 			if (distinctColors.size() > max) {
 				max = distinctColors.size();
 			}
-			saturationDegrees.put(session, distinctColors.size());
+			saturationDegrees[i++] = distinctColors.size();
 		}
 
-		for (Map.Entry<InternalSession, Integer> entry : saturationDegrees.entrySet()) {
-			if (entry.getValue() == max) {
-				maxSatDegrees.add(entry.getKey());
+		i = 0;
+		for (InternalSession session : unassignedSessions) {
+			if (saturationDegrees[i++] == max) {
+				maxSatDegrees.add(session);
 			}
 		}
 
@@ -28,6 +28,11 @@ package wcttt.lib.algorithms.tabu_based_memetic_approach;
 import wcttt.lib.algorithms.*;
 import wcttt.lib.model.*;
 import wcttt.lib.util.ConstraintViolationsCalculator;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.PenaltyCache;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.RoomAssignmentOptimizer;
+import wcttt.lib.util.SolutionState;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -45,23 +50,43 @@ public class TabuBasedMemeticApproach extends AbstractAlgorithm {
 			new ParameterDefinition("Population size", "50", ParameterType.INT),
 			new ParameterDefinition("Crossover rate", "0.8",ParameterType.DOUBLE),
 			new ParameterDefinition("Mutation rate", "0.04",ParameterType.DOUBLE),
-			new ParameterDefinition("Tabu list size", "3", ParameterType.INT));
+			new ParameterDefinition("Tabu list size", "3", ParameterType.INT),
+			new ParameterDefinition("Neighborhood selection (0 = random, 1 = " +
+					"roulette wheel, 2 = UCB, 3 = probability matching)", "3",
+					ParameterType.INT));
 	private static final int POPULATION_SIZE_MIN = 2;
 	private static final double CROSSOVER_RATE_MIN = 0.0;
 	private static final double CROSSOVER_RATE_MAX = 1.0;
 	private static final double MUTATION_RATE_MIN = 0.0;
 	private static final double MUTATION_RATE_MAX = 1.0;
 	private static final int TABU_LIST_SIZE_MIN = 1;
+	private static final String METRIC_EVALUATIONS = "evaluations";
+	private static final String METRIC_CACHED_EVALUATIONS =
+			"evaluations.cached";
+	private static final String METRIC_DUPLICATES = "duplicates";
+	private static final String METRIC_GENERATIONS = "generations";
+	private static final String METRIC_GENERATION_ALLOCATION =
+			"allocation.generation";
+	private static final String METRIC_PHASE = "phase.";
+	private static final String METRIC_NBS = "nbs.";
+	// Number of penalties of recently evaluated timetables that are cached:
+	private static final int PENALTY_CACHE_SIZE = 1024;
 	private static final List<NeighborhoodStructure> NBS_LIST = Arrays.asList(
+			new NeighborhoodStructure1(),
 			new NeighborhoodStructure2(),
-			new NeighborhoodStructure3()
-			// TODO add more neighborhood structures
+			new NeighborhoodStructure3(),
+			new NeighborhoodStructure4(),
+			new NeighborhoodStructure5(),
+			new NeighborhoodStructure6(),
+			new NeighborhoodStructure7(),
+			new NeighborhoodStructure8()
 	);
 
 	private int populationSize;
 	private double crossoverRate;
 	private double mutationRate;
 	private int tabuListSize;
+	private NbsSelectionStrategy nbsSelectionStrategy;
 	private final int numberOfSessions;
 
 	public TabuBasedMemeticApproach(Semester semester) {
@@ -117,6 +142,10 @@ public class TabuBasedMemeticApproach extends AbstractAlgorithm {
 							tabuListSize = (Integer) value.getValue();
 							validateTabuListSize();
 							break;
+						case 4:
+							nbsSelectionStrategy = toNbsSelectionStrategy(
+									(Integer) value.getValue());
+							break;
 					}
 				}
 			}
@@ -157,75 +186,188 @@ public class TabuBasedMemeticApproach extends AbstractAlgorithm {
 		}
 	}
 
+	private NbsSelectionStrategy toNbsSelectionStrategy(int value)
+			throws WctttAlgorithmException {
+		if (value < 0 || value >= NbsSelectionStrategy.values().length) {
+			throw new WctttAlgorithmException("Neighborhood selection must be" +
+					" >= 0 and <= " + (NbsSelectionStrategy.values().length - 1));
+		}
+		return NbsSelectionStrategy.values()[value];
+	}
+
 	@Override
 	protected Timetable runAlgorithm(AtomicBoolean isCancelled)
 			throws WctttAlgorithmException {
+		SearchState state = initSearch(isCancelled);
+
+		// If initialization of population was cancelled before a feasible
+		// solution was found, then return no feasible solution:
+		if (state == null) {
+			return null;
+		}
+
+		while (state.bestSolution.getSoftConstraintPenalty() != 0 &&
+				!isCancelled.get()) {
+			runGeneration(state);
+		}
+
+		// Post-processing, assign the rooms of the best solution optimally:
+		SolutionState best = new SolutionState(state.index, state.bestSolution);
+		RoomAssignmentOptimizer.optimize(best);
+		return best.toTimetable();
+	}
+
+	/**
+	 * Generates the initial population and determines its best solution.
+	 *
+	 * @param isCancelled the status of the algorithm.
+	 * @return the initial state of the search, or {@code null} if the
+	 * algorithm was cancelled before a feasible solution was found.
+	 * @throws WctttAlgorithmException if no feasible solution can be
+	 * generated.
+	 */
+	SearchState initSearch(AtomicBoolean isCancelled)
+			throws WctttAlgorithmException {
+		AlgorithmMetrics metrics = getMetrics();
+		long start = metrics.nanoTime();
+
 		// Generate random initial population of feasible solutions:
 		SaturationDegreeHeuristic satDegHeuristic =
 				new SaturationDegreeHeuristic(getSemester());
 		List<Timetable> population = satDegHeuristic.generateFeasibleSolutions(
 				populationSize, isCancelled);
-
-		// If initialization of population was cancelled before a feasible
-		// solution was found, then return no feasible solution:
 		if (population.isEmpty()) {
 			return null;
 		}
 
-		// Find best solution:
-		ConstraintViolationsCalculator constrCalc =
-				new ConstraintViolationsCalculator(getSemester());
-		population.forEach(t -> t.setSoftConstraintPenalty(
-				constrCalc.calcTimetablePenalty(t)));
-		Timetable bestSolution = chooseBestSolution(population);
-
-		Queue<NeighborhoodStructure> tabuList = new LinkedList<>();
-		boolean chooseNewNbs = true; // Nbs == neighborhood structure
-		NeighborhoodStructure selectedNbs = null;
+		// Find best solution, the penalties are calculated by the penalty
+		// cache, such that they are only cached if they are based on the
+		// weightings of the cache:
+		SearchState state = new SearchState(population,
+				new ProblemIndex(getSemester()), nbsSelectionStrategy, metrics);
+		state.bestSolution = chooseBestSolution(population);
+		state.evaluations.add(population.size());
+		metrics.summary(METRIC_PHASE + "initialization",
+				AlgorithmMetrics.Summary.NANOS).recordSince(start);
+		metrics.recordBestPenalty(state.bestSolution.getSoftConstraintPenalty());
+		return state;
+	}
 
-		while (bestSolution.getSoftConstraintPenalty() != 0 &&
-				!isCancelled.get()) {
-			// Genetic operators:
-			Timetable[] parents = rouletteWheelSelectParents(population);
-			Timetable[] offspring = crossoverOperator(parents);
-			mutationOperator(offspring[0]);
-			mutationOperator(offspring[1]);
-
-			// Local search:
-			if (chooseNewNbs) {
-				selectedNbs = selectNbsRandomly(tabuList);
-				// TODO other selection strategies as proposed in the paper
+	/**
+	 * Runs one generation of the search, i.e. selection, crossover, mutation,
+	 * local search and the update of the population.
+	 *
+	 * @param state the state of the search, which is updated.
+	 * @throws WctttAlgorithmException if an error occurred in a neighborhood
+	 * structure.
+	 */
+	void runGeneration(SearchState state) throws WctttAlgorithmException {
+		List<Timetable> population = state.population;
+		AlgorithmMetrics metrics = state.metrics;
+		long allocatedBefore = metrics.allocatedBytes();
+		MemeticGenerationEvent event = new MemeticGenerationEvent();
+		event.begin();
+
+		// Genetic operators:
+		long start = metrics.nanoTime();
+		Timetable[] parents = rouletteWheelSelectParents(population);
+		state.selectionTime.recordSince(start);
+		start = metrics.nanoTime();
+		Timetable[] offspring = crossoverOperator(parents);
+		state.crossoverTime.recordSince(start);
+		start = metrics.nanoTime();
+		mutationOperator(offspring[0], state);
+		mutationOperator(offspring[1], state);
+		state.mutationTime.recordSince(start);
+
+		// Local search:
+		start = metrics.nanoTime();
+		if (state.chooseNewNbs) {
+			state.selectedNbs = state.selector.select(state.tabuList);
+		}
+		long cpuStart = NeighborhoodSelector.cpuTime();
+		SolutionState[] improvedStates = {
+				localSearch(offspring[0], state.selectedNbs, state),
+				localSearch(offspring[1], state.selectedNbs, state)};
+		Timetable[] improvedOffspring = {
+				improvedStates[0].toTimetable(offspring[0]),
+				improvedStates[1].toTimetable(offspring[1])};
+		long localSearchCpuTime = NeighborhoodSelector.cpuTime() - cpuStart;
+		state.localSearchTime.recordSince(start);
+
+		// Calculate constraint violations of new solutions, the penalties and
+		// hashes of the improved offspring are already known from the local
+		// search:
+		start = metrics.nanoTime();
+		Map<Timetable, Long> hashes = new IdentityHashMap<>();
+		hashes.put(offspring[0], evaluate(offspring[0], state));
+		hashes.put(offspring[1], evaluate(offspring[1], state));
+		for (int i = 0; i < improvedOffspring.length; i++) {
+			Timetable improved = improvedOffspring[i];
+			long hash = improvedStates[i].getHash();
+			// The penalty of the local search is based on the weightings the
+			// index was created with, it is recalculated if they changed:
+			if (!state.penaltyCache.put(hash,
+					improved.getSoftConstraintPenalty(), state.index)) {
+				improved.setSoftConstraintPenalty(
+						state.penaltyCache.calcAndPut(improved, hash));
+				state.evaluations.increment();
 			}
-			Timetable[] improvedOffspring = {new Timetable(offspring[0]),
-					new Timetable(offspring[1])};
-			localSearch(improvedOffspring[0], selectedNbs);
-			localSearch(improvedOffspring[1], selectedNbs);
-
-			// Calculate constraint violations of new solutions:
-			List<Timetable> allNewSolutions = Arrays.asList(offspring[0],
-					offspring[1], improvedOffspring[0], improvedOffspring[1]);
-			allNewSolutions.forEach(t -> t.setSoftConstraintPenalty(
-					constrCalc.calcTimetablePenalty(t)));
-			Timetable bestNewSolution = chooseBestSolution(allNewSolutions);
-
-			// Update best solution and selected neighborhood structure:
-			if (bestNewSolution.getSoftConstraintPenalty() <
-					bestSolution.getSoftConstraintPenalty()) {
-				bestSolution = bestNewSolution;
-				chooseNewNbs = false;
-			} else {
-				// TODO uncomment following line if NBS_LIST.size() > tabuListSize
-				// tabuList.add(selectedNbs);
-				if (tabuList.size() > tabuListSize) {
-					tabuList.remove();
-				}
-				chooseNewNbs = true;
+			hashes.put(improved, hash);
+		}
+		List<Timetable> allNewSolutions = Arrays.asList(offspring[0],
+				offspring[1], improvedOffspring[0], improvedOffspring[1]);
+		Timetable bestNewSolution = chooseBestSolution(allNewSolutions);
+		state.evaluationTime.recordSince(start);
+
+		// Credit assignment for the selected neighborhood structure:
+		state.selector.reward(state.selectedNbs,
+				offspring[0].getSoftConstraintPenalty() -
+						improvedOffspring[0].getSoftConstraintPenalty() +
+						offspring[1].getSoftConstraintPenalty() -
+						improvedOffspring[1].getSoftConstraintPenalty(),
+				localSearchCpuTime);
+
+		// Update best solution and selected neighborhood structure:
+		start = metrics.nanoTime();
+		if (bestNewSolution.getSoftConstraintPenalty() <
+				state.bestSolution.getSoftConstraintPenalty()) {
+			state.bestSolution = bestNewSolution;
+			state.chooseNewNbs = false;
+			state.nbsCounter(state.selectedNbs, "accepted").increment();
+			metrics.recordBestPenalty(bestNewSolution.getSoftConstraintPenalty());
+		} else {
+			// At least one neighborhood structure must not be tabu:
+			state.tabuList.add(state.selectedNbs);
+			while (state.tabuList.size() >
+					Math.min(tabuListSize, NBS_LIST.size() - 1)) {
+				state.tabuList.remove();
 			}
+			state.chooseNewNbs = true;
+			state.nbsCounter(state.selectedNbs, "rejected").increment();
+		}
 
-			updatePopulation(population, bestNewSolution);
+		updatePopulation(state, bestNewSolution,
+				hashes.get(bestNewSolution));
+		state.populationUpdateTime.recordSince(start);
+
+		state.generation++;
+		event.end();
+		if (event.shouldCommit()) {
+			event.generation = state.generation;
+			event.neighborhoodStructure =
+					state.selectedNbs.getClass().getSimpleName();
+			event.bestNewPenalty = bestNewSolution.getSoftConstraintPenalty();
+			event.bestPenalty = state.bestSolution.getSoftConstraintPenalty();
+			event.improved = state.bestSolution == bestNewSolution;
+			event.commit();
 		}
 
-		return bestSolution;
+		state.generations.increment();
+		if (metrics.isEnabled()) {
+			state.generationAllocation.record(
+					metrics.allocatedBytes() - allocatedBefore);
+		}
 	}
 
 	private Timetable chooseBestSolution(List<Timetable> solutions) {
@@ -297,8 +439,9 @@ public class TabuBasedMemeticApproach extends AbstractAlgorithm {
 	}
 
 	private Timetable[] crossoverOperator(Timetable[] parents) {
-		Timetable[] offspring = {new Timetable(parents[0]),
-				new Timetable(parents[1])};
+		// The offspring share the assignments of their parents, only the
+		// periods that are changed by crossover and mutation are copied:
+		Timetable[] offspring = {parents[0].derive(), parents[1].derive()};
 		if (new Random().nextDouble() > crossoverRate) {
 			// No crossover, offspring equals parents
 			return offspring;
@@ -512,14 +655,11 @@ public class TabuBasedMemeticApproach extends AbstractAlgorithm {
 		boolean isDoubleSession = newAssgmt.getSession().isDoubleSession();
 		if (new Random().nextDouble() > 0.5) {
 			// Remove new:
-			// Because removeAssignment() uses List.remove() and the method uses
-			// equals() to find the element, we have to make the new and old
-			// assignments distinguishable. Therefore, we change the room.
-			newAssgmt.setRoom(new InternalRoom());
-			childPeriod.removeAssignment(newAssgmt);
+			// The assignments may be shared with other timetables, so they are
+			// removed by identity instead of making them distinguishable:
+			removeAssignment(childPeriod, newAssgmt);
 			if (isDoubleSession) {
-				newSecondAssgmt.setRoom(new InternalRoom());
-				childSecondPeriod.removeAssignment(newSecondAssgmt);
+				removeAssignment(childSecondPeriod, newSecondAssgmt);
 			}
 		} else {
 			// Remove old:
@@ -533,7 +673,6 @@ public class TabuBasedMemeticApproach extends AbstractAlgorithm {
 						if (assgmt != newAssgmt && assgmt != newSecondAssgmt &&
 								assgmt.getSession().equals(newAssgmt.getSession())) {
 							removePeriods.add(period);
-							assgmt.setRoom(new InternalRoom());
 							removeAssgmts.add(assgmt);
 							removed++;
 							if ((!isDoubleSession && removed == 1) ||
@@ -545,61 +684,112 @@ public class TabuBasedMemeticApproach extends AbstractAlgorithm {
 				}
 			}
 			for (int i = 0; i < removePeriods.size(); i++) {
-				removePeriods.get(i).removeAssignment(removeAssgmts.get(i));
+				removeAssignment(removePeriods.get(i), removeAssgmts.get(i));
 			}
 		}
 	}
 
+	private void removeAssignment(TimetablePeriod period,
+	                              TimetableAssignment assignment) {
+		period.getAssignments().removeIf(assgmt -> assgmt == assignment);
+	}
+
 	/**
 	 * Randomly selects a neighborhood structure and applies it with a
 	 * probability defined in the mutation rate. There are as many chances of
 	 * mutation as there are sessions in the semester.
 	 *
 	 * @param timetable the timetable that should be mutated.
+	 * @param state the state of the search.
 	 * @throws WctttAlgorithmException if an error occurred in the neighborhood
 	 * structure.
 	 */
-	private void mutationOperator(Timetable timetable)
+	private void mutationOperator(Timetable timetable, SearchState state)
 			throws WctttAlgorithmException {
-		NeighborhoodStructure nbs = selectNbsRandomly(null);
+		NeighborhoodStructure nbs = selectNbsRandomly();
+		AlgorithmMetrics.Counter applied = state.nbsCounter(nbs, "applied");
 		Random random = new Random();
 
 		for (int i = 0; i < numberOfSessions; i++) {
 			if (random.nextDouble() <= mutationRate) {
-				nbs.apply(timetable, getSemester());
+				nbs.apply(timetable, state.index);
+				applied.increment();
 			}
 		}
 	}
 
-	private NeighborhoodStructure selectNbsRandomly(
-			Queue<NeighborhoodStructure> tabuList) {
-		if (tabuList == null || tabuList.isEmpty()) {
-			return NBS_LIST.get(new Random().nextInt(NBS_LIST.size()));
-		} else if (NBS_LIST.size() == tabuList.size()) {
-			throw new WctttAlgorithmFatalException("Implementation error, all" +
-					" neighborhood structures are in the tabu list");
-		} else {
-			List<NeighborhoodStructure> nbsList = new LinkedList<>(NBS_LIST);
-			nbsList.removeAll(tabuList);
-			return nbsList.get(new Random().nextInt(nbsList.size()));
+	private NeighborhoodStructure selectNbsRandomly() {
+		return NBS_LIST.get(new Random().nextInt(NBS_LIST.size()));
+	}
+
+	/**
+	 * Improves a timetable by hill climbing with a single neighborhood
+	 * structure. There are as many moves as there are sessions in the
+	 * semester, moves that worsen the penalty are rejected.
+	 *
+	 * @param timetable the timetable that should be improved, it is not
+	 *                  changed.
+	 * @param selectedNbs the neighborhood structure that is used.
+	 * @param state the state of the search.
+	 * @return the state of the improved timetable, whose penalty and Zobrist
+	 * hash were updated incrementally by the moves.
+	 */
+	private SolutionState localSearch(Timetable timetable,
+	                              NeighborhoodStructure selectedNbs,
+	                              SearchState state) {
+		SolutionState solution = new SolutionState(state.index, timetable);
+		for (int i = 0; i < numberOfSessions; i++) {
+			Move move = selectedNbs.sample(solution, state.random);
+			if (move == null) {
+				continue;
+			}
+			if (solution.delta(move) <= 0) {
+				move.apply();
+			}
 		}
+		return solution;
 	}
 
-	private void localSearch(Timetable timetable,
-	                         NeighborhoodStructure selectedNbs) {
-		// TODO
+	/**
+	 * Sets the soft constraint penalty of a timetable. The penalty of a
+	 * timetable that was evaluated recently is taken from the penalty cache
+	 * instead of calculating it again.
+	 *
+	 * @param timetable the timetable that should be evaluated.
+	 * @param state the state of the search.
+	 * @return the Zobrist hash of the timetable.
+	 */
+	private long evaluate(Timetable timetable, SearchState state) {
+		long hash = state.index.hash(timetable);
+		OptionalDouble cached = state.penaltyCache.lookup(hash);
+		if (cached.isPresent()) {
+			timetable.setSoftConstraintPenalty(cached.getAsDouble());
+			state.cachedEvaluations.increment();
+		} else {
+			timetable.setSoftConstraintPenalty(
+					state.penaltyCache.calcAndPut(timetable, hash));
+			state.evaluations.increment();
+		}
+		return hash;
 	}
 
 	/**
 	 * Removes the worst solution in the population and and adds another
 	 * solution to the population. If the other solution is worse than the worst
-	 * solution of the population, nothing happens.
+	 * solution of the population or if it is already part of the population,
+	 * nothing happens.
 	 *
-	 * @param population  the current population.
+	 * @param state the state of the search, including the current population.
 	 * @param newSolution the new solution that should be added to the population.
+	 * @param hash the Zobrist hash of the new solution.
 	 */
-	private void updatePopulation(List<Timetable> population,
-	                              Timetable newSolution) {
+	private void updatePopulation(SearchState state, Timetable newSolution,
+	                              long hash) {
+		if (state.populationHashes.containsKey(hash)) {
+			state.duplicates.increment();
+			return;
+		}
+		List<Timetable> population = state.population;
 		Timetable worstSolution = population.get(0);
 		for (Timetable timetable : population) {
 			if (timetable.getSoftConstraintPenalty() >
@@ -609,8 +799,165 @@ public class TabuBasedMemeticApproach extends AbstractAlgorithm {
 		}
 		if (newSolution.getSoftConstraintPenalty() <
 				worstSolution.getSoftConstraintPenalty()) {
-			population.remove(worstSolution);
+			// Removed by identity, equal timetables may be part of the
+			// initial population:
+			Timetable removed = worstSolution;
+			population.removeIf(timetable -> timetable == removed);
+			state.removeHash(removed);
 			population.add(newSolution);
+			state.addHash(newSolution, hash);
+		}
+	}
+
+	/**
+	 * Starts a search that is not run until it is cancelled, but advanced one
+	 * generation at a time by the caller, e.g. to measure single generations.
+	 * The parameter values must have been set before.
+	 *
+	 * @return the search with its initial population.
+	 * @throws WctttAlgorithmException if no feasible solution can be
+	 * generated.
+	 */
+	public GenerationStepper startGenerationStepper()
+			throws WctttAlgorithmException {
+		return new GenerationStepper(initSearch(new AtomicBoolean(false)));
+	}
+
+	/**
+	 * A search that is advanced one generation at a time, see {@link
+	 * #startGenerationStepper()}.
+	 */
+	public final class GenerationStepper {
+
+		private final SearchState state;
+
+		private GenerationStepper(SearchState state) {
+			this.state = state;
+		}
+
+		/**
+		 * Runs one generation of the search.
+		 *
+		 * @throws WctttAlgorithmException if an error occurred in a
+		 * neighborhood structure.
+		 */
+		public void runGeneration() throws WctttAlgorithmException {
+			TabuBasedMemeticApproach.this.runGeneration(state);
+		}
+
+		/**
+		 * Getter for the best solution of the search.
+		 *
+		 * @return the best solution that was found so far.
+		 */
+		public Timetable getBestSolution() {
+			return state.getBestSolution();
+		}
+	}
+
+	/**
+	 * The state of the search that is carried from one generation to the next.
+	 */
+	static class SearchState {
+
+		private final List<Timetable> population;
+		private final ProblemIndex index;
+		private final Random random = new Random();
+		private final NeighborhoodSelector selector;
+		private final Queue<NeighborhoodStructure> tabuList = new LinkedList<>();
+		private Timetable bestSolution;
+		private boolean chooseNewNbs = true; // Nbs == neighborhood structure
+		private NeighborhoodStructure selectedNbs = null;
+		private long generation = 0;
+		// The Zobrist hashes of the population and how many members have
+		// them, duplicates of the initial population are kept, but no further
+		// ones are added:
+		private final Map<Timetable, Long> memberHashes =
+				new IdentityHashMap<>();
+		private final Map<Long, Integer> populationHashes = new HashMap<>();
+		private final PenaltyCache penaltyCache;
+
+		// Metrics are looked up once, such that the generations only use the
+		// counters and summaries:
+		private final AlgorithmMetrics metrics;
+		private final AlgorithmMetrics.Counter evaluations;
+		private final AlgorithmMetrics.Counter cachedEvaluations;
+		private final AlgorithmMetrics.Counter duplicates;
+		private final AlgorithmMetrics.Counter generations;
+		private final AlgorithmMetrics.Summary selectionTime;
+		private final AlgorithmMetrics.Summary crossoverTime;
+		private final AlgorithmMetrics.Summary mutationTime;
+		private final AlgorithmMetrics.Summary localSearchTime;
+		private final AlgorithmMetrics.Summary evaluationTime;
+		private final AlgorithmMetrics.Summary populationUpdateTime;
+		private final AlgorithmMetrics.Summary generationAllocation;
+		private final Map<String, AlgorithmMetrics.Counter> nbsCounters =
+				new HashMap<>();
+
+		private SearchState(List<Timetable> population, ProblemIndex index,
+		                    NbsSelectionStrategy nbsSelectionStrategy,
+		                    AlgorithmMetrics metrics) {
+			this.population = population;
+			this.index = index;
+			penaltyCache = new PenaltyCache(index, PENALTY_CACHE_SIZE);
+			selector = new NeighborhoodSelector(NBS_LIST, nbsSelectionStrategy,
+					random);
+			this.metrics = metrics;
+			evaluations = metrics.counter(METRIC_EVALUATIONS);
+			cachedEvaluations = metrics.counter(METRIC_CACHED_EVALUATIONS);
+			duplicates = metrics.counter(METRIC_DUPLICATES);
+			generations = metrics.counter(METRIC_GENERATIONS);
+			selectionTime = phaseSummary("selection");
+			crossoverTime = phaseSummary("crossover");
+			mutationTime = phaseSummary("mutation");
+			localSearchTime = phaseSummary("localSearch");
+			evaluationTime = phaseSummary("evaluation");
+			populationUpdateTime = phaseSummary("populationUpdate");
+			generationAllocation = metrics.summary(METRIC_GENERATION_ALLOCATION,
+					AlgorithmMetrics.Summary.BYTES);
+			for (NeighborhoodStructure nbs : NBS_LIST) {
+				for (String event : new String[]{"applied", "accepted",
+						"rejected"}) {
+					String name = METRIC_NBS + nbs.getClass().getSimpleName() +
+							"." + event;
+					nbsCounters.put(name, metrics.counter(name));
+				}
+			}
+			for (Timetable timetable : population) {
+				long hash = index.hash(timetable);
+				addHash(timetable, hash);
+				timetable.setSoftConstraintPenalty(
+						penaltyCache.calcAndPut(timetable, hash));
+			}
+		}
+
+		private void addHash(Timetable member, long hash) {
+			memberHashes.put(member, hash);
+			populationHashes.merge(hash, 1, Integer::sum);
+		}
+
+		private void removeHash(Timetable member) {
+			Long hash = memberHashes.remove(member);
+			populationHashes.computeIfPresent(hash,
+					(key, count) -> count == 1 ? null : count - 1);
+		}
+
+		private AlgorithmMetrics.Summary phaseSummary(String phase) {
+			return metrics.summary(METRIC_PHASE + phase,
+					AlgorithmMetrics.Summary.NANOS);
+		}
+
+		private AlgorithmMetrics.Counter nbsCounter(NeighborhoodStructure nbs,
+		                                            String event) {
+			if (!metrics.isEnabled()) {
+				return metrics.counter(event);
+			}
+			return nbsCounters.get(METRIC_NBS +
+					nbs.getClass().getSimpleName() + "." + event);
+		}
+
+		Timetable getBestSolution() {
+			return bestSolution;
 		}
 	}
 }
@@ -29,11 +29,16 @@ import wcttt.lib.algorithms.WctttAlgorithmException;
 import wcttt.lib.algorithms.WctttAlgorithmFatalException;
 import wcttt.lib.model.*;
 import wcttt.lib.util.ConstraintViolationsCalculator;
+import wcttt.lib.util.Move;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SolutionState;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * Methods whose functionality is required in multiple classes of the algorithm.
@@ -112,6 +117,8 @@ class Util {
 	 * @param assignmentMap the mapping of sessions to their respectively
 	 *                         assigned periods, or null if unassigned, can be
 	 *                         {@code null}.
+	 * @param index the index of the semester, if not {@code null}, periods
+	 *                 outside of the domain of the session are skipped.
 	 * @return {@code true} if an assignment was found, otherwise {@code false}.
 	 * @throws WctttAlgorithmException if no suitable room was found.
 	 */
@@ -120,12 +127,18 @@ class Util {
 	                                     List<InternalSession> unassignedSessions,
 	                                     Map<Period, Integer> periodUsages,
 	                                     Map<InternalRoom, List<Period>> unassignedPeriods,
-	                                     Map<Session, TimetablePeriod> assignmentMap)
+	                                     Map<Session, TimetablePeriod> assignmentMap,
+	                                     ProblemIndex index)
 			throws WctttAlgorithmException {
 		List<InternalRoom> suitableRooms = findSuitableRooms(session, semester);
 		Collections.shuffle(suitableRooms);
+		int sessionIndex = index == null ? -1 : index.indexOf(session);
 
 		for (Period period : orderedPeriods) {
+			if (index != null &&
+					!index.isInDomain(sessionIndex, index.toPeriod(period))) {
+				continue;
+			}
 			Period secondPeriod = null;
 			if (session.isDoubleSession()) {
 				if (period.getTimeSlot() == semester.getTimeSlotsPerDay()) {
@@ -276,4 +289,32 @@ class Util {
 					"problem while adding an assignment to the timetable", e);
 		}
 	}
+
+	/**
+	 * Applies a random feasible move of a neighborhood structure to a
+	 * timetable, for neighborhood structures that are implemented on solution
+	 * states only. Only the periods changed by the move are written back to
+	 * the timetable. The timetable is left unchanged if no feasible move was
+	 * found.
+	 *
+	 * @param nbs the neighborhood structure.
+	 * @param timetable the timetable, every session must be assigned.
+	 * @param index the index of the semester the timetable belongs to.
+	 * @param attempts the number of moves that are sampled at most.
+	 */
+	static void applySampledMove(NeighborhoodStructure nbs,
+	                             Timetable timetable, ProblemIndex index,
+	                             int attempts) {
+		SolutionState state = new SolutionState(index, timetable);
+		state.clearChangedPeriods();
+		Random random = new Random();
+		for (int i = 0; i < attempts; i++) {
+			Move move = nbs.sample(state, random);
+			if (move != null) {
+				move.apply();
+				state.writeTo(timetable, state.getChangedPeriods());
+				return;
+			}
+		}
+	}
 }
@@ -0,0 +1,266 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.binder;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Provides the streams used by the binder to read/write semester files. Files
+ * that start with the gzip magic bytes are decompressed transparently, files
+ * ending with {@value #GZIP_EXTENSION} are compressed on writing.
+ *
+ * The (de)compression runs on a background thread that is connected to the
+ * calling thread by a pipe, such that it overlaps with the (un)marshalling.
+ */
+class CompressedStreams {
+
+	static final String GZIP_EXTENSION = ".gz";
+	private static final int GZIP_MAGIC_FIRST = 0x1f;
+	private static final int GZIP_MAGIC_SECOND = 0x8b;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private CompressedStreams() {}
+
+	/**
+	 * Checks whether a file should be written compressed, which is determined
+	 * by its extension.
+	 *
+	 * @param file the file that should be written.
+	 * @return {@code true} if the file should be compressed, otherwise
+	 * {@code false}.
+	 */
+	static boolean isCompressedFile(File file) {
+		return file.getName().toLowerCase().endsWith(GZIP_EXTENSION);
+	}
+
+	/**
+	 * Opens a file for reading. If the file is gzip compressed, which is
+	 * detected by its magic bytes, it is decompressed in the background.
+	 *
+	 * @param file the file that should be read.
+	 * @return the stream containing the uncompressed content of the file.
+	 * @throws IOException if the file could not be opened.
+	 */
+	static InputStream openForReading(File file) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(file),
+				BUFFER_SIZE);
+		try {
+			in.mark(2);
+			int first = in.read();
+			int second = in.read();
+			in.reset();
+			if (first == GZIP_MAGIC_FIRST && second == GZIP_MAGIC_SECOND) {
+				return decompressInBackground(in);
+			} else {
+				return in;
+			}
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Wraps a stream such that everything that is written to the returned
+	 * stream is compressed in the background before it is written to the
+	 * target. Closing the returned stream waits for the compression to finish
+	 * and closes the target.
+	 *
+	 * @param target the stream to which the compressed data is written.
+	 * @return the stream that accepts the uncompressed data.
+	 * @throws IOException if the pipe could not be created.
+	 */
+	static OutputStream compressInBackground(OutputStream target)
+			throws IOException {
+		PipedInputStream pipeIn = new PipedInputStream(BUFFER_SIZE);
+		PipedOutputStream pipeOut = new PipedOutputStream(pipeIn);
+		PipeWorker worker = new PipeWorker("wcttt-binder-compression",
+				pipeIn, new GZIPOutputStream(target, BUFFER_SIZE), pipeIn);
+		worker.start();
+		return new BufferedOutputStream(new FilterOutputStream(pipeOut) {
+			// A failing worker closes the pipe, thus the writer would only
+			// see that the pipe is closed instead of the actual failure.
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				try {
+					out.write(b, off, len);
+				} catch (IOException e) {
+					throw worker.replaceByFailure(e);
+				}
+			}
+
+			@Override
+			public void flush() throws IOException {
+				try {
+					out.flush();
+				} catch (IOException e) {
+					throw worker.replaceByFailure(e);
+				}
+			}
+
+			@Override
+			public void close() throws IOException {
+				IOException pipeFailure = null;
+				try {
+					out.close();
+				} catch (IOException e) {
+					pipeFailure = e;
+				}
+				worker.awaitCompletion();
+				if (pipeFailure != null) {
+					throw worker.replaceByFailure(pipeFailure);
+				}
+				worker.rethrowFailure();
+			}
+		}, BUFFER_SIZE);
+	}
+
+	private static InputStream decompressInBackground(InputStream compressed)
+			throws IOException {
+		PipedInputStream pipeIn = new PipedInputStream(BUFFER_SIZE);
+		PipedOutputStream pipeOut = new PipedOutputStream(pipeIn);
+		PipeWorker worker = new PipeWorker("wcttt-binder-decompression",
+				new GZIPInputStream(compressed, BUFFER_SIZE), pipeOut, pipeOut);
+		worker.start();
+		return new FilterInputStream(pipeIn) {
+			@Override
+			public int read() throws IOException {
+				int result = super.read();
+				if (result == -1) {
+					worker.awaitCompletion();
+					worker.rethrowFailure();
+				}
+				return result;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int result = super.read(b, off, len);
+				if (result == -1) {
+					worker.awaitCompletion();
+					worker.rethrowFailure();
+				}
+				return result;
+			}
+
+			@Override
+			public void close() throws IOException {
+				// Closing the pipe makes a still running worker fail, which
+				// is irrelevant because the content is not required anymore.
+				// The interrupt wakes the worker if it waits for free space.
+				super.close();
+				worker.interrupt();
+				worker.awaitCompletion();
+			}
+		};
+	}
+
+	/**
+	 * Copies all data from one stream to another and closes both afterwards.
+	 * A failure is recorded before the pipe end is closed, such that the
+	 * other side can observe it as soon as it reaches the end of the pipe.
+	 */
+	private static class PipeWorker extends Thread {
+
+		private final InputStream from;
+		private final OutputStream to;
+		private final Closeable pipeEnd;
+		private volatile IOException failure;
+
+		PipeWorker(String name, InputStream from, OutputStream to,
+		           Closeable pipeEnd) {
+			super(name);
+			setDaemon(true);
+			this.from = from;
+			this.to = to;
+			this.pipeEnd = pipeEnd;
+		}
+
+		@Override
+		public void run() {
+			try {
+				from.transferTo(to);
+				to.flush();
+			} catch (IOException e) {
+				failure = e;
+			} finally {
+				closeQuietly(from);
+				closeQuietly(to);
+				closeQuietly(pipeEnd);
+			}
+		}
+
+		private void closeQuietly(Closeable closeable) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+
+		void awaitCompletion() throws IOException {
+			try {
+				join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting " +
+						"for the (de)compression to finish");
+			}
+		}
+
+		void rethrowFailure() throws IOException {
+			if (failure != null) {
+				throw wrapFailure(failure);
+			}
+		}
+
+		/**
+		 * Replaces an exception of the other pipe end by the failure of the
+		 * worker, which caused the pipe to be closed, if there is one.
+		 *
+		 * @param pipeException the exception of the other pipe end.
+		 * @return the exception that should be thrown to the other side.
+		 */
+		IOException replaceByFailure(IOException pipeException) {
+			IOException failure = this.failure;
+			if (failure == null) {
+				return pipeException;
+			}
+			IOException exception = wrapFailure(failure);
+			exception.addSuppressed(pipeException);
+			return exception;
+		}
+
+		private static IOException wrapFailure(IOException failure) {
+			return new IOException("Error while (de)compressing a XML file",
+					failure);
+		}
+	}
+}
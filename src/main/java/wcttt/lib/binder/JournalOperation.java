@@ -0,0 +1,104 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.binder;
+
+/**
+ * The operations that are recorded in a semester journal. Every operation
+ * corresponds to a mutating method of {@link wcttt.lib.model.Semester},
+ * except {@link #SET_PERIOD_ASSIGNMENTS}, which records any change of the
+ * assignments of a {@link wcttt.lib.model.TimetablePeriod}.
+ *
+ * The codes are persisted, so existing codes must never be changed.
+ */
+enum JournalOperation {
+	SET_NAME(1),
+	SET_DAYS_PER_WEEK(2),
+	SET_TIME_SLOTS_PER_DAY(3),
+	SET_MAX_DAILY_LECTURES_PER_CUR(4),
+	SET_CONSTR_WEIGHTINGS(5),
+	ADD_CHAIR(10),
+	REMOVE_CHAIR(11),
+	UPDATE_CHAIR_ID(12),
+	UPDATE_CHAIR_DATA(13),
+	ADD_TEACHER_TO_CHAIR(20),
+	REMOVE_TEACHER_FROM_CHAIR(21),
+	UPDATE_TEACHER_ID(22),
+	UPDATE_TEACHER_DATA(23),
+	ADD_INTERNAL_ROOM(30),
+	ADD_EXTERNAL_ROOM(31),
+	REMOVE_INTERNAL_ROOM(32),
+	REMOVE_EXTERNAL_ROOM(33),
+	UPDATE_ROOM_ID(34),
+	UPDATE_INTERNAL_ROOM_DATA(35),
+	UPDATE_EXTERNAL_ROOM_DATA(36),
+	ADD_COURSE(40),
+	REMOVE_COURSE(41),
+	UPDATE_COURSE_ID(42),
+	UPDATE_COURSE_DATA(43),
+	ADD_COURSE_LECTURE(50),
+	REMOVE_COURSE_LECTURE(51),
+	ADD_COURSE_PRACTICAL(52),
+	REMOVE_COURSE_PRACTICAL(53),
+	UPDATE_COURSE_SESSION_ID(54),
+	UPDATE_INTERNAL_SESSION_DATA(55),
+	UPDATE_EXTERNAL_SESSION_DATA(56),
+	ADD_CURRICULUM(60),
+	REMOVE_CURRICULUM(61),
+	UPDATE_CURRICULUM_ID(62),
+	UPDATE_CURRICULUM_DATA(63),
+	ADD_TIMETABLE(70),
+	REMOVE_TIMETABLE(71),
+	UPDATE_TIMETABLE_NAME(72),
+	SET_PERIOD_ASSIGNMENTS(73);
+
+	private static final JournalOperation[] BY_CODE = new JournalOperation[128];
+
+	static {
+		for (JournalOperation operation : values()) {
+			BY_CODE[operation.code] = operation;
+		}
+	}
+
+	private final byte code;
+
+	JournalOperation(int code) {
+		this.code = (byte) code;
+	}
+
+	byte getCode() {
+		return code;
+	}
+
+	/**
+	 * Looks up an operation by its persisted code.
+	 *
+	 * @param code the code of the operation.
+	 * @return the operation or {@code null} if the code is unknown.
+	 */
+	static JournalOperation fromCode(byte code) {
+		return code < 0 ? null : BY_CODE[code];
+	}
+}
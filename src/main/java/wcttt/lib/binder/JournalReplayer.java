@@ -0,0 +1,554 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.binder;
+
+import wcttt.lib.model.*;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the records of a semester journal to a semester. The entities are
+ * looked up by id in maps that are kept up to date while replaying, such that
+ * the replay time only depends on the length of the journal.
+ */
+class JournalReplayer {
+
+	private final SemesterImpl semester;
+	private final Map<String, Chair> chairs = new HashMap<>();
+	private final Map<String, Teacher> teachers = new HashMap<>();
+	private final Map<String, InternalRoom> internalRooms = new HashMap<>();
+	private final Map<String, ExternalRoom> externalRooms = new HashMap<>();
+	private final Map<String, Course> courses = new HashMap<>();
+	private final Map<String, Session> sessions = new HashMap<>();
+	private final Map<String, Curriculum> curricula = new HashMap<>();
+	private final Map<String, Timetable> timetables = new HashMap<>();
+
+	JournalReplayer(SemesterImpl semester) {
+		this.semester = semester;
+		for (Chair chair : semester.getChairs()) {
+			putChair(chair);
+		}
+		for (InternalRoom room : semester.getInternalRooms()) {
+			internalRooms.put(room.getId(), room);
+		}
+		for (ExternalRoom room : semester.getExternalRooms()) {
+			externalRooms.put(room.getId(), room);
+		}
+		for (Course course : semester.getCourses()) {
+			putCourse(course);
+		}
+		for (Curriculum curriculum : semester.getCurricula()) {
+			curricula.put(curriculum.getId(), curriculum);
+		}
+		for (Timetable timetable : semester.getTimetables()) {
+			timetables.put(timetable.getName(), timetable);
+		}
+	}
+
+	private void putChair(Chair chair) {
+		chairs.put(chair.getId(), chair);
+		for (Teacher teacher : chair.getTeachers()) {
+			teachers.put(teacher.getId(), teacher);
+		}
+	}
+
+	private void putCourse(Course course) {
+		courses.put(course.getId(), course);
+		for (Session lecture : course.getLectures()) {
+			sessions.put(lecture.getId(), lecture);
+		}
+		for (Session practical : course.getPracticals()) {
+			sessions.put(practical.getId(), practical);
+		}
+	}
+
+	private static <T> void rename(Map<String, T> map, String oldId,
+	                               String newId) {
+		map.put(newId, map.remove(oldId));
+	}
+
+	/**
+	 * Applies a single journal record to the semester.
+	 *
+	 * @param operation the operation of the record.
+	 * @param in the arguments of the operation.
+	 * @throws IOException if the arguments could not be read.
+	 * @throws WctttBinderException if the record does not match the
+	 * semester or the operation was rejected by the semester.
+	 */
+	void replay(JournalOperation operation, DataInput in) throws IOException,
+			WctttBinderException {
+		try {
+			apply(operation, in);
+		} catch (WctttModelException e) {
+			throw new WctttBinderException("Journal operation " + operation +
+					" was rejected by the semester", e);
+		}
+	}
+
+	private void apply(JournalOperation operation, DataInput in)
+			throws IOException, WctttBinderException, WctttModelException {
+		switch (operation) {
+			case SET_NAME:
+				semester.setName(in.readUTF());
+				break;
+			case SET_DAYS_PER_WEEK:
+				semester.setDaysPerWeek(in.readByte());
+				break;
+			case SET_TIME_SLOTS_PER_DAY:
+				semester.setTimeSlotsPerDay(in.readByte());
+				break;
+			case SET_MAX_DAILY_LECTURES_PER_CUR:
+				semester.setMaxDailyLecturesPerCur(in.readInt());
+				break;
+			case SET_CONSTR_WEIGHTINGS:
+				semester.setConstrWeightings(new ConstraintWeightings(
+						in.readDouble(), in.readDouble(), in.readDouble(),
+						in.readDouble(), in.readDouble(), in.readDouble(),
+						in.readDouble()));
+				break;
+			case ADD_CHAIR: {
+				Chair chair = new Chair(in.readUTF(), in.readUTF(),
+						in.readUTF());
+				int teachers = in.readInt();
+				for (int i = 0; i < teachers; i++) {
+					chair.getTeachers().add(readTeacher(in));
+				}
+				semester.addChair(chair);
+				putChair(chair);
+				break;
+			}
+			case REMOVE_CHAIR: {
+				Chair chair = chair(in.readUTF());
+				if (semester.removeChair(chair)) {
+					chairs.remove(chair.getId());
+					for (Teacher teacher : chair.getTeachers()) {
+						teachers.remove(teacher.getId());
+					}
+				}
+				break;
+			}
+			case UPDATE_CHAIR_ID: {
+				String oldId = in.readUTF();
+				String id = in.readUTF();
+				semester.updateChairId(chair(oldId), id);
+				rename(chairs, oldId, id);
+				break;
+			}
+			case UPDATE_CHAIR_DATA:
+				semester.updateChairData(chair(in.readUTF()), in.readUTF(),
+						in.readUTF());
+				break;
+			case ADD_TEACHER_TO_CHAIR: {
+				Chair chair = chair(in.readUTF());
+				Teacher teacher = readTeacher(in);
+				semester.addTeacherToChair(teacher, chair);
+				teachers.put(teacher.getId(), teacher);
+				break;
+			}
+			case REMOVE_TEACHER_FROM_CHAIR: {
+				Teacher teacher = teacher(in.readUTF());
+				if (semester.removeTeacherFromChair(teacher,
+						chair(in.readUTF()))) {
+					teachers.remove(teacher.getId());
+				}
+				break;
+			}
+			case UPDATE_TEACHER_ID: {
+				String oldId = in.readUTF();
+				Chair chair = chair(in.readUTF());
+				String id = in.readUTF();
+				semester.updateTeacherId(teacher(oldId), chair, id);
+				rename(teachers, oldId, id);
+				break;
+			}
+			case UPDATE_TEACHER_DATA:
+				semester.updateTeacherData(teacher(in.readUTF()), in.readUTF(),
+						readPeriods(in), readPeriods(in));
+				break;
+			case ADD_INTERNAL_ROOM: {
+				InternalRoom room = new InternalRoom(in.readUTF(),
+						in.readUTF(), in.readInt(), readFeatures(in));
+				semester.addInternalRoom(room);
+				internalRooms.put(room.getId(), room);
+				break;
+			}
+			case ADD_EXTERNAL_ROOM: {
+				ExternalRoom room = new ExternalRoom(in.readUTF(),
+						in.readUTF());
+				semester.addExternalRoom(room);
+				externalRooms.put(room.getId(), room);
+				break;
+			}
+			case REMOVE_INTERNAL_ROOM: {
+				InternalRoom room = internalRoom(in.readUTF());
+				if (semester.removeInternalRoom(room)) {
+					internalRooms.remove(room.getId());
+				}
+				break;
+			}
+			case REMOVE_EXTERNAL_ROOM: {
+				ExternalRoom room = externalRoom(in.readUTF());
+				if (semester.removeExternalRoom(room)) {
+					externalRooms.remove(room.getId());
+				}
+				break;
+			}
+			case UPDATE_ROOM_ID: {
+				String oldId = in.readUTF();
+				String id = in.readUTF();
+				Room room = room(oldId);
+				semester.updateRoomId(room, id);
+				if (room instanceof InternalRoom) {
+					rename(internalRooms, oldId, id);
+				} else {
+					rename(externalRooms, oldId, id);
+				}
+				break;
+			}
+			case UPDATE_INTERNAL_ROOM_DATA:
+				semester.updateInternalRoomData(internalRoom(in.readUTF()),
+						in.readUTF(), in.readInt(), readFeatures(in));
+				break;
+			case UPDATE_EXTERNAL_ROOM_DATA:
+				semester.updateExternalRoomData(externalRoom(in.readUTF()),
+						in.readUTF());
+				break;
+			case ADD_COURSE: {
+				Course course = new Course(in.readUTF(), in.readUTF(),
+						in.readUTF(), chair(in.readUTF()), readCourseLevel(in),
+						in.readInt());
+				int lectures = in.readInt();
+				for (int i = 0; i < lectures; i++) {
+					course.getLectures().add(readSession(in, course));
+				}
+				int practicals = in.readInt();
+				for (int i = 0; i < practicals; i++) {
+					course.getPracticals().add(readSession(in, course));
+				}
+				semester.addCourse(course);
+				putCourse(course);
+				break;
+			}
+			case REMOVE_COURSE: {
+				Course course = course(in.readUTF());
+				if (semester.removeCourse(course)) {
+					courses.remove(course.getId());
+					for (Session lecture : course.getLectures()) {
+						sessions.remove(lecture.getId());
+					}
+					for (Session practical : course.getPracticals()) {
+						sessions.remove(practical.getId());
+					}
+				}
+				break;
+			}
+			case UPDATE_COURSE_ID: {
+				String oldId = in.readUTF();
+				String id = in.readUTF();
+				semester.updateCourseId(course(oldId), id);
+				rename(courses, oldId, id);
+				break;
+			}
+			case UPDATE_COURSE_DATA:
+				semester.updateCourseData(course(in.readUTF()), in.readUTF(),
+						in.readUTF(), chair(in.readUTF()), readCourseLevel(in),
+						in.readInt());
+				break;
+			case ADD_COURSE_LECTURE: {
+				Course course = course(in.readUTF());
+				Session lecture = readSession(in, course);
+				semester.addCourseLecture(lecture, course);
+				sessions.put(lecture.getId(), lecture);
+				break;
+			}
+			case REMOVE_COURSE_LECTURE: {
+				Session lecture = session(in.readUTF());
+				if (semester.removeCourseLecture(lecture)) {
+					sessions.remove(lecture.getId());
+				}
+				break;
+			}
+			case ADD_COURSE_PRACTICAL: {
+				Course course = course(in.readUTF());
+				Session practical = readSession(in, course);
+				semester.addCoursePractical(practical, course);
+				sessions.put(practical.getId(), practical);
+				break;
+			}
+			case REMOVE_COURSE_PRACTICAL: {
+				Session practical = session(in.readUTF());
+				if (semester.removeCoursePractical(practical)) {
+					sessions.remove(practical.getId());
+				}
+				break;
+			}
+			case UPDATE_COURSE_SESSION_ID: {
+				String oldId = in.readUTF();
+				Course course = course(in.readUTF());
+				String id = in.readUTF();
+				semester.updateCourseSessionId(session(oldId), course, id);
+				rename(sessions, oldId, id);
+				break;
+			}
+			case UPDATE_INTERNAL_SESSION_DATA:
+				semester.updateInternalSessionData(
+						(InternalSession) session(in.readUTF()), in.readUTF(),
+						teacher(in.readUTF()), in.readBoolean(), readPeriod(in),
+						in.readInt(), readFeatures(in));
+				break;
+			case UPDATE_EXTERNAL_SESSION_DATA:
+				semester.updateExternalSessionData(
+						(ExternalSession) session(in.readUTF()), in.readUTF(),
+						teacher(in.readUTF()), in.readBoolean(), readPeriod(in),
+						externalRoom(in.readUTF()));
+				break;
+			case ADD_CURRICULUM: {
+				Curriculum curriculum = new Curriculum(in.readUTF(),
+						in.readUTF());
+				curriculum.getCourses().addAll(readCourses(in));
+				semester.addCurriculum(curriculum);
+				curricula.put(curriculum.getId(), curriculum);
+				break;
+			}
+			case REMOVE_CURRICULUM: {
+				Curriculum curriculum = curriculum(in.readUTF());
+				if (semester.removeCurriculum(curriculum)) {
+					curricula.remove(curriculum.getId());
+				}
+				break;
+			}
+			case UPDATE_CURRICULUM_ID: {
+				String oldId = in.readUTF();
+				String id = in.readUTF();
+				semester.updateCurriculumId(curriculum(oldId), id);
+				rename(curricula, oldId, id);
+				break;
+			}
+			case UPDATE_CURRICULUM_DATA:
+				semester.updateCurriculumData(curriculum(in.readUTF()),
+						in.readUTF(), readCourses(in));
+				break;
+			case ADD_TIMETABLE: {
+				Timetable timetable = readTimetable(in);
+				semester.addTimetable(timetable);
+				timetables.put(timetable.getName(), timetable);
+				break;
+			}
+			case REMOVE_TIMETABLE: {
+				Timetable timetable = timetable(in.readUTF());
+				if (semester.removeTimetable(timetable)) {
+					timetables.remove(timetable.getName());
+				}
+				break;
+			}
+			case UPDATE_TIMETABLE_NAME: {
+				String oldName = in.readUTF();
+				String name = in.readUTF();
+				semester.updateTimetableName(timetable(oldName), name);
+				rename(timetables, oldName, name);
+				break;
+			}
+			case SET_PERIOD_ASSIGNMENTS: {
+				TimetablePeriod period = period(timetable(in.readUTF()),
+						in.readByte(), in.readByte());
+				period.getAssignments().setAll(readAssignments(in));
+				break;
+			}
+			default:
+				throw new WctttBinderFatalException("Implementation error, " +
+						"journal operation " + operation + " is not handled");
+		}
+	}
+
+	private Teacher readTeacher(DataInput in) throws IOException,
+			WctttModelException {
+		Teacher teacher = new Teacher(in.readUTF(), in.readUTF());
+		teacher.getUnfavorablePeriods().addAll(readPeriods(in));
+		teacher.getUnavailablePeriods().addAll(readPeriods(in));
+		return teacher;
+	}
+
+	private Session readSession(DataInput in, Course course)
+			throws IOException, WctttBinderException, WctttModelException {
+		boolean internal = in.readBoolean();
+		String id = in.readUTF();
+		String name = in.readUTF();
+		Teacher teacher = teacher(in.readUTF());
+		boolean doubleSession = in.readBoolean();
+		Period preAssignment = readPeriod(in);
+		if (internal) {
+			return new InternalSession(id, name, teacher, course,
+					doubleSession, preAssignment, in.readInt(),
+					readFeatures(in));
+		} else {
+			return new ExternalSession(id, name, teacher, course,
+					doubleSession, preAssignment, externalRoom(in.readUTF()));
+		}
+	}
+
+	private Timetable readTimetable(DataInput in) throws IOException,
+			WctttBinderException, WctttModelException {
+		Timetable timetable = new Timetable(in.readUTF());
+		timetable.setSoftConstraintPenalty(in.readDouble());
+		int days = in.readByte();
+		for (int i = 0; i < days; i++) {
+			TimetableDay day = new TimetableDay(in.readByte());
+			int periods = in.readByte();
+			for (int j = 0; j < periods; j++) {
+				TimetablePeriod period = new TimetablePeriod(day.getDay(),
+						in.readByte());
+				for (TimetableAssignment assgmt : readAssignments(in)) {
+					period.addAssignment(assgmt);
+				}
+				day.addPeriod(period);
+			}
+			timetable.addDay(day);
+		}
+		return timetable;
+	}
+
+	private List<TimetableAssignment> readAssignments(DataInput in)
+			throws IOException, WctttBinderException {
+		int size = in.readInt();
+		List<TimetableAssignment> assignments = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			assignments.add(new TimetableAssignment(session(in.readUTF()),
+					room(in.readUTF())));
+		}
+		return assignments;
+	}
+
+	private List<Course> readCourses(DataInput in) throws IOException,
+			WctttBinderException {
+		int size = in.readInt();
+		List<Course> courses = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			courses.add(course(in.readUTF()));
+		}
+		return courses;
+	}
+
+	private CourseLevel readCourseLevel(DataInput in) throws IOException {
+		int ordinal = in.readByte();
+		return ordinal < 0 ? null : CourseLevel.values()[ordinal];
+	}
+
+	private RoomFeatures readFeatures(DataInput in) throws IOException,
+			WctttModelException {
+		return new RoomFeatures(in.readInt(), in.readBoolean(),
+				in.readBoolean(), in.readBoolean());
+	}
+
+	private List<Period> readPeriods(DataInput in) throws IOException,
+			WctttModelException {
+		int size = in.readShort();
+		List<Period> periods = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			periods.add(readPeriod(in));
+		}
+		return periods;
+	}
+
+	private Period readPeriod(DataInput in) throws IOException,
+			WctttModelException {
+		int day = in.readByte();
+		if (day == 0) {
+			return null;
+		}
+		return new Period(day, in.readByte());
+	}
+
+	private Chair chair(String id) throws WctttBinderException {
+		return lookup(chairs, "chair", id);
+	}
+
+	private Teacher teacher(String id) throws WctttBinderException {
+		return lookup(teachers, "teacher", id);
+	}
+
+	private InternalRoom internalRoom(String id) throws WctttBinderException {
+		return lookup(internalRooms, "internal room", id);
+	}
+
+	private ExternalRoom externalRoom(String id) throws WctttBinderException {
+		return lookup(externalRooms, "external room", id);
+	}
+
+	private Room room(String id) throws WctttBinderException {
+		InternalRoom room = internalRooms.get(id);
+		return room != null ? room : externalRoom(id);
+	}
+
+	private Course course(String id) throws WctttBinderException {
+		return lookup(courses, "course", id);
+	}
+
+	private Session session(String id) throws WctttBinderException {
+		return lookup(sessions, "session", id);
+	}
+
+	private Curriculum curriculum(String id) throws WctttBinderException {
+		return lookup(curricula, "curriculum", id);
+	}
+
+	private Timetable timetable(String name) throws WctttBinderException {
+		return lookup(timetables, "timetable", name);
+	}
+
+	private static TimetablePeriod period(Timetable timetable, int day,
+	                                      int timeSlot)
+			throws WctttBinderException {
+		for (TimetableDay timetableDay : timetable.getDays()) {
+			if (timetableDay.getDay() != day) {
+				continue;
+			}
+			for (TimetablePeriod period : timetableDay.getPeriods()) {
+				if (period.getTimeSlot() == timeSlot) {
+					return period;
+				}
+			}
+		}
+		throw new WctttBinderException("Journal references unknown period " +
+				"'" + day + "/" + timeSlot + "' of timetable '" +
+				timetable.getName() + "'");
+	}
+
+	private static <T> T lookup(Map<String, T> map, String type, String id)
+			throws WctttBinderException {
+		T entity = map.get(id);
+		if (entity == null) {
+			throw new WctttBinderException("Journal references unknown " +
+					type + " '" + id + "'");
+		}
+		return entity;
+	}
+}
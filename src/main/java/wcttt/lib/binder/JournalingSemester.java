@@ -0,0 +1,788 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.binder;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import wcttt.lib.model.*;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Semester that records every successful edit in a {@link SemesterJournal}
+ * before returning. The actual data is kept in a {@link SemesterImpl}.
+ *
+ * Edits made through the methods of {@link Semester} are recorded, as well as
+ * changes of the assignments of the timetables of the semester. The lists
+ * returned by the semester are unmodifiable. Other entities, e.g. teachers or
+ * curricula, must not be changed directly but only through the update methods
+ * of the semester. Such edits are not recorded, the journal only persists
+ * them by compacting when it is closed.
+ *
+ * If an edit could not be persisted, the semester refuses all further edits
+ * before changing anything, until the journal was compacted.
+ */
+class JournalingSemester implements Semester {
+
+	private final SemesterImpl semester;
+	private final SemesterJournal journal;
+	private final ObservableList<Chair> chairs;
+	private final ObservableList<InternalRoom> internalRooms;
+	private final ObservableList<ExternalRoom> externalRooms;
+	private final ObservableList<Course> courses;
+	private final ObservableList<Curriculum> curricula;
+	private final ObservableList<Timetable> timetables;
+	private final Map<TimetablePeriod, ListChangeListener<TimetableAssignment>>
+			assignmentListeners = new IdentityHashMap<>();
+
+	JournalingSemester(SemesterImpl semester, SemesterJournal journal) {
+		this.semester = semester;
+		this.journal = journal;
+		chairs = FXCollections.unmodifiableObservableList(semester.getChairs());
+		internalRooms = FXCollections.unmodifiableObservableList(
+				semester.getInternalRooms());
+		externalRooms = FXCollections.unmodifiableObservableList(
+				semester.getExternalRooms());
+		courses = FXCollections.unmodifiableObservableList(
+				semester.getCourses());
+		curricula = FXCollections.unmodifiableObservableList(
+				semester.getCurricula());
+		timetables = FXCollections.unmodifiableObservableList(
+				semester.getTimetables());
+		for (Timetable timetable : semester.getTimetables()) {
+			observeAssignments(timetable);
+		}
+	}
+
+	/**
+	 * Getter for the semester that holds the actual data.
+	 *
+	 * @return the semester that holds the actual data.
+	 */
+	SemesterImpl getSemester() {
+		return semester;
+	}
+
+	/**
+	 * Encodes the arguments of an operation.
+	 */
+	@FunctionalInterface
+	interface RecordEncoder {
+		void encode(DataOutput out) throws IOException;
+	}
+
+	private void record(JournalOperation operation, RecordEncoder encoder) {
+		try {
+			journal.append(operation, encoder);
+		} catch (IOException e) {
+			try {
+				journal.recover(e);
+			} catch (IOException unpersisted) {
+				throw new UncheckedIOException("Error while writing to the " +
+						"semester journal, the edit is not persisted",
+						unpersisted);
+			}
+		}
+	}
+
+	private void checkWritable() {
+		try {
+			journal.checkWritable();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Records every change of the assignments of a timetable. The listeners
+	 * are notified after a change, so if it could not be persisted, the error
+	 * is passed to the uncaught exception handler of the thread and the
+	 * following edits are refused.
+	 */
+	private void observeAssignments(Timetable timetable) {
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				ListChangeListener<TimetableAssignment> listener = change ->
+						record(JournalOperation.SET_PERIOD_ASSIGNMENTS, out -> {
+							out.writeUTF(timetable.getName());
+							out.writeByte(period.getDay());
+							out.writeByte(period.getTimeSlot());
+							writeAssignments(out, period);
+						});
+				period.getAssignments().addListener(listener);
+				assignmentListeners.put(period, listener);
+			}
+		}
+	}
+
+	private void unobserveAssignments(Timetable timetable) {
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				ListChangeListener<TimetableAssignment> listener =
+						assignmentListeners.remove(period);
+				if (listener != null) {
+					period.getAssignments().removeListener(listener);
+				}
+			}
+		}
+	}
+
+	@Override
+	public String getName() {
+		return semester.getName();
+	}
+
+	@Override
+	public void setName(String name) {
+		checkWritable();
+		semester.setName(name);
+		record(JournalOperation.SET_NAME, out -> out.writeUTF(name));
+	}
+
+	@Override
+	public int getDaysPerWeek() {
+		return semester.getDaysPerWeek();
+	}
+
+	@Override
+	public void setDaysPerWeek(int daysPerWeek) throws WctttModelException {
+		checkWritable();
+		semester.setDaysPerWeek(daysPerWeek);
+		record(JournalOperation.SET_DAYS_PER_WEEK,
+				out -> out.writeByte(daysPerWeek));
+	}
+
+	@Override
+	public int getTimeSlotsPerDay() {
+		return semester.getTimeSlotsPerDay();
+	}
+
+	@Override
+	public void setTimeSlotsPerDay(int timeSlotsPerDay)
+			throws WctttModelException {
+		checkWritable();
+		semester.setTimeSlotsPerDay(timeSlotsPerDay);
+		record(JournalOperation.SET_TIME_SLOTS_PER_DAY,
+				out -> out.writeByte(timeSlotsPerDay));
+	}
+
+	@Override
+	public int getMaxDailyLecturesPerCur() {
+		return semester.getMaxDailyLecturesPerCur();
+	}
+
+	@Override
+	public void setMaxDailyLecturesPerCur(int maxDailyLecturesPerCur)
+			throws WctttModelException {
+		checkWritable();
+		semester.setMaxDailyLecturesPerCur(maxDailyLecturesPerCur);
+		record(JournalOperation.SET_MAX_DAILY_LECTURES_PER_CUR,
+				out -> out.writeInt(maxDailyLecturesPerCur));
+	}
+
+	@Override
+	public ConstraintWeightings getConstrWeightings() {
+		return semester.getConstrWeightings();
+	}
+
+	@Override
+	public void setConstrWeightings(ConstraintWeightings constrWeightings) {
+		checkWritable();
+		semester.setConstrWeightings(constrWeightings);
+		record(JournalOperation.SET_CONSTR_WEIGHTINGS, out -> {
+			out.writeDouble(constrWeightings.getS1());
+			out.writeDouble(constrWeightings.getS2());
+			out.writeDouble(constrWeightings.getS3());
+			out.writeDouble(constrWeightings.getS4());
+			out.writeDouble(constrWeightings.getS5());
+			out.writeDouble(constrWeightings.getS6());
+			out.writeDouble(constrWeightings.getS7());
+		});
+	}
+
+	@Override
+	public ObservableList<Chair> getChairs() {
+		return chairs;
+	}
+
+	@Override
+	public ObservableList<InternalRoom> getInternalRooms() {
+		return internalRooms;
+	}
+
+	@Override
+	public ObservableList<ExternalRoom> getExternalRooms() {
+		return externalRooms;
+	}
+
+	@Override
+	public ObservableList<Course> getCourses() {
+		return courses;
+	}
+
+	@Override
+	public ObservableList<Curriculum> getCurricula() {
+		return curricula;
+	}
+
+	@Override
+	public ObservableList<Timetable> getTimetables() {
+		return timetables;
+	}
+
+	@Override
+	public Semester snapshot() {
+		return semester.snapshot();
+	}
+
+	@Override
+	public Optional<Object> findById(String id) {
+		return semester.findById(id);
+	}
+
+	@Override
+	public void addChair(Chair chair) throws WctttModelException {
+		checkWritable();
+		semester.addChair(chair);
+		record(JournalOperation.ADD_CHAIR, out -> {
+			out.writeUTF(chair.getId());
+			out.writeUTF(chair.getName());
+			out.writeUTF(chair.getAbbreviation());
+			out.writeInt(chair.getTeachers().size());
+			for (Teacher teacher : chair.getTeachers()) {
+				writeTeacher(out, teacher);
+			}
+		});
+	}
+
+	@Override
+	public boolean removeChair(Chair chair) throws WctttModelException {
+		checkWritable();
+		boolean removed = semester.removeChair(chair);
+		if (removed) {
+			record(JournalOperation.REMOVE_CHAIR,
+					out -> out.writeUTF(chair.getId()));
+		}
+		return removed;
+	}
+
+	@Override
+	public void updateChairId(Chair chair, String id)
+			throws WctttModelException {
+		checkWritable();
+		String oldId = chair == null ? null : chair.getId();
+		semester.updateChairId(chair, id);
+		record(JournalOperation.UPDATE_CHAIR_ID, out -> {
+			out.writeUTF(oldId);
+			out.writeUTF(id);
+		});
+	}
+
+	@Override
+	public void updateChairData(Chair chair, String name, String abbreviation)
+			throws WctttModelException {
+		checkWritable();
+		semester.updateChairData(chair, name, abbreviation);
+		record(JournalOperation.UPDATE_CHAIR_DATA, out -> {
+			out.writeUTF(chair.getId());
+			out.writeUTF(name);
+			out.writeUTF(abbreviation);
+		});
+	}
+
+	@Override
+	public void addTeacherToChair(Teacher teacher, Chair chair)
+			throws WctttModelException {
+		checkWritable();
+		semester.addTeacherToChair(teacher, chair);
+		record(JournalOperation.ADD_TEACHER_TO_CHAIR, out -> {
+			out.writeUTF(chair.getId());
+			writeTeacher(out, teacher);
+		});
+	}
+
+	@Override
+	public boolean removeTeacherFromChair(Teacher teacher, Chair chair)
+			throws WctttModelException {
+		checkWritable();
+		boolean removed = semester.removeTeacherFromChair(teacher, chair);
+		if (removed) {
+			record(JournalOperation.REMOVE_TEACHER_FROM_CHAIR, out -> {
+				out.writeUTF(teacher.getId());
+				out.writeUTF(chair.getId());
+			});
+		}
+		return removed;
+	}
+
+	@Override
+	public void updateTeacherId(Teacher teacher, Chair chair, String id)
+			throws WctttModelException {
+		checkWritable();
+		String oldId = teacher == null ? null : teacher.getId();
+		semester.updateTeacherId(teacher, chair, id);
+		record(JournalOperation.UPDATE_TEACHER_ID, out -> {
+			out.writeUTF(oldId);
+			out.writeUTF(chair.getId());
+			out.writeUTF(id);
+		});
+	}
+
+	@Override
+	public void updateTeacherData(Teacher teacher, String name,
+	                              List<Period> unfavorablePeriods,
+	                              List<Period> unavailablePeriods)
+			throws WctttModelException {
+		checkWritable();
+		semester.updateTeacherData(teacher, name, unfavorablePeriods,
+				unavailablePeriods);
+		record(JournalOperation.UPDATE_TEACHER_DATA, out -> {
+			out.writeUTF(teacher.getId());
+			out.writeUTF(name);
+			writePeriods(out, unfavorablePeriods);
+			writePeriods(out, unavailablePeriods);
+		});
+	}
+
+	@Override
+	public void addInternalRoom(InternalRoom room) throws WctttModelException {
+		checkWritable();
+		semester.addInternalRoom(room);
+		record(JournalOperation.ADD_INTERNAL_ROOM, out -> {
+			out.writeUTF(room.getId());
+			out.writeUTF(room.getName());
+			out.writeInt(room.getCapacity());
+			writeFeatures(out, room.getFeatures());
+		});
+	}
+
+	@Override
+	public void addExternalRoom(ExternalRoom room) throws WctttModelException {
+		checkWritable();
+		semester.addExternalRoom(room);
+		record(JournalOperation.ADD_EXTERNAL_ROOM, out -> {
+			out.writeUTF(room.getId());
+			out.writeUTF(room.getName());
+		});
+	}
+
+	@Override
+	public boolean removeInternalRoom(InternalRoom room)
+			throws WctttModelException {
+		checkWritable();
+		boolean removed = semester.removeInternalRoom(room);
+		if (removed) {
+			record(JournalOperation.REMOVE_INTERNAL_ROOM,
+					out -> out.writeUTF(room.getId()));
+		}
+		return removed;
+	}
+
+	@Override
+	public boolean removeExternalRoom(ExternalRoom room)
+			throws WctttModelException {
+		checkWritable();
+		boolean removed = semester.removeExternalRoom(room);
+		if (removed) {
+			record(JournalOperation.REMOVE_EXTERNAL_ROOM,
+					out -> out.writeUTF(room.getId()));
+		}
+		return removed;
+	}
+
+	@Override
+	public void updateRoomId(Room room, String id) throws WctttModelException {
+		checkWritable();
+		String oldId = room == null ? null : room.getId();
+		semester.updateRoomId(room, id);
+		record(JournalOperation.UPDATE_ROOM_ID, out -> {
+			out.writeUTF(oldId);
+			out.writeUTF(id);
+		});
+	}
+
+	@Override
+	public void updateInternalRoomData(InternalRoom room, String name,
+	                                   int capacity, RoomFeatures features)
+			throws WctttModelException {
+		checkWritable();
+		semester.updateInternalRoomData(room, name, capacity, features);
+		record(JournalOperation.UPDATE_INTERNAL_ROOM_DATA, out -> {
+			out.writeUTF(room.getId());
+			out.writeUTF(name);
+			out.writeInt(capacity);
+			writeFeatures(out, features);
+		});
+	}
+
+	@Override
+	public void updateExternalRoomData(ExternalRoom room, String name)
+			throws WctttModelException {
+		checkWritable();
+		semester.updateExternalRoomData(room, name);
+		record(JournalOperation.UPDATE_EXTERNAL_ROOM_DATA, out -> {
+			out.writeUTF(room.getId());
+			out.writeUTF(name);
+		});
+	}
+
+	@Override
+	public void addCourse(Course course) throws WctttModelException {
+		checkWritable();
+		semester.addCourse(course);
+		record(JournalOperation.ADD_COURSE, out -> {
+			out.writeUTF(course.getId());
+			out.writeUTF(course.getName());
+			out.writeUTF(course.getAbbreviation());
+			out.writeUTF(course.getChair().getId());
+			writeCourseLevel(out, course.getCourseLevel());
+			out.writeInt(course.getMinNumberOfDays());
+			out.writeInt(course.getLectures().size());
+			for (Session lecture : course.getLectures()) {
+				writeSession(out, lecture);
+			}
+			out.writeInt(course.getPracticals().size());
+			for (Session practical : course.getPracticals()) {
+				writeSession(out, practical);
+			}
+		});
+	}
+
+	@Override
+	public boolean removeCourse(Course course) throws WctttModelException {
+		checkWritable();
+		boolean removed = semester.removeCourse(course);
+		if (removed) {
+			record(JournalOperation.REMOVE_COURSE,
+					out -> out.writeUTF(course.getId()));
+		}
+		return removed;
+	}
+
+	@Override
+	public void updateCourseId(Course course, String id)
+			throws WctttModelException {
+		checkWritable();
+		String oldId = course == null ? null : course.getId();
+		semester.updateCourseId(course, id);
+		record(JournalOperation.UPDATE_COURSE_ID, out -> {
+			out.writeUTF(oldId);
+			out.writeUTF(id);
+		});
+	}
+
+	@Override
+	public void updateCourseData(Course course, String name,
+	                             String abbreviation, Chair chair,
+	                             CourseLevel courseLevel, int minNumberOfDays)
+			throws WctttModelException {
+		checkWritable();
+		semester.updateCourseData(course, name, abbreviation, chair,
+				courseLevel, minNumberOfDays);
+		record(JournalOperation.UPDATE_COURSE_DATA, out -> {
+			out.writeUTF(course.getId());
+			out.writeUTF(name);
+			out.writeUTF(abbreviation);
+			out.writeUTF(chair.getId());
+			writeCourseLevel(out, courseLevel);
+			out.writeInt(minNumberOfDays);
+		});
+	}
+
+	@Override
+	public void addCourseLecture(Session lecture, Course course)
+			throws WctttModelException {
+		checkWritable();
+		semester.addCourseLecture(lecture, course);
+		record(JournalOperation.ADD_COURSE_LECTURE, out -> {
+			out.writeUTF(course.getId());
+			writeSession(out, lecture);
+		});
+	}
+
+	@Override
+	public boolean removeCourseLecture(Session lecture)
+			throws WctttModelException {
+		checkWritable();
+		boolean removed = semester.removeCourseLecture(lecture);
+		if (removed) {
+			record(JournalOperation.REMOVE_COURSE_LECTURE,
+					out -> out.writeUTF(lecture.getId()));
+		}
+		return removed;
+	}
+
+	@Override
+	public void addCoursePractical(Session practical, Course course)
+			throws WctttModelException {
+		checkWritable();
+		semester.addCoursePractical(practical, course);
+		record(JournalOperation.ADD_COURSE_PRACTICAL, out -> {
+			out.writeUTF(course.getId());
+			writeSession(out, practical);
+		});
+	}
+
+	@Override
+	public boolean removeCoursePractical(Session practical)
+			throws WctttModelException {
+		checkWritable();
+		boolean removed = semester.removeCoursePractical(practical);
+		if (removed) {
+			record(JournalOperation.REMOVE_COURSE_PRACTICAL,
+					out -> out.writeUTF(practical.getId()));
+		}
+		return removed;
+	}
+
+	@Override
+	public void updateCourseSessionId(Session session, Course course, String id)
+			throws WctttModelException {
+		checkWritable();
+		String oldId = session == null ? null : session.getId();
+		semester.updateCourseSessionId(session, course, id);
+		record(JournalOperation.UPDATE_COURSE_SESSION_ID, out -> {
+			out.writeUTF(oldId);
+			out.writeUTF(course.getId());
+			out.writeUTF(id);
+		});
+	}
+
+	@Override
+	public void updateInternalSessionData(InternalSession session, String name,
+	                                      Teacher teacher,
+	                                      boolean doubleSession,
+	                                      Period preAssignment, int students,
+	                                      RoomFeatures roomRequirements)
+			throws WctttModelException {
+		checkWritable();
+		semester.updateInternalSessionData(session, name, teacher,
+				doubleSession, preAssignment, students, roomRequirements);
+		record(JournalOperation.UPDATE_INTERNAL_SESSION_DATA, out -> {
+			out.writeUTF(session.getId());
+			out.writeUTF(name);
+			out.writeUTF(teacher.getId());
+			out.writeBoolean(doubleSession);
+			writePeriod(out, preAssignment);
+			out.writeInt(students);
+			writeFeatures(out, roomRequirements);
+		});
+	}
+
+	@Override
+	public void updateExternalSessionData(ExternalSession session, String name,
+	                                      Teacher teacher,
+	                                      boolean doubleSession,
+	                                      Period preAssignment,
+	                                      ExternalRoom room)
+			throws WctttModelException {
+		checkWritable();
+		semester.updateExternalSessionData(session, name, teacher,
+				doubleSession, preAssignment, room);
+		record(JournalOperation.UPDATE_EXTERNAL_SESSION_DATA, out -> {
+			out.writeUTF(session.getId());
+			out.writeUTF(name);
+			out.writeUTF(teacher.getId());
+			out.writeBoolean(doubleSession);
+			writePeriod(out, preAssignment);
+			out.writeUTF(room.getId());
+		});
+	}
+
+	@Override
+	public void addCurriculum(Curriculum curriculum)
+			throws WctttModelException {
+		checkWritable();
+		semester.addCurriculum(curriculum);
+		record(JournalOperation.ADD_CURRICULUM, out -> {
+			out.writeUTF(curriculum.getId());
+			out.writeUTF(curriculum.getName());
+			writeCourseIds(out, curriculum.getCourses());
+		});
+	}
+
+	@Override
+	public boolean removeCurriculum(Curriculum curriculum)
+			throws WctttModelException {
+		checkWritable();
+		boolean removed = semester.removeCurriculum(curriculum);
+		if (removed) {
+			record(JournalOperation.REMOVE_CURRICULUM,
+					out -> out.writeUTF(curriculum.getId()));
+		}
+		return removed;
+	}
+
+	@Override
+	public void updateCurriculumId(Curriculum curriculum, String id)
+			throws WctttModelException {
+		checkWritable();
+		String oldId = curriculum == null ? null : curriculum.getId();
+		semester.updateCurriculumId(curriculum, id);
+		record(JournalOperation.UPDATE_CURRICULUM_ID, out -> {
+			out.writeUTF(oldId);
+			out.writeUTF(id);
+		});
+	}
+
+	@Override
+	public void updateCurriculumData(Curriculum curriculum, String name,
+	                                 List<Course> courses)
+			throws WctttModelException {
+		checkWritable();
+		semester.updateCurriculumData(curriculum, name, courses);
+		record(JournalOperation.UPDATE_CURRICULUM_DATA, out -> {
+			out.writeUTF(curriculum.getId());
+			out.writeUTF(name);
+			writeCourseIds(out, courses);
+		});
+	}
+
+	@Override
+	public void addTimetable(Timetable timetable) throws WctttModelException {
+		checkWritable();
+		semester.addTimetable(timetable);
+		record(JournalOperation.ADD_TIMETABLE, out -> {
+			out.writeUTF(timetable.getName());
+			out.writeDouble(timetable.getSoftConstraintPenalty());
+			out.writeByte(timetable.getDays().size());
+			for (TimetableDay day : timetable.getDays()) {
+				out.writeByte(day.getDay());
+				out.writeByte(day.getPeriods().size());
+				for (TimetablePeriod period : day.getPeriods()) {
+					out.writeByte(period.getTimeSlot());
+					writeAssignments(out, period);
+				}
+			}
+		});
+		observeAssignments(timetable);
+	}
+
+	@Override
+	public boolean removeTimetable(Timetable timetable) {
+		checkWritable();
+		boolean removed = semester.removeTimetable(timetable);
+		if (removed) {
+			unobserveAssignments(timetable);
+			record(JournalOperation.REMOVE_TIMETABLE,
+					out -> out.writeUTF(timetable.getName()));
+		}
+		return removed;
+	}
+
+	@Override
+	public void updateTimetableName(Timetable timetable, String name)
+			throws WctttModelException {
+		checkWritable();
+		String oldName = timetable == null ? null : timetable.getName();
+		semester.updateTimetableName(timetable, name);
+		record(JournalOperation.UPDATE_TIMETABLE_NAME, out -> {
+			out.writeUTF(oldName);
+			out.writeUTF(name);
+		});
+	}
+
+	private static void writeTeacher(DataOutput out, Teacher teacher)
+			throws IOException {
+		out.writeUTF(teacher.getId());
+		out.writeUTF(teacher.getName());
+		writePeriods(out, teacher.getUnfavorablePeriods());
+		writePeriods(out, teacher.getUnavailablePeriods());
+	}
+
+	private static void writeSession(DataOutput out, Session session)
+			throws IOException {
+		out.writeBoolean(session instanceof InternalSession);
+		out.writeUTF(session.getId());
+		out.writeUTF(session.getName());
+		out.writeUTF(session.getTeacher().getId());
+		out.writeBoolean(session.isDoubleSession());
+		writePeriod(out, session.getPreAssignment().orElse(null));
+		if (session instanceof InternalSession) {
+			out.writeInt(((InternalSession) session).getStudents());
+			writeFeatures(out,
+					((InternalSession) session).getRoomRequirements());
+		} else {
+			out.writeUTF(((ExternalSession) session).getRoom().getId());
+		}
+	}
+
+	private static void writeAssignments(DataOutput out,
+	                                     TimetablePeriod period)
+			throws IOException {
+		out.writeInt(period.getAssignments().size());
+		for (TimetableAssignment assgmt : period.getAssignments()) {
+			out.writeUTF(assgmt.getSession().getId());
+			out.writeUTF(assgmt.getRoom().getId());
+		}
+	}
+
+	private static void writeCourseIds(DataOutput out, List<Course> courses)
+			throws IOException {
+		out.writeInt(courses.size());
+		for (Course course : courses) {
+			out.writeUTF(course.getId());
+		}
+	}
+
+	private static void writeCourseLevel(DataOutput out, CourseLevel level)
+			throws IOException {
+		out.writeByte(level == null ? -1 : level.ordinal());
+	}
+
+	private static void writeFeatures(DataOutput out, RoomFeatures features)
+			throws IOException {
+		out.writeInt(features.getProjectors());
+		out.writeBoolean(features.isPcPool());
+		out.writeBoolean(features.hasTeacherPc());
+		out.writeBoolean(features.hasDocCam());
+	}
+
+	private static void writePeriods(DataOutput out, List<Period> periods)
+			throws IOException {
+		out.writeShort(periods.size());
+		for (Period period : periods) {
+			writePeriod(out, period);
+		}
+	}
+
+	private static void writePeriod(DataOutput out, Period period)
+			throws IOException {
+		if (period == null) {
+			out.writeByte(0);
+		} else {
+			out.writeByte(period.getDay());
+			out.writeByte(period.getTimeSlot());
+		}
+	}
+}
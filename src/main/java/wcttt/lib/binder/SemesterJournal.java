@@ -0,0 +1,490 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.binder;
+
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.SemesterImpl;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Persists edits of a semester as an append-only journal next to a snapshot
+ * XML file. Instead of rewriting the whole XML file after every edit, only a
+ * small record is appended to the journal. On {@link #open()}, the snapshot is
+ * parsed and the journal is replayed. The journal is compacted, i.e. a new
+ * snapshot is written and the journal is cleared, after a configurable number
+ * of records or by calling {@link #compact()}.
+ *
+ * Every record carries a checksum. A record that was only partially written
+ * because of a crash is detected on the next {@link #open()} and discarded
+ * together with anything after it. A record that could not be written while
+ * the journal is open is cut off again right away, such that later records
+ * are not lost behind it. The journal stores a checksum of the snapshot it
+ * belongs to, thus a journal is ignored if the snapshot was replaced by other
+ * means.
+ *
+ * If a record could not be written at all, the journal tries to persist the
+ * edit by compacting. If that fails as well, the semester contains an edit
+ * that is not persisted and the journal refuses all further edits until it
+ * was compacted successfully, see {@link #compact()} and {@link #close()}.
+ *
+ * Edits that bypass the journal by changing the entities of the semester
+ * directly are not recorded. They can be detected by {@link #isPersisted()},
+ * which compares the semester with the persisted one, optionally on every
+ * {@link #close()}, see {@link #setVerifyOnClose(boolean)}.
+ */
+public class SemesterJournal implements AutoCloseable {
+
+	public static final String JOURNAL_EXTENSION = ".journal";
+	public static final int DEFAULT_COMPACTION_THRESHOLD = 10000;
+
+	private static final int MAGIC = 0x57435431; // "WCT1"
+	private static final int HEADER_SIZE = 4 + 8 + 8;
+	private static final int RECORD_HEADER_SIZE = 4 + 4;
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+	private final WctttBinder binder;
+	private final File journalFile;
+	private final int compactionThreshold;
+	private final RecordBuffer recordBuffer = new RecordBuffer();
+	private final DataOutputStream recordOut =
+			new DataOutputStream(recordBuffer);
+	private final CRC32 crc = new CRC32();
+	private JournalingSemester semester;
+	private FileChannel channel;
+	private int records;
+	private boolean verifyOnClose = false;
+	// Set if the semester contains edits that are not persisted:
+	private IOException failure;
+	private WctttBinderException compactionFailure;
+
+	public SemesterJournal(File snapshotFile) throws WctttBinderException {
+		this(snapshotFile, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	/**
+	 * Creates a journal for a snapshot file, the journal itself is stored in
+	 * the same directory with the additional extension
+	 * {@value #JOURNAL_EXTENSION}.
+	 *
+	 * @param snapshotFile the XML file that holds the latest snapshot, it does
+	 * not need to exist yet.
+	 * @param compactionThreshold the number of records after which the
+	 * journal is compacted automatically.
+	 * @throws WctttBinderException if the binder for the snapshot file could
+	 * not be created.
+	 */
+	public SemesterJournal(File snapshotFile, int compactionThreshold)
+			throws WctttBinderException {
+		if (snapshotFile == null) {
+			throw new IllegalArgumentException("Parameter 'snapshotFile' must " +
+					"not be null");
+		} else if (compactionThreshold < 1) {
+			throw new IllegalArgumentException("Parameter " +
+					"'compactionThreshold' must be positive");
+		}
+		this.binder = new WctttBinder(snapshotFile);
+		this.journalFile = new File(snapshotFile.getPath() + JOURNAL_EXTENSION);
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	public File getJournalFile() {
+		return journalFile;
+	}
+
+	/**
+	 * Returns the error of the last automatic compaction, if it failed. The
+	 * edit that triggered the compaction was persisted in the journal anyway,
+	 * the compaction is retried after the next edit.
+	 *
+	 * @return the error of the last automatic compaction, or an empty optional
+	 * if it succeeded.
+	 */
+	public synchronized Optional<WctttBinderException> getCompactionFailure() {
+		return Optional.ofNullable(compactionFailure);
+	}
+
+	/**
+	 * Enables or disables the comparison of the semester with the persisted
+	 * one on {@link #close()}, see {@link #isPersisted()}. The comparison
+	 * detects edits that bypassed the journal, but it parses the snapshot and
+	 * replays the whole journal, so it is disabled by default.
+	 *
+	 * @param verifyOnClose {@code true} if the semester should be compared on
+	 * close.
+	 */
+	public synchronized void setVerifyOnClose(boolean verifyOnClose) {
+		this.verifyOnClose = verifyOnClose;
+	}
+
+	/**
+	 * Loads the semester from the snapshot and the journal. Afterwards, every
+	 * successful edit of the returned semester is appended to the journal.
+	 * Edits must be made through the methods of the semester or of its
+	 * timetable periods, the lists returned by the semester are unmodifiable.
+	 * If an edit could neither be appended to the journal nor be persisted by
+	 * compacting, the edit methods throw an {@link UncheckedIOException}.
+	 *
+	 * @return the loaded semester, an empty semester if neither a snapshot nor
+	 * a journal exists.
+	 * @throws WctttBinderException if the snapshot or the journal could not be
+	 * read or if the journal does not match the snapshot.
+	 */
+	public synchronized Semester open() throws WctttBinderException {
+		if (semester != null) {
+			throw new IllegalStateException("Journal is already open");
+		}
+		File snapshotFile = binder.getXmlFile();
+		SemesterImpl loaded = snapshotFile.exists() ?
+				(SemesterImpl) binder.parse() : new SemesterImpl();
+		try {
+			long[] snapshotChecksum = checksum(snapshotFile);
+			long validLength = journalFile.exists() ?
+					replay(loaded, snapshotChecksum) : -1;
+			if (validLength < 0) {
+				writeEmptyJournal(snapshotChecksum);
+				validLength = HEADER_SIZE;
+				records = 0;
+			}
+			channel = openChannel();
+			channel.truncate(validLength);
+			channel.position(validLength);
+		} catch (IOException e) {
+			throw new WctttBinderException("Error while opening the semester " +
+					"journal", e);
+		}
+		semester = new JournalingSemester(loaded, this);
+		return semester;
+	}
+
+	/**
+	 * Writes the current semester as new snapshot and clears the journal.
+	 *
+	 * @throws WctttBinderException if the snapshot or the journal could not be
+	 * written.
+	 */
+	public synchronized void compact() throws WctttBinderException {
+		checkOpen();
+		binder.write(semester.getSemester());
+		try {
+			writeEmptyJournal(checksum(binder.getXmlFile()));
+			channel.close();
+			channel = openChannel();
+			channel.position(HEADER_SIZE);
+			records = 0;
+			failure = null;
+			compactionFailure = null;
+		} catch (IOException e) {
+			throw new WctttBinderException("Error while compacting the " +
+					"semester journal", e);
+		}
+	}
+
+	/**
+	 * Closes the journal, the semester returned by {@link #open()} must not be
+	 * edited afterwards. The journal is only compacted if the semester
+	 * contains edits that could not be written to the journal, or, if enabled
+	 * by {@link #setVerifyOnClose(boolean)}, edits that bypassed it by
+	 * changing the entities of the semester directly.
+	 *
+	 * @throws WctttBinderException if the journal could not be closed or
+	 * compacted.
+	 */
+	@Override
+	public synchronized void close() throws WctttBinderException {
+		if (channel == null) {
+			return;
+		}
+		try {
+			if (failure != null || (verifyOnClose && !persisted())) {
+				compact();
+			}
+			channel.force(true);
+			channel.close();
+		} catch (IOException e) {
+			throw new WctttBinderException("Error while closing the semester " +
+					"journal", e);
+		} finally {
+			channel = null;
+			semester = null;
+		}
+	}
+
+	/**
+	 * Appends a record to the journal and syncs it to the disk.
+	 *
+	 * @param operation the operation that was applied to the semester.
+	 * @param encoder writes the arguments of the operation.
+	 * @throws IOException if the record could not be written.
+	 */
+	synchronized void append(JournalOperation operation,
+	                         JournalingSemester.RecordEncoder encoder)
+			throws IOException {
+		checkWritable();
+		recordBuffer.reset();
+		recordOut.writeByte(operation.getCode());
+		encoder.encode(recordOut);
+		crc.reset();
+		crc.update(recordBuffer.buffer(), 0, recordBuffer.size());
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE +
+				recordBuffer.size());
+		record.putInt(recordBuffer.size());
+		record.putInt((int) crc.getValue());
+		record.put(recordBuffer.buffer(), 0, recordBuffer.size());
+		record.flip();
+		long start = channel.position();
+		try {
+			while (record.hasRemaining()) {
+				channel.write(record);
+			}
+			channel.force(false);
+		} catch (IOException e) {
+			discardFrom(start, e);
+			throw e;
+		}
+		records++;
+		if (records >= compactionThreshold) {
+			try {
+				compact();
+			} catch (WctttBinderException e) {
+				// The record itself is persisted, compaction is retried after
+				// the next record
+				compactionFailure = e;
+			}
+		}
+	}
+
+	/**
+	 * Cuts off a partially written record, such that following records are
+	 * not discarded together with it on the next {@link #open()}.
+	 */
+	private void discardFrom(long position, IOException cause) {
+		try {
+			channel.truncate(position);
+			channel.position(position);
+		} catch (IOException e) {
+			cause.addSuppressed(e);
+			failure = cause;
+		}
+	}
+
+	/**
+	 * Persists an edit that could not be appended to the journal by
+	 * compacting. If compacting fails, the journal refuses all further edits
+	 * until it was compacted successfully.
+	 *
+	 * @param cause the reason why the edit could not be appended.
+	 * @throws IOException if the edit could not be persisted.
+	 */
+	synchronized void recover(IOException cause) throws IOException {
+		try {
+			compact();
+		} catch (WctttBinderException e) {
+			cause.addSuppressed(e);
+			failure = cause;
+			throw cause;
+		}
+	}
+
+	/**
+	 * Checks that the semester may be edited, i.e. that all of its edits are
+	 * persisted.
+	 *
+	 * @throws IOException if the semester contains an edit that is not
+	 * persisted.
+	 */
+	synchronized void checkWritable() throws IOException {
+		checkOpen();
+		if (failure != null) {
+			throw new IOException("The semester contains edits that are not " +
+					"persisted, the journal must be compacted first", failure);
+		}
+	}
+
+	private void checkOpen() {
+		if (semester == null) {
+			throw new IllegalStateException("Journal is not open");
+		}
+	}
+
+	/**
+	 * Checks whether the semester equals the one stored in the snapshot and
+	 * the journal, which detects edits that bypassed the journal. The
+	 * snapshot is parsed and the whole journal is replayed, so the check is
+	 * as expensive as {@link #open()}.
+	 *
+	 * @return {@code true} if every edit of the semester is persisted.
+	 * @throws WctttBinderException if the snapshot or the journal could not be
+	 * read.
+	 */
+	public synchronized boolean isPersisted() throws WctttBinderException {
+		checkOpen();
+		try {
+			return failure == null && persisted();
+		} catch (IOException e) {
+			throw new WctttBinderException("Error while reading the semester " +
+					"journal", e);
+		}
+	}
+
+	private boolean persisted() throws IOException, WctttBinderException {
+		channel.force(false);
+		File snapshotFile = binder.getXmlFile();
+		SemesterImpl persisted = snapshotFile.exists() ?
+				(SemesterImpl) binder.parse() : new SemesterImpl();
+		int currentRecords = records;
+		try {
+			return replay(persisted, checksum(snapshotFile)) >= 0 &&
+					persisted.equals(semester.getSemester());
+		} finally {
+			records = currentRecords;
+		}
+	}
+
+	/**
+	 * Replays the journal on a semester.
+	 *
+	 * @return the length of the valid part of the journal, or -1 if the
+	 * journal belongs to another snapshot.
+	 */
+	private long replay(SemesterImpl loaded, long[] snapshotChecksum)
+			throws IOException, WctttBinderException {
+		JournalReplayer replayer = new JournalReplayer(loaded);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(journalFile), READ_BUFFER_SIZE))) {
+			try {
+				if (in.readInt() != MAGIC || in.readLong() != snapshotChecksum[0]
+						|| in.readLong() != snapshotChecksum[1]) {
+					return -1;
+				}
+			} catch (EOFException e) {
+				return -1;
+			}
+			long validLength = HEADER_SIZE;
+			byte[] data = new byte[256];
+			records = 0;
+			while (true) {
+				int size;
+				int checksum;
+				try {
+					size = in.readInt();
+					checksum = in.readInt();
+					if (size < 1 || size > journalFile.length()) {
+						break;
+					}
+					if (data.length < size) {
+						data = new byte[Math.max(size, 2 * data.length)];
+					}
+					in.readFully(data, 0, size);
+				} catch (EOFException e) {
+					break; // torn record at the end
+				}
+				crc.reset();
+				crc.update(data, 0, size);
+				JournalOperation operation = JournalOperation.fromCode(data[0]);
+				if ((int) crc.getValue() != checksum || operation == null) {
+					break;
+				}
+				replayer.replay(operation, new DataInputStream(
+						new ByteArrayInputStream(data, 1, size - 1)));
+				validLength += RECORD_HEADER_SIZE + size;
+				records++;
+			}
+			return validLength;
+		}
+	}
+
+	/**
+	 * Opens the journal file for appending records.
+	 */
+	FileChannel openChannel() throws IOException {
+		return FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE);
+	}
+
+	private void writeEmptyJournal(long[] snapshotChecksum) throws IOException {
+		Path target = journalFile.toPath().toAbsolutePath();
+		Path tmpFile = Files.createTempFile(target.getParent(),
+				"." + target.getFileName(), ".tmp");
+		try {
+			try (FileChannel out = FileChannel.open(tmpFile,
+					StandardOpenOption.WRITE)) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				header.putInt(MAGIC);
+				header.putLong(snapshotChecksum[0]);
+				header.putLong(snapshotChecksum[1]);
+				header.flip();
+				while (header.hasRemaining()) {
+					out.write(header);
+				}
+				out.force(true);
+			}
+			WctttBinder.moveAtomically(tmpFile, target);
+		} catch (IOException e) {
+			WctttBinder.deleteQuietly(tmpFile);
+			throw e;
+		}
+	}
+
+	/**
+	 * Computes the length and the CRC-32 of a snapshot file.
+	 *
+	 * @return the length and the checksum, {@code {-1, 0}} if the file does
+	 * not exist.
+	 */
+	private static long[] checksum(File file) throws IOException {
+		if (!file.exists()) {
+			return new long[]{-1, 0};
+		}
+		CRC32 fileCrc = new CRC32();
+		byte[] buffer = new byte[READ_BUFFER_SIZE];
+		long length = 0;
+		try (InputStream in = new FileInputStream(file)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				fileCrc.update(buffer, 0, read);
+				length += read;
+			}
+		}
+		return new long[]{length, fileCrc.getValue()};
+	}
+
+	/**
+	 * Exposes the internal buffer to avoid copying every record.
+	 */
+	private static class RecordBuffer extends ByteArrayOutputStream {
+
+		byte[] buffer() {
+			return buf;
+		}
+	}
+}
@@ -38,20 +38,41 @@ import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
-import java.io.File;
+import java.io.*;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Random;
+import java.util.concurrent.*;
 
 /**
  * Provides functionality to parse/write a semester from/to a XML file.
+ *
+ * Compressed files are supported transparently: gzip compressed files are
+ * detected by their magic bytes on parsing, files whose name ends with
+ * {@value CompressedStreams#GZIP_EXTENSION} are gzip compressed on writing.
  */
 public class WctttBinder {
 
 	private static final URL SCHEMA_FILE =
 			WctttBinder.class.getResource("/wcttt-schema.xsd");
 
+	private static final String TMP_FILE_EXTENSION = ".tmp";
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+	private static final Random RANDOM = new Random();
+
 	private File xmlFile;
 	private Schema schema;
 	private JAXBContext context;
+	private final Object saveLock = new Object();
+	private PendingSave pendingSave;
+	private final ExecutorService saveExecutor = new ThreadPoolExecutor(0, 1,
+			30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable, "wcttt-binder-save");
+				thread.setDaemon(true);
+				return thread;
+			});
 
 
 	public WctttBinder(File file) throws WctttBinderException {
@@ -84,14 +105,16 @@ public class WctttBinder {
 	}
 
 	public Semester parse() throws WctttBinderException {
-		try {
+		try (InputStream in = CompressedStreams.openForReading(xmlFile)) {
 			Unmarshaller um = context.createUnmarshaller();
 			um.setSchema(schema);
-			Semester semester = (Semester) um.unmarshal(xmlFile);
+			Semester semester = (Semester) um.unmarshal(in);
 			mapCoursesToSessions(semester);
 			return semester;
 		} catch (JAXBException e) {
 			throw new WctttBinderException("Error while parsing a XML file", e);
+		} catch (IOException e) {
+			throw new WctttBinderException("Error while reading a XML file", e);
 		}
 	}
 
@@ -106,19 +129,158 @@ public class WctttBinder {
 		}
 	}
 
+	/**
+	 * Writes a semester to the XML file. The semester is written to a
+	 * temporary file first, which is synced to the disk and then renamed to
+	 * the XML file. Thus, the XML file always contains either the previous or
+	 * the new semester, even if the process crashes while writing.
+	 *
+	 * @param semester the semester that should be written.
+	 * @throws WctttBinderException if the semester could not be written.
+	 */
 	public void write(Semester semester) throws WctttBinderException {
 		if (semester == null) {
 			throw new IllegalArgumentException("Parameter semester must no be" +
 					"null");
 		}
+		if (semester instanceof JournalingSemester) {
+			semester = ((JournalingSemester) semester).getSemester();
+		}
+		Path target = xmlFile.toPath().toAbsolutePath();
+		Path tmpFile = target.resolveSibling("." + target.getFileName() + "." +
+				Long.toHexString(RANDOM.nextLong()) + TMP_FILE_EXTENSION);
+		boolean moved = false;
 		try {
-			Marshaller ms = context.createMarshaller();
-			ms.setSchema(schema);
-			ms.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-			ms.marshal(semester, xmlFile);
-		} catch (JAXBException e) {
+			try (OutputStream out = openForWriting(tmpFile)) {
+				Marshaller ms = context.createMarshaller();
+				ms.setSchema(schema);
+				ms.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+				ms.marshal(semester, out);
+			}
+			moveAtomically(tmpFile, target);
+			moved = true;
+		} catch (JAXBException | IOException e) {
 			throw new WctttBinderException("Error while writing a XML file", e);
+		} finally {
+			// Also clean up after unchecked exceptions, e.g. from the model:
+			if (!moved) {
+				deleteQuietly(tmpFile);
+			}
+		}
+	}
+
+	/**
+	 * Writes a semester to the XML file in the background, see
+	 * {@link #write(Semester)}. The semester is copied before this method
+	 * returns, such that it can be edited while it is written.
+	 *
+	 * If this method is called again before a previous write was started, the
+	 * previous write is skipped and only the newest semester is written. The
+	 * returned futures of both calls are the same in this case.
+	 *
+	 * @param semester the semester that should be written.
+	 * @return a future that is completed after the semester was written, or
+	 * completed exceptionally with a {@link WctttBinderException} if writing
+	 * failed.
+	 */
+	public CompletableFuture<Void> writeAsync(Semester semester) {
+		if (semester == null) {
+			throw new IllegalArgumentException("Parameter 'semester' must not" +
+					" be null");
+		}
+		Semester snapshot = new SemesterImpl(semester);
+		synchronized (saveLock) {
+			if (pendingSave != null) {
+				pendingSave.semester = snapshot;
+				return pendingSave.future;
+			}
+			PendingSave save = new PendingSave(snapshot);
+			pendingSave = save;
+			saveExecutor.execute(this::runPendingSave);
+			return save.future;
+		}
+	}
+
+	private void runPendingSave() {
+		PendingSave save;
+		synchronized (saveLock) {
+			save = pendingSave;
+			pendingSave = null;
+		}
+		try {
+			write(save.semester);
+			save.future.complete(null);
+		} catch (WctttBinderException | RuntimeException e) {
+			save.future.completeExceptionally(e);
+		}
+	}
+
+	private OutputStream openForWriting(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		OutputStream out = new FilterOutputStream(
+				Channels.newOutputStream(channel)) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				try {
+					channel.force(true);
+				} finally {
+					out.close();
+				}
+			}
+		};
+		if (CompressedStreams.isCompressedFile(xmlFile)) {
+			try {
+				return CompressedStreams.compressInBackground(out);
+			} catch (IOException e) {
+				out.close();
+				throw e;
+			}
+		} else {
+			return new BufferedOutputStream(out, WRITE_BUFFER_SIZE);
 		}
 	}
 
+	static void moveAtomically(Path from, Path to) throws IOException {
+		try {
+			Files.move(from, to, StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+		}
+		// Persist the rename, not supported on every platform:
+		try (FileChannel dir = FileChannel.open(to.getParent(),
+				StandardOpenOption.READ)) {
+			dir.force(true);
+		} catch (IOException e) {
+			// ignore, the file itself was already synced
+		}
+	}
+
+	static void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			// ignore, only a temporary file is left behind
+		}
+	}
+
+	/**
+	 * A write that was requested by {@link #writeAsync(Semester)} but not yet
+	 * started.
+	 */
+	private static class PendingSave {
+
+		private Semester semester;
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+		PendingSave(Semester semester) {
+			this.semester = semester;
+		}
+	}
 }
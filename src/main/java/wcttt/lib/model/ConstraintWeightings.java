@@ -166,7 +166,8 @@ public class ConstraintWeightings {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		// Unmodifiable weightings are equal to modifiable ones:
+		if (!(o instanceof ConstraintWeightings)) return false;
 		ConstraintWeightings that = (ConstraintWeightings) o;
 		return Double.compare(that.s1, s1) == 0 &&
 				Double.compare(that.s2, s2) == 0 &&
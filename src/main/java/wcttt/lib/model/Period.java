@@ -29,6 +29,7 @@ import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlSeeAlso;
 import javax.xml.bind.annotation.XmlType;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a period (day + time slot).
@@ -43,8 +44,13 @@ public class Period implements Comparable<Period> {
 			"10:15 - 11:45", "12:15 - 13:45", "14:15 - 15:45", "16:15 - 17:45",
 			"18:15 - 19:45", "20:15 - 21:45"};
 
+	// Counts the modifications of tracked periods, i.e. of periods whose
+	// period set is cached, see Teacher:
+	private static final AtomicLong trackedModifications = new AtomicLong();
+
 	private int day;
 	private int timeSlot;
+	private boolean tracked = false;
 
 	public Period() {
 		this.day = ValidationHelper.PERIOD_DAY_MIN;
@@ -66,6 +72,7 @@ public class Period implements Comparable<Period> {
 	public void setDay(int day) throws WctttModelException {
 		ValidationHelper.validateDay(day);
 		this.day = day;
+		modified();
 	}
 
 	@XmlAttribute(required = true)
@@ -76,6 +83,32 @@ public class Period implements Comparable<Period> {
 	public void setTimeSlot(int timeslot) throws WctttModelException {
 		ValidationHelper.validateTimeSlot(day);
 		this.timeSlot = timeslot;
+		modified();
+	}
+
+	/**
+	 * Marks the period as part of a cached period set, every later
+	 * modification invalidates the cached period sets.
+	 */
+	void track() {
+		tracked = true;
+	}
+
+	/**
+	 * Getter for the number of modifications of tracked periods, see {@link
+	 * #track()}. A cached period set is valid as long as this number did not
+	 * change.
+	 *
+	 * @return the number of modifications of tracked periods.
+	 */
+	static long getTrackedModifications() {
+		return trackedModifications.get();
+	}
+
+	private void modified() {
+		if (tracked) {
+			trackedModifications.incrementAndGet();
+		}
 	}
 
 	@Override
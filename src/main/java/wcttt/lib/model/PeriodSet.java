@@ -0,0 +1,238 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+
+/**
+ * Represents an immutable set of periods.
+ *
+ * Because a week has at most {@value ValidationHelper#DAYS_PER_WEEK_MAX} days
+ * with at most {@value ValidationHelper#TIME_SLOTS_PER_DAY_MAX} time slots
+ * each, the set is stored as a bit mask in a single {@code long}. The bit of a
+ * period is independent of the dimensions of a semester, see {@link
+ * #indexOf(int, int)}.
+ */
+public final class PeriodSet implements Iterable<Period> {
+
+	public static final PeriodSet EMPTY = new PeriodSet(0);
+
+	private static final int TIME_SLOTS = ValidationHelper.TIME_SLOTS_PER_DAY_MAX;
+	private static final long ALL_BITS =
+			(1L << (ValidationHelper.DAYS_PER_WEEK_MAX * TIME_SLOTS)) - 1;
+
+	private final long bits;
+
+	private PeriodSet(long bits) {
+		this.bits = bits;
+	}
+
+	/**
+	 * Creates a period set from a bit mask, see {@link #toBits()}.
+	 *
+	 * @param bits the bit mask.
+	 * @return the period set.
+	 */
+	public static PeriodSet fromBits(long bits) {
+		if ((bits & ~ALL_BITS) != 0) {
+			throw new IllegalArgumentException("Parameter 'bits' contains " +
+					"bits that do not represent a period");
+		}
+		return bits == 0 ? EMPTY : new PeriodSet(bits);
+	}
+
+	public static PeriodSet of(Period... periods) {
+		if (periods == null) {
+			throw new IllegalArgumentException("Parameter 'periods' must not " +
+					"be null");
+		}
+		long bits = 0;
+		for (Period period : periods) {
+			bits |= bitOf(period);
+		}
+		return fromBits(bits);
+	}
+
+	public static PeriodSet of(Collection<? extends Period> periods) {
+		if (periods == null) {
+			throw new IllegalArgumentException("Parameter 'periods' must not " +
+					"be null");
+		}
+		long bits = 0;
+		for (Period period : periods) {
+			bits |= bitOf(period);
+		}
+		return fromBits(bits);
+	}
+
+	/**
+	 * Returns the index of the bit that represents a period.
+	 *
+	 * @param day the day of the period, starting with 1.
+	 * @param timeSlot the time slot of the period, starting with 1.
+	 * @return the index of the bit.
+	 */
+	public static int indexOf(int day, int timeSlot) {
+		if (day < ValidationHelper.PERIOD_DAY_MIN ||
+				day > ValidationHelper.DAYS_PER_WEEK_MAX ||
+				timeSlot < ValidationHelper.PERIOD_TIME_SLOT_MIN ||
+				timeSlot > TIME_SLOTS) {
+			throw new IllegalArgumentException("Period (" + day + ", " +
+					timeSlot + ") is not within the bounds of a week");
+		}
+		return (day - 1) * TIME_SLOTS + (timeSlot - 1);
+	}
+
+	public static int indexOf(Period period) {
+		if (period == null) {
+			throw new IllegalArgumentException("Parameter 'period' must not " +
+					"be null");
+		}
+		return indexOf(period.getDay(), period.getTimeSlot());
+	}
+
+	private static long bitOf(Period period) {
+		return 1L << indexOf(period);
+	}
+
+	/**
+	 * Returns the bit mask of the set, the bit of a period is given by
+	 * {@link #indexOf(int, int)}.
+	 *
+	 * @return the bit mask.
+	 */
+	public long toBits() {
+		return bits;
+	}
+
+	public boolean contains(int day, int timeSlot) {
+		return (bits & (1L << indexOf(day, timeSlot))) != 0;
+	}
+
+	public boolean contains(Period period) {
+		return (bits & bitOf(period)) != 0;
+	}
+
+	public boolean isEmpty() {
+		return bits == 0;
+	}
+
+	public int size() {
+		return Long.bitCount(bits);
+	}
+
+	public PeriodSet with(Period period) {
+		return fromBits(bits | bitOf(period));
+	}
+
+	public PeriodSet without(Period period) {
+		return fromBits(bits & ~bitOf(period));
+	}
+
+	public PeriodSet union(PeriodSet other) {
+		return fromBits(bits | bitsOf(other));
+	}
+
+	public PeriodSet intersection(PeriodSet other) {
+		return fromBits(bits & bitsOf(other));
+	}
+
+	public PeriodSet difference(PeriodSet other) {
+		return fromBits(bits & ~bitsOf(other));
+	}
+
+	public boolean intersects(PeriodSet other) {
+		return (bits & bitsOf(other)) != 0;
+	}
+
+	private static long bitsOf(PeriodSet other) {
+		if (other == null) {
+			throw new IllegalArgumentException("Parameter 'other' must not " +
+					"be null");
+		}
+		return other.bits;
+	}
+
+	/**
+	 * Iterates over the periods of the set in ascending order. Every call of
+	 * {@link Iterator#next()} creates a new period.
+	 *
+	 * @return the iterator.
+	 */
+	@Override
+	public Iterator<Period> iterator() {
+		return new Iterator<>() {
+
+			private long remaining = bits;
+
+			@Override
+			public boolean hasNext() {
+				return remaining != 0;
+			}
+
+			@Override
+			public Period next() {
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+				int index = Long.numberOfTrailingZeros(remaining);
+				remaining &= remaining - 1;
+				try {
+					return new Period(index / TIME_SLOTS + 1,
+							index % TIME_SLOTS + 1);
+				} catch (WctttModelException e) {
+					throw new WctttModelFatalException("Implementation error, " +
+							"period was created with illegal parameters", e);
+				}
+			}
+		};
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		PeriodSet periodSet = (PeriodSet) o;
+		return bits == periodSet.bits;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(bits);
+	}
+
+	@Override
+	public String toString() {
+		StringJoiner joiner = new StringJoiner("; ", "[", "]");
+		for (Period period : this) {
+			joiner.add(period.toString());
+		}
+		return joiner.toString();
+	}
+}
@@ -28,6 +28,7 @@ package wcttt.lib.model;
 import javafx.collections.ObservableList;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Represents the data of one semester.
@@ -173,6 +174,41 @@ public interface Semester {
 	 */
 	ObservableList<Timetable> getTimetables();
 
+	/**
+	 * Creates an immutable snapshot of a semester, which is not affected by
+	 * further edits of the semester and can be read by multiple threads
+	 * without locking, e.g. by algorithms that run in parallel. Besides the
+	 * data of the semester, the snapshot provides precomputed indices, see
+	 * {@link SemesterSnapshot}.
+	 *
+	 * @return the snapshot.
+	 */
+	Semester snapshot();
+
+	/**
+	 * Looks up the entity of a semester that has a certain id, i.e. a chair,
+	 * teacher, room, course, session or curriculum. Ids are unique across all
+	 * of these entities.
+	 *
+	 * @param id the id of the entity, must not be null.
+	 * @return the entity or an empty optional if no entity has the id.
+	 */
+	Optional<Object> findById(String id);
+
+	/**
+	 * Looks up the entity of a semester that has a certain id and type, see
+	 * {@link #findById(String)}.
+	 *
+	 * @param id the id of the entity, must not be null.
+	 * @param type the type of the entity, e.g. {@code Teacher.class}.
+	 * @param <T> the type of the entity.
+	 * @return the entity or an empty optional if no entity of the type has the
+	 * id.
+	 */
+	default <T> Optional<T> findById(String id, Class<T> type) {
+		return findById(id).filter(type::isInstance).map(type::cast);
+	}
+
 	/**
 	 * Adds a chair to the semester. The list of timetables must be empty.
 	 *
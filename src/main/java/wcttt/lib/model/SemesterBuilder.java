@@ -0,0 +1,335 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import java.util.*;
+
+/**
+ * Builds a semester from a large number of entities at once.
+ *
+ * In contrast to the add methods of {@link Semester}, which validate every
+ * entity against the whole semester when it is added, the builder only
+ * collects the entities. All of them are validated once by {@link #build()},
+ * which throws the same exceptions as the respective add methods would, and
+ * the lists of the semester are filled with a single change each. The entities
+ * are not modified before the validation succeeded.
+ *
+ * A builder can only be used to build one semester.
+ */
+public class SemesterBuilder {
+
+	private String name = "semester";
+	private int daysPerWeek = ValidationHelper.DAYS_PER_WEEK_MIN;
+	private int timeSlotsPerDay = ValidationHelper.TIME_SLOTS_PER_DAY_MIN;
+	private int maxDailyLecturesPerCur =
+			ValidationHelper.MIN_DAILY_LECTURES_PER_CUR_MIN;
+	private ConstraintWeightings constrWeightings = new ConstraintWeightings();
+
+	private final List<Chair> chairs = new ArrayList<>();
+	private final List<Teacher> teachers = new ArrayList<>();
+	private final List<Chair> teacherChairs = new ArrayList<>();
+	private final List<InternalRoom> internalRooms = new ArrayList<>();
+	private final List<ExternalRoom> externalRooms = new ArrayList<>();
+	private final List<Course> courses = new ArrayList<>();
+	private final List<Session> sessions = new ArrayList<>();
+	private final List<Course> sessionCourses = new ArrayList<>();
+	private final List<Boolean> sessionLectures = new ArrayList<>();
+	private final List<Curriculum> curricula = new ArrayList<>();
+	private boolean built = false;
+
+	public SemesterBuilder name(String name) {
+		this.name = name;
+		return this;
+	}
+
+	public SemesterBuilder daysPerWeek(int daysPerWeek) {
+		this.daysPerWeek = daysPerWeek;
+		return this;
+	}
+
+	public SemesterBuilder timeSlotsPerDay(int timeSlotsPerDay) {
+		this.timeSlotsPerDay = timeSlotsPerDay;
+		return this;
+	}
+
+	public SemesterBuilder maxDailyLecturesPerCur(int maxDailyLecturesPerCur) {
+		this.maxDailyLecturesPerCur = maxDailyLecturesPerCur;
+		return this;
+	}
+
+	public SemesterBuilder constrWeightings(
+			ConstraintWeightings constrWeightings) {
+		this.constrWeightings = constrWeightings;
+		return this;
+	}
+
+	/**
+	 * Adds a chair including the teachers that are already assigned to it,
+	 * see {@link Semester#addChair(Chair)}.
+	 *
+	 * @param chair the chair.
+	 * @return this builder.
+	 */
+	public SemesterBuilder addChair(Chair chair) {
+		chairs.add(requireNonNull(chair, "chair"));
+		return this;
+	}
+
+	/**
+	 * Adds a teacher to a chair of the semester, see {@link
+	 * Semester#addTeacherToChair(Teacher, Chair)}.
+	 *
+	 * @param teacher the teacher.
+	 * @param chair the chair, must be added to the builder as well.
+	 * @return this builder.
+	 */
+	public SemesterBuilder addTeacherToChair(Teacher teacher, Chair chair) {
+		if (teacher == null || chair == null) {
+			throw new IllegalArgumentException("Parameter 'teacher' and " +
+					"'chair' must not be null");
+		}
+		teachers.add(teacher);
+		teacherChairs.add(chair);
+		return this;
+	}
+
+	public SemesterBuilder addInternalRoom(InternalRoom room) {
+		internalRooms.add(requireNonNull(room, "room"));
+		return this;
+	}
+
+	public SemesterBuilder addExternalRoom(ExternalRoom room) {
+		externalRooms.add(requireNonNull(room, "room"));
+		return this;
+	}
+
+	/**
+	 * Adds a course including the sessions that are already assigned to it,
+	 * see {@link Semester#addCourse(Course)}.
+	 *
+	 * @param course the course.
+	 * @return this builder.
+	 */
+	public SemesterBuilder addCourse(Course course) {
+		courses.add(requireNonNull(course, "course"));
+		return this;
+	}
+
+	/**
+	 * Adds a lecture to a course of the semester, see {@link
+	 * Semester#addCourseLecture(Session, Course)}.
+	 *
+	 * @param lecture the lecture.
+	 * @param course the course, must be added to the builder as well.
+	 * @return this builder.
+	 */
+	public SemesterBuilder addCourseLecture(Session lecture, Course course) {
+		if (course == null || lecture == null) {
+			throw new IllegalArgumentException("Parameter 'course' and " +
+					"'lecture' must not be null");
+		}
+		return addCourseSession(lecture, course, true);
+	}
+
+	/**
+	 * Adds a practical to a course of the semester, see {@link
+	 * Semester#addCoursePractical(Session, Course)}.
+	 *
+	 * @param practical the practical.
+	 * @param course the course, must be added to the builder as well.
+	 * @return this builder.
+	 */
+	public SemesterBuilder addCoursePractical(Session practical,
+	                                          Course course) {
+		if (course == null || practical == null) {
+			throw new IllegalArgumentException("Parameter 'course' and " +
+					"'practical' must not be null");
+		}
+		return addCourseSession(practical, course, false);
+	}
+
+	private SemesterBuilder addCourseSession(Session session, Course course,
+	                                         boolean lecture) {
+		sessions.add(session);
+		sessionCourses.add(course);
+		sessionLectures.add(lecture);
+		return this;
+	}
+
+	/**
+	 * Adds a curriculum, see {@link Semester#addCurriculum(Curriculum)}. The
+	 * courses of the curriculum must be added to the builder as well.
+	 *
+	 * @param curriculum the curriculum.
+	 * @return this builder.
+	 */
+	public SemesterBuilder addCurriculum(Curriculum curriculum) {
+		curricula.add(requireNonNull(curriculum, "curriculum"));
+		return this;
+	}
+
+	private static <T> T requireNonNull(T value, String name) {
+		if (value == null) {
+			throw new IllegalArgumentException("Parameter '" + name +
+					"' must not be null");
+		}
+		return value;
+	}
+
+	/**
+	 * Validates all collected entities and creates the semester.
+	 *
+	 * @return the new semester.
+	 * @throws WctttModelException if the semester parameters are outside of
+	 * their value ranges or an entity could not have been added to the
+	 * semester by the respective add method, e.g. because of a duplicate id.
+	 */
+	public Semester build() throws WctttModelException {
+		if (built) {
+			throw new IllegalStateException("Semester was already built");
+		}
+		SemesterImpl semester = new SemesterImpl(name, daysPerWeek,
+				timeSlotsPerDay, maxDailyLecturesPerCur, constrWeightings);
+		validate();
+		built = true;
+
+		Map<Chair, List<Teacher>> chairTeachers = new IdentityHashMap<>();
+		for (int i = 0; i < teachers.size(); i++) {
+			chairTeachers.computeIfAbsent(teacherChairs.get(i),
+					chair -> new ArrayList<>()).add(teachers.get(i));
+		}
+		chairTeachers.forEach((chair, added) ->
+				chair.getTeachers().addAll(added));
+		for (int i = 0; i < sessions.size(); i++) {
+			Session session = sessions.get(i);
+			Course course = sessionCourses.get(i);
+			if (sessionLectures.get(i)) {
+				course.addLecture(session);
+			} else {
+				course.addPractical(session);
+			}
+			session.setCourse(course);
+		}
+		semester.setEntities(chairs, internalRooms, externalRooms, courses,
+				curricula);
+		return semester;
+	}
+
+	private void validate() throws WctttModelException {
+		Map<String, Object> entities = new HashMap<>();
+		int teacherCount = teachers.size();
+		for (Chair chair : chairs) {
+			register(entities, chair.getId(), chair);
+			for (Teacher teacher : chair.getTeachers()) {
+				register(entities, teacher.getId(), teacher);
+				teacherCount++;
+			}
+		}
+		for (int i = 0; i < teachers.size(); i++) {
+			Chair chair = teacherChairs.get(i);
+			if (!(entities.get(chair.getId()) instanceof Chair)) {
+				throw new WctttModelException("Chair '" + chair + "' is not" +
+						" assigned to the semester");
+			}
+			register(entities, teachers.get(i).getId(), teachers.get(i));
+		}
+		for (InternalRoom room : internalRooms) {
+			register(entities, room.getId(), room);
+		}
+		for (ExternalRoom room : externalRooms) {
+			register(entities, room.getId(), room);
+		}
+		for (Course course : courses) {
+			if (chairs.isEmpty()) {
+				throw new WctttModelException("You have to add at least one " +
+						"chair before adding a course");
+			} else if (!(entities.get(course.getChair().getId()) instanceof
+					Chair)) {
+				throw new WctttModelException("Chair '" + course.getChair() +
+						"' is not assigned to the semester");
+			}
+			register(entities, course.getId(), course);
+			for (Session lecture : course.getLectures()) {
+				register(entities, lecture.getId(), lecture);
+			}
+			for (Session practical : course.getPracticals()) {
+				register(entities, practical.getId(), practical);
+			}
+		}
+		for (int i = 0; i < sessions.size(); i++) {
+			Course course = sessionCourses.get(i);
+			if (!(entities.get(course.getId()) instanceof Course)) {
+				throw new WctttModelException("Course '" + course + "' is " +
+						"not assigned to the semester");
+			} else if (teacherCount == 0) {
+				throw new WctttModelException("You have to add at least one " +
+						"teacher before adding a session");
+			}
+			register(entities, sessions.get(i).getId(), sessions.get(i));
+		}
+		for (Curriculum curriculum : curricula) {
+			register(entities, curriculum.getId(), curriculum);
+			for (Course course : curriculum.getCourses()) {
+				if (!course.equals(entities.get(course.getId()))) {
+					throw new WctttModelException("Course '" + course +
+							"' of curriculum '" + curriculum + "' is not " +
+							"assigned to the semester");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Registers the id of an entity, the exceptions are the same as the ones
+	 * of {@link SemesterImpl}.
+	 */
+	private static void register(Map<String, Object> entities, String id,
+	                             Object entity) throws WctttModelException {
+		Object existing = entities.get(id);
+		if ("".equals(id)) {
+			throw new WctttModelException("Id '" + id + "' is not allowed");
+		} else if (existing instanceof Chair) {
+			throw new WctttModelException("Id '" + id + "' is already " +
+					"assigned to a chair of the semester");
+		} else if (existing instanceof Teacher) {
+			throw new WctttModelException("Id '" + id + "' is already " +
+					"assigned to a teacher of the semester");
+		} else if (existing instanceof Room) {
+			throw new WctttModelException("Id '" + id + "' is already " +
+					"assigned to a room of the semester");
+		} else if (existing instanceof Course) {
+			throw new WctttModelException("Id '" + id + "' is already " +
+					"assigned to a course of the semester");
+		} else if (existing instanceof Session) {
+			throw new WctttModelException("Id '" + id + "' is already " +
+					"assigned to a session of the semester");
+		} else if (existing instanceof Curriculum) {
+			throw new WctttModelException("Id '" + id + "' is already " +
+					"assigned to a curriculum of the semester");
+		}
+		entities.put(id, entity);
+	}
+}
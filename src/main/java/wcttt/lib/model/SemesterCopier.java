@@ -0,0 +1,191 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Creates deep copies of semesters. All references between the entities of
+ * the copy point to the copied entities, such that the copy does not share
+ * any mutable state with the original.
+ */
+class SemesterCopier {
+
+	private final Map<Chair, Chair> chairs = new IdentityHashMap<>();
+	private final Map<Teacher, Teacher> teachers = new IdentityHashMap<>();
+	private final Map<Room, Room> rooms = new IdentityHashMap<>();
+	private final Map<Course, Course> courses = new IdentityHashMap<>();
+	private final Map<Session, Session> sessions = new IdentityHashMap<>();
+
+	/**
+	 * Copies all data of a semester to another, empty semester.
+	 *
+	 * @param from the semester that should be copied.
+	 * @param to the empty semester to which the data is copied.
+	 */
+	void copy(Semester from, SemesterImpl to) {
+		try {
+			to.setName(from.getName());
+			to.setDaysPerWeek(from.getDaysPerWeek());
+			to.setTimeSlotsPerDay(from.getTimeSlotsPerDay());
+			to.setMaxDailyLecturesPerCur(from.getMaxDailyLecturesPerCur());
+			to.setConstrWeightings(copyWeightings(from.getConstrWeightings()));
+			for (Chair chair : from.getChairs()) {
+				to.getChairs().add(copyChair(chair));
+			}
+			for (InternalRoom room : from.getInternalRooms()) {
+				InternalRoom copy = new InternalRoom(room.getId(),
+						room.getName(), room.getCapacity(),
+						copyFeatures(room.getFeatures()));
+				rooms.put(room, copy);
+				to.getInternalRooms().add(copy);
+			}
+			for (ExternalRoom room : from.getExternalRooms()) {
+				ExternalRoom copy = new ExternalRoom(room.getId(),
+						room.getName());
+				rooms.put(room, copy);
+				to.getExternalRooms().add(copy);
+			}
+			for (Course course : from.getCourses()) {
+				to.getCourses().add(copyCourse(course));
+			}
+			for (Curriculum curriculum : from.getCurricula()) {
+				Curriculum copy = new Curriculum(curriculum.getId(),
+						curriculum.getName());
+				for (Course course : curriculum.getCourses()) {
+					copy.getCourses().add(mapped(courses, course));
+				}
+				to.getCurricula().add(copy);
+			}
+			for (Timetable timetable : from.getTimetables()) {
+				to.getTimetables().add(copyTimetable(timetable));
+			}
+		} catch (WctttModelException e) {
+			throw new WctttModelFatalException("Implementation error, " +
+					"there is a problem with copying a semester", e);
+		}
+	}
+
+	private static <T> T mapped(Map<T, T> copies, T original) {
+		// Entities that are not part of the semester are shared
+		return copies.getOrDefault(original, original);
+	}
+
+	private ConstraintWeightings copyWeightings(ConstraintWeightings w)
+			throws WctttModelException {
+		return new ConstraintWeightings(w.getS1(), w.getS2(), w.getS3(),
+				w.getS4(), w.getS5(), w.getS6(), w.getS7());
+	}
+
+	private RoomFeatures copyFeatures(RoomFeatures features)
+			throws WctttModelException {
+		return new RoomFeatures(features.getProjectors(), features.isPcPool(),
+				features.hasTeacherPc(), features.hasDocCam());
+	}
+
+	private Period copyPeriod(Period period) throws WctttModelException {
+		return period == null ? null :
+				new Period(period.getDay(), period.getTimeSlot());
+	}
+
+	private Chair copyChair(Chair chair) throws WctttModelException {
+		Chair copy = new Chair(chair.getId(), chair.getName(),
+				chair.getAbbreviation());
+		chairs.put(chair, copy);
+		for (Teacher teacher : chair.getTeachers()) {
+			Teacher teacherCopy = new Teacher(teacher.getId(),
+					teacher.getName());
+			for (Period period : teacher.getUnfavorablePeriods()) {
+				teacherCopy.getUnfavorablePeriods().add(copyPeriod(period));
+			}
+			for (Period period : teacher.getUnavailablePeriods()) {
+				teacherCopy.getUnavailablePeriods().add(copyPeriod(period));
+			}
+			teachers.put(teacher, teacherCopy);
+			copy.getTeachers().add(teacherCopy);
+		}
+		return copy;
+	}
+
+	private Course copyCourse(Course course) throws WctttModelException {
+		Course copy = new Course(course.getId(), course.getName(),
+				course.getAbbreviation(), mapped(chairs, course.getChair()),
+				course.getCourseLevel(), course.getMinNumberOfDays());
+		courses.put(course, copy);
+		for (Session lecture : course.getLectures()) {
+			copy.getLectures().add(copySession(lecture, copy));
+		}
+		for (Session practical : course.getPracticals()) {
+			copy.getPracticals().add(copySession(practical, copy));
+		}
+		return copy;
+	}
+
+	private Session copySession(Session session, Course course)
+			throws WctttModelException {
+		Session copy;
+		if (session instanceof InternalSession) {
+			InternalSession internal = (InternalSession) session;
+			copy = new InternalSession(session.getId(), session.getName(),
+					mapped(teachers, session.getTeacher()), course,
+					session.isDoubleSession(),
+					copyPeriod(session.getPreAssignment().orElse(null)),
+					internal.getStudents(),
+					copyFeatures(internal.getRoomRequirements()));
+		} else {
+			ExternalSession external = (ExternalSession) session;
+			copy = new ExternalSession(session.getId(), session.getName(),
+					mapped(teachers, session.getTeacher()), course,
+					session.isDoubleSession(),
+					copyPeriod(session.getPreAssignment().orElse(null)),
+					(ExternalRoom) mapped(rooms, external.getRoom()));
+		}
+		sessions.put(session, copy);
+		return copy;
+	}
+
+	private Timetable copyTimetable(Timetable timetable)
+			throws WctttModelException {
+		Timetable copy = new Timetable(timetable.getName());
+		copy.setSoftConstraintPenalty(timetable.getSoftConstraintPenalty());
+		for (TimetableDay day : timetable.getDays()) {
+			TimetableDay dayCopy = new TimetableDay(day.getDay());
+			for (TimetablePeriod period : day.getPeriods()) {
+				TimetablePeriod periodCopy = new TimetablePeriod(
+						period.getDay(), period.getTimeSlot());
+				for (TimetableAssignment assgmt : period.getAssignments()) {
+					periodCopy.getAssignments().add(new TimetableAssignment(
+							mapped(sessions, assgmt.getSession()),
+							mapped(rooms, assgmt.getRoom())));
+				}
+				dayCopy.getPeriods().add(periodCopy);
+			}
+			copy.getDays().add(dayCopy);
+		}
+		return copy;
+	}
+}
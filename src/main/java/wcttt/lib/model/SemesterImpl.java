@@ -27,13 +27,12 @@ package wcttt.lib.model;
 
 import wcttt.lib.util.ConstraintViolationsCalculator;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 import javax.xml.bind.annotation.*;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Represents a semester.
@@ -61,6 +60,9 @@ public class SemesterImpl implements Semester {
 			FXCollections.observableList(new LinkedList<>());
 	private final ObservableList<Timetable> timetables =
 			FXCollections.observableList(new LinkedList<>());
+	// Maps the ids of chairs, teachers, rooms, courses, sessions and curricula
+	// to the respective entity:
+	private final Map<String, Object> entities = new HashMap<>();
 
 	/**
 	 * Creates a new semester with an empty name, 1 day per week, 1 time
@@ -74,6 +76,7 @@ public class SemesterImpl implements Semester {
 		this.maxDailyLecturesPerCur =
 				ValidationHelper.MIN_DAILY_LECTURES_PER_CUR_MIN;
 		this.constrWeightings = new ConstraintWeightings();
+		trackEntities();
 	}
 
 	/**
@@ -103,6 +106,23 @@ public class SemesterImpl implements Semester {
 		setTimeSlotsPerDay(timeSlotsPerDay);
 		setMaxDailyLecturesPerCur(maxDailyLecturesPerCur);
 		setConstrWeightings(constrWeightings);
+		trackEntities();
+	}
+
+	/**
+	 * Creates a deep copy of a semester. The copy does not share any entities
+	 * with the original semester, such that it can be used as a snapshot that
+	 * is not affected by further edits of the original.
+	 *
+	 * @param semester the semester that should be copied, must not be null.
+	 */
+	public SemesterImpl(Semester semester) {
+		this();
+		if (semester == null) {
+			throw new IllegalArgumentException("Parameter 'semester' must " +
+					"not be null");
+		}
+		new SemesterCopier().copy(semester, this);
 	}
 
 	@Override
@@ -233,72 +253,121 @@ public class SemesterImpl implements Semester {
 		return timetables;
 	}
 
-	private boolean chairIdExists(String id) {
-		for (Chair chair : chairs) {
-			if (id.equals(chair.getId())) {
-				return true;
-			}
+	/**
+	 * Replaces all entities of the semester at once, without any validation.
+	 * Only used by {@link SemesterBuilder}, which validates the entities
+	 * itself.
+	 */
+	void setEntities(List<Chair> chairs, List<InternalRoom> internalRooms,
+	                 List<ExternalRoom> externalRooms, List<Course> courses,
+	                 List<Curriculum> curricula) {
+		this.chairs.setAll(chairs);
+		this.internalRooms.setAll(internalRooms);
+		this.externalRooms.setAll(externalRooms);
+		this.courses.setAll(courses);
+		this.curricula.setAll(curricula);
+	}
+
+	@Override
+	public SemesterSnapshot snapshot() {
+		return new SemesterSnapshot(this);
+	}
+
+	@Override
+	public Optional<Object> findById(String id) {
+		if (id == null) {
+			throw new IllegalArgumentException("Parameter 'id' must not be " +
+					"null");
 		}
-		return false;
+		return Optional.ofNullable(entities.get(id));
 	}
 
-	private boolean teacherIdExists(String id) {
-		for (Chair chair : chairs) {
-			for (Teacher teacher : chair.getTeachers()) {
-				if (id.equals(teacher.getId())) {
-					return true;
-				}
+	/**
+	 * Keeps the id registry up to date when entities are added to or removed
+	 * from the lists of the semester, either by the add/remove methods or
+	 * directly, e.g. by JAXB or the {@link SemesterCopier}. Teachers and
+	 * sessions are registered together with their chair or course, later
+	 * changes are registered by the respective methods of the semester.
+	 */
+	private void trackEntities() {
+		track(chairs, chair -> {
+			register(chair.getId(), chair);
+			chair.getTeachers().forEach(teacher ->
+					register(teacher.getId(), teacher));
+		}, chair -> {
+			unregister(chair.getId(), chair);
+			chair.getTeachers().forEach(teacher ->
+					unregister(teacher.getId(), teacher));
+		});
+		track(internalRooms, room -> register(room.getId(), room),
+				room -> unregister(room.getId(), room));
+		track(externalRooms, room -> register(room.getId(), room),
+				room -> unregister(room.getId(), room));
+		track(courses, course -> {
+			register(course.getId(), course);
+			course.getLectures().forEach(lecture ->
+					register(lecture.getId(), lecture));
+			course.getPracticals().forEach(practical ->
+					register(practical.getId(), practical));
+		}, course -> {
+			unregister(course.getId(), course);
+			course.getLectures().forEach(lecture ->
+					unregister(lecture.getId(), lecture));
+			course.getPracticals().forEach(practical ->
+					unregister(practical.getId(), practical));
+		});
+		track(curricula, curriculum -> register(curriculum.getId(), curriculum),
+				curriculum -> unregister(curriculum.getId(), curriculum));
+	}
+
+	private static <E> void track(ObservableList<E> list, Consumer<E> added,
+	                              Consumer<E> removed) {
+		list.forEach(added);
+		list.addListener((ListChangeListener<E>) change -> {
+			while (change.next()) {
+				change.getRemoved().forEach(removed);
+				change.getAddedSubList().forEach(added);
 			}
+		});
+	}
+
+	private void register(String id, Object entity) {
+		entities.put(id, entity);
+	}
+
+	private void unregister(String id, Object entity) {
+		if (entities.get(id) == entity) {
+			entities.remove(id);
 		}
-		return false;
+	}
+
+	private void reregister(String oldId, Object entity, String newId) {
+		unregister(oldId, entity);
+		register(newId, entity);
+	}
+
+	private boolean chairIdExists(String id) {
+		return entities.get(id) instanceof Chair;
+	}
+
+	private boolean teacherIdExists(String id) {
+		return entities.get(id) instanceof Teacher;
 	}
 
 	private boolean roomIdExists(String id) {
-		for (Room room : internalRooms) {
-			if (id.equals(room.getId())) {
-				return true;
-			}
-		}
-		for (Room room : externalRooms) {
-			if (id.equals(room.getId())) {
-				return true;
-			}
-		}
-		return false;
+		return entities.get(id) instanceof Room;
 	}
 
 	private boolean courseIdExists(String id) {
-		for (Course course : courses) {
-			if (id.equals(course.getId())) {
-				return true;
-			}
-		}
-		return false;
+		return entities.get(id) instanceof Course;
 	}
 
 	private boolean sessionIdExists(String id) {
-		for (Course course : courses) {
-			for (Session session : course.getLectures()) {
-				if (id.equals(session.getId())) {
-					return true;
-				}
-			}
-			for (Session session : course.getPracticals()) {
-				if (id.equals(session.getId())) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return entities.get(id) instanceof Session;
 	}
 
 	private boolean curriculumIdExists(String id) {
-		for (Curriculum curriculum : curricula) {
-			if (id.equals(curriculum.getId())) {
-				return true;
-			}
-		}
-		return false;
+		return entities.get(id) instanceof Curriculum;
 	}
 
 	private boolean timetableNameExists(String name) {
@@ -379,7 +448,9 @@ public class SemesterImpl implements Semester {
 					"assigned to the semester");
 		}
 		checkIfIdAvailable(id);
+		String oldId = chair.getId();
 		chair.setId(id);
+		reregister(oldId, chair, id);
 	}
 
 	@Override
@@ -410,6 +481,7 @@ public class SemesterImpl implements Semester {
 		}
 		checkIfIdAvailable(teacher.getId());
 		chair.addTeacher(teacher);
+		register(teacher.getId(), teacher);
 	}
 
 	@Override
@@ -436,7 +508,11 @@ public class SemesterImpl implements Semester {
 				}
 			}
 		}
-		return chair.removeTeacher(teacher);
+		if (chair.removeTeacher(teacher)) {
+			unregister(teacher.getId(), teacher);
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -453,7 +529,9 @@ public class SemesterImpl implements Semester {
 					" assigned to the semester");
 		}
 		checkIfIdAvailable(id);
+		String oldId = teacher.getId();
 		chair.updateTeacherId(teacher, id);
+		reregister(oldId, teacher, id);
 	}
 
 	@Override
@@ -605,7 +683,9 @@ public class SemesterImpl implements Semester {
 					"assigned to the semester");
 		}
 		checkIfIdAvailable(id);
+		String oldId = room.getId();
 		room.setId(id);
+		reregister(oldId, room, id);
 	}
 
 	@Override
@@ -695,7 +775,9 @@ public class SemesterImpl implements Semester {
 					"not assigned to the semester");
 		}
 		checkIfIdAvailable(id);
+		String oldId = course.getId();
 		course.setId(id);
+		reregister(oldId, course, id);
 	}
 
 	@Override
@@ -750,6 +832,7 @@ public class SemesterImpl implements Semester {
 			course.addPractical(session);
 		}
 		session.setCourse(course);
+		register(session.getId(), session);
 	}
 
 	@Override
@@ -774,7 +857,11 @@ public class SemesterImpl implements Semester {
 					"' is not assigned to the semester");
 		}
 		checkTimetablesEmpty("courses");
-		return lecture.getCourse().removeLecture(lecture);
+		if (lecture.getCourse().removeLecture(lecture)) {
+			unregister(lecture.getId(), lecture);
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -799,7 +886,11 @@ public class SemesterImpl implements Semester {
 					"' is not assigned to the semester");
 		}
 		checkTimetablesEmpty("courses");
-		return practical.getCourse().removePractical(practical);
+		if (practical.getCourse().removePractical(practical)) {
+			unregister(practical.getId(), practical);
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -816,7 +907,9 @@ public class SemesterImpl implements Semester {
 					"assigned to the semester");
 		}
 		checkIfIdAvailable(id);
+		String oldId = session.getId();
 		course.updateSessionId(session, id);
+		reregister(oldId, session, id);
 	}
 
 	@Override
@@ -876,7 +969,7 @@ public class SemesterImpl implements Semester {
 			throw new WctttModelException("Teacher '" + teacher + "' is not " +
 					"assigned to the semester");
 		} else if (preAssignment != null &&
-					session.getTeacher().getUnavailablePeriods().contains(preAssignment)) {
+					session.getTeacher().getUnavailablePeriodSet().contains(preAssignment)) {
 			throw new WctttModelException("Pre-assignment of session '" +
 					session + "' is within the unavailable periods of " +
 					"the corresponding teacher");
@@ -896,7 +989,7 @@ public class SemesterImpl implements Semester {
 						" double session in the last time slot should " +
 						"have been detected before", e);
 			}
-			if (session.getTeacher().getUnavailablePeriods().
+			if (session.getTeacher().getUnavailablePeriodSet().
 					contains(secondPeriod)) {
 				throw new WctttModelException("Pre-assignment of double " +
 						"session '" + session + "' is within the " +
@@ -952,7 +1045,9 @@ public class SemesterImpl implements Semester {
 					"' is not assigned to the semester");
 		}
 		checkIfIdAvailable(id);
+		String oldId = curriculum.getId();
 		curriculum.setId(id);
+		reregister(oldId, curriculum, id);
 	}
 
 	@Override
@@ -0,0 +1,508 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.*;
+
+/**
+ * Represents an immutable snapshot of a semester, see {@link
+ * Semester#snapshot()}.
+ *
+ * The snapshot is based on a deep copy of the semester, so it is not affected
+ * by further edits of the original. Nothing is shared with the original or
+ * with other snapshots, because the entities of the data model are mutable,
+ * i.e. every snapshot costs a full copy of the semester. All methods that
+ * would modify the snapshot throw an {@link UnsupportedOperationException},
+ * this includes its lists and its constraint weightings. The entities that
+ * are reachable from the snapshot, e.g. its teachers and timetables, are not
+ * wrapped and must not be modified either. Since the snapshot and its indices
+ * are completely built in the constructor, it can be read by multiple threads
+ * without any locking.
+ */
+public final class SemesterSnapshot implements Semester {
+
+	private static final String IMMUTABLE = "Semester snapshot cannot be " +
+			"modified";
+
+	private final String name;
+	private final int daysPerWeek;
+	private final int timeSlotsPerDay;
+	private final int maxDailyLecturesPerCur;
+	private final ConstraintWeightings constrWeightings;
+	private final ObservableList<Chair> chairs;
+	private final ObservableList<InternalRoom> internalRooms;
+	private final ObservableList<ExternalRoom> externalRooms;
+	private final ObservableList<Course> courses;
+	private final ObservableList<Curriculum> curricula;
+	private final ObservableList<Timetable> timetables;
+
+	private final List<Teacher> teachers;
+	private final List<Session> sessions;
+	private final Map<String, Object> entities = new HashMap<>();
+	private final Map<Course, List<Session>> courseSessions =
+			new IdentityHashMap<>();
+	private final Map<Course, List<Curriculum>> courseCurricula =
+			new IdentityHashMap<>();
+
+	SemesterSnapshot(Semester semester) {
+		if (semester == null) {
+			throw new IllegalArgumentException("Parameter 'semester' must " +
+					"not be null");
+		}
+		Semester copy = new SemesterImpl(semester);
+		name = copy.getName();
+		daysPerWeek = copy.getDaysPerWeek();
+		timeSlotsPerDay = copy.getTimeSlotsPerDay();
+		maxDailyLecturesPerCur = copy.getMaxDailyLecturesPerCur();
+		try {
+			constrWeightings = new UnmodifiableConstraintWeightings(
+					copy.getConstrWeightings());
+		} catch (WctttModelException e) {
+			throw new WctttModelFatalException("Implementation error, the " +
+					"weightings of a semester are invalid", e);
+		}
+		chairs = immutable(copy.getChairs());
+		internalRooms = immutable(copy.getInternalRooms());
+		externalRooms = immutable(copy.getExternalRooms());
+		courses = immutable(copy.getCourses());
+		curricula = immutable(copy.getCurricula());
+		timetables = immutable(copy.getTimetables());
+
+		List<Teacher> allTeachers = new ArrayList<>();
+		for (Chair chair : chairs) {
+			entities.put(chair.getId(), chair);
+			for (Teacher teacher : chair.getTeachers()) {
+				entities.put(teacher.getId(), teacher);
+				// Fills the caches of the teacher before it is shared:
+				teacher.getUnavailablePeriodSet();
+				teacher.getUnfavorablePeriodSet();
+				allTeachers.add(teacher);
+			}
+		}
+		internalRooms.forEach(room -> entities.put(room.getId(), room));
+		externalRooms.forEach(room -> entities.put(room.getId(), room));
+		List<Session> allSessions = new ArrayList<>();
+		for (Course course : courses) {
+			entities.put(course.getId(), course);
+			List<Session> sessionsOfCourse = new ArrayList<>(
+					course.getLectures().size() +
+					course.getPracticals().size());
+			sessionsOfCourse.addAll(course.getLectures());
+			sessionsOfCourse.addAll(course.getPracticals());
+			sessionsOfCourse.forEach(session ->
+					entities.put(session.getId(), session));
+			courseSessions.put(course,
+					Collections.unmodifiableList(sessionsOfCourse));
+			courseCurricula.put(course, new ArrayList<>());
+			allSessions.addAll(sessionsOfCourse);
+		}
+		for (Curriculum curriculum : curricula) {
+			entities.put(curriculum.getId(), curriculum);
+			for (Course course : curriculum.getCourses()) {
+				List<Curriculum> ofCourse = courseCurricula.get(course);
+				if (ofCourse != null) {
+					ofCourse.add(curriculum);
+				}
+			}
+		}
+		courseCurricula.replaceAll((course, ofCourse) ->
+				Collections.unmodifiableList(ofCourse));
+		teachers = Collections.unmodifiableList(allTeachers);
+		sessions = Collections.unmodifiableList(allSessions);
+	}
+
+	private static <E> ObservableList<E> immutable(List<E> list) {
+		return FXCollections.unmodifiableObservableList(
+				FXCollections.observableArrayList(list));
+	}
+
+	/**
+	 * Returns this snapshot, since it is immutable already.
+	 *
+	 * @return this snapshot.
+	 */
+	@Override
+	public SemesterSnapshot snapshot() {
+		return this;
+	}
+
+	/**
+	 * Getter for the teachers of all chairs of the snapshot.
+	 *
+	 * @return the unmodifiable list of the teachers.
+	 */
+	public List<Teacher> getTeachers() {
+		return teachers;
+	}
+
+	/**
+	 * Getter for the lectures and practicals of all courses of the snapshot.
+	 *
+	 * @return the unmodifiable list of the sessions.
+	 */
+	public List<Session> getSessions() {
+		return sessions;
+	}
+
+	/**
+	 * Getter for the lectures followed by the practicals of a course.
+	 *
+	 * @param course the course, must be part of the snapshot.
+	 * @return the unmodifiable list of the sessions, or an empty list if the
+	 * course is not part of the snapshot.
+	 */
+	public List<Session> getSessions(Course course) {
+		return courseSessions.getOrDefault(course, Collections.emptyList());
+	}
+
+	/**
+	 * Getter for the curricula that contain a course.
+	 *
+	 * @param course the course, must be part of the snapshot.
+	 * @return the unmodifiable list of the curricula, or an empty list if the
+	 * course is not part of the snapshot.
+	 */
+	public List<Curriculum> getCurricula(Course course) {
+		return courseCurricula.getOrDefault(course, Collections.emptyList());
+	}
+
+	@Override
+	public Optional<Object> findById(String id) {
+		if (id == null) {
+			throw new IllegalArgumentException("Parameter 'id' must not be " +
+					"null");
+		}
+		return Optional.ofNullable(entities.get(id));
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public void setName(String name) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public int getDaysPerWeek() {
+		return daysPerWeek;
+	}
+
+	@Override
+	public void setDaysPerWeek(int daysPerWeek) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public int getTimeSlotsPerDay() {
+		return timeSlotsPerDay;
+	}
+
+	@Override
+	public void setTimeSlotsPerDay(int timeSlotsPerDay) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public int getMaxDailyLecturesPerCur() {
+		return maxDailyLecturesPerCur;
+	}
+
+	@Override
+	public void setMaxDailyLecturesPerCur(int maxDailyLecturesPerCur) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	/**
+	 * Getter for the constraint weightings of the snapshot.
+	 *
+	 * @return the weightings, their setters throw an {@link
+	 * UnsupportedOperationException}.
+	 */
+	@Override
+	public ConstraintWeightings getConstrWeightings() {
+		return constrWeightings;
+	}
+
+	@Override
+	public void setConstrWeightings(ConstraintWeightings constrWeightings) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public ObservableList<Chair> getChairs() {
+		return chairs;
+	}
+
+	@Override
+	public ObservableList<InternalRoom> getInternalRooms() {
+		return internalRooms;
+	}
+
+	@Override
+	public ObservableList<ExternalRoom> getExternalRooms() {
+		return externalRooms;
+	}
+
+	@Override
+	public ObservableList<Course> getCourses() {
+		return courses;
+	}
+
+	@Override
+	public ObservableList<Curriculum> getCurricula() {
+		return curricula;
+	}
+
+	/**
+	 * Getter for the timetables of the snapshot. The list is unmodifiable, but
+	 * the timetables themselves are not wrapped, since they are edited through
+	 * their days and periods. They belong to the snapshot and must not be
+	 * modified, edit a copy instead, e.g. {@link Timetable#derive()}.
+	 *
+	 * @return the unmodifiable list of the timetables.
+	 */
+	@Override
+	public ObservableList<Timetable> getTimetables() {
+		return timetables;
+	}
+
+	@Override
+	public void addChair(Chair chair) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean removeChair(Chair chair) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateChairId(Chair chair, String id) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateChairData(Chair chair, String name,
+	                            String abbreviation) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void addTeacherToChair(Teacher teacher, Chair chair) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean removeTeacherFromChair(Teacher teacher, Chair chair) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateTeacherId(Teacher teacher, Chair chair, String id) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateTeacherData(Teacher teacher, String name,
+	                              List<Period> unfavorablePeriods,
+	                              List<Period> unavailablePeriods) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void addInternalRoom(InternalRoom room) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void addExternalRoom(ExternalRoom room) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean removeInternalRoom(InternalRoom room) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean removeExternalRoom(ExternalRoom room) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateRoomId(Room room, String id) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateInternalRoomData(InternalRoom room, String name,
+	                                   int capacity, RoomFeatures features) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateExternalRoomData(ExternalRoom room, String name) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void addCourse(Course course) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean removeCourse(Course course) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateCourseId(Course course, String id) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateCourseData(Course course, String name,
+	                             String abbreviation, Chair chair,
+	                             CourseLevel courseLevel, int minNumberOfDays) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void addCourseLecture(Session lecture, Course course) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean removeCourseLecture(Session lecture) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void addCoursePractical(Session practical, Course course) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean removeCoursePractical(Session practical) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateCourseSessionId(Session session, Course course,
+	                                  String id) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateInternalSessionData(InternalSession session, String name,
+	                                      Teacher teacher,
+	                                      boolean doubleSession,
+	                                      Period preAssignment, int students,
+	                                      RoomFeatures roomRequirements) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateExternalSessionData(ExternalSession session, String name,
+	                                      Teacher teacher,
+	                                      boolean doubleSession,
+	                                      Period preAssignment,
+	                                      ExternalRoom room) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void addCurriculum(Curriculum curriculum) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean removeCurriculum(Curriculum curriculum) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateCurriculumId(Curriculum curriculum, String id) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateCurriculumData(Curriculum curriculum, String name,
+	                                 List<Course> courses) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void addTimetable(Timetable timetable) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean removeTimetable(Timetable timetable) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void updateTimetableName(Timetable timetable, String name) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		SemesterSnapshot semester = (SemesterSnapshot) o;
+		return daysPerWeek == semester.daysPerWeek &&
+				timeSlotsPerDay == semester.timeSlotsPerDay &&
+				maxDailyLecturesPerCur == semester.maxDailyLecturesPerCur &&
+				Objects.equals(name, semester.name) &&
+				Objects.equals(constrWeightings, semester.constrWeightings) &&
+				Objects.equals(chairs, semester.chairs) &&
+				Objects.equals(internalRooms, semester.internalRooms) &&
+				Objects.equals(externalRooms, semester.externalRooms) &&
+				Objects.equals(courses, semester.courses) &&
+				Objects.equals(curricula, semester.curricula) &&
+				Objects.equals(timetables, semester.timetables);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, daysPerWeek, timeSlotsPerDay,
+				maxDailyLecturesPerCur, constrWeightings, chairs, internalRooms,
+				externalRooms, courses, curricula, timetables);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
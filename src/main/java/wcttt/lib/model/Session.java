@@ -148,6 +148,21 @@ public abstract class Session {
 		this.preAssignment = preAssignment;
 	}
 
+	/**
+	 * Returns the periods that are occupied by the session if it starts in a
+	 * period, i.e. the period itself and for double sessions also the next
+	 * time slot.
+	 *
+	 * @param start the period in which the session starts.
+	 * @return the occupied periods.
+	 */
+	public PeriodSet getOccupiedPeriods(Period start) {
+		PeriodSet periods = PeriodSet.of(start);
+		return doubleSession ?
+				PeriodSet.fromBits(periods.toBits() | periods.toBits() << 1) :
+				periods;
+	}
+
 	public boolean isLecture() {
 		return course.getLectures().contains(this);
 	}
@@ -0,0 +1,104 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.RandomAccess;
+
+/**
+ * A list whose elements can be shared with other lists. The elements are
+ * only copied when one of the lists sharing them is changed.
+ *
+ * @param <E> the type of the elements.
+ */
+class SharedList<E> extends AbstractList<E> implements RandomAccess {
+
+	private ArrayList<E> elements;
+	private boolean shared;
+
+	SharedList() {
+		elements = new ArrayList<>();
+	}
+
+	/**
+	 * Creates a list that shares the elements of another list.
+	 *
+	 * @param list the list whose elements are shared.
+	 */
+	SharedList(SharedList<E> list) {
+		list.shared = true;
+		elements = list.elements;
+		shared = true;
+	}
+
+	private ArrayList<E> writableElements() {
+		if (shared) {
+			elements = new ArrayList<>(elements);
+			shared = false;
+		}
+		return elements;
+	}
+
+	@Override
+	public E get(int index) {
+		return elements.get(index);
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	@Override
+	public E set(int index, E element) {
+		return writableElements().set(index, element);
+	}
+
+	@Override
+	public void add(int index, E element) {
+		writableElements().add(index, element);
+		modCount++;
+	}
+
+	@Override
+	public E remove(int index) {
+		E element = writableElements().remove(index);
+		modCount++;
+		return element;
+	}
+
+	@Override
+	public void clear() {
+		if (shared) {
+			elements = new ArrayList<>();
+			shared = false;
+		} else {
+			elements.clear();
+		}
+		modCount++;
+	}
+}
@@ -26,9 +26,11 @@
 package wcttt.lib.model;
 
 import javax.xml.bind.annotation.*;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
  * Represents a teacher.
@@ -42,8 +44,8 @@ public class Teacher {
 
 	private String id;
 	private String name;
-	private final List<Period> unfavorablePeriods = new LinkedList<>();
-	private final List<Period> unavailablePeriods = new LinkedList<>();
+	private final PeriodList unfavorablePeriods = new PeriodList();
+	private final PeriodList unavailablePeriods = new PeriodList();
 
 	public Teacher() {
 		this.id = "teacher";
@@ -98,22 +100,32 @@ public class Teacher {
 		return unavailablePeriods;
 	}
 
+	/**
+	 * Returns the unfavorable periods as period set. The set is cached until
+	 * the list of unfavorable periods or one of its periods is modified.
+	 *
+	 * @return the unfavorable periods.
+	 */
+	public PeriodSet getUnfavorablePeriodSet() {
+		return unfavorablePeriods.toPeriodSet();
+	}
+
+	/**
+	 * Returns the unavailable periods as period set. The set is cached until
+	 * the list of unavailable periods or one of its periods is modified.
+	 *
+	 * @return the unavailable periods.
+	 */
+	public PeriodSet getUnavailablePeriodSet() {
+		return unavailablePeriods.toPeriodSet();
+	}
+
 	private boolean unavailPeriodExists(Period period) {
-		for (Period unavailable : unavailablePeriods) {
-			if (period.equals(unavailable)) {
-				return true;
-			}
-		}
-		return false;
+		return getUnavailablePeriodSet().contains(period);
 	}
 
 	private boolean unfavorPeriodExists(Period period) {
-		for (Period unfavorable : unfavorablePeriods) {
-			if (period.equals(unfavorable)) {
-				return true;
-			}
-		}
-		return false;
+		return getUnfavorablePeriodSet().contains(period);
 	}
 
 	private void addPeriod(Period period, boolean isUnfavorable) throws
@@ -180,4 +192,96 @@ public class Teacher {
 		return name;
 	}
 
+	/**
+	 * List of periods that caches them as period set. Every modification of
+	 * the list goes through {@link #set(int, Period)}, {@link #add(int,
+	 * Period)} or {@link #remove(int)}, also the ones of sub lists and list
+	 * iterators, and invalidates the cache. Modifications of the listed
+	 * periods themselves are reported by {@link Period#track()}. Thus, the
+	 * validity of the cache is checked in constant time.
+	 */
+	private static final class PeriodList extends AbstractList<Period>
+			implements RandomAccess {
+
+		private final List<Period> periods = new ArrayList<>();
+		private int version = 0;
+		private CachedPeriodSet cache = null;
+
+		@Override
+		public Period get(int index) {
+			return periods.get(index);
+		}
+
+		@Override
+		public int size() {
+			return periods.size();
+		}
+
+		@Override
+		public Period set(int index, Period period) {
+			track(period);
+			Period previous = periods.set(index, period);
+			version++;
+			return previous;
+		}
+
+		@Override
+		public void add(int index, Period period) {
+			track(period);
+			periods.add(index, period);
+			modCount++;
+			version++;
+		}
+
+		@Override
+		public Period remove(int index) {
+			Period removed = periods.remove(index);
+			modCount++;
+			version++;
+			return removed;
+		}
+
+		@Override
+		public void clear() {
+			periods.clear();
+			modCount++;
+			version++;
+		}
+
+		private static void track(Period period) {
+			if (period != null) {
+				period.track();
+			}
+		}
+
+		private PeriodSet toPeriodSet() {
+			CachedPeriodSet cached = cache;
+			long modifications = Period.getTrackedModifications();
+			if (cached == null || cached.version != version ||
+					cached.modifications != modifications) {
+				cached = new CachedPeriodSet(PeriodSet.of(periods), version,
+						modifications);
+				cache = cached;
+			}
+			return cached.periods;
+		}
+	}
+
+	/**
+	 * Immutable, such that the cache can be read by multiple threads.
+	 */
+	private static final class CachedPeriodSet {
+
+		private final PeriodSet periods;
+		// The state of the list and its periods at the time of caching:
+		private final int version;
+		private final long modifications;
+
+		private CachedPeriodSet(PeriodSet periods, int version,
+		                        long modifications) {
+			this.periods = periods;
+			this.version = version;
+			this.modifications = modifications;
+		}
+	}
 }
@@ -91,6 +91,37 @@ public class Timetable {
 		}
 	}
 
+	/**
+	 * Creates a copy of this timetable that shares the assignments of every
+	 * period with this timetable. The assignments of a period are only copied
+	 * when the period is changed in either of both timetables, so deriving a
+	 * timetable costs only the days and periods, not the assignments.
+	 *
+	 * The {@link TimetableAssignment} objects themselves are shared as well,
+	 * they must therefore be replaced instead of being changed with {@link
+	 * TimetableAssignment#setSession(Session)} or {@link
+	 * TimetableAssignment#setRoom(Room)}.
+	 *
+	 * @return the derived timetable.
+	 */
+	public Timetable derive() {
+		Timetable timetable = new Timetable(name);
+		timetable.softConstraintPenalty = softConstraintPenalty;
+		for (TimetableDay day : days) {
+			try {
+				TimetableDay newDay = new TimetableDay(day.getDay());
+				for (TimetablePeriod period : day.getPeriods()) {
+					newDay.addPeriod(new TimetablePeriod(period));
+				}
+				timetable.addDay(newDay);
+			} catch (WctttModelException e) {
+				throw new WctttModelFatalException("Implementation error, " +
+						"there is a problem with deriving a timetable", e);
+			}
+		}
+		return timetable;
+	}
+
 	@XmlAttribute(required = true)
 	public String getName() {
 		return name;
@@ -148,6 +179,56 @@ public class Timetable {
 		return days.remove(day);
 	}
 
+	/**
+	 * Returns the periods in which a room is occupied by an assignment.
+	 *
+	 * @param room the room.
+	 * @return the occupied periods.
+	 */
+	public PeriodSet getOccupiedPeriods(Room room) {
+		if (room == null) {
+			throw new IllegalArgumentException("Parameter 'room' must not " +
+					"be null");
+		}
+		long bits = 0;
+		for (TimetableDay day : days) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				for (TimetableAssignment assgmt : period.getAssignments()) {
+					if (assgmt.getRoom().equals(room)) {
+						bits |= 1L << PeriodSet.indexOf(period);
+						break;
+					}
+				}
+			}
+		}
+		return PeriodSet.fromBits(bits);
+	}
+
+	/**
+	 * Returns the periods in which a teacher holds an assigned session.
+	 *
+	 * @param teacher the teacher.
+	 * @return the occupied periods.
+	 */
+	public PeriodSet getOccupiedPeriods(Teacher teacher) {
+		if (teacher == null) {
+			throw new IllegalArgumentException("Parameter 'teacher' must not " +
+					"be null");
+		}
+		long bits = 0;
+		for (TimetableDay day : days) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				for (TimetableAssignment assgmt : period.getAssignments()) {
+					if (assgmt.getSession().getTeacher().equals(teacher)) {
+						bits |= 1L << PeriodSet.indexOf(period);
+						break;
+					}
+				}
+			}
+		}
+		return PeriodSet.fromBits(bits);
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -43,15 +43,34 @@ import java.util.Objects;
 @XmlType(propOrder = {"assignments"})
 public class TimetablePeriod extends Period {
 
-	private final ObservableList<TimetableAssignment> assignments =
-			FXCollections.observableArrayList();
+	private final SharedList<TimetableAssignment> sharedAssignments;
+	private final ObservableList<TimetableAssignment> assignments;
 
 	public TimetablePeriod() {
 		super();
+		sharedAssignments = new SharedList<>();
+		assignments = FXCollections.observableList(sharedAssignments);
 	}
 
 	public TimetablePeriod(int day, int timeSlot) throws WctttModelException {
 		super(day, timeSlot);
+		sharedAssignments = new SharedList<>();
+		assignments = FXCollections.observableList(sharedAssignments);
+	}
+
+	/**
+	 * Creates a period with the day, time slot and assignments of another
+	 * period. The assignments are shared with the other period until one of
+	 * both periods is changed.
+	 *
+	 * @param period the period whose assignments are shared.
+	 * @throws WctttModelException if the day or time slot of the other
+	 * period is invalid.
+	 */
+	TimetablePeriod(TimetablePeriod period) throws WctttModelException {
+		super(period.getDay(), period.getTimeSlot());
+		sharedAssignments = new SharedList<>(period.sharedAssignments);
+		assignments = FXCollections.observableList(sharedAssignments);
 	}
 
 	@XmlElementWrapper(required = true)
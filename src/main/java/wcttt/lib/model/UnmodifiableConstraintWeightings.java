@@ -0,0 +1,79 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+/**
+ * Constraint weightings that cannot be modified, see {@link
+ * SemesterSnapshot#getConstrWeightings()}. They are equal to modifiable
+ * weightings with the same values.
+ */
+final class UnmodifiableConstraintWeightings extends ConstraintWeightings {
+
+	private static final String IMMUTABLE = "Constraint weightings of a " +
+			"semester snapshot cannot be modified";
+
+	UnmodifiableConstraintWeightings(ConstraintWeightings weightings)
+			throws WctttModelException {
+		super(weightings.getS1(), weightings.getS2(), weightings.getS3(),
+				weightings.getS4(), weightings.getS5(), weightings.getS6(),
+				weightings.getS7());
+	}
+
+	@Override
+	public void setS1(double s1) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void setS2(double s2) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void setS3(double s3) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void setS4(double s4) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void setS5(double s5) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void setS6(double s6) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+
+	@Override
+	public void setS7(double s7) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+}
@@ -27,7 +27,10 @@ package wcttt.lib.util;
 
 import wcttt.lib.model.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -36,75 +39,126 @@ import java.util.Map;
 public class ConflictMatrixCalculator {
 
 	private Semester semester;
+	private final boolean identityKeys;
 
 	public ConflictMatrixCalculator(Semester semester) {
+		this(semester, false);
+	}
+
+	/**
+	 * Creates a calculator for the conflict matrices of a semester.
+	 *
+	 * The hash codes of sessions and teachers traverse large parts of the
+	 * semester, e.g. a session includes its course with all of its sessions.
+	 * With identity keys, the matrices are keyed by the identity of the
+	 * entities instead, such that a lookup does not traverse anything. The
+	 * matrices must then be accessed with the entities of the semester itself,
+	 * not with equal copies of them.
+	 *
+	 * @param semester the semester.
+	 * @param identityKeys whether the entities of the semester should be
+	 *                     compared by identity.
+	 */
+	public ConflictMatrixCalculator(Semester semester, boolean identityKeys) {
 		this.semester = semester;
+		this.identityKeys = identityKeys;
+	}
+
+	private <K, V> Map<K, V> newMap() {
+		return identityKeys ? new IdentityHashMap<>() : new HashMap<>();
+	}
+
+	private boolean same(Object a, Object b) {
+		return identityKeys ? a == b : a.equals(b);
 	}
 
 	public Map<Session, Map<Session, SessionSessionConflict>> calcSessionSessionConflicts() {
-		Map<Session, Map<Session, SessionSessionConflict>> matrix = new HashMap<>();
-		for (Course course : semester.getCourses()) {
+		Map<Session, Map<Session, SessionSessionConflict>> matrix = newMap();
+		List<Course> courses = new ArrayList<>(semester.getCourses());
+		List<Curriculum> curricula = new ArrayList<>(semester.getCurricula());
+		// Whether a course is part of a curriculum, by index:
+		boolean[][] inCurriculum =
+				new boolean[courses.size()][curricula.size()];
+		for (int i = 0; i < courses.size(); i++) {
+			for (int j = 0; j < curricula.size(); j++) {
+				inCurriculum[i][j] =
+						curricula.get(j).getCourses().contains(courses.get(i));
+			}
+		}
+		for (int i = 0; i < courses.size(); i++) {
+			Course course = courses.get(i);
 			for (Session lecture : course.getLectures()) {
-				addSessionToSessionSessionMatrix(matrix, lecture);
+				addSessionToSessionSessionMatrix(matrix, lecture, true,
+						courses, curricula, inCurriculum[i], inCurriculum);
 			}
 			for (Session practical : course.getPracticals()) {
-				addSessionToSessionSessionMatrix(matrix, practical);
+				addSessionToSessionSessionMatrix(matrix, practical, false,
+						courses, curricula, inCurriculum[i], inCurriculum);
 			}
 		}
 		return matrix;
 	}
 
 	private void addSessionToSessionSessionMatrix(Map<Session, Map<Session,
-			SessionSessionConflict>> matrix, Session session) {
-		matrix.put(session, new HashMap<>());
-		for (Course otherCourse : semester.getCourses()) {
+			SessionSessionConflict>> matrix, Session session, boolean lecture,
+			List<Course> courses, List<Curriculum> curricula,
+			boolean[] sessionInCurriculum, boolean[][] inCurriculum) {
+		Map<Session, SessionSessionConflict> row = newMap();
+		matrix.put(session, row);
+		for (int i = 0; i < courses.size(); i++) {
+			Course otherCourse = courses.get(i);
 			for (Session otherLecture : otherCourse.getLectures()) {
-				addSessionSessionConflicts(matrix, session, otherLecture);
+				addSessionSessionConflicts(row, session, otherLecture,
+						true, curricula, sessionInCurriculum,
+						inCurriculum[i]);
 			}
 			for (Session otherPractical : otherCourse.getPracticals()) {
-				addSessionSessionConflicts(matrix, session, otherPractical);
+				addSessionSessionConflicts(row, session, otherPractical,
+						lecture, curricula, sessionInCurriculum,
+						inCurriculum[i]);
 			}
 		}
 	}
 
 	private void addSessionSessionConflicts(
-			Map<Session, Map<Session, SessionSessionConflict>> matrix,
-			Session session, Session otherSession) {
-		if (otherSession.equals(session)) {
-			matrix.get(session).put(otherSession, null);
+			Map<Session, SessionSessionConflict> row, Session session,
+			Session otherSession, boolean anyLecture,
+			List<Curriculum> curricula, boolean[] sessionInCurriculum,
+			boolean[] otherInCurriculum) {
+		if (same(otherSession, session)) {
+			row.put(otherSession, null);
 		} else {
 			SessionSessionConflict conflict = new SessionSessionConflict();
 			// Check for conflicts based on the curricula:
-			for (Curriculum curriculum : semester.getCurricula()) {
-				if (curriculum.getCourses().contains(session.getCourse()) &&
-						curriculum.getCourses().contains(otherSession.getCourse())) {
-					if (session.isLecture() || otherSession.isLecture() ||
+			for (int i = 0; i < curricula.size(); i++) {
+				if (sessionInCurriculum[i] && otherInCurriculum[i]) {
+					if (anyLecture ||
 							session.getCourse().getPracticals().size() == 1 ||
 							otherSession.getCourse().getPracticals().size() == 1) {
-						conflict.getCurricula().add(curriculum);
+						conflict.getCurricula().add(curricula.get(i));
 					}
 				}
 			}
 			// Check for conflicts based on the same course:
-			if (session.getCourse().equals(otherSession.getCourse())) {
-				if (session.isLecture() || otherSession.isLecture()) {
+			if (same(session.getCourse(), otherSession.getCourse())) {
+				if (anyLecture) {
 					conflict.setSessionConflict(true);
 				}
 			}
 			// Check for conflicts based on the same teacher:
-			if (session.getTeacher().equals(otherSession.getTeacher())) {
+			if (same(session.getTeacher(), otherSession.getTeacher())) {
 				conflict.setTeacherConflict(true);
 			}
-			matrix.get(session).put(otherSession, conflict);
+			row.put(otherSession, conflict);
 		}
 	}
 
 	public Map<InternalSession, Map<InternalRoom, SessionRoomConflict>> calcSessionRoomConflicts() {
-		Map<InternalSession, Map<InternalRoom, SessionRoomConflict>> matrix = new HashMap<>();
+		Map<InternalSession, Map<InternalRoom, SessionRoomConflict>> matrix = newMap();
 		for (Course course : semester.getCourses()) {
 			for (Session lecture : course.getLectures()) {
 				if (lecture instanceof InternalSession) {
-					matrix.put((InternalSession) lecture, new HashMap<>());
+					matrix.put((InternalSession) lecture, newMap());
 					for (InternalRoom room : semester.getInternalRooms()) {
 						addSessionRoomConflict(matrix,
 								(InternalSession) lecture, room);
@@ -113,7 +167,7 @@ public class ConflictMatrixCalculator {
 			}
 			for (Session practical : course.getPracticals()) {
 				if (practical instanceof InternalSession) {
-					matrix.put((InternalSession) practical, new HashMap<>());
+					matrix.put((InternalSession) practical, newMap());
 					for (InternalRoom room : semester.getInternalRooms()) {
 						addSessionRoomConflict(matrix,
 								(InternalSession) practical, room);
@@ -135,7 +189,7 @@ public class ConflictMatrixCalculator {
 	}
 
 	public Map<Teacher, Map<Period, TeacherPeriodConflict>> calcTeacherPeriodConflicts() {
-		Map<Teacher, Map<Period, TeacherPeriodConflict>> matrix = new HashMap<>();
+		Map<Teacher, Map<Period, TeacherPeriodConflict>> matrix = newMap();
 		for (Chair chair : semester.getChairs()) {
 			for (Teacher teacher : chair.getTeachers()) {
 				matrix.put(teacher, new HashMap<>());
@@ -148,6 +202,8 @@ public class ConflictMatrixCalculator {
 	private void addTeacherPeriodConflicts(
 			Map<Teacher, Map<Period, TeacherPeriodConflict>> matrix, Teacher teacher) {
 		TeacherPeriodConflict conflict = new TeacherPeriodConflict();
+		PeriodSet unfavorable = teacher.getUnfavorablePeriodSet();
+		PeriodSet unavailable = teacher.getUnavailablePeriodSet();
 		for (int i = 1; i <= semester.getDaysPerWeek(); i++) {
 			for (int j = 1; j <= semester.getTimeSlotsPerDay(); j++) {
 				Period period;
@@ -157,9 +213,9 @@ public class ConflictMatrixCalculator {
 					throw new WctttUtilFatalException("Implementation error, " +
 							"period was created with illegal parameters", e);
 				}
-				if (teacher.getUnfavorablePeriods().contains(period)) {
+				if (unfavorable.contains(period)) {
 					conflict.setUnfavorable(true);
-				} else if (teacher.getUnavailablePeriods().contains(period)) {
+				} else if (unavailable.contains(period)) {
 					conflict.setUnavailable(true);
 				}
 				matrix.get(teacher).put(period, conflict);
@@ -28,6 +28,7 @@ package wcttt.lib.util;
 import wcttt.lib.model.*;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Provides functionality to calculate the number violated soft and hard
@@ -36,6 +37,8 @@ import java.util.*;
 public class ConstraintViolationsCalculator {
 
 	private Semester semester;
+	private final AtomicReference<Evaluation> idleEvaluation =
+			new AtomicReference<>();
 
 	public ConstraintViolationsCalculator(Semester semester) {
 		this.semester = semester;
@@ -97,89 +100,82 @@ public class ConstraintViolationsCalculator {
 		return hardViolations;
 	}
 
+	/**
+	 * Calculates the soft constraint penalty of a timetable. The timetable is
+	 * traversed once, every assignment updates the counters of all soft
+	 * constraints it is involved in, and the counters are weighted at the
+	 * end. Once the calculator has evaluated a timetable of the semester, it
+	 * reuses its buffers, so an evaluation does not allocate memory.
+	 *
+	 * @param timetable the timetable that should be evaluated.
+	 * @return the soft constraint penalty.
+	 */
 	public double calcTimetablePenalty(Timetable timetable) {
-		double penalty = 0.0;
+		PenaltyEvaluationEvent event = new PenaltyEvaluationEvent();
+		event.begin();
 
-		List<ConstraintType> s6Violations = Collections.nCopies(
-				s6ViolationCount(timetable), ConstraintType.s6);
-		penalty += calculateViolationsPenalty(s6Violations);
-
-		for (Course course : semester.getCourses()) {
-			List<ConstraintType> violations =
-					calcCourseSoftViolations(course, timetable);
-			penalty += calculateViolationsPenalty(violations);
+		Evaluation evaluation = acquireEvaluation();
+		double penalty;
+		try {
+			penalty = evaluation.calcPenalty(semester, timetable);
+		} finally {
+			idleEvaluation.set(evaluation);
 		}
 
-		for (Curriculum curriculum : semester.getCurricula()) {
-			List<ConstraintType> violations =
-					calcCurriculumSoftViolations(curriculum, timetable);
-			penalty += calculateViolationsPenalty(violations);
+		event.end();
+		if (event.shouldCommit()) {
+			event.assignments = countAssignments(timetable);
+			event.penalty = penalty;
+			event.commit();
 		}
-
-		for (TimetableDay day : timetable.getDays()) {
-			for (TimetablePeriod period : day.getPeriods()) {
-				for (TimetableAssignment assignment : period.getAssignments()) {
-					List<ConstraintType> violations = calcAssignmentSoftViolations(
-							period, assignment, timetable);
-					penalty += calculateViolationsPenalty(violations);
-				}
-			}
-		}
-
 		return penalty;
 	}
 
-	private double calculateViolationsPenalty(List<ConstraintType> violations) {
-		double penalty = 0.0;
-		for (ConstraintType violation : violations) {
-			double weighting = semester.getConstrWeightings().
-					getWeighting(violation);
-			if (weighting != -1.0) {
-				penalty += weighting * 1.0;
-			}
+	/**
+	 * Calculates the soft constraint penalty of a timetable broken down by
+	 * constraint, see {@link PenaltyReport}. The report is created in the
+	 * same single traversal of the timetable as the penalty, so it is cheap
+	 * enough to be created for every improvement found by an algorithm.
+	 *
+	 * @param timetable the timetable that should be evaluated.
+	 * @param hotSpots the maximum number of hot spots per constraint, must be
+	 *                 >= 0.
+	 * @return the report.
+	 */
+	public PenaltyReport calcPenaltyReport(Timetable timetable, int hotSpots) {
+		if (timetable == null) {
+			throw new IllegalArgumentException("Parameter 'timetable' must not " +
+					"be null");
+		} else if (hotSpots < 0) {
+			throw new IllegalArgumentException("Parameter 'hotSpots' must be " +
+					">= 0");
+		}
+		Evaluation evaluation = acquireEvaluation();
+		try {
+			return evaluation.calcReport(semester, timetable, hotSpots);
+		} finally {
+			idleEvaluation.set(evaluation);
 		}
-		return penalty;
-	}
-
-	private List<ConstraintType> calcCourseSoftViolations(
-			Course course, Timetable timetable) {
-		List<ConstraintType> violations = new LinkedList<>();
-
-		violations.addAll(Collections.nCopies(
-				s2ViolationCount(course, timetable), ConstraintType.s2));
-
-		violations.addAll(Collections.nCopies(
-				s4ViolationCount(course, timetable), ConstraintType.s4));
-
-		return violations;
 	}
 
-	private List<ConstraintType> calcCurriculumSoftViolations(
-			Curriculum curriculum, Timetable timetable) {
-		List<ConstraintType> violations = new LinkedList<>();
-
-		violations.addAll(Collections.nCopies(
-				s7ViolationCount(curriculum, timetable), ConstraintType.s1));
-
-		return violations;
+	/**
+	 * The buffers are taken exclusively, if another thread uses them at the
+	 * same time, new ones are created. They must be returned to
+	 * {@link #idleEvaluation} afterwards.
+	 */
+	private Evaluation acquireEvaluation() {
+		Evaluation evaluation = idleEvaluation.getAndSet(null);
+		return evaluation == null ? new Evaluation() : evaluation;
 	}
 
-	private List<ConstraintType> calcAssignmentSoftViolations(
-			TimetablePeriod period, TimetableAssignment assignment,
-			Timetable timetable) {
-		List<ConstraintType> violations = new LinkedList<>();
-
-		violations.addAll(Collections.nCopies(
-				s1ViolationCount(assignment), ConstraintType.s1));
-
-		violations.addAll(Collections.nCopies(
-				s3ViolationCount(period, assignment, timetable),
-				ConstraintType.s3));
-
-		violations.addAll(Collections.nCopies(
-				s5ViolationCount(period, assignment), ConstraintType.s5));
-
-		return violations;
+	private int countAssignments(Timetable timetable) {
+		int assignments = 0;
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				assignments += period.getAssignments().size();
+			}
+		}
+		return assignments;
 	}
 
 	private int h1ViolationCount(TimetablePeriod period,
@@ -292,14 +288,8 @@ public class ConstraintViolationsCalculator {
 
 	private int h7ViolationCount(TimetablePeriod period,
 	                             TimetableAssignment assignment) {
-		for (Period unavailable :
-				assignment.getSession().getTeacher().getUnavailablePeriods()) {
-			if (unavailable.getDay() == period.getDay() &&
-					unavailable.getTimeSlot() == period.getTimeSlot()) {
-				return 1;
-			}
-		}
-		return 0;
+		return assignment.getSession().getTeacher().getUnavailablePeriodSet().
+				contains(period) ? 1 : 0;
 	}
 
 	private int h8ViolationCount(Timetable timetable, TimetablePeriod period,
@@ -357,7 +347,7 @@ public class ConstraintViolationsCalculator {
 		}
 	}
 
-	private int s1ViolationCount(TimetableAssignment assignment) {
+	private static int s1ViolationCount(TimetableAssignment assignment) {
 		if (assignment.getRoom() instanceof InternalRoom &&
 				assignment.getSession() instanceof InternalSession) {
 			int actualRoomCapacity =
@@ -374,168 +364,583 @@ public class ConstraintViolationsCalculator {
 		}
 	}
 
-	private int s2ViolationCount(Course course, Timetable timetable) {
-		int earliestDay = ValidationHelper.PERIOD_DAY_MIN;
-		int lastDay = ValidationHelper.DAYS_PER_WEEK_MAX;
-		for (TimetableDay day : timetable.getDays()) {
-			for (TimetablePeriod period : day.getPeriods()) {
-				for (TimetableAssignment assignment : period.getAssignments()) {
-					if (assignment.getSession().getCourse().equals(course) &&
-							assignment.getSession().isLecture()) {
-						if (period.getDay() < earliestDay) {
-							earliestDay = period.getDay();
-						} else if (period.getDay() > lastDay) {
-							lastDay = period.getDay();
+	/**
+	 * Calculates the s5 violations of an assignment.
+	 *
+	 * @param unfavorable the unfavorable periods of the teacher of the
+	 * assignment, see {@link PeriodSet#toBits()}.
+	 * @param period the period of the assignment.
+	 * @return the number of s5 violations.
+	 */
+	private static int s5ViolationCount(long unfavorable,
+	                                    TimetablePeriod period) {
+		return (unfavorable & (1L << PeriodSet.indexOf(period))) != 0 ? 1 : 0;
+	}
+
+	/**
+	 * Calculates the s6 violations of a single teacher on a single day.
+	 *
+	 * @param mask the time slots in which the teacher is active.
+	 * @param timeSlots the number of time slots per day.
+	 * @return the number of s6 violations.
+	 */
+	static int s6ViolationCount(int mask, int timeSlots) {
+		boolean[] active = new boolean[timeSlots];
+		for (int i = 0; i < timeSlots; i++) {
+			active[i] = (mask & (1 << i)) != 0;
+		}
+		int counter = 0;
+		for (int i = 0; i < timeSlots - 2; i++) {
+			if (!active[i]) {
+				continue;
+			}
+			for (int j = i + 1; j < timeSlots; j++) {
+				if (!active[j]) {
+					if (j - i > 2) {
+						counter += j - i;
+						for (int k = i + 1; k < j; k++) {
+							active[k] = false;
 						}
 					}
+					break;
+				} else if (j == timeSlots - 1) {
+					if ((j - i) + 1 > 2) {
+						counter += (j - i) + 1;
+					}
 				}
 			}
 		}
-		int difference = course.getMinNumberOfDays() -
-				((lastDay - earliestDay) + 1);
-		if (difference > 0) {
-			return difference;
-		} else {
-			return 0;
-		}
+		return counter;
 	}
 
+	/**
+	 * The buffers of a timetable evaluation, which are reused by subsequent
+	 * evaluations.
+	 *
+	 * The courses, curricula and teachers of the semester are indexed on the
+	 * first evaluation. Every following evaluation only checks that they are
+	 * still the same objects, such that changes to the semester are picked
+	 * up, and rebuilds the index otherwise. The constraint weightings are
+	 * read on every evaluation.
+	 *
+	 * If the evaluation attributes the violations, they are also counted per
+	 * room, course, curriculum and teacher for a {@link PenaltyReport}.
+	 */
+	private static final class Evaluation {
+
+		private static final ConstraintType[] SOFT_CONSTRAINTS = {
+				ConstraintType.s1, ConstraintType.s2, ConstraintType.s3,
+				ConstraintType.s4, ConstraintType.s5, ConstraintType.s6,
+				ConstraintType.s7};
+		private static final Integer UNKNOWN = -1;
+
+		// Weightings and violations indexed by the ordinal of the constraint
+		// type:
+		private final double[] weightings =
+				new double[ConstraintType.values().length];
+		private final long[] violations =
+				new long[ConstraintType.values().length];
+
+		// Index of the semester:
+		private Course[] courses = new Course[0];
+		private Curriculum[] curricula = new Curriculum[0];
+		private Course[] curriculumCourses = new Course[0];
+		private int[] curriculumCoursesEnd = new int[0];
+		private Teacher[] teachers = new Teacher[0];
+		private long[] teacherUnfavorable = new long[0];
+		private final Map<Course, Integer> courseIndices =
+				new IdentityHashMap<>();
+		private final Map<Teacher, Integer> teacherIndices =
+				new IdentityHashMap<>();
+		private int semesterTeacherCount = 0;
+		private int teacherCount = 0;
+		// The curricula of course i are courseCurricula[courseCurriculaStart[i]]
+		// to courseCurricula[courseCurriculaStart[i + 1] - 1]:
+		private int[] courseCurriculaStart = new int[1];
+		private int[] courseCurricula = new int[0];
+		private int timeSlots = 0;
+		private int[] s6Counts = new int[0];
+		private int[] courseS2 = new int[0];
+		private int s2Violations = 0;
+
+		// Counters of an evaluation:
+		private Room[] firstLectureRooms = new Room[0];
+		private int[] curriculumLectures = new int[0];
+		private int[] teacherSlots = new int[0];
+
+		// Violations per entity, only counted if the evaluation attributes
+		// them. Rooms are indexed on demand:
+		private Room[] rooms = new Room[0];
+		private final Map<Room, Integer> roomIndices = new IdentityHashMap<>();
+		private int roomCount = 0;
+		private int[] roomS1 = new int[0];
+		private int[] courseS4 = new int[0];
+		private int[] curriculumS3 = new int[0];
+		private int[] curriculumS7 = new int[0];
+		private int[] teacherS5 = new int[0];
+		private int[] teacherS6 = new int[0];
+
+		private double calcPenalty(Semester semester, Timetable timetable) {
+			evaluate(semester, timetable, false);
+			return penalty();
+		}
 
-	private int s3ViolationCount(TimetablePeriod period,
-	                             TimetableAssignment assignment,
-	                             Timetable timetable) {
-		if (!assignment.getSession().isLecture() ||
-				semester.getTimeSlotsPerDay() == 1) {
-			return 0;
+		private PenaltyReport calcReport(Semester semester, Timetable timetable,
+		                                 int hotSpots) {
+			evaluate(semester, timetable, true);
+			double[] penalties = new double[violations.length];
+			List<List<PenaltyReport.HotSpot>> allHotSpots =
+					new ArrayList<>(violations.length);
+			for (ConstraintType type : ConstraintType.values()) {
+				penalties[type.ordinal()] =
+						violationWeighting(type) * violations[type.ordinal()];
+				allHotSpots.add(Collections.emptyList());
+			}
+			setHotSpots(allHotSpots, ConstraintType.s1, selectHotSpots(rooms,
+					roomS1, roomCount,
+					violationWeighting(ConstraintType.s1), hotSpots));
+			setHotSpots(allHotSpots, ConstraintType.s2, selectHotSpots(courses,
+					courseS2, courses.length,
+					violationWeighting(ConstraintType.s2), hotSpots));
+			setHotSpots(allHotSpots, ConstraintType.s3, selectHotSpots(curricula,
+					curriculumS3, curricula.length,
+					violationWeighting(ConstraintType.s3), hotSpots));
+			setHotSpots(allHotSpots, ConstraintType.s4, selectHotSpots(courses,
+					courseS4, courses.length,
+					violationWeighting(ConstraintType.s4), hotSpots));
+			setHotSpots(allHotSpots, ConstraintType.s5, selectHotSpots(teachers,
+					teacherS5, teacherCount,
+					violationWeighting(ConstraintType.s5), hotSpots));
+			setHotSpots(allHotSpots, ConstraintType.s6, selectHotSpots(teachers,
+					teacherS6, teacherCount,
+					violationWeighting(ConstraintType.s6), hotSpots));
+			setHotSpots(allHotSpots, ConstraintType.s7, selectHotSpots(curricula,
+					curriculumS7, curricula.length,
+					violationWeighting(ConstraintType.s7), hotSpots));
+			return new PenaltyReport(penalty(), violations.clone(), penalties,
+					Collections.unmodifiableList(allHotSpots));
 		}
-		int counter = 0;
-		for (Curriculum curriculum : semester.getCurricula()) {
-			if (curriculum.getCourses().contains(
-					assignment.getSession().getCourse())) {
-				boolean foundAdjacent = false;
-				if (period.getTimeSlot() >
-						ValidationHelper.PERIOD_TIME_SLOT_MIN) {
-					TimetablePeriod before = timetable.getDays().get(
-							period.getDay() - 1).getPeriods().get(
-							period.getTimeSlot() - 2);
-					for (TimetableAssignment assBefore : before.getAssignments()) {
-						if (assBefore.getSession().isLecture() &&
-								curriculum.getCourses().contains(
-										assBefore.getSession().getCourse())) {
-							foundAdjacent = true;
-							break;
+
+		private void evaluate(Semester semester, Timetable timetable,
+		                      boolean attribute) {
+			readWeightings(semester.getConstrWeightings());
+			if (!isIndexValid(semester)) {
+				buildIndex(semester);
+			}
+			// The teachers cache their period sets, thus the masks are read
+			// once per evaluation instead of once per assignment:
+			for (int i = 0; i < teacherCount; i++) {
+				teacherUnfavorable[i] =
+						teachers[i].getUnfavorablePeriodSet().toBits();
+			}
+			Arrays.fill(firstLectureRooms, null);
+			if (attribute) {
+				Arrays.fill(roomS1, 0);
+				Arrays.fill(courseS4, 0);
+				Arrays.fill(curriculumS3, 0);
+				Arrays.fill(curriculumS7, 0);
+				Arrays.fill(teacherS5, 0);
+				Arrays.fill(teacherS6, 0);
+			}
+			int maxDailyLectures = semester.getMaxDailyLecturesPerCur();
+
+			long s1 = 0, s3 = 0, s4 = 0, s5 = 0, s6 = 0, s7 = 0;
+			for (TimetableDay day : timetable.getDays()) {
+				Arrays.fill(curriculumLectures, 0);
+				Arrays.fill(teacherSlots, 0);
+				for (TimetablePeriod period : day.getPeriods()) {
+					int slot = period.getTimeSlot() - 1;
+					for (TimetableAssignment assignment :
+							period.getAssignments()) {
+						Session session = assignment.getSession();
+						int teacher = teacherIndex(session.getTeacher());
+						int s1Count = s1ViolationCount(assignment);
+						int s5Count = s5ViolationCount(
+								teacherUnfavorable[teacher], period);
+						s1 += s1Count;
+						s5 += s5Count;
+						teacherSlots[teacher] |= 1 << slot;
+						if (attribute) {
+							if (s1Count > 0) {
+								// The room index may grow the counters:
+								int room = roomIndex(assignment.getRoom());
+								roomS1[room] += s1Count;
+							}
+							teacherS5[teacher] += s5Count;
+						}
+						int course = courseIndex(session.getCourse());
+						if (course == -1 || !session.isLecture()) {
+							continue;
+						}
+						// s4, lectures in another room than the first one:
+						Room firstRoom = firstLectureRooms[course];
+						if (firstRoom == null) {
+							firstLectureRooms[course] = assignment.getRoom();
+						} else if (!firstRoom.equals(assignment.getRoom())) {
+							s4++;
+							if (attribute) {
+								courseS4[course]++;
+							}
+						}
+						for (int i = courseCurriculaStart[course];
+						     i < courseCurriculaStart[course + 1]; i++) {
+							curriculumLectures[courseCurricula[i] * timeSlots +
+									slot]++;
 						}
 					}
 				}
-				if (!foundAdjacent &&
-						period.getTimeSlot() < semester.getTimeSlotsPerDay()) {
-					TimetablePeriod after = timetable.getDays().get(
-							period.getDay() - 1).getPeriods().get(
-							period.getTimeSlot());
-					for (TimetableAssignment assAfter : after.getAssignments()) {
-						if (assAfter.getSession().isLecture() &&
-								curriculum.getCourses().contains(
-										assAfter.getSession().getCourse())) {
-							foundAdjacent = true;
-							break;
-						}
+				for (int i = 0; i < curricula.length; i++) {
+					int s3Count = countIsolatedLectures(i);
+					int s7Count = countExcessLectures(i, maxDailyLectures);
+					s3 += s3Count;
+					s7 += s7Count;
+					if (attribute) {
+						curriculumS3[i] += s3Count;
+						curriculumS7[i] += s7Count;
 					}
 				}
-				if (!foundAdjacent) {
-					counter++;
+				for (int i = 0; i < teacherCount; i++) {
+					int s6Count = s6Counts[teacherSlots[i]];
+					s6 += s6Count;
+					if (attribute) {
+						teacherS6[i] += s6Count;
+					}
 				}
 			}
+
+			violations[ConstraintType.s1.ordinal()] = s1;
+			violations[ConstraintType.s2.ordinal()] = s2Violations;
+			violations[ConstraintType.s3.ordinal()] = s3;
+			violations[ConstraintType.s4.ordinal()] = s4;
+			violations[ConstraintType.s5.ordinal()] = s5;
+			violations[ConstraintType.s6.ordinal()] = s6;
+			violations[ConstraintType.s7.ordinal()] = s7;
 		}
-		return counter;
-	}
 
-	private int s4ViolationCount(Course course, Timetable timetable) {
-		int counter = 0;
-		Room room = null;
-		for (TimetableDay day : timetable.getDays()) {
-			for (TimetablePeriod period : day.getPeriods()) {
-				for (TimetableAssignment assgmt : period.getAssignments()) {
-					if (assgmt.getSession().getCourse().equals(course) &&
-							assgmt.getSession().isLecture()) {
-						if (room == null) {
-							room = assgmt.getRoom();
-						} else if (!room.equals(assgmt.getRoom())) {
-							counter++;
-						}
+		private double penalty() {
+			// Violations of s7 are weighted with the weighting of s1:
+			return weighting(ConstraintType.s1) *
+					(violations(ConstraintType.s1) +
+							violations(ConstraintType.s7)) +
+					weighting(ConstraintType.s2) * violations(ConstraintType.s2) +
+					weighting(ConstraintType.s3) * violations(ConstraintType.s3) +
+					weighting(ConstraintType.s4) * violations(ConstraintType.s4) +
+					weighting(ConstraintType.s5) * violations(ConstraintType.s5) +
+					weighting(ConstraintType.s6) * violations(ConstraintType.s6);
+		}
+
+		private long violations(ConstraintType type) {
+			return violations[type.ordinal()];
+		}
+
+		private double weighting(ConstraintType type) {
+			return weightings[type.ordinal()];
+		}
+
+		/**
+		 * Returns the weighting of a single violation, which is the one of s1
+		 * for violations of s7.
+		 */
+		private double violationWeighting(ConstraintType type) {
+			return type == ConstraintType.s7 ?
+					weighting(ConstraintType.s1) : weighting(type);
+		}
+
+		private void readWeightings(ConstraintWeightings constrWeightings) {
+			for (ConstraintType type : SOFT_CONSTRAINTS) {
+				double weighting = constrWeightings.getWeighting(type);
+				weightings[type.ordinal()] = weighting == -1.0 ? 0.0 : weighting;
+			}
+		}
+
+		private static void setHotSpots(
+				List<List<PenaltyReport.HotSpot>> allHotSpots,
+				ConstraintType type, List<PenaltyReport.HotSpot> hotSpots) {
+			allHotSpots.set(type.ordinal(), hotSpots);
+		}
+
+		/**
+		 * Selects the entities with the most violations, entities with equal
+		 * violations are ordered like in the semester.
+		 *
+		 * @param entities the entities.
+		 * @param counts the violations of the entities.
+		 * @param length the number of entities.
+		 * @param weighting the weighting of a single violation.
+		 * @param maxHotSpots the maximum number of entities to select.
+		 * @return an unmodifiable list of the selected entities.
+		 */
+		private static List<PenaltyReport.HotSpot> selectHotSpots(
+				Object[] entities, int[] counts, int length, double weighting,
+				int maxHotSpots) {
+			// More hot spots than entities can never be selected:
+			int capacity = Math.min(maxHotSpots, length);
+			int[] selected = new int[capacity];
+			int size = 0;
+			for (int i = 0; i < length; i++) {
+				if (counts[i] == 0) {
+					continue;
+				}
+				int position = size;
+				while (position > 0 && counts[selected[position - 1]] < counts[i]) {
+					position--;
+				}
+				if (position < capacity) {
+					int moved = Math.min(size, capacity - 1) - position;
+					System.arraycopy(selected, position, selected, position + 1,
+							moved);
+					selected[position] = i;
+					size = Math.min(size + 1, capacity);
+				}
+			}
+			List<PenaltyReport.HotSpot> hotSpots = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				int count = counts[selected[i]];
+				hotSpots.add(new PenaltyReport.HotSpot(entities[selected[i]],
+						count, weighting * count));
+			}
+			return Collections.unmodifiableList(hotSpots);
+		}
+
+		/**
+		 * Counts the s3 violations of a curriculum on a day, i.e. the lectures
+		 * without a lecture of the same curriculum in an adjacent time slot.
+		 */
+		private int countIsolatedLectures(int curriculum) {
+			if (timeSlots == 1) {
+				return 0;
+			}
+			int offset = curriculum * timeSlots;
+			int counter = 0;
+			for (int slot = 0; slot < timeSlots; slot++) {
+				if ((slot == 0 || curriculumLectures[offset + slot - 1] == 0) &&
+						(slot == timeSlots - 1 ||
+								curriculumLectures[offset + slot + 1] == 0)) {
+					counter += curriculumLectures[offset + slot];
+				}
+			}
+			return counter;
+		}
+
+		/**
+		 * Counts the s7 violations of a curriculum on a day, i.e. the lectures
+		 * exceeding the maximum number of daily lectures.
+		 */
+		private int countExcessLectures(int curriculum, int maxDailyLectures) {
+			int offset = curriculum * timeSlots;
+			int lectures = 0;
+			for (int slot = 0; slot < timeSlots; slot++) {
+				lectures += curriculumLectures[offset + slot];
+			}
+			return lectures > maxDailyLectures ? lectures - maxDailyLectures : 0;
+		}
+
+		/**
+		 * Returns the index of a room, rooms are indexed on demand. Rooms that
+		 * are only equal to an indexed room are mapped to its index as well.
+		 */
+		private int roomIndex(Room room) {
+			Integer index = roomIndices.get(room);
+			if (index == null) {
+				for (int i = 0; i < roomCount; i++) {
+					if (rooms[i].equals(room)) {
+						index = i;
+						break;
 					}
 				}
+				if (index == null) {
+					index = roomCount++;
+					if (roomCount > rooms.length) {
+						rooms = Arrays.copyOf(rooms, roomCount * 2);
+						roomS1 = Arrays.copyOf(roomS1, roomCount * 2);
+					}
+					rooms[index] = room;
+				}
+				roomIndices.put(room, index);
 			}
+			return index;
 		}
-		return counter;
-	}
 
-	private int s5ViolationCount(TimetablePeriod period,
-	                             TimetableAssignment assignment) {
-		for (Period unfavorable :
-				assignment.getSession().getTeacher().getUnfavorablePeriods()) {
-			if (unfavorable.getDay() == period.getDay() &&
-					unfavorable.getTimeSlot() == period.getTimeSlot()) {
-				return 1;
+		/**
+		 * Returns the index of a course. Courses that are only equal to a
+		 * course of the semester are mapped to its index as well.
+		 *
+		 * @return the index of the course, or -1 if it is not part of the
+		 * semester.
+		 */
+		private int courseIndex(Course course) {
+			Integer index = courseIndices.get(course);
+			if (index == null) {
+				index = UNKNOWN;
+				for (int i = 0; i < courses.length; i++) {
+					if (courses[i].equals(course)) {
+						index = i;
+						break;
+					}
+				}
+				courseIndices.put(course, index);
 			}
+			return index;
 		}
-		return 0;
-	}
 
-	private int s6ViolationCount(Timetable timetable) {
-		int counter = 0;
-		for (TimetableDay day : timetable.getDays()) {
-			List<List<Teacher>> activeTeachers =
-					new ArrayList<>(semester.getTimeSlotsPerDay());
-			for (TimetablePeriod period : day.getPeriods()) {
-				List<Teacher> activeInTimeSlot = new LinkedList<>();
-				for (TimetableAssignment assgmt : period.getAssignments()) {
-					activeInTimeSlot.add(assgmt.getSession().getTeacher());
+		/**
+		 * Returns the index of a teacher. Teachers that are not part of the
+		 * semester are indexed on demand, because s6 applies to them as well.
+		 */
+		private int teacherIndex(Teacher teacher) {
+			Integer index = teacherIndices.get(teacher);
+			if (index == null) {
+				for (int i = 0; i < teacherCount; i++) {
+					if (teachers[i].equals(teacher)) {
+						index = i;
+						break;
+					}
 				}
-				activeTeachers.add(activeInTimeSlot);
-			}
-			for (int i = 0; i < activeTeachers.size() - 2; i++) {
-				for (Teacher teacher : activeTeachers.get(i)) {
-					for (int j = i + 1; j < activeTeachers.size(); j++) {
-						if (!activeTeachers.get(j).contains(teacher)) {
-							if (j - i > 2) {
-								counter += j - i;
-								for (int k = i + 1; k < j; k++) {
-									activeTeachers.get(k).remove(teacher);
-								}
-							}
-							break;
-						} else if (j == activeTeachers.size() - 1 &&
-								activeTeachers.get(j).contains(teacher)) {
-							if ((j - i) + 1 > 2) {
-								counter += (j - i) + 1;
-							}
-						}
+				if (index == null) {
+					index = teacherCount++;
+					if (teacherCount > teachers.length) {
+						teachers = Arrays.copyOf(teachers, teacherCount);
+						teacherUnfavorable = Arrays.copyOf(teacherUnfavorable,
+								teacherCount);
+						teacherSlots = Arrays.copyOf(teacherSlots, teacherCount);
+						teacherS5 = Arrays.copyOf(teacherS5, teacherCount);
+						teacherS6 = Arrays.copyOf(teacherS6, teacherCount);
 					}
+					teachers[index] = teacher;
+					teacherUnfavorable[index] =
+							teacher.getUnfavorablePeriodSet().toBits();
+				}
+				teacherIndices.put(teacher, index);
+			}
+			return index;
+		}
 
+		private boolean isIndexValid(Semester semester) {
+			if (semester.getTimeSlotsPerDay() != timeSlots ||
+					semester.getCourses().size() != courses.length ||
+					semester.getCurricula().size() != curricula.length) {
+				return false;
+			}
+			int i = 0;
+			for (Course course : semester.getCourses()) {
+				if (course != courses[i++]) {
+					return false;
+				}
+			}
+			i = 0;
+			int j = 0;
+			for (Curriculum curriculum : semester.getCurricula()) {
+				if (curriculum != curricula[i] ||
+						curriculum.getCourses().size() !=
+								curriculumCoursesEnd[i] - j) {
+					return false;
+				}
+				for (Course course : curriculum.getCourses()) {
+					if (course != curriculumCourses[j++]) {
+						return false;
+					}
 				}
+				i++;
 			}
+			i = 0;
+			for (Chair chair : semester.getChairs()) {
+				for (Teacher teacher : chair.getTeachers()) {
+					if (i >= semesterTeacherCount || teacher != teachers[i++]) {
+						return false;
+					}
+				}
+			}
+			return i == semesterTeacherCount;
 		}
-		return counter;
-	}
 
-	private int s7ViolationCount(Curriculum curriculum, Timetable timetable) {
-		int counter = 0;
-		for (TimetableDay day : timetable.getDays()) {
-			int lecturesPerDay = 0;
-			for (TimetablePeriod period : day.getPeriods()) {
-				for (TimetableAssignment assgmt : period.getAssignments()) {
-					if (curriculum.getCourses().contains(
-							assgmt.getSession().getCourse()) &&
-							assgmt.getSession().isLecture()) {
-						lecturesPerDay++;
+		private void buildIndex(Semester semester) {
+			timeSlots = semester.getTimeSlotsPerDay();
+			s6Counts = new int[1 << timeSlots];
+			for (int mask = 0; mask < s6Counts.length; mask++) {
+				s6Counts[mask] = s6ViolationCount(mask, timeSlots);
+			}
+
+			courses = semester.getCourses().toArray(new Course[0]);
+			courseIndices.clear();
+			courseS2 = new int[courses.length];
+			s2Violations = 0;
+			for (int i = 0; i < courses.length; i++) {
+				courseIndices.put(courses[i], i);
+				// s2 does not depend on the timetable, because every course is
+				// treated as if it was spread over the whole week:
+				int difference = courses[i].getMinNumberOfDays() -
+						((ValidationHelper.DAYS_PER_WEEK_MAX -
+								ValidationHelper.PERIOD_DAY_MIN) + 1);
+				if (difference > 0) {
+					courseS2[i] = difference;
+					s2Violations += difference;
+				}
+			}
+
+			curricula = semester.getCurricula().toArray(new Curriculum[0]);
+			List<Course> allCurriculumCourses = new ArrayList<>();
+			curriculumCoursesEnd = new int[curricula.length];
+			for (int i = 0; i < curricula.length; i++) {
+				allCurriculumCourses.addAll(curricula[i].getCourses());
+				curriculumCoursesEnd[i] = allCurriculumCourses.size();
+			}
+			curriculumCourses = allCurriculumCourses.toArray(new Course[0]);
+
+			// The curricula of every course, each one only once:
+			List<List<Integer>> curriculaOfCourses = new ArrayList<>();
+			for (int i = 0; i < courses.length; i++) {
+				curriculaOfCourses.add(new ArrayList<>());
+			}
+			for (int i = 0, j = 0; i < curricula.length; i++) {
+				for (; j < curriculumCoursesEnd[i]; j++) {
+					int course = courseIndex(curriculumCourses[j]);
+					if (course != -1) {
+						List<Integer> courseCurricula =
+								curriculaOfCourses.get(course);
+						if (!courseCurricula.contains(i)) {
+							courseCurricula.add(i);
+						}
 					}
 				}
 			}
-			if (lecturesPerDay > semester.getMaxDailyLecturesPerCur()) {
-				counter += lecturesPerDay - semester.getMaxDailyLecturesPerCur();
+			courseCurriculaStart = new int[courses.length + 1];
+			for (int i = 0; i < courses.length; i++) {
+				courseCurriculaStart[i + 1] = courseCurriculaStart[i] +
+						curriculaOfCourses.get(i).size();
+			}
+			courseCurricula = new int[courseCurriculaStart[courses.length]];
+			for (int i = 0; i < courses.length; i++) {
+				List<Integer> courseCurricula = curriculaOfCourses.get(i);
+				for (int j = 0; j < courseCurricula.size(); j++) {
+					this.courseCurricula[courseCurriculaStart[i] + j] =
+							courseCurricula.get(j);
+				}
+			}
+
+			List<Teacher> allTeachers = new ArrayList<>();
+			semester.getChairs().forEach(
+					chair -> allTeachers.addAll(chair.getTeachers()));
+			teachers = allTeachers.toArray(new Teacher[0]);
+			teacherIndices.clear();
+			for (int i = 0; i < teachers.length; i++) {
+				teacherIndices.put(teachers[i], i);
 			}
+			semesterTeacherCount = teachers.length;
+			teacherCount = teachers.length;
+
+			firstLectureRooms = new Room[courses.length];
+			curriculumLectures = new int[curricula.length * timeSlots];
+			teacherSlots = new int[teacherCount];
+			teacherUnfavorable = new long[teacherCount];
+			courseS4 = new int[courses.length];
+			curriculumS3 = new int[curricula.length];
+			curriculumS7 = new int[curricula.length];
+			teacherS5 = new int[teacherCount];
+			teacherS6 = new int[teacherCount];
+			rooms = new Room[0];
+			roomIndices.clear();
+			roomCount = 0;
+			roomS1 = new int[0];
 		}
-		return counter;
 	}
 }
-
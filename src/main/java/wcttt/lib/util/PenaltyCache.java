@@ -0,0 +1,278 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import wcttt.lib.model.Timetable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache in front of a {@link ConstraintViolationsCalculator}, which
+ * maps the Zobrist hashes of recently evaluated timetables to their soft
+ * constraint penalties, see {@link ProblemIndex#hash(Timetable)}. If the
+ * cache is full, the least recently used penalty is evicted.
+ *
+ * The cache is thread-safe, so it can be shared by the threads of a parallel
+ * search. Every access checks whether the constraint weightings of the
+ * semester have changed, in which case all cached penalties are discarded.
+ * The cache assumes that the sessions and rooms of the semester are not
+ * changed, just like the {@link ProblemIndex} it is based on.
+ */
+public class PenaltyCache {
+
+	private final ProblemIndex index;
+	private final ConstraintViolationsCalculator constrCalc;
+	private final int capacity;
+	private final Map<Long, Double> penalties;
+	private final double[] weightings = new double[7];
+	private final double[] currentWeightings = new double[7];
+	private long version = 0;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param index the index of the semester, it is used to hash timetables.
+	 * @param capacity the maximum number of cached penalties, must be >= 1.
+	 */
+	public PenaltyCache(ProblemIndex index, int capacity) {
+		if (index == null) {
+			throw new IllegalArgumentException("Parameter 'index' must not be" +
+					" null");
+		} else if (capacity < 1) {
+			throw new IllegalArgumentException("Parameter 'capacity' must be" +
+					" >= 1");
+		}
+		this.index = index;
+		this.capacity = capacity;
+		constrCalc = new ConstraintViolationsCalculator(index.getSemester());
+		penalties = new LinkedHashMap<Long, Double>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+				if (size() > PenaltyCache.this.capacity) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+		readWeightings(weightings);
+	}
+
+	/**
+	 * Returns the soft constraint penalty of a timetable. If the timetable was
+	 * evaluated recently, the cached penalty is returned, otherwise it is
+	 * calculated and added to the cache.
+	 *
+	 * @param timetable the timetable, it must only contain sessions and rooms
+	 *                  of the semester.
+	 * @return the penalty.
+	 */
+	public double calcTimetablePenalty(Timetable timetable) {
+		return calcTimetablePenalty(timetable, index.hash(timetable));
+	}
+
+	/**
+	 * Like {@link #calcTimetablePenalty(Timetable)}, for a timetable whose hash
+	 * is already known.
+	 *
+	 * @param timetable the timetable, it must only contain sessions and rooms
+	 *                  of the semester.
+	 * @param hash the hash of the timetable.
+	 * @return the penalty.
+	 */
+	public double calcTimetablePenalty(Timetable timetable, long hash) {
+		if (timetable == null) {
+			throw new IllegalArgumentException("Parameter 'timetable' must " +
+					"not be null");
+		}
+		Double penalty;
+		synchronized (penalties) {
+			validateWeightings();
+			penalty = penalties.get(hash);
+		}
+		if (penalty != null) {
+			hits.increment();
+			return penalty;
+		}
+		misses.increment();
+		return calcAndPut(timetable, hash);
+	}
+
+	/**
+	 * Looks up the penalty of a timetable without calculating it.
+	 *
+	 * @param hash the hash of the timetable.
+	 * @return the cached penalty, or an empty optional if it is not cached.
+	 */
+	public OptionalDouble lookup(long hash) {
+		Double penalty;
+		synchronized (penalties) {
+			validateWeightings();
+			penalty = penalties.get(hash);
+		}
+		if (penalty == null) {
+			misses.increment();
+			return OptionalDouble.empty();
+		}
+		hits.increment();
+		return OptionalDouble.of(penalty);
+	}
+
+	/**
+	 * Calculates the penalty of a timetable without looking it up first and
+	 * adds it to the cache, e.g. after a {@link #lookup(long)} missed. The
+	 * penalty is only added if the constraint weightings did not change during
+	 * the calculation.
+	 *
+	 * @param timetable the timetable, it must only contain sessions and rooms
+	 *                  of the semester.
+	 * @param hash the hash of the timetable.
+	 * @return the penalty.
+	 */
+	public double calcAndPut(Timetable timetable, long hash) {
+		if (timetable == null) {
+			throw new IllegalArgumentException("Parameter 'timetable' must " +
+					"not be null");
+		}
+		long calcVersion;
+		synchronized (penalties) {
+			validateWeightings();
+			calcVersion = version;
+		}
+		double penalty = constrCalc.calcTimetablePenalty(timetable);
+		synchronized (penalties) {
+			validateWeightings();
+			// The penalty is only valid if the weightings did not change
+			// during the calculation:
+			if (version == calcVersion) {
+				penalties.put(hash, penalty);
+			}
+		}
+		return penalty;
+	}
+
+	/**
+	 * Adds a penalty that is already known to the cache, e.g. the penalty of
+	 * a {@link SolutionState}. The penalty is only added if the index that
+	 * weighted it was created with the current constraint weightings, the
+	 * penalties of a {@link SolutionState} keep the weightings of their index.
+	 *
+	 * @param hash the hash of the timetable.
+	 * @param penalty the penalty of the timetable.
+	 * @param weightedBy the index whose weightings were used to calculate the
+	 *                   penalty.
+	 * @return {@code true} if the penalty was added, {@code false} if it is
+	 * based on outdated weightings.
+	 */
+	public boolean put(long hash, double penalty, ProblemIndex weightedBy) {
+		if (weightedBy == null) {
+			throw new IllegalArgumentException("Parameter 'weightedBy' must " +
+					"not be null");
+		}
+		synchronized (penalties) {
+			validateWeightings();
+			if (!weightedBy.isWeightedBy(weightings)) {
+				return false;
+			}
+			penalties.put(hash, penalty);
+			return true;
+		}
+	}
+
+	/**
+	 * Discards all cached penalties, the statistics are kept.
+	 */
+	public void clear() {
+		synchronized (penalties) {
+			penalties.clear();
+			version++;
+		}
+	}
+
+	public int size() {
+		synchronized (penalties) {
+			return penalties.size();
+		}
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Returns how often the cache was cleared because the constraint
+	 * weightings of the semester changed.
+	 *
+	 * @return the number of invalidations.
+	 */
+	public long getInvalidations() {
+		return invalidations.sum();
+	}
+
+	/**
+	 * Discards all cached penalties if the constraint weightings of the
+	 * semester changed since the last access. Must be called while holding the
+	 * lock of the penalties.
+	 */
+	private void validateWeightings() {
+		readWeightings(currentWeightings);
+		for (int i = 0; i < weightings.length; i++) {
+			if (Double.compare(currentWeightings[i], weightings[i]) != 0) {
+				System.arraycopy(currentWeightings, 0, weightings, 0,
+						weightings.length);
+				penalties.clear();
+				version++;
+				invalidations.increment();
+				return;
+			}
+		}
+	}
+
+	private void readWeightings(double[] values) {
+		ProblemIndex.readWeightings(index.getSemester().getConstrWeightings(),
+				values);
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event that spans the calculation of the soft constraint
+ * penalty of a timetable. Only evaluations that take longer than the
+ * configured threshold are recorded, because there are usually very many
+ * of them.
+ */
+@Name("wcttt.PenaltyEvaluation")
+@Label("Penalty Evaluation")
+@Category({"WCTTT", "Constraints"})
+@Description("Calculation of the soft constraint penalty of a timetable")
+@Threshold("1 ms")
+final class PenaltyEvaluationEvent extends Event {
+
+	@Label("Assignments")
+	int assignments;
+
+	@Label("Penalty")
+	double penalty;
+}
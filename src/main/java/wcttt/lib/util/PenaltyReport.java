@@ -0,0 +1,168 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import wcttt.lib.model.ConstraintType;
+
+import java.util.List;
+
+/**
+ * Breakdown of the soft constraint penalty of a timetable, created by
+ * {@link ConstraintViolationsCalculator#calcPenaltyReport(
+ * wcttt.lib.model.Timetable, int)}.
+ *
+ * For every soft constraint, the report contains the number of violations,
+ * their weighted penalty and the entities causing most of the violations,
+ * the hot spots. The entities are:
+ * <ul>
+ *     <li>s1: the {@link wcttt.lib.model.Room}s whose capacity deviates from
+ *     the number of students,</li>
+ *     <li>s2 and s4: the {@link wcttt.lib.model.Course}s,</li>
+ *     <li>s3 and s7: the {@link wcttt.lib.model.Curriculum}s,</li>
+ *     <li>s5 and s6: the {@link wcttt.lib.model.Teacher}s.</li>
+ * </ul>
+ * Violations of s7 are weighted with the weighting of s1, like in the total
+ * penalty. The report contains no violations of hard constraints.
+ */
+public class PenaltyReport {
+
+	private final double totalPenalty;
+	private final long[] violations;
+	private final double[] penalties;
+	private final List<List<HotSpot>> hotSpots;
+
+	PenaltyReport(double totalPenalty, long[] violations, double[] penalties,
+	              List<List<HotSpot>> hotSpots) {
+		this.totalPenalty = totalPenalty;
+		this.violations = violations;
+		this.penalties = penalties;
+		this.hotSpots = hotSpots;
+	}
+
+	/**
+	 * Returns the soft constraint penalty of the timetable, it is equal to the
+	 * one returned by
+	 * {@link ConstraintViolationsCalculator#calcTimetablePenalty(
+	 * wcttt.lib.model.Timetable)}.
+	 *
+	 * @return the total penalty.
+	 */
+	public double getTotalPenalty() {
+		return totalPenalty;
+	}
+
+	/**
+	 * @param type the constraint type.
+	 * @return the number of violations of the constraint.
+	 */
+	public long getViolations(ConstraintType type) {
+		return violations[checkType(type)];
+	}
+
+	/**
+	 * @param type the constraint type.
+	 * @return the weighted penalty of the violations of the constraint.
+	 */
+	public double getPenalty(ConstraintType type) {
+		return penalties[checkType(type)];
+	}
+
+	/**
+	 * Returns the entities causing most of the violations of a constraint,
+	 * ordered by their number of violations. Entities without violations are
+	 * not included.
+	 *
+	 * @param type the constraint type.
+	 * @return an unmodifiable list of the hot spots.
+	 */
+	public List<HotSpot> getHotSpots(ConstraintType type) {
+		return hotSpots.get(checkType(type));
+	}
+
+	private int checkType(ConstraintType type) {
+		if (type == null) {
+			throw new IllegalArgumentException("Parameter 'type' must not be " +
+					"null");
+		}
+		return type.ordinal();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("penalty=").append(totalPenalty);
+		for (ConstraintType type : ConstraintType.values()) {
+			if (violations[type.ordinal()] == 0) {
+				continue;
+			}
+			builder.append(System.lineSeparator()).append(type).append(": ").
+					append(violations[type.ordinal()]).append(" violations, ").
+					append("penalty=").append(penalties[type.ordinal()]);
+			List<HotSpot> typeHotSpots = hotSpots.get(type.ordinal());
+			if (!typeHotSpots.isEmpty()) {
+				builder.append(", hot spots=").append(typeHotSpots);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * An entity of the semester and the violations of a constraint it causes.
+	 */
+	public static class HotSpot {
+
+		private final Object entity;
+		private final int violations;
+		private final double penalty;
+
+		HotSpot(Object entity, int violations, double penalty) {
+			this.entity = entity;
+			this.violations = violations;
+			this.penalty = penalty;
+		}
+
+		/**
+		 * @return the room, course, curriculum or teacher, depending on the
+		 * constraint type.
+		 */
+		public Object getEntity() {
+			return entity;
+		}
+
+		public int getViolations() {
+			return violations;
+		}
+
+		public double getPenalty() {
+			return penalty;
+		}
+
+		@Override
+		public String toString() {
+			return entity + " (" + violations + ")";
+		}
+	}
+}
@@ -0,0 +1,808 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import wcttt.lib.model.*;
+
+import java.util.*;
+
+/**
+ * Immutable integer representation of a semester, which is used by the
+ * {@link SolutionState} to evaluate changes to a timetable incrementally.
+ *
+ * Sessions, rooms, courses, curricula and teachers are numbered consecutively,
+ * starting with 0. Internal rooms come before external rooms. A period of the
+ * semester is represented by {@code (day - 1) * timeSlotsPerDay + (timeSlot -
+ * 1)}.
+ */
+public final class ProblemIndex {
+
+	private final Semester semester;
+	private final int daysPerWeek;
+	private final int timeSlotsPerDay;
+	private final int maxDailyLecturesPerCur;
+
+	private final Session[] sessions;
+	private final Room[] rooms;
+	private final int internalRoomCount;
+	private final int courseCount;
+	private final int curriculumCount;
+	private final int teacherCount;
+
+	private final int[] sessionCourse;
+	private final int[] sessionTeacher;
+	private final boolean[] sessionLecture;
+	private final boolean[] sessionDouble;
+	private final boolean[] sessionInternal;
+	private final int[] sessionStudents;
+	private final int[] sessionPreAssignment;
+	private final int[] movableSessions;
+	private final int[] movableDoubleSessions;
+	private final long[] periodDomains;
+	private final int[][] domainPeriods;
+	private final int[][] suitableRooms;
+	private final boolean[] roomSuitable;
+	private final int[] roomCapacity;
+	private final int[] coursePracticals;
+	private final int[][] courseCurricula;
+	private final int[][] courseLectures;
+	private final long[] teacherUnavailable;
+	private final long[] teacherUnfavorable;
+	private final int[] s6Counts;
+
+	private final double s1Weighting;
+	private final double s3Weighting;
+	private final double s4Weighting;
+	private final double s5Weighting;
+	private final double s6Weighting;
+	private final double constantPenalty;
+	// The weightings of s1 - s7 as they were when the index was created:
+	private final double[] weightings;
+
+	private final Map<String, Integer> sessionIds = new HashMap<>();
+	private final Map<String, Integer> roomIds = new HashMap<>();
+
+	/**
+	 * Creates the index of a semester. Later changes to the semester are not
+	 * reflected by the index.
+	 *
+	 * @param semester the semester that should be indexed.
+	 */
+	public ProblemIndex(Semester semester) {
+		if (semester == null) {
+			throw new IllegalArgumentException("Parameter 'semester' must not" +
+					" be null");
+		}
+		this.semester = semester;
+		daysPerWeek = semester.getDaysPerWeek();
+		timeSlotsPerDay = semester.getTimeSlotsPerDay();
+		maxDailyLecturesPerCur = semester.getMaxDailyLecturesPerCur();
+		if (getPeriodCount() > Long.SIZE) {
+			throw new WctttUtilFatalException("Implementation error, periods " +
+					"do not fit into a bit mask");
+		}
+
+		// Rooms:
+		internalRoomCount = semester.getInternalRooms().size();
+		rooms = new Room[internalRoomCount +
+				semester.getExternalRooms().size()];
+		roomCapacity = new int[rooms.length];
+		for (int i = 0; i < internalRoomCount; i++) {
+			InternalRoom room = semester.getInternalRooms().get(i);
+			rooms[i] = room;
+			roomCapacity[i] = room.getCapacity();
+		}
+		for (int i = internalRoomCount; i < rooms.length; i++) {
+			rooms[i] = semester.getExternalRooms().get(i - internalRoomCount);
+		}
+		for (int i = 0; i < rooms.length; i++) {
+			roomIds.put(rooms[i].getId(), i);
+		}
+
+		// Courses and curricula:
+		List<Course> courses = semester.getCourses();
+		courseCount = courses.size();
+		Map<String, Integer> courseIds = new HashMap<>();
+		for (int i = 0; i < courseCount; i++) {
+			courseIds.put(courses.get(i).getId(), i);
+		}
+		curriculumCount = semester.getCurricula().size();
+		List<List<Integer>> curriculaOfCourse = new ArrayList<>(courseCount);
+		for (int i = 0; i < courseCount; i++) {
+			curriculaOfCourse.add(new ArrayList<>());
+		}
+		for (int i = 0; i < curriculumCount; i++) {
+			for (Course course : semester.getCurricula().get(i).getCourses()) {
+				curriculaOfCourse.get(courseIds.get(course.getId())).add(i);
+			}
+		}
+		courseCurricula = new int[courseCount][];
+		coursePracticals = new int[courseCount];
+		courseLectures = new int[courseCount][];
+
+		// Sessions and teachers:
+		List<Session> sessionList = new ArrayList<>();
+		double constantPenalty = 0.0;
+		for (int i = 0; i < courseCount; i++) {
+			Course course = courses.get(i);
+			courseCurricula[i] = toArray(curriculaOfCourse.get(i));
+			coursePracticals[i] = course.getPracticals().size();
+			courseLectures[i] = new int[course.getLectures().size()];
+			for (int j = 0; j < courseLectures[i].length; j++) {
+				courseLectures[i][j] = sessionList.size();
+				sessionList.add(course.getLectures().get(j));
+			}
+			sessionList.addAll(course.getPracticals());
+			constantPenalty += s2Penalty(course, semester);
+		}
+		sessions = sessionList.toArray(new Session[0]);
+		sessionCourse = new int[sessions.length];
+		sessionTeacher = new int[sessions.length];
+		sessionLecture = new boolean[sessions.length];
+		sessionDouble = new boolean[sessions.length];
+		sessionInternal = new boolean[sessions.length];
+		sessionStudents = new int[sessions.length];
+		sessionPreAssignment = new int[sessions.length];
+		suitableRooms = new int[sessions.length][];
+		roomSuitable = new boolean[sessions.length * rooms.length];
+		Map<String, Integer> teacherIds = new HashMap<>();
+		List<Teacher> teachers = new ArrayList<>();
+		for (int i = 0; i < sessions.length; i++) {
+			Session session = sessions[i];
+			sessionIds.put(session.getId(), i);
+			sessionCourse[i] = courseIds.get(session.getCourse().getId());
+			Integer teacher = teacherIds.get(session.getTeacher().getId());
+			if (teacher == null) {
+				teacher = teachers.size();
+				teacherIds.put(session.getTeacher().getId(), teacher);
+				teachers.add(session.getTeacher());
+			}
+			sessionTeacher[i] = teacher;
+			sessionLecture[i] = session.isLecture();
+			sessionDouble[i] = session.isDoubleSession();
+			sessionPreAssignment[i] = session.getPreAssignment().isPresent() ?
+					toPeriod(session.getPreAssignment().get()) : -1;
+			if (session instanceof InternalSession) {
+				InternalSession internal = (InternalSession) session;
+				sessionInternal[i] = true;
+				sessionStudents[i] = internal.getStudents();
+				List<Integer> suitable = new ArrayList<>();
+				for (int j = 0; j < internalRoomCount; j++) {
+					if (((InternalRoom) rooms[j]).getFeatures().compareTo(
+							internal.getRoomRequirements()) >= 0) {
+						suitable.add(j);
+					}
+				}
+				suitableRooms[i] = toArray(suitable);
+			} else {
+				suitableRooms[i] = new int[]{roomIds.get(
+						((ExternalSession) session).getRoom().getId())};
+			}
+			for (int room : suitableRooms[i]) {
+				roomSuitable[i * rooms.length + room] = true;
+			}
+		}
+		List<Integer> movable = new ArrayList<>();
+		List<Integer> movableDouble = new ArrayList<>();
+		for (int i = 0; i < sessions.length; i++) {
+			if (sessionPreAssignment[i] == -1) {
+				movable.add(i);
+				if (sessionDouble[i]) {
+					movableDouble.add(i);
+				}
+			}
+		}
+		movableSessions = toArray(movable);
+		movableDoubleSessions = toArray(movableDouble);
+		teacherCount = teachers.size();
+		teacherUnavailable = new long[teacherCount];
+		teacherUnfavorable = new long[teacherCount];
+		for (int i = 0; i < teacherCount; i++) {
+			teacherUnavailable[i] =
+					toMask(teachers.get(i).getUnavailablePeriodSet());
+			teacherUnfavorable[i] =
+					toMask(teachers.get(i).getUnfavorablePeriodSet());
+		}
+		s6Counts = new int[1 << timeSlotsPerDay];
+		for (int mask = 0; mask < s6Counts.length; mask++) {
+			s6Counts[mask] = ConstraintViolationsCalculator.s6ViolationCount(
+					mask, timeSlotsPerDay);
+		}
+
+		// Domains:
+		periodDomains = calcPeriodDomains();
+		domainPeriods = new int[sessions.length][];
+		for (int i = 0; i < sessions.length; i++) {
+			domainPeriods[i] = new int[Long.bitCount(periodDomains[i])];
+			long domain = periodDomains[i];
+			for (int j = 0; domain != 0; j++) {
+				domainPeriods[i][j] = Long.numberOfTrailingZeros(domain);
+				domain &= domain - 1;
+			}
+		}
+
+		ConstraintWeightings constrWeightings = semester.getConstrWeightings();
+		weightings = new double[7];
+		readWeightings(constrWeightings, weightings);
+		s1Weighting = weighting(constrWeightings, ConstraintType.s1);
+		s3Weighting = weighting(constrWeightings, ConstraintType.s3);
+		s4Weighting = weighting(constrWeightings, ConstraintType.s4);
+		s5Weighting = weighting(constrWeightings, ConstraintType.s5);
+		s6Weighting = weighting(constrWeightings, ConstraintType.s6);
+		this.constantPenalty =
+				constantPenalty * weighting(constrWeightings, ConstraintType.s2);
+	}
+
+	/**
+	 * Calculates the periods in which each session can start, with respect to
+	 * the constraints that do not depend on other sessions: h7, h9 and double
+	 * sessions that cannot start in the last time slot of a day. Afterwards,
+	 * every session whose domain contains a single period removes this
+	 * period from the domains of the sessions that could not be assigned to
+	 * it (h1, h2, h4, h6) and its day from the domains of the other lectures
+	 * of its course (h8), until no further domain is reduced to a single
+	 * period.
+	 */
+	private long[] calcPeriodDomains() {
+		long allPeriods = (1L << getPeriodCount()) - 1;
+		long lastSlots = 0;
+		for (int day = 0; day < daysPerWeek; day++) {
+			lastSlots |= 1L << (day * timeSlotsPerDay + timeSlotsPerDay - 1);
+		}
+		long[] domains = new long[sessions.length];
+		for (int i = 0; i < sessions.length; i++) {
+			long unavailable = teacherUnavailable[sessionTeacher[i]];
+			domains[i] = allPeriods & ~unavailable;
+			if (sessionDouble[i]) {
+				domains[i] &= ~lastSlots & ~(unavailable >>> 1);
+			}
+			if (sessionPreAssignment[i] != -1) {
+				domains[i] &= 1L << sessionPreAssignment[i];
+			}
+		}
+
+		boolean[] propagated = new boolean[sessions.length];
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int fixed = 0; fixed < sessions.length; fixed++) {
+				if (!propagated[fixed] &&
+						Long.bitCount(domains[fixed]) == 1) {
+					propagated[fixed] = true;
+					changed = true;
+					propagateFixedPeriod(domains, fixed);
+				}
+			}
+		}
+		return domains;
+	}
+
+	private void propagateFixedPeriod(long[] domains, int fixed) {
+		int period = Long.numberOfTrailingZeros(domains[fixed]);
+		long occupied = sessionDouble[fixed] ? 3L << period : 1L << period;
+		int day = period / timeSlotsPerDay;
+		long dayPeriods = ((1L << timeSlotsPerDay) - 1) <<
+				(day * timeSlotsPerDay);
+		for (int i = 0; i < sessions.length; i++) {
+			if (i == fixed) {
+				continue;
+			}
+			long blocked = 0;
+			if (blockedBy(i, fixed)) {
+				blocked |= occupied;
+				if (sessionDouble[i]) {
+					blocked |= occupied >>> 1;
+				}
+			}
+			if (sessionLecture[i] && sessionLecture[fixed] &&
+					sessionCourse[i] == sessionCourse[fixed]) {
+				blocked |= dayPeriods;
+			}
+			domains[i] &= ~blocked;
+		}
+	}
+
+	/**
+	 * Checks whether a session cannot be assigned to a period that is
+	 * occupied by another session, like {@link SolutionState#isAssignable(
+	 * int, int, int)} does.
+	 */
+	private boolean blockedBy(int session, int other) {
+		if (sessionTeacher[session] == sessionTeacher[other]) {
+			return true; // h6
+		}
+		int course = sessionCourse[session];
+		boolean strong = sessionLecture[session] ||
+				coursePracticals[course] == 1;
+		if (course == sessionCourse[other] &&
+				(!sessionLecture[session] || coursePracticals[course] == 1 ||
+						sessionLecture[other])) {
+			return true; // h1, h2
+		}
+		if (strong) {
+			for (int curriculum : courseCurricula[course]) {
+				for (int otherCurriculum :
+						courseCurricula[sessionCourse[other]]) {
+					if (curriculum == otherCurriculum) {
+						return true; // h4
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	/**
+	 * Copies the weightings of s1 - s7 into an array.
+	 *
+	 * @param constrWeightings the weightings.
+	 * @param values the array with a length of at least seven.
+	 */
+	static void readWeightings(ConstraintWeightings constrWeightings,
+	                           double[] values) {
+		values[0] = constrWeightings.getS1();
+		values[1] = constrWeightings.getS2();
+		values[2] = constrWeightings.getS3();
+		values[3] = constrWeightings.getS4();
+		values[4] = constrWeightings.getS5();
+		values[5] = constrWeightings.getS6();
+		values[6] = constrWeightings.getS7();
+	}
+
+	/**
+	 * Checks whether the penalties of this index, e.g. the ones of a
+	 * {@link SolutionState}, are weighted with certain weightings.
+	 *
+	 * @param values the weightings of s1 - s7, see
+	 * {@link #readWeightings(ConstraintWeightings, double[])}.
+	 * @return {@code true} if the weightings are the ones that were used when
+	 * the index was created.
+	 */
+	boolean isWeightedBy(double[] values) {
+		for (int i = 0; i < weightings.length; i++) {
+			if (Double.compare(weightings[i], values[i]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static double weighting(ConstraintWeightings weightings,
+	                                ConstraintType type) {
+		double weighting = weightings.getWeighting(type);
+		return weighting == -1.0 ? 0.0 : weighting;
+	}
+
+	/**
+	 * Mirrors the s2 calculation of the {@link ConstraintViolationsCalculator},
+	 * which does not depend on the timetable.
+	 */
+	private static int s2Penalty(Course course, Semester semester) {
+		int difference = course.getMinNumberOfDays() -
+				((ValidationHelper.DAYS_PER_WEEK_MAX -
+						ValidationHelper.PERIOD_DAY_MIN) + 1);
+		return difference > 0 ? difference : 0;
+	}
+
+	private long toMask(Period period) {
+		return 1L << toPeriod(period);
+	}
+
+	/**
+	 * Converts a period set of the model into a bit mask of period indices.
+	 * Periods outside of the week of the semester are ignored.
+	 *
+	 * @param periods the period set.
+	 * @return the bit mask, bit {@code i} represents the period {@code i}.
+	 */
+	public long toMask(PeriodSet periods) {
+		long bits = periods.toBits();
+		long mask = 0;
+		int slots = ValidationHelper.TIME_SLOTS_PER_DAY_MAX;
+		for (int day = 0; day < daysPerWeek; day++) {
+			long dayBits = (bits >>> (day * slots)) &
+					((1L << timeSlotsPerDay) - 1);
+			mask |= dayBits << (day * timeSlotsPerDay);
+		}
+		return mask;
+	}
+
+	/**
+	 * Converts a bit mask of period indices into a period set of the model.
+	 *
+	 * @param mask the bit mask, bit {@code i} represents the period {@code i}.
+	 * @return the period set.
+	 */
+	public PeriodSet toPeriodSet(long mask) {
+		long bits = 0;
+		int slots = ValidationHelper.TIME_SLOTS_PER_DAY_MAX;
+		for (int day = 0; day < daysPerWeek; day++) {
+			long dayBits = (mask >>> (day * timeSlotsPerDay)) &
+					((1L << timeSlotsPerDay) - 1);
+			bits |= dayBits << (day * slots);
+		}
+		return PeriodSet.fromBits(bits);
+	}
+
+	/**
+	 * Converts a period of the model into the index of the period.
+	 *
+	 * @param period the period.
+	 * @return the index of the period.
+	 */
+	public int toPeriod(Period period) {
+		return (period.getDay() - 1) * timeSlotsPerDay +
+				(period.getTimeSlot() - 1);
+	}
+
+	/**
+	 * Returns the Zobrist key of a session that occupies a room in a period.
+	 * The keys of all (session, period, room) triples are pseudo random and
+	 * independent of each other. Instead of keeping a table of random
+	 * numbers, a key is derived from the index of its triple with the
+	 * SplitMix64 finalizer, so large semesters need no additional memory.
+	 *
+	 * @param session the session.
+	 * @param period the period.
+	 * @param room the room.
+	 * @return the key.
+	 */
+	public long getZobristKey(int session, int period, int room) {
+		long key = ((long) session * getPeriodCount() + period) *
+				rooms.length + room + 1;
+		key *= 0x9E3779B97F4A7C15L;
+		key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+		key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+		return key ^ (key >>> 31);
+	}
+
+	/**
+	 * Calculates the Zobrist hash of a timetable, i.e. the XOR of the keys of
+	 * all of its assignments. A double session contributes a key for both of
+	 * its periods. The hash is equal to {@link SolutionState#getHash()} of a
+	 * state of the timetable.
+	 *
+	 * @param timetable the timetable.
+	 * @return the hash.
+	 */
+	public long hash(Timetable timetable) {
+		if (timetable == null) {
+			throw new IllegalArgumentException("Parameter 'timetable' must " +
+					"not be null");
+		}
+		long hash = 0;
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				int p = toPeriod(period);
+				for (TimetableAssignment assignment : period.getAssignments()) {
+					int session = indexOf(assignment.getSession());
+					int room = indexOf(assignment.getRoom());
+					if (session == -1 || room == -1) {
+						throw new IllegalArgumentException("Timetable " +
+								"contains a session or room that is not part " +
+								"of the semester");
+					}
+					hash ^= getZobristKey(session, p, room);
+				}
+			}
+		}
+		return hash;
+	}
+
+	public Semester getSemester() {
+		return semester;
+	}
+
+	public int getDaysPerWeek() {
+		return daysPerWeek;
+	}
+
+	public int getTimeSlotsPerDay() {
+		return timeSlotsPerDay;
+	}
+
+	public int getMaxDailyLecturesPerCur() {
+		return maxDailyLecturesPerCur;
+	}
+
+	public int getPeriodCount() {
+		return daysPerWeek * timeSlotsPerDay;
+	}
+
+	public int getSessionCount() {
+		return sessions.length;
+	}
+
+	public int getRoomCount() {
+		return rooms.length;
+	}
+
+	public int getInternalRoomCount() {
+		return internalRoomCount;
+	}
+
+	public int getCourseCount() {
+		return courseCount;
+	}
+
+	public int getCurriculumCount() {
+		return curriculumCount;
+	}
+
+	public int getTeacherCount() {
+		return teacherCount;
+	}
+
+	public Session getSession(int session) {
+		return sessions[session];
+	}
+
+	public Room getRoom(int room) {
+		return rooms[room];
+	}
+
+	/**
+	 * Looks up the index of a session.
+	 *
+	 * @param session the session.
+	 * @return the index of the session, or -1 if it is not part of the
+	 * semester.
+	 */
+	public int indexOf(Session session) {
+		Integer index = sessionIds.get(session.getId());
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Looks up the index of a room.
+	 *
+	 * @param room the room.
+	 * @return the index of the room, or -1 if it is not part of the semester.
+	 */
+	public int indexOf(Room room) {
+		Integer index = roomIds.get(room.getId());
+		return index == null ? -1 : index;
+	}
+
+	public int getCourse(int session) {
+		return sessionCourse[session];
+	}
+
+	public int getTeacher(int session) {
+		return sessionTeacher[session];
+	}
+
+	public boolean isLecture(int session) {
+		return sessionLecture[session];
+	}
+
+	public boolean isDoubleSession(int session) {
+		return sessionDouble[session];
+	}
+
+	public boolean isInternal(int session) {
+		return sessionInternal[session];
+	}
+
+	public int getStudents(int session) {
+		return sessionStudents[session];
+	}
+
+	/**
+	 * Returns the pre-assigned period of a session.
+	 *
+	 * @param session the session.
+	 * @return the index of the pre-assigned period, or -1 if the session has no
+	 * pre-assignment.
+	 */
+	public int getPreAssignment(int session) {
+		return sessionPreAssignment[session];
+	}
+
+	/**
+	 * Checks whether a session can be moved to another period, which is the
+	 * case for every session without a pre-assignment.
+	 *
+	 * @param session the session.
+	 * @return {@code true} if the session can be moved, otherwise {@code false}.
+	 */
+	public boolean isMovable(int session) {
+		return sessionPreAssignment[session] == -1;
+	}
+
+	/**
+	 * Returns every session that can be moved to another period. The returned
+	 * array must not be modified.
+	 *
+	 * @return the indices of the movable sessions.
+	 */
+	public int[] getMovableSessions() {
+		return movableSessions;
+	}
+
+	/**
+	 * Returns every double session that can be moved to another period. The
+	 * returned array must not be modified.
+	 *
+	 * @return the indices of the movable double sessions.
+	 */
+	public int[] getMovableDoubleSessions() {
+		return movableDoubleSessions;
+	}
+
+	/**
+	 * Returns the periods in which a session can start, see {@link
+	 * #getDomainPeriods(int)}.
+	 *
+	 * @param session the session.
+	 * @return the bit mask of the periods.
+	 */
+	public long getPeriodDomain(int session) {
+		return periodDomains[session];
+	}
+
+	/**
+	 * Returns the periods in which a session can start without violating the
+	 * hard constraints that do not depend on the assignments of other movable
+	 * sessions: teacher unavailability (h7), pre-assignments (h9), double
+	 * sessions in the last time slot, and conflicts with sessions whose period
+	 * is fixed. The returned array must not be modified.
+	 *
+	 * @param session the session.
+	 * @return the indices of the periods in ascending order.
+	 */
+	public int[] getDomainPeriods(int session) {
+		return domainPeriods[session];
+	}
+
+	/**
+	 * Checks whether a session can start in a period, see {@link
+	 * #getDomainPeriods(int)}.
+	 *
+	 * @param session the session.
+	 * @param period the period.
+	 * @return {@code true} if the period is part of the domain of the session.
+	 */
+	public boolean isInDomain(int session, int period) {
+		return (periodDomains[session] & (1L << period)) != 0;
+	}
+
+	/**
+	 * Returns the rooms that satisfy the room requirements of a session (h10).
+	 * For external sessions, this is their external room. The returned array
+	 * must not be modified.
+	 *
+	 * @param session the session.
+	 * @return the indices of the suitable rooms.
+	 */
+	public int[] getSuitableRooms(int session) {
+		return suitableRooms[session];
+	}
+
+	public boolean isSuitableRoom(int session, int room) {
+		return roomSuitable[session * rooms.length + room];
+	}
+
+	public int getCapacity(int room) {
+		return roomCapacity[room];
+	}
+
+	public int getPracticalCount(int course) {
+		return coursePracticals[course];
+	}
+
+	/**
+	 * Returns the curricula a course belongs to. The returned array must not
+	 * be modified.
+	 *
+	 * @param course the course.
+	 * @return the indices of the curricula.
+	 */
+	public int[] getCurricula(int course) {
+		return courseCurricula[course];
+	}
+
+	/**
+	 * Returns the lectures of a course. The returned array must not be
+	 * modified.
+	 *
+	 * @param course the course.
+	 * @return the indices of the lecture sessions.
+	 */
+	public int[] getLectures(int course) {
+		return courseLectures[course];
+	}
+
+	/**
+	 * Returns the unavailable periods of a teacher (h7).
+	 *
+	 * @param teacher the teacher.
+	 * @return the bit mask, bit {@code i} represents the period {@code i}.
+	 */
+	public long getUnavailablePeriods(int teacher) {
+		return teacherUnavailable[teacher];
+	}
+
+	/**
+	 * Returns the unfavorable periods of a teacher (s5).
+	 *
+	 * @param teacher the teacher.
+	 * @return the bit mask, bit {@code i} represents the period {@code i}.
+	 */
+	public long getUnfavorablePeriods(int teacher) {
+		return teacherUnfavorable[teacher];
+	}
+
+	public boolean isUnavailable(int teacher, int period) {
+		return (teacherUnavailable[teacher] & (1L << period)) != 0;
+	}
+
+	public boolean isUnfavorable(int teacher, int period) {
+		return (teacherUnfavorable[teacher] & (1L << period)) != 0;
+	}
+
+	int getS6Count(int dayMask) {
+		return s6Counts[dayMask];
+	}
+
+	double getS1Weighting() {
+		return s1Weighting;
+	}
+
+	double getS3Weighting() {
+		return s3Weighting;
+	}
+
+	double getS4Weighting() {
+		return s4Weighting;
+	}
+
+	double getS5Weighting() {
+		return s5Weighting;
+	}
+
+	double getS6Weighting() {
+		return s6Weighting;
+	}
+
+	/**
+	 * Returns the part of the penalty that does not depend on the timetable,
+	 * i.e. the weighted s2 violations.
+	 *
+	 * @return the constant penalty.
+	 */
+	double getConstantPenalty() {
+		return constantPenalty;
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import java.util.Arrays;
+
+/**
+ * Assigns the rooms of the sessions of a period optimally, while the periods
+ * of the sessions stay fixed. For every period, the assignment of sessions to
+ * rooms is solved as a minimum cost bipartite matching with the Hungarian
+ * method. The costs are the capacity deviation (s1) and the room stability
+ * (s4), only rooms that satisfy the room requirements (h10) are considered.
+ *
+ * External sessions and double sessions keep their rooms. Because a course
+ * has at most one lecture in a period (h2), the costs of the sessions of a
+ * period are independent of each other and the matching is optimal for the
+ * penalty, given the rooms of all other periods.
+ */
+public final class RoomAssignmentOptimizer {
+
+	private static final double INFEASIBLE = 1e12;
+	private static final double EPSILON = 1e-9;
+
+	private RoomAssignmentOptimizer() {}
+
+	/**
+	 * Optimizes the rooms of every period of a solution state. The periods are
+	 * processed repeatedly, until no further improvement is possible.
+	 *
+	 * @param state the state that should be improved.
+	 */
+	public static void optimize(SolutionState state) {
+		if (state == null) {
+			throw new IllegalArgumentException("Parameter 'state' must not be " +
+					"null");
+		}
+		boolean improved = true;
+		while (improved) {
+			improved = false;
+			for (int period = 0; period < state.getIndex().getPeriodCount();
+			     period++) {
+				Move move = createMove(state, period);
+				if (move != null) {
+					move.apply();
+					improved = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calculates the optimal rooms for the sessions of a period.
+	 *
+	 * @param state the state the move should be applied to.
+	 * @param period the period.
+	 * @return the move that assigns the optimal rooms, or {@code null} if the
+	 * current rooms are already optimal.
+	 */
+	public static Move createMove(SolutionState state, int period) {
+		ProblemIndex index = state.getIndex();
+		int internalRooms = index.getInternalRoomCount();
+		int[] sessions = new int[internalRooms];
+		int[] rooms = new int[internalRooms];
+		int sessionCount = 0;
+		int roomCount = 0;
+		for (int room = 0; room < internalRooms; room++) {
+			int session = state.getOccupant(period, room);
+			if (session == -1) {
+				rooms[roomCount++] = room;
+			} else if (index.isInternal(session) &&
+					!index.isDoubleSession(session)) {
+				sessions[sessionCount++] = session;
+				rooms[roomCount++] = room;
+			}
+		}
+		if (sessionCount == 0 || roomCount < 2) {
+			return null;
+		}
+
+		double currentCost = 0.0;
+		double[][] costs = new double[sessionCount][roomCount];
+		for (int i = 0; i < sessionCount; i++) {
+			for (int j = 0; j < roomCount; j++) {
+				costs[i][j] = cost(state, sessions[i], period, rooms[j]);
+			}
+			currentCost += cost(state, sessions[i], period,
+					state.getRoom(sessions[i]));
+		}
+		int[] assignment = solve(costs);
+		double optimalCost = 0.0;
+		for (int i = 0; i < sessionCount; i++) {
+			optimalCost += costs[i][assignment[i]];
+		}
+		if (optimalCost >= currentCost - EPSILON) {
+			return null;
+		}
+		int[] newRooms = new int[sessionCount];
+		for (int i = 0; i < sessionCount; i++) {
+			newRooms[i] = rooms[assignment[i]];
+		}
+		return new RoomMove(state, Arrays.copyOf(sessions, sessionCount),
+				newRooms, period);
+	}
+
+	/**
+	 * Calculates the part of the penalty that depends on the room of a session,
+	 * given the rooms of all sessions of other periods.
+	 */
+	private static double cost(SolutionState state, int session, int period,
+	                           int room) {
+		ProblemIndex index = state.getIndex();
+		if (!index.isSuitableRoom(session, room)) {
+			return INFEASIBLE;
+		}
+		double cost = index.getS1Weighting() *
+				Math.abs(index.getCapacity(room) - index.getStudents(session));
+		if (index.isLecture(session)) {
+			cost += index.getS4Weighting() *
+					s4Count(state, session, period, room);
+		}
+		return cost;
+	}
+
+	/**
+	 * Counts the s4 violations of a course that depend on the room of one of
+	 * its lectures, like {@link ConstraintViolationsCalculator} does.
+	 */
+	private static int s4Count(SolutionState state, int session, int period,
+	                           int room) {
+		ProblemIndex index = state.getIndex();
+		int[] lectures = index.getLectures(index.getCourse(session));
+		int first = -1;
+		for (int lecture : lectures) {
+			if (lecture != session && (first == -1 ||
+					state.getPeriod(lecture) < state.getPeriod(first))) {
+				first = lecture;
+			}
+		}
+		if (first == -1) {
+			return 0;
+		} else if (state.getPeriod(first) < period) {
+			return state.getRoom(first) != room ? 1 : 0;
+		}
+		// The session is the first lecture, so the other lectures count:
+		int counter = 0;
+		for (int lecture : lectures) {
+			if (lecture != session && state.getRoom(lecture) != room) {
+				counter += index.isDoubleSession(lecture) ? 2 : 1;
+			}
+		}
+		return counter;
+	}
+
+	/**
+	 * Solves the assignment problem with the Hungarian method.
+	 *
+	 * @param costs the costs, the number of rows must not exceed the number of
+	 *              columns.
+	 * @return the column that is assigned to each row.
+	 */
+	private static int[] solve(double[][] costs) {
+		int rows = costs.length;
+		int columns = costs[0].length;
+		double[] u = new double[rows + 1];
+		double[] v = new double[columns + 1];
+		int[] match = new int[columns + 1]; // Row (1-based) of each column
+		int[] way = new int[columns + 1];
+		double[] minValues = new double[columns + 1];
+		boolean[] used = new boolean[columns + 1];
+		for (int row = 1; row <= rows; row++) {
+			match[0] = row;
+			int column = 0;
+			Arrays.fill(minValues, Double.POSITIVE_INFINITY);
+			Arrays.fill(used, false);
+			do {
+				used[column] = true;
+				int currentRow = match[column];
+				double delta = Double.POSITIVE_INFINITY;
+				int nextColumn = 0;
+				for (int j = 1; j <= columns; j++) {
+					if (!used[j]) {
+						double reduced = costs[currentRow - 1][j - 1] -
+								u[currentRow] - v[j];
+						if (reduced < minValues[j]) {
+							minValues[j] = reduced;
+							way[j] = column;
+						}
+						if (minValues[j] < delta) {
+							delta = minValues[j];
+							nextColumn = j;
+						}
+					}
+				}
+				for (int j = 0; j <= columns; j++) {
+					if (used[j]) {
+						u[match[j]] += delta;
+						v[j] -= delta;
+					} else {
+						minValues[j] -= delta;
+					}
+				}
+				column = nextColumn;
+			} while (match[column] != 0);
+			do {
+				int previous = way[column];
+				match[column] = match[previous];
+				column = previous;
+			} while (column != 0);
+		}
+		int[] assignment = new int[rows];
+		for (int j = 1; j <= columns; j++) {
+			if (match[j] != 0) {
+				assignment[match[j] - 1] = j - 1;
+			}
+		}
+		return assignment;
+	}
+
+	private static final class RoomMove implements Move {
+
+		private final SolutionState state;
+		private final int[] sessions;
+		private final int[] oldRooms;
+		private final int[] newRooms;
+		private final int period;
+
+		private RoomMove(SolutionState state, int[] sessions, int[] newRooms,
+		                 int period) {
+			this.state = state;
+			this.sessions = sessions;
+			this.oldRooms = new int[sessions.length];
+			for (int i = 0; i < sessions.length; i++) {
+				oldRooms[i] = state.getRoom(sessions[i]);
+			}
+			this.newRooms = newRooms;
+			this.period = period;
+		}
+
+		@Override
+		public void apply() {
+			assignRooms(newRooms);
+		}
+
+		@Override
+		public void undo() {
+			assignRooms(oldRooms);
+		}
+
+		private void assignRooms(int[] rooms) {
+			for (int session : sessions) {
+				state.unassign(session);
+			}
+			for (int i = 0; i < sessions.length; i++) {
+				state.assign(sessions[i], period, rooms[i]);
+			}
+		}
+	}
+}
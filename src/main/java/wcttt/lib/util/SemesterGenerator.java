@@ -0,0 +1,544 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.binder.WctttBinderException;
+import wcttt.lib.model.*;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Generates synthetic semesters of arbitrary size, e.g. for load tests and
+ * benchmarks. The generation is deterministic, the same parameters and the
+ * same seed always result in the same semester.
+ *
+ * The generated data respects the hard constraints that can be checked
+ * locally: every session has at least one suitable room, pre-assignments do
+ * not collide with each other or with the unavailable periods of the teacher
+ * and double sessions are never pre-assigned to the last time slot. Whether a
+ * feasible timetable exists depends on the ratio of sessions to rooms and
+ * periods and on the curricula.
+ */
+public class SemesterGenerator {
+
+	private int daysPerWeek = 5;
+	private int timeSlotsPerDay = 6;
+	private int maxDailyLecturesPerCur = 4;
+	private int chairs = 5;
+	private int teachersPerChair = 4;
+	private int internalRooms = 10;
+	private int externalRooms = 1;
+	private int minRoomCapacity = 20;
+	private int maxRoomCapacity = 200;
+	private int maxProjectors = 2;
+	// Share of the internal rooms that provide a feature:
+	private double pcPoolRate = 0.2;
+	private double teacherPcRate = 0.6;
+	private double docCamRate = 0.4;
+	private int courses = 20;
+	private int lecturesPerCourse = 2;
+	private int practicalsPerCourse = 1;
+	// Probabilities per session:
+	private double doubleSessionRate = 0.1;
+	private double preAssignmentRate = 0.02;
+	private double externalSessionRate = 0.01;
+	private int curricula = 4;
+	private int coursesPerCurriculum = 5;
+	// Probability that a course of a curriculum is also part of another one:
+	private double curriculumOverlap = 0.3;
+	// Probabilities per teacher and period:
+	private double unavailablePeriodRate = 0.05;
+	private double unfavorablePeriodRate = 0.1;
+
+	public int getDaysPerWeek() {
+		return daysPerWeek;
+	}
+
+	public void setDaysPerWeek(int daysPerWeek) {
+		checkRange("daysPerWeek", daysPerWeek,
+				ValidationHelper.DAYS_PER_WEEK_MIN,
+				ValidationHelper.DAYS_PER_WEEK_MAX);
+		this.daysPerWeek = daysPerWeek;
+	}
+
+	public int getTimeSlotsPerDay() {
+		return timeSlotsPerDay;
+	}
+
+	public void setTimeSlotsPerDay(int timeSlotsPerDay) {
+		checkRange("timeSlotsPerDay", timeSlotsPerDay,
+				ValidationHelper.TIME_SLOTS_PER_DAY_MIN,
+				ValidationHelper.TIME_SLOTS_PER_DAY_MAX);
+		this.timeSlotsPerDay = timeSlotsPerDay;
+	}
+
+	public int getMaxDailyLecturesPerCur() {
+		return maxDailyLecturesPerCur;
+	}
+
+	public void setMaxDailyLecturesPerCur(int maxDailyLecturesPerCur) {
+		checkRange("maxDailyLecturesPerCur", maxDailyLecturesPerCur,
+				ValidationHelper.MIN_DAILY_LECTURES_PER_CUR_MIN,
+				Integer.MAX_VALUE);
+		this.maxDailyLecturesPerCur = maxDailyLecturesPerCur;
+	}
+
+	public int getChairs() {
+		return chairs;
+	}
+
+	public void setChairs(int chairs) {
+		checkRange("chairs", chairs, 1, Integer.MAX_VALUE);
+		this.chairs = chairs;
+	}
+
+	public int getTeachersPerChair() {
+		return teachersPerChair;
+	}
+
+	public void setTeachersPerChair(int teachersPerChair) {
+		checkRange("teachersPerChair", teachersPerChair, 1, Integer.MAX_VALUE);
+		this.teachersPerChair = teachersPerChair;
+	}
+
+	public int getInternalRooms() {
+		return internalRooms;
+	}
+
+	public void setInternalRooms(int internalRooms) {
+		checkRange("internalRooms", internalRooms, 1, Integer.MAX_VALUE);
+		this.internalRooms = internalRooms;
+	}
+
+	public int getExternalRooms() {
+		return externalRooms;
+	}
+
+	public void setExternalRooms(int externalRooms) {
+		checkRange("externalRooms", externalRooms, 0, Integer.MAX_VALUE);
+		this.externalRooms = externalRooms;
+	}
+
+	public int getMinRoomCapacity() {
+		return minRoomCapacity;
+	}
+
+	public int getMaxRoomCapacity() {
+		return maxRoomCapacity;
+	}
+
+	public void setRoomCapacity(int minRoomCapacity, int maxRoomCapacity) {
+		checkRange("minRoomCapacity", minRoomCapacity,
+				ValidationHelper.ROOM_CAPACITY_MIN, Integer.MAX_VALUE);
+		checkRange("maxRoomCapacity", maxRoomCapacity, minRoomCapacity,
+				Integer.MAX_VALUE);
+		this.minRoomCapacity = minRoomCapacity;
+		this.maxRoomCapacity = maxRoomCapacity;
+	}
+
+	public int getMaxProjectors() {
+		return maxProjectors;
+	}
+
+	public void setMaxProjectors(int maxProjectors) {
+		checkRange("maxProjectors", maxProjectors,
+				ValidationHelper.PROJECTORS_MIN, Integer.MAX_VALUE);
+		this.maxProjectors = maxProjectors;
+	}
+
+	public double getPcPoolRate() {
+		return pcPoolRate;
+	}
+
+	public void setPcPoolRate(double pcPoolRate) {
+		checkRate("pcPoolRate", pcPoolRate);
+		this.pcPoolRate = pcPoolRate;
+	}
+
+	public double getTeacherPcRate() {
+		return teacherPcRate;
+	}
+
+	public void setTeacherPcRate(double teacherPcRate) {
+		checkRate("teacherPcRate", teacherPcRate);
+		this.teacherPcRate = teacherPcRate;
+	}
+
+	public double getDocCamRate() {
+		return docCamRate;
+	}
+
+	public void setDocCamRate(double docCamRate) {
+		checkRate("docCamRate", docCamRate);
+		this.docCamRate = docCamRate;
+	}
+
+	public int getCourses() {
+		return courses;
+	}
+
+	public void setCourses(int courses) {
+		checkRange("courses", courses, 0, Integer.MAX_VALUE);
+		this.courses = courses;
+	}
+
+	public int getLecturesPerCourse() {
+		return lecturesPerCourse;
+	}
+
+	public void setLecturesPerCourse(int lecturesPerCourse) {
+		checkRange("lecturesPerCourse", lecturesPerCourse, 1,
+				Integer.MAX_VALUE);
+		this.lecturesPerCourse = lecturesPerCourse;
+	}
+
+	public int getPracticalsPerCourse() {
+		return practicalsPerCourse;
+	}
+
+	public void setPracticalsPerCourse(int practicalsPerCourse) {
+		checkRange("practicalsPerCourse", practicalsPerCourse, 0,
+				Integer.MAX_VALUE);
+		this.practicalsPerCourse = practicalsPerCourse;
+	}
+
+	public double getDoubleSessionRate() {
+		return doubleSessionRate;
+	}
+
+	public void setDoubleSessionRate(double doubleSessionRate) {
+		checkRate("doubleSessionRate", doubleSessionRate);
+		this.doubleSessionRate = doubleSessionRate;
+	}
+
+	public double getPreAssignmentRate() {
+		return preAssignmentRate;
+	}
+
+	public void setPreAssignmentRate(double preAssignmentRate) {
+		checkRate("preAssignmentRate", preAssignmentRate);
+		this.preAssignmentRate = preAssignmentRate;
+	}
+
+	public double getExternalSessionRate() {
+		return externalSessionRate;
+	}
+
+	public void setExternalSessionRate(double externalSessionRate) {
+		checkRate("externalSessionRate", externalSessionRate);
+		this.externalSessionRate = externalSessionRate;
+	}
+
+	public int getCurricula() {
+		return curricula;
+	}
+
+	public void setCurricula(int curricula) {
+		checkRange("curricula", curricula, 0, Integer.MAX_VALUE);
+		this.curricula = curricula;
+	}
+
+	public int getCoursesPerCurriculum() {
+		return coursesPerCurriculum;
+	}
+
+	public void setCoursesPerCurriculum(int coursesPerCurriculum) {
+		checkRange("coursesPerCurriculum", coursesPerCurriculum, 1,
+				Integer.MAX_VALUE);
+		this.coursesPerCurriculum = coursesPerCurriculum;
+	}
+
+	public double getCurriculumOverlap() {
+		return curriculumOverlap;
+	}
+
+	public void setCurriculumOverlap(double curriculumOverlap) {
+		checkRate("curriculumOverlap", curriculumOverlap);
+		this.curriculumOverlap = curriculumOverlap;
+	}
+
+	public double getUnavailablePeriodRate() {
+		return unavailablePeriodRate;
+	}
+
+	public void setUnavailablePeriodRate(double unavailablePeriodRate) {
+		checkRate("unavailablePeriodRate", unavailablePeriodRate);
+		this.unavailablePeriodRate = unavailablePeriodRate;
+	}
+
+	public double getUnfavorablePeriodRate() {
+		return unfavorablePeriodRate;
+	}
+
+	public void setUnfavorablePeriodRate(double unfavorablePeriodRate) {
+		checkRate("unfavorablePeriodRate", unfavorablePeriodRate);
+		this.unfavorablePeriodRate = unfavorablePeriodRate;
+	}
+
+	private static void checkRange(String name, int value, int min, int max) {
+		if (value < min || value > max) {
+			throw new IllegalArgumentException("Parameter '" + name +
+					"' must be >= " + min + " and <= " + max);
+		}
+	}
+
+	private static void checkRate(String name, double value) {
+		if (!(value >= 0.0 && value <= 1.0)) {
+			throw new IllegalArgumentException("Parameter '" + name +
+					"' must be >= 0.0 and <= 1.0");
+		}
+	}
+
+	/**
+	 * Generates a semester without timetables.
+	 *
+	 * @param seed the seed of the random number generator.
+	 * @return the generated semester.
+	 */
+	public Semester generate(long seed) {
+		try {
+			return new Generation(new Random(seed)).run();
+		} catch (WctttModelException e) {
+			throw new WctttUtilFatalException("Implementation error, the " +
+					"generated semester data is invalid", e);
+		}
+	}
+
+	/**
+	 * Generates a semester and writes it to a XML file, see
+	 * {@link #generate(long)}.
+	 *
+	 * @param seed the seed of the random number generator.
+	 * @param xmlFile the file to which the semester is written.
+	 * @throws WctttBinderException if the semester could not be written.
+	 */
+	public void generate(long seed, File xmlFile) throws WctttBinderException {
+		new WctttBinder(xmlFile).write(generate(seed));
+	}
+
+	/**
+	 * The state of a single generation run.
+	 */
+	private class Generation {
+
+		private final Random random;
+		private final Semester semester = new SemesterImpl();
+		private final List<Period> periods = new ArrayList<>();
+		// Periods that are not used by any pre-assignment yet:
+		private final List<Period> freePeriods = new ArrayList<>();
+
+		private Generation(Random random) throws WctttModelException {
+			this.random = random;
+			for (int day = 1; day <= daysPerWeek; day++) {
+				for (int timeSlot = 1; timeSlot <= timeSlotsPerDay; timeSlot++) {
+					periods.add(new Period(day, timeSlot));
+				}
+			}
+			freePeriods.addAll(periods);
+		}
+
+		private Semester run() throws WctttModelException {
+			semester.setName("generated-semester");
+			semester.setDaysPerWeek(daysPerWeek);
+			semester.setTimeSlotsPerDay(timeSlotsPerDay);
+			semester.setMaxDailyLecturesPerCur(maxDailyLecturesPerCur);
+			generateChairs();
+			generateRooms();
+			generateCourses();
+			generateCurricula();
+			return semester;
+		}
+
+		private void generateChairs() {
+			for (int i = 1; i <= chairs; i++) {
+				Chair chair = new Chair("chair-" + i, "Chair " + i, "C" + i);
+				for (int j = 1; j <= teachersPerChair; j++) {
+					Teacher teacher = new Teacher("teacher-" + i + "-" + j,
+							"Teacher " + i + "-" + j);
+					for (Period period : periods) {
+						double value = random.nextDouble();
+						if (value < unavailablePeriodRate) {
+							teacher.getUnavailablePeriods().add(period);
+						} else if (value < unavailablePeriodRate +
+								unfavorablePeriodRate) {
+							teacher.getUnfavorablePeriods().add(period);
+						}
+					}
+					chair.getTeachers().add(teacher);
+				}
+				semester.getChairs().add(chair);
+			}
+		}
+
+		private void generateRooms() throws WctttModelException {
+			for (int i = 1; i <= internalRooms; i++) {
+				RoomFeatures features = new RoomFeatures(
+						random.nextInt(maxProjectors + 1),
+						random.nextDouble() < pcPoolRate,
+						random.nextDouble() < teacherPcRate,
+						random.nextDouble() < docCamRate);
+				int capacity = minRoomCapacity +
+						random.nextInt(maxRoomCapacity - minRoomCapacity + 1);
+				semester.getInternalRooms().add(new InternalRoom("room-" + i,
+						"Room " + i, capacity, features));
+			}
+			for (int i = 1; i <= externalRooms; i++) {
+				semester.getExternalRooms().add(new ExternalRoom(
+						"external-room-" + i, "External room " + i));
+			}
+		}
+
+		private void generateCourses() throws WctttModelException {
+			for (int i = 1; i <= courses; i++) {
+				Chair chair = semester.getChairs().get(
+						random.nextInt(semester.getChairs().size()));
+				Course course = new Course("course-" + i, "Course " + i,
+						"CRS-" + i, chair, random.nextBoolean() ?
+						CourseLevel.Bachelor : CourseLevel.Master,
+						1 + random.nextInt(Math.min(lecturesPerCourse,
+								daysPerWeek)));
+				for (int j = 1; j <= lecturesPerCourse; j++) {
+					course.getLectures().add(generateSession(course,
+							course.getId() + "-l" + j, "Lecture " + j));
+				}
+				for (int j = 1; j <= practicalsPerCourse; j++) {
+					course.getPracticals().add(generateSession(course,
+							course.getId() + "-p" + j, "Practical " + j));
+				}
+				semester.getCourses().add(course);
+			}
+		}
+
+		private Session generateSession(Course course, String id, String name)
+				throws WctttModelException {
+			List<Teacher> teachers = course.getChair().getTeachers();
+			Teacher teacher = teachers.get(random.nextInt(teachers.size()));
+			boolean doubleSession = random.nextDouble() < doubleSessionRate;
+			boolean external = random.nextDouble() < externalSessionRate &&
+					!semester.getExternalRooms().isEmpty();
+			boolean preAssigned = random.nextDouble() < preAssignmentRate;
+			Period preAssignment = null;
+			if (external || preAssigned) {
+				preAssignment = takePreAssignment(teacher, doubleSession);
+			}
+			if (external && preAssignment != null) {
+				ExternalRoom room = semester.getExternalRooms().get(
+						random.nextInt(semester.getExternalRooms().size()));
+				return new ExternalSession(id, name, teacher, course,
+						doubleSession, preAssignment, room);
+			}
+
+			// The requirements are derived from a random room, thus there is
+			// at least one suitable room for every session:
+			InternalRoom room = semester.getInternalRooms().get(
+					random.nextInt(semester.getInternalRooms().size()));
+			RoomFeatures features = room.getFeatures();
+			RoomFeatures requirements = new RoomFeatures(
+					random.nextInt(features.getProjectors() + 1),
+					features.isPcPool() && random.nextBoolean(),
+					features.hasTeacherPc() && random.nextBoolean(),
+					features.hasDocCam() && random.nextBoolean());
+			int students = ValidationHelper.STUDENTS_MIN +
+					random.nextInt(room.getCapacity());
+			return new InternalSession(id, name, teacher, course,
+					doubleSession, preAssignment, students, requirements);
+		}
+
+		/**
+		 * Takes a random period that is not used by another pre-assignment and
+		 * that the teacher can attend.
+		 *
+		 * @return the period or {@code null} if there is none.
+		 */
+		private Period takePreAssignment(Teacher teacher,
+		                                 boolean doubleSession)
+				throws WctttModelException {
+			List<Period> candidates = new ArrayList<>();
+			for (Period period : freePeriods) {
+				if (teacher.getUnavailablePeriodSet().contains(period)) {
+					continue;
+				}
+				if (doubleSession) {
+					if (period.getTimeSlot() == timeSlotsPerDay) {
+						continue;
+					}
+					Period second = new Period(period.getDay(),
+							period.getTimeSlot() + 1);
+					if (!freePeriods.contains(second) ||
+							teacher.getUnavailablePeriodSet().contains(second)) {
+						continue;
+					}
+				}
+				candidates.add(period);
+			}
+			if (candidates.isEmpty()) {
+				return null;
+			}
+			Period period = candidates.get(random.nextInt(candidates.size()));
+			freePeriods.remove(period);
+			if (doubleSession) {
+				freePeriods.remove(new Period(period.getDay(),
+						period.getTimeSlot() + 1));
+			}
+			return period;
+		}
+
+		private void generateCurricula() {
+			List<Course> allCourses = semester.getCourses();
+			Set<Course> usedCourses = new LinkedHashSet<>();
+			for (int i = 1; i <= curricula; i++) {
+				Curriculum curriculum = new Curriculum("curriculum-" + i,
+						"Curriculum " + i);
+				int size = Math.min(coursesPerCurriculum, allCourses.size());
+				while (curriculum.getCourses().size() < size) {
+					List<Course> candidates = new ArrayList<>();
+					boolean overlap = random.nextDouble() < curriculumOverlap;
+					for (Course course : overlap ? usedCourses : allCourses) {
+						if (!curriculum.getCourses().contains(course) &&
+								(overlap || !usedCourses.contains(course))) {
+							candidates.add(course);
+						}
+					}
+					if (candidates.isEmpty()) {
+						// Every course is already used or there is no overlap
+						// yet, fall back to any course:
+						for (Course course : allCourses) {
+							if (!curriculum.getCourses().contains(course)) {
+								candidates.add(course);
+							}
+						}
+					}
+					curriculum.getCourses().add(candidates.get(
+							random.nextInt(candidates.size())));
+				}
+				usedCourses.addAll(curriculum.getCourses());
+				semester.getCurricula().add(curriculum);
+			}
+		}
+	}
+}
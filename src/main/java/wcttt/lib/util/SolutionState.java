@@ -0,0 +1,736 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import wcttt.lib.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact and mutable representation of a complete timetable, which keeps
+ * track of its soft constraint penalty incrementally. The penalty is equal to
+ * the one calculated by the {@link ConstraintViolationsCalculator}, but
+ * assigning or unassigning a session only updates the affected parts.
+ *
+ * A double session occupies its start period and the following period. The
+ * state does not check hard constraints when sessions are assigned, this has
+ * to be done beforehand using {@link #isAssignable(int, int, int)}.
+ */
+public class SolutionState {
+
+	private static final int UNASSIGNED = -1;
+
+	private final ProblemIndex index;
+	private final int periodCount;
+	private final int roomCount;
+
+	private final int[] sessionPeriod;
+	private final int[] sessionRoom;
+	private final int[] roomOccupant;
+	private final int[] courseCount;
+	private final int[] courseLectureCount;
+	private final int[] courseDayLectureCount;
+	private final int[] curriculumCount;
+	private final int[] curriculumStrongCount;
+	private final int[] curriculumLectureCount;
+	private final int[] curriculumDayLectureCount;
+	private final int[] teacherCount;
+	private final int[] courseS4;
+
+	private long s1Count;
+	private long s3Count;
+	private long s4Count;
+	private long s5Count;
+	private long s6Count;
+	private long s7Count;
+	private long hash;
+	private long changedPeriods;
+
+	/**
+	 * Creates the state of a complete timetable.
+	 *
+	 * @param index the index of the semester the timetable belongs to.
+	 * @param timetable the timetable, every session must be assigned.
+	 */
+	public SolutionState(ProblemIndex index, Timetable timetable) {
+		this(index);
+		if (timetable == null) {
+			throw new IllegalArgumentException("Parameter 'timetable' must " +
+					"not be null");
+		}
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				for (TimetableAssignment assignment : period.getAssignments()) {
+					int session = index.indexOf(assignment.getSession());
+					int room = index.indexOf(assignment.getRoom());
+					if (session == -1 || room == -1) {
+						throw new IllegalArgumentException("Timetable " +
+								"contains a session or room that is not part " +
+								"of the semester");
+					}
+					if (sessionPeriod[session] == UNASSIGNED) {
+						sessionPeriod[session] = index.toPeriod(period);
+						sessionRoom[session] = room;
+					}
+				}
+			}
+		}
+		for (int session = 0; session < sessionPeriod.length; session++) {
+			if (sessionPeriod[session] == UNASSIGNED) {
+				throw new IllegalArgumentException("Session '" +
+						index.getSession(session) + "' is not assigned");
+			}
+			int period = sessionPeriod[session];
+			sessionPeriod[session] = UNASSIGNED;
+			assign(session, period, sessionRoom[session]);
+		}
+	}
+
+	/**
+	 * Creates a copy of another state.
+	 *
+	 * @param state the state that should be copied.
+	 */
+	public SolutionState(SolutionState state) {
+		this(state.index);
+		copyFrom(state);
+	}
+
+	/**
+	 * Creates an empty state, in which every session is unassigned.
+	 *
+	 * @param index the index of the semester.
+	 */
+	public SolutionState(ProblemIndex index) {
+		if (index == null) {
+			throw new IllegalArgumentException("Parameter 'index' must not be" +
+					" null");
+		}
+		this.index = index;
+		periodCount = index.getPeriodCount();
+		roomCount = index.getRoomCount();
+		sessionPeriod = new int[index.getSessionCount()];
+		sessionRoom = new int[index.getSessionCount()];
+		Arrays.fill(sessionPeriod, UNASSIGNED);
+		Arrays.fill(sessionRoom, UNASSIGNED);
+		roomOccupant = new int[periodCount * roomCount];
+		Arrays.fill(roomOccupant, UNASSIGNED);
+		courseCount = new int[index.getCourseCount() * periodCount];
+		courseLectureCount = new int[index.getCourseCount() * periodCount];
+		courseDayLectureCount =
+				new int[index.getCourseCount() * index.getDaysPerWeek()];
+		curriculumCount = new int[index.getCurriculumCount() * periodCount];
+		curriculumStrongCount =
+				new int[index.getCurriculumCount() * periodCount];
+		curriculumLectureCount =
+				new int[index.getCurriculumCount() * periodCount];
+		curriculumDayLectureCount =
+				new int[index.getCurriculumCount() * index.getDaysPerWeek()];
+		teacherCount = new int[index.getTeacherCount() * periodCount];
+		courseS4 = new int[index.getCourseCount()];
+	}
+
+	/**
+	 * Overwrites this state with another state of the same index, without
+	 * allocating any memory.
+	 *
+	 * @param state the state that should be copied.
+	 */
+	public void copyFrom(SolutionState state) {
+		if (state.index != index) {
+			throw new IllegalArgumentException("States must share the same " +
+					"index");
+		}
+		System.arraycopy(state.sessionPeriod, 0, sessionPeriod, 0,
+				sessionPeriod.length);
+		System.arraycopy(state.sessionRoom, 0, sessionRoom, 0,
+				sessionRoom.length);
+		System.arraycopy(state.roomOccupant, 0, roomOccupant, 0,
+				roomOccupant.length);
+		System.arraycopy(state.courseCount, 0, courseCount, 0,
+				courseCount.length);
+		System.arraycopy(state.courseLectureCount, 0, courseLectureCount, 0,
+				courseLectureCount.length);
+		System.arraycopy(state.courseDayLectureCount, 0, courseDayLectureCount,
+				0, courseDayLectureCount.length);
+		System.arraycopy(state.curriculumCount, 0, curriculumCount, 0,
+				curriculumCount.length);
+		System.arraycopy(state.curriculumStrongCount, 0, curriculumStrongCount,
+				0, curriculumStrongCount.length);
+		System.arraycopy(state.curriculumLectureCount, 0,
+				curriculumLectureCount, 0, curriculumLectureCount.length);
+		System.arraycopy(state.curriculumDayLectureCount, 0,
+				curriculumDayLectureCount, 0, curriculumDayLectureCount.length);
+		System.arraycopy(state.teacherCount, 0, teacherCount, 0,
+				teacherCount.length);
+		System.arraycopy(state.courseS4, 0, courseS4, 0, courseS4.length);
+		s1Count = state.s1Count;
+		s3Count = state.s3Count;
+		s4Count = state.s4Count;
+		s5Count = state.s5Count;
+		s6Count = state.s6Count;
+		s7Count = state.s7Count;
+		hash = state.hash;
+		// Every period may differ from the previous state:
+		changedPeriods = -1L;
+	}
+
+	public ProblemIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the soft constraint penalty of the current state.
+	 *
+	 * @return the penalty.
+	 */
+	public double getPenalty() {
+		return index.getConstantPenalty() +
+				index.getS1Weighting() * (s1Count + s7Count) +
+				index.getS3Weighting() * s3Count +
+				index.getS4Weighting() * s4Count +
+				index.getS5Weighting() * s5Count +
+				index.getS6Weighting() * s6Count;
+	}
+
+	/**
+	 * Returns the Zobrist hash of the current state, which is updated
+	 * incrementally like the penalty, see {@link
+	 * ProblemIndex#getZobristKey(int, int, int)}. Equal states have equal
+	 * hashes, different states have equal hashes only by a rare collision.
+	 *
+	 * @return the hash.
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Returns the periods whose room occupants were changed since the last
+	 * call of {@link #clearChangedPeriods()}, which are the only periods that
+	 * have to be written back to a timetable, see {@link #writeTo(Timetable,
+	 * long)}. A period may be reported although the change was reverted.
+	 *
+	 * @return the mask of the changed periods.
+	 */
+	public long getChangedPeriods() {
+		return changedPeriods;
+	}
+
+	/**
+	 * Marks every period as unchanged, see {@link #getChangedPeriods()}.
+	 */
+	public void clearChangedPeriods() {
+		changedPeriods = 0;
+	}
+
+	/**
+	 * Calculates by how much a move would change the penalty, without
+	 * changing the state. Only the parts of the penalty that are affected by
+	 * the move are updated, so a move can be rejected without evaluating or
+	 * copying a whole timetable.
+	 *
+	 * @param move the move, it must have been created for this state.
+	 * @return the difference between the penalty after and before the move.
+	 */
+	public double delta(Move move) {
+		double penalty = getPenalty();
+		move.apply();
+		double delta = getPenalty() - penalty;
+		move.undo();
+		return delta;
+	}
+
+	/**
+	 * Returns the (start) period of a session.
+	 *
+	 * @param session the session.
+	 * @return the index of the period, or -1 if the session is unassigned.
+	 */
+	public int getPeriod(int session) {
+		return sessionPeriod[session];
+	}
+
+	/**
+	 * Returns the room of a session.
+	 *
+	 * @param session the session.
+	 * @return the index of the room, or -1 if the session is unassigned.
+	 */
+	public int getRoom(int session) {
+		return sessionRoom[session];
+	}
+
+	/**
+	 * Returns the session that occupies a room in a period.
+	 *
+	 * @param period the period.
+	 * @param room the room.
+	 * @return the index of the session, or -1 if the room is free.
+	 */
+	public int getOccupant(int period, int room) {
+		return roomOccupant[period * roomCount + room];
+	}
+
+	/**
+	 * Returns the periods in which a room is occupied.
+	 *
+	 * @param room the room.
+	 * @return the bit mask, bit {@code i} represents the period {@code i}.
+	 */
+	public long getRoomOccupancy(int room) {
+		long mask = 0;
+		for (int period = 0; period < periodCount; period++) {
+			if (roomOccupant[period * roomCount + room] != UNASSIGNED) {
+				mask |= 1L << period;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the periods in which a teacher holds at least one session.
+	 *
+	 * @param teacher the teacher.
+	 * @return the bit mask, bit {@code i} represents the period {@code i}.
+	 */
+	public long getTeacherOccupancy(int teacher) {
+		long mask = 0;
+		for (int period = 0; period < periodCount; period++) {
+			if (teacherCount[teacher * periodCount + period] > 0) {
+				mask |= 1L << period;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the number of lectures of a course on a day, double sessions
+	 * are counted once.
+	 *
+	 * @param course the course.
+	 * @param day the index of the day, starting with 0.
+	 * @return the number of lectures.
+	 */
+	public int getLectureCount(int course, int day) {
+		return courseDayLectureCount[course * index.getDaysPerWeek() + day];
+	}
+
+	/**
+	 * Checks whether a session could be assigned to a period and a room
+	 * without violating any hard constraints. The checks are the same as the
+	 * ones of {@link ConstraintViolationsCalculator#calcAssignmentHardViolations(
+	 * Timetable, TimetablePeriod, TimetableAssignment)}. The current
+	 * assignment of the session itself is ignored, so it is not necessary to
+	 * unassign the session before.
+	 *
+	 * @param session the session.
+	 * @param period the (start) period.
+	 * @param room the room.
+	 * @return {@code true} if the assignment is feasible, otherwise {@code
+	 * false}.
+	 */
+	public boolean isAssignable(int session, int period, int room) {
+		if (!index.isInDomain(session, period) ||
+				!index.isSuitableRoom(session, room)) {
+			return false; // h7, h9, h10
+		}
+		boolean doubleSession = index.isDoubleSession(session);
+		int timeSlots = index.getTimeSlotsPerDay();
+		int course = index.getCourse(session);
+		boolean lecture = index.isLecture(session);
+		int current = sessionPeriod[session];
+		if (lecture && courseDayLectureCount[course * index.getDaysPerWeek() +
+				period / timeSlots] - (current != UNASSIGNED &&
+				current / timeSlots == period / timeSlots ? 1 : 0) > 0) {
+			return false; // h8
+		}
+		return isAssignableInPeriod(session, period, room) && (!doubleSession ||
+				isAssignableInPeriod(session, period + 1, room));
+	}
+
+	private boolean isAssignableInPeriod(int session, int period, int room) {
+		int occupant = roomOccupant[period * roomCount + room];
+		if (occupant != UNASSIGNED && occupant != session) {
+			return false; // h3
+		}
+		int teacher = index.getTeacher(session);
+		int own = occupies(session, period) ? 1 : 0;
+		if (teacherCount[teacher * periodCount + period] - own > 0) {
+			return false; // h6
+		}
+		int course = index.getCourse(session);
+		boolean lecture = index.isLecture(session);
+		int practicals = index.getPracticalCount(course);
+		int sameCourse = courseCount[course * periodCount + period] - own;
+		if (!lecture || practicals == 1) {
+			if (sameCourse > 0) {
+				return false; // h1, h2
+			}
+		} else if (courseLectureCount[course * periodCount + period] - own > 0) {
+			return false; // h2
+		}
+		boolean strong = lecture || practicals == 1;
+		if (lecture || practicals == 1 || practicals == sameCourse) {
+			for (int curriculum : index.getCurricula(course)) {
+				if (curriculumCount[curriculum * periodCount + period] - own >
+						0) {
+					return false; // h4
+				}
+			}
+		} else {
+			for (int curriculum : index.getCurricula(course)) {
+				if (curriculumStrongCount[curriculum * periodCount + period] -
+						(strong ? own : 0) > 0) {
+					return false; // h5
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean occupies(int session, int period) {
+		int start = sessionPeriod[session];
+		return start != UNASSIGNED && (start == period ||
+				(index.isDoubleSession(session) && start + 1 == period));
+	}
+
+	/**
+	 * Assigns an unassigned session to a period and a room and updates the
+	 * penalty.
+	 *
+	 * @param session the session.
+	 * @param period the (start) period.
+	 * @param room the room.
+	 */
+	public void assign(int session, int period, int room) {
+		if (sessionPeriod[session] != UNASSIGNED) {
+			throw new WctttUtilFatalException("Implementation error, session " +
+					"is already assigned");
+		}
+		sessionPeriod[session] = period;
+		sessionRoom[session] = room;
+		update(session, period, room, 1);
+	}
+
+	/**
+	 * Removes a session from its period and room and updates the penalty.
+	 *
+	 * @param session the session.
+	 */
+	public void unassign(int session) {
+		int period = sessionPeriod[session];
+		if (period == UNASSIGNED) {
+			throw new WctttUtilFatalException("Implementation error, session " +
+					"is not assigned");
+		}
+		int room = sessionRoom[session];
+		sessionPeriod[session] = UNASSIGNED;
+		sessionRoom[session] = UNASSIGNED;
+		update(session, period, room, -1);
+	}
+
+	/**
+	 * Moves a session to another period and room, without checking hard
+	 * constraints.
+	 *
+	 * @param session the session.
+	 * @param period the new (start) period.
+	 * @param room the new room.
+	 */
+	public void move(int session, int period, int room) {
+		unassign(session);
+		assign(session, period, room);
+	}
+
+	private void update(int session, int period, int room, int sign) {
+		int halves = index.isDoubleSession(session) ? 2 : 1;
+		int course = index.getCourse(session);
+		int teacher = index.getTeacher(session);
+		boolean lecture = index.isLecture(session);
+		boolean strong = lecture || index.getPracticalCount(course) == 1;
+		int timeSlots = index.getTimeSlotsPerDay();
+		int day = period / timeSlots;
+
+		if (index.isInternal(session) && room < index.getInternalRoomCount()) {
+			s1Count += sign * halves *
+					Math.abs(index.getCapacity(room) - index.getStudents(session));
+		}
+		int teacherDayMask = teacherDayMask(teacher, day);
+		for (int half = 0; half < halves; half++) {
+			int p = period + half;
+			roomOccupant[p * roomCount + room] =
+					sign > 0 ? session : UNASSIGNED;
+			changedPeriods |= 1L << p;
+			hash ^= index.getZobristKey(session, p, room);
+			courseCount[course * periodCount + p] += sign;
+			teacherCount[teacher * periodCount + p] += sign;
+			if (index.isUnfavorable(teacher, p)) {
+				s5Count += sign;
+			}
+			if (lecture) {
+				courseLectureCount[course * periodCount + p] += sign;
+			}
+			for (int curriculum : index.getCurricula(course)) {
+				curriculumCount[curriculum * periodCount + p] += sign;
+				if (strong) {
+					curriculumStrongCount[curriculum * periodCount + p] += sign;
+				}
+				if (lecture) {
+					updateCurriculumLectures(curriculum, p, sign);
+				}
+			}
+		}
+		s6Count += index.getS6Count(teacherDayMask(teacher, day)) -
+				index.getS6Count(teacherDayMask);
+		if (lecture) {
+			courseDayLectureCount[course * index.getDaysPerWeek() + day] += sign;
+			s4Count -= courseS4[course];
+			courseS4[course] = calcS4Count(course);
+			s4Count += courseS4[course];
+		}
+	}
+
+	private int teacherDayMask(int teacher, int day) {
+		int timeSlots = index.getTimeSlotsPerDay();
+		int offset = teacher * periodCount + day * timeSlots;
+		int mask = 0;
+		for (int i = 0; i < timeSlots; i++) {
+			if (teacherCount[offset + i] > 0) {
+				mask |= 1 << i;
+			}
+		}
+		return mask;
+	}
+
+	private void updateCurriculumLectures(int curriculum, int period,
+	                                      int sign) {
+		int timeSlots = index.getTimeSlotsPerDay();
+		int first = Math.max(period - 1, period - period % timeSlots);
+		int last = Math.min(period + 1, period - period % timeSlots +
+				timeSlots - 1);
+		int offset = curriculum * periodCount;
+		for (int p = first; p <= last; p++) {
+			s3Count -= s3Count(offset, p, timeSlots);
+		}
+		curriculumLectureCount[offset + period] += sign;
+		for (int p = first; p <= last; p++) {
+			s3Count += s3Count(offset, p, timeSlots);
+		}
+
+		int dayIndex = curriculum * index.getDaysPerWeek() + period / timeSlots;
+		s7Count -= s7Count(curriculumDayLectureCount[dayIndex]);
+		curriculumDayLectureCount[dayIndex] += sign;
+		s7Count += s7Count(curriculumDayLectureCount[dayIndex]);
+	}
+
+	private int s3Count(int offset, int period, int timeSlots) {
+		int lectures = curriculumLectureCount[offset + period];
+		if (lectures == 0) {
+			return 0;
+		}
+		int slot = period % timeSlots;
+		if ((slot > 0 && curriculumLectureCount[offset + period - 1] > 0) ||
+				(slot < timeSlots - 1 &&
+						curriculumLectureCount[offset + period + 1] > 0)) {
+			return 0;
+		}
+		return lectures;
+	}
+
+	private int s7Count(int lecturesPerDay) {
+		int excess = lecturesPerDay - index.getMaxDailyLecturesPerCur();
+		return excess > 0 ? excess : 0;
+	}
+
+	/**
+	 * Counts the lecture assignments of a course whose room differs from the
+	 * room of the first lecture assignment in the timetable.
+	 */
+	private int calcS4Count(int course) {
+		int[] lectures = index.getLectures(course);
+		int first = UNASSIGNED;
+		for (int lecture : lectures) {
+			if (sessionPeriod[lecture] != UNASSIGNED && (first == UNASSIGNED ||
+					sessionPeriod[lecture] < sessionPeriod[first])) {
+				first = lecture;
+			}
+		}
+		if (first == UNASSIGNED) {
+			return 0;
+		}
+		int counter = 0;
+		for (int lecture : lectures) {
+			if (sessionPeriod[lecture] != UNASSIGNED &&
+					sessionRoom[lecture] != sessionRoom[first]) {
+				counter += index.isDoubleSession(lecture) ? 2 : 1;
+			}
+		}
+		return counter;
+	}
+
+	/**
+	 * Creates a new timetable from the current state. Every session must be
+	 * assigned.
+	 *
+	 * @return the new timetable, including its soft constraint penalty.
+	 */
+	public Timetable toTimetable() {
+		Timetable timetable = new Timetable();
+		int timeSlots = index.getTimeSlotsPerDay();
+		try {
+			for (int i = 1; i <= index.getDaysPerWeek(); i++) {
+				TimetableDay day = new TimetableDay(i);
+				for (int j = 1; j <= timeSlots; j++) {
+					day.addPeriod(new TimetablePeriod(i, j));
+				}
+				timetable.addDay(day);
+			}
+			for (int session = 0; session < sessionPeriod.length; session++) {
+				int period = sessionPeriod[session];
+				if (period == UNASSIGNED) {
+					throw new WctttUtilFatalException("Implementation error, " +
+							"session '" + index.getSession(session) + "' is " +
+							"not assigned");
+				}
+				int halves = index.isDoubleSession(session) ? 2 : 1;
+				for (int half = 0; half < halves; half++) {
+					int p = period + half;
+					timetable.getDays().get(p / timeSlots).getPeriods().get(
+							p % timeSlots).addAssignment(new TimetableAssignment(
+							index.getSession(session),
+							index.getRoom(sessionRoom[session])));
+				}
+			}
+		} catch (WctttModelException e) {
+			throw new WctttUtilFatalException("Implementation error, problem " +
+					"while creating a timetable", e);
+		}
+		timetable.setSoftConstraintPenalty(getPenalty());
+		return timetable;
+	}
+
+	/**
+	 * Creates a new timetable from the current state that is derived from
+	 * another timetable, see {@link Timetable#derive()}. Only the periods
+	 * whose assignments differ from the other timetable are rewritten, the
+	 * other periods share their assignments with it. Every session must be
+	 * assigned.
+	 *
+	 * @param base the timetable the new timetable is derived from, it must
+	 *             contain every period of the semester.
+	 * @return the new timetable, including its soft constraint penalty.
+	 */
+	public Timetable toTimetable(Timetable base) {
+		if (base == null) {
+			throw new IllegalArgumentException("Parameter 'base' must not be " +
+					"null");
+		}
+		for (int session = 0; session < sessionPeriod.length; session++) {
+			if (sessionPeriod[session] == UNASSIGNED) {
+				throw new WctttUtilFatalException("Implementation error, " +
+						"session '" + index.getSession(session) + "' is " +
+						"not assigned");
+			}
+		}
+		Timetable timetable = base.derive();
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				writePeriod(period, index.toPeriod(period));
+			}
+		}
+		timetable.setSoftConstraintPenalty(getPenalty());
+		return timetable;
+	}
+
+	/**
+	 * Writes some periods of the current state back to a timetable, e.g. the
+	 * ones changed by a move, see {@link #getChangedPeriods()}. Like {@link
+	 * #toTimetable(Timetable)}, only the periods whose assignments differ
+	 * are rewritten, such that the other periods keep sharing their
+	 * assignments with the timetable they were derived from. The soft
+	 * constraint penalty of the timetable is updated as well.
+	 *
+	 * @param timetable the timetable, it must contain every period of the
+	 *                  semester in order.
+	 * @param periods the mask of the periods that should be written.
+	 */
+	public void writeTo(Timetable timetable, long periods) {
+		if (timetable == null) {
+			throw new IllegalArgumentException("Parameter 'timetable' must " +
+					"not be null");
+		}
+		int timeSlots = index.getTimeSlotsPerDay();
+		for (int p = 0; p < periodCount; p++) {
+			if ((periods & (1L << p)) != 0) {
+				writePeriod(timetable.getDays().get(p / timeSlots).
+						getPeriods().get(p % timeSlots), p);
+			}
+		}
+		timetable.setSoftConstraintPenalty(getPenalty());
+	}
+
+	private void writePeriod(TimetablePeriod period, int p) {
+		if (hasAssignments(period, p)) {
+			return;
+		}
+		List<TimetableAssignment> assignments = new ArrayList<>();
+		for (int room = 0; room < roomCount; room++) {
+			int session = roomOccupant[p * roomCount + room];
+			if (session != UNASSIGNED) {
+				assignments.add(new TimetableAssignment(
+						index.getSession(session), index.getRoom(room)));
+			}
+		}
+		period.getAssignments().setAll(assignments);
+	}
+
+	/**
+	 * Checks whether the assignments of a timetable period match the
+	 * occupants of the rooms in a period of this state.
+	 */
+	private boolean hasAssignments(TimetablePeriod period, int p) {
+		int occupied = 0;
+		for (int room = 0; room < roomCount; room++) {
+			if (roomOccupant[p * roomCount + room] != UNASSIGNED) {
+				occupied++;
+			}
+		}
+		if (occupied != period.getAssignments().size()) {
+			return false;
+		}
+		for (TimetableAssignment assignment : period.getAssignments()) {
+			int room = index.indexOf(assignment.getRoom());
+			if (room == -1 || roomOccupant[p * roomCount + room] !=
+					index.indexOf(assignment.getSession())) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
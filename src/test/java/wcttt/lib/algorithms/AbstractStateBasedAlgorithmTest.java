@@ -0,0 +1,97 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.algorithms.great_deluge.GreatDeluge;
+import wcttt.lib.algorithms.late_acceptance_hill_climbing.LateAcceptanceHillClimbing;
+import wcttt.lib.algorithms.simulated_annealing.SimulatedAnnealing;
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+import wcttt.lib.util.ConstraintViolationsCalculator;
+import wcttt.lib.util.SemesterGenerator;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the state-based algorithms return a
+ * feasible timetable that is no worse than their initial solution.
+ */
+class AbstractStateBasedAlgorithmTest {
+
+	private static final int BATCHES = 3;
+
+	@Test
+	void simulatedAnnealingDoesNotWorsenInitialSolution()
+			throws WctttAlgorithmException {
+		Semester semester = generateSemester();
+		assertDoesNotWorsen(semester, new SimulatedAnnealing(semester));
+	}
+
+	@Test
+	void greatDelugeDoesNotWorsenInitialSolution()
+			throws WctttAlgorithmException {
+		Semester semester = generateSemester();
+		assertDoesNotWorsen(semester, new GreatDeluge(semester));
+	}
+
+	@Test
+	void lateAcceptanceHillClimbingDoesNotWorsenInitialSolution()
+			throws WctttAlgorithmException {
+		Semester semester = generateSemester();
+		assertDoesNotWorsen(semester, new LateAcceptanceHillClimbing(semester));
+	}
+
+	private static Semester generateSemester() {
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setCourses(15);
+		generator.setDoubleSessionRate(0.2);
+		return generator.generate(5);
+	}
+
+	private static <S extends AbstractStateBasedAlgorithm.SearchState> void
+	assertDoesNotWorsen(Semester semester,
+	                    AbstractStateBasedAlgorithm<S> algorithm)
+			throws WctttAlgorithmException {
+		algorithm.setParameterValues(
+				AlgorithmTestHelper.defaultValues(algorithm));
+		AtomicBoolean isCancelled = new AtomicBoolean(false);
+		S state = algorithm.initSearch(isCancelled);
+		assertNotNull(state);
+		double initialPenalty = state.getCurrentSolution().getPenalty();
+		for (int i = 0; i < BATCHES; i++) {
+			algorithm.runBatch(state, isCancelled);
+		}
+		Timetable timetable = algorithm.finishSearch(state);
+		AlgorithmTestHelper.assertFeasible(semester, timetable);
+		double penalty = new ConstraintViolationsCalculator(semester).
+				calcTimetablePenalty(timetable);
+		assertEquals(penalty, timetable.getSoftConstraintPenalty(), 1e-9);
+		assertTrue(penalty <= initialPenalty + 1e-9);
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms;
+
+import wcttt.lib.model.*;
+import wcttt.lib.util.ConstraintViolationsCalculator;
+import wcttt.lib.util.ProblemIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises the assertions and utilities that are shared by the tests of the
+ * algorithms.
+ */
+public final class AlgorithmTestHelper {
+
+	private AlgorithmTestHelper() {}
+
+	/**
+	 * Creates the values of the parameters of an algorithm from their default
+	 * values.
+	 */
+	public static List<ParameterValue> defaultValues(Algorithm algorithm) {
+		List<ParameterValue> values = new ArrayList<>();
+		for (ParameterDefinition definition : algorithm.getParameters()) {
+			values.add(value(definition, definition.getDefaultValue()));
+		}
+		return values;
+	}
+
+	/**
+	 * Creates the value of a parameter from its string representation.
+	 */
+	public static ParameterValue value(ParameterDefinition definition,
+	                                   String value) {
+		if (definition.getType() == ParameterType.INT) {
+			return new ParameterValue<>(definition, Integer.parseInt(value));
+		} else {
+			return new ParameterValue<>(definition, Double.parseDouble(value));
+		}
+	}
+
+	/**
+	 * Runs an algorithm until it finds a timetable without soft constraint
+	 * violations or it is cancelled after a certain time.
+	 */
+	public static Timetable generate(Algorithm algorithm, long millis)
+			throws WctttAlgorithmException {
+		Thread canceller = new Thread(() -> {
+			try {
+				Thread.sleep(millis);
+			} catch (InterruptedException e) {
+				return;
+			}
+			algorithm.cancel();
+		});
+		canceller.start();
+		try {
+			return algorithm.generate();
+		} finally {
+			canceller.interrupt();
+		}
+	}
+
+	/**
+	 * Asserts that a timetable is feasible, its penalty matches the constraint
+	 * violations calculator and it is no worse than the initial solution of
+	 * the algorithm, which is the first best penalty the algorithm recorded.
+	 */
+	public static void assertNoWorseThanInitial(Semester semester,
+	                                            Timetable timetable,
+	                                            AlgorithmMetrics metrics) {
+		assertNotNull(timetable);
+		assertFeasible(semester, timetable);
+		double penalty = new ConstraintViolationsCalculator(semester).
+				calcTimetablePenalty(timetable);
+		assertEquals(penalty, timetable.getSoftConstraintPenalty(), 1e-9);
+		List<AlgorithmMetrics.PenaltyRecord> history =
+				metrics.getBestPenaltyHistory();
+		assertFalse(history.isEmpty());
+		assertTrue(penalty <= history.get(0).getPenalty() + 1e-9);
+	}
+
+	/**
+	 * Asserts that every session of the semester is assigned and that no
+	 * assignment violates a hard constraint.
+	 */
+	public static void assertFeasible(Semester semester, Timetable timetable) {
+		ProblemIndex index = new ProblemIndex(semester);
+		int expected = 0;
+		for (int i = 0; i < index.getSessionCount(); i++) {
+			expected += index.getSession(i).isDoubleSession() ? 2 : 1;
+		}
+		ConstraintViolationsCalculator calculator =
+				new ConstraintViolationsCalculator(semester);
+		int assignments = 0;
+		try {
+			for (TimetableDay day : timetable.getDays()) {
+				for (TimetablePeriod period : day.getPeriods()) {
+					for (TimetableAssignment assignment :
+							new ArrayList<>(period.getAssignments())) {
+						assignments++;
+						period.removeAssignment(assignment);
+						assertEquals(new ArrayList<>(),
+								calculator.calcAssignmentHardViolations(
+										timetable, period, assignment));
+						period.addAssignment(assignment);
+					}
+				}
+			}
+		} catch (WctttModelException e) {
+			fail(e);
+		}
+		assertEquals(expected, assignments);
+	}
+}
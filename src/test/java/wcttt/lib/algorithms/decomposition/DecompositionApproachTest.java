@@ -0,0 +1,91 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.decomposition;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.algorithms.AlgorithmMetrics;
+import wcttt.lib.algorithms.AlgorithmTestHelper;
+import wcttt.lib.algorithms.ParameterValue;
+import wcttt.lib.algorithms.WctttAlgorithmException;
+import wcttt.lib.model.Course;
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.Timetable;
+import wcttt.lib.util.SemesterGenerator;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprises unit tests to ensure that the decomposition approach splits
+ * disjoint curricula into components and merges their solutions into a
+ * feasible timetable.
+ */
+class DecompositionApproachTest {
+
+	private static final long RUNTIME_MILLIS = 1000;
+	// Ignores every teacher, such that only the curricula link courses:
+	private static final String IGNORED_TEACHER_SESSIONS = "1000";
+
+	@Test
+	void mergedSolutionOfDisjointCurriculaIsFeasible()
+			throws WctttAlgorithmException {
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setCourses(10);
+		generator.setCurricula(2);
+		generator.setCoursesPerCurriculum(5);
+		generator.setCurriculumOverlap(0.0);
+		Semester semester = generator.generate(4);
+		List<List<Course>> components = SemesterDecomposition.findComponents(
+				semester, Integer.parseInt(IGNORED_TEACHER_SESSIONS));
+		assertEquals(2, components.size());
+
+		DecompositionApproach approach = new DecompositionApproach(semester);
+		List<ParameterValue> values =
+				AlgorithmTestHelper.defaultValues(approach);
+		values.set(1, AlgorithmTestHelper.value(
+				approach.getParameters().get(1), "2"));
+		values.set(2, AlgorithmTestHelper.value(
+				approach.getParameters().get(2), IGNORED_TEACHER_SESSIONS));
+		approach.setParameterValues(values);
+		AlgorithmMetrics metrics = new AlgorithmMetrics();
+		approach.setMetrics(metrics);
+
+		Timetable timetable =
+				AlgorithmTestHelper.generate(approach, RUNTIME_MILLIS);
+		AlgorithmTestHelper.assertFeasible(semester, timetable);
+		assertEquals(2, counter(metrics, "parts"));
+	}
+
+	private static long counter(AlgorithmMetrics metrics, String name) {
+		for (AlgorithmMetrics.Counter counter : metrics.getCounters()) {
+			if (counter.getName().equals(name)) {
+				return counter.get();
+			}
+		}
+		return 0;
+	}
+}
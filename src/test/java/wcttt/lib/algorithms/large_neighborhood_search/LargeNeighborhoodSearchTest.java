@@ -0,0 +1,90 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.large_neighborhood_search;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.algorithms.AlgorithmMetrics;
+import wcttt.lib.algorithms.AlgorithmTestHelper;
+import wcttt.lib.algorithms.ParameterDefinition;
+import wcttt.lib.algorithms.ParameterValue;
+import wcttt.lib.algorithms.WctttAlgorithmException;
+import wcttt.lib.model.Semester;
+import wcttt.lib.model.SemesterImpl;
+import wcttt.lib.model.Timetable;
+import wcttt.lib.util.ProblemIndex;
+import wcttt.lib.util.SemesterGenerator;
+import wcttt.lib.util.SolutionState;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprises unit tests to ensure that the large neighborhood search returns a
+ * feasible timetable that is no worse than its initial solution, also with
+ * several threads, and that its destroy operators cope with semesters without
+ * teachers or curricula.
+ */
+class LargeNeighborhoodSearchTest {
+
+	private static final long RUNTIME_MILLIS = 1000;
+
+	@Test
+	void twoThreadsDoNotWorsenInitialSolution()
+			throws WctttAlgorithmException {
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setCourses(15);
+		generator.setDoubleSessionRate(0.2);
+		Semester semester = generator.generate(3);
+		LargeNeighborhoodSearch search = new LargeNeighborhoodSearch(semester);
+		List<ParameterValue> values =
+				AlgorithmTestHelper.defaultValues(search);
+		ParameterDefinition threads = search.getParameters().get(0);
+		values.set(0, AlgorithmTestHelper.value(threads, "2"));
+		search.setParameterValues(values);
+		AlgorithmMetrics metrics = new AlgorithmMetrics();
+		search.setMetrics(metrics);
+
+		Timetable timetable =
+				AlgorithmTestHelper.generate(search, RUNTIME_MILLIS);
+		AlgorithmTestHelper.assertNoWorseThanInitial(semester, timetable,
+				metrics);
+	}
+
+	@Test
+	void destroyOperatorsSelectNothingWithoutSessions() {
+		Semester semester = new SemesterImpl();
+		SolutionState state =
+				new SolutionState(new ProblemIndex(semester), new Timetable());
+		SessionRelations relations = new SessionRelations(state.getIndex());
+		Random random = new Random(1);
+		for (DestroyOperator operator : DestroyOperator.values()) {
+			assertEquals(0, operator.select(state, relations, 12, random).length,
+					operator.name());
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.algorithms.tabu_based_memetic_approach;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.algorithms.WctttAlgorithmFatalException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the neighborhood selector respects the
+ * tabu list, tries every neighborhood structure first, selects according to
+ * its strategy and smooths the rewards exponentially.
+ */
+class NeighborhoodSelectorTest {
+
+	private static final long ONE_MILLI = 1_000_000;
+
+	private final NeighborhoodStructure nbs1 = new NeighborhoodStructure1();
+	private final NeighborhoodStructure nbs2 = new NeighborhoodStructure2();
+	private final NeighborhoodStructure nbs3 = new NeighborhoodStructure3();
+	private final List<NeighborhoodStructure> nbsList =
+			Arrays.asList(nbs1, nbs2, nbs3);
+
+	@Test
+	void tabuStructuresAreNeverSelected() {
+		for (NbsSelectionStrategy strategy : NbsSelectionStrategy.values()) {
+			NeighborhoodSelector selector = new NeighborhoodSelector(nbsList,
+					strategy, new Random(1));
+			selector.reward(nbs1, 100, ONE_MILLI);
+			selector.reward(nbs2, 1, ONE_MILLI);
+			selector.reward(nbs3, 50, ONE_MILLI);
+			List<NeighborhoodStructure> tabuList = Arrays.asList(nbs1, nbs3);
+			for (int i = 0; i < 1000; i++) {
+				assertSame(nbs2, selector.select(tabuList), strategy.name());
+			}
+			assertThrows(WctttAlgorithmFatalException.class,
+					() -> selector.select(nbsList));
+		}
+	}
+
+	@Test
+	void unusedStructuresAreSelectedFirst() {
+		for (NbsSelectionStrategy strategy : Arrays.asList(
+				NbsSelectionStrategy.ROULETTE_WHEEL, NbsSelectionStrategy.UCB,
+				NbsSelectionStrategy.PROBABILITY_MATCHING)) {
+			NeighborhoodSelector selector = new NeighborhoodSelector(nbsList,
+					strategy, new Random(2));
+			selector.reward(nbs1, 1000, ONE_MILLI);
+			selector.reward(nbs3, 1000, ONE_MILLI);
+			assertSame(nbs2, selector.select(null), strategy.name());
+			selector.reward(nbs2, 0, ONE_MILLI);
+			assertSame(nbs3, selector.select(Arrays.asList(nbs1, nbs2)),
+					strategy.name());
+		}
+	}
+
+	@Test
+	void ucbSelectsRarelyUsedStructure() {
+		NeighborhoodSelector selector = new NeighborhoodSelector(nbsList,
+				NbsSelectionStrategy.UCB, new Random(3));
+		for (int i = 0; i < 20; i++) {
+			selector.reward(nbs1, 10, ONE_MILLI);
+			selector.reward(nbs2, 10, ONE_MILLI);
+		}
+		selector.reward(nbs3, 10, ONE_MILLI);
+		// Equal qualities, thus the exploration term decides:
+		for (int i = 0; i < 100; i++) {
+			assertSame(nbs3, selector.select(null));
+		}
+	}
+
+	@Test
+	void probabilityMatchingKeepsMinimumShare() {
+		int selections = 20000;
+		int[] rouletteCounts = countSelections(
+				NbsSelectionStrategy.ROULETTE_WHEEL, selections);
+		int[] matchingCounts = countSelections(
+				NbsSelectionStrategy.PROBABILITY_MATCHING, selections);
+
+		// Structures without any improvement are never selected by the
+		// roulette wheel, but keep 0.1 / 3 of the selections with probability
+		// matching:
+		assertEquals(0, rouletteCounts[1]);
+		assertEquals(0, rouletteCounts[2]);
+		double minShare = 0.1 / nbsList.size();
+		for (int i = 1; i < 3; i++) {
+			assertEquals(minShare, (double) matchingCounts[i] / selections,
+					0.01);
+		}
+	}
+
+	@Test
+	void rewardsAreSmoothedExponentially() {
+		NeighborhoodSelector selector = new NeighborhoodSelector(nbsList,
+				NbsSelectionStrategy.RANDOM, new Random(4));
+		selector.reward(nbs1, 10, ONE_MILLI);
+		assertEquals(10.0, selector.getQuality(nbs1), 1e-9);
+		selector.reward(nbs1, 0, ONE_MILLI);
+		assertEquals(8.0, selector.getQuality(nbs1), 1e-9);
+		// Worsening is treated as no improvement:
+		selector.reward(nbs1, -5, ONE_MILLI);
+		assertEquals(6.4, selector.getQuality(nbs1), 1e-9);
+		// The improvement is related to the CPU time:
+		selector.reward(nbs2, 10, 4 * ONE_MILLI);
+		assertEquals(2.5, selector.getQuality(nbs2), 1e-9);
+		assertEquals(0.0, selector.getQuality(nbs3));
+	}
+
+	@Test
+	void rewardRejectsUnknownStructure() {
+		NeighborhoodSelector selector = new NeighborhoodSelector(nbsList,
+				NbsSelectionStrategy.UCB, new Random(5));
+		assertThrows(IllegalArgumentException.class, () -> selector.reward(
+				new NeighborhoodStructure4(), 1, ONE_MILLI));
+		assertEquals(0.0, selector.getQuality(new NeighborhoodStructure4()));
+	}
+
+	private int[] countSelections(NbsSelectionStrategy strategy,
+	                              int selections) {
+		NeighborhoodSelector selector = new NeighborhoodSelector(nbsList,
+				strategy, new Random(6));
+		selector.reward(nbs1, 100, ONE_MILLI);
+		selector.reward(nbs2, 0, ONE_MILLI);
+		selector.reward(nbs3, 0, ONE_MILLI);
+		int[] counts = new int[nbsList.size()];
+		for (int i = 0; i < selections; i++) {
+			counts[nbsList.indexOf(selector.select(null))]++;
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.binder;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that failures of the background
+ * (de)compression reach the thread that uses the streams.
+ */
+class CompressedStreamsTest {
+
+	@Test
+	void compressionFailureIsPropagatedToWriter() throws IOException {
+		IOException targetFailure = new IOException("Disk full");
+		OutputStream target = new OutputStream() {
+			private int written = 0;
+
+			@Override
+			public void write(int b) throws IOException {
+				// The gzip header is written before the worker is started
+				if (++written > 10) {
+					throw targetFailure;
+				}
+			}
+		};
+		byte[] data = new byte[1024 * 1024];
+		new Random(0).nextBytes(data);
+
+		OutputStream out = CompressedStreams.compressInBackground(target);
+		IOException exception = assertThrows(IOException.class, () -> {
+			for (int i = 0; i < 16; i++) {
+				out.write(data);
+			}
+			out.close();
+		});
+		assertSame(targetFailure, exception.getCause());
+	}
+}
@@ -0,0 +1,353 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.binder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wcttt.lib.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the semester journal persists every
+ * edit, also if a record could not be written, and that it refuses edits as
+ * long as an edit is not persisted.
+ */
+class SemesterJournalTest {
+
+	private static final long EMPTY_JOURNAL_LENGTH = 20;
+
+	private Path directory;
+	private File snapshotFile;
+
+	@BeforeEach
+	void createSnapshot() throws IOException {
+		directory = Files.createTempDirectory("libwcttt-test-journal");
+		snapshotFile = directory.resolve("semester.xml").toFile();
+		Files.copy(new File("src/test/resources/tiny-wiai.xml").toPath(),
+				snapshotFile.toPath());
+	}
+
+	@AfterEach
+	void deleteFiles() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).
+					forEach(File::delete);
+		}
+	}
+
+	@Test
+	void periodAssignmentsAreJournaled() throws WctttBinderException,
+			WctttModelException {
+		SemesterJournal journal = new SemesterJournal(snapshotFile);
+		Semester semester = journal.open();
+		Timetable timetable = semester.getTimetables().get(0);
+		TimetablePeriod from = null;
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				if (from == null && !period.getAssignments().isEmpty()) {
+					from = period;
+				}
+			}
+		}
+		TimetablePeriod to = timetable.getDays().get(4).getPeriods().get(5);
+		TimetableAssignment assignment = from.getAssignments().get(0);
+		from.removeAssignment(assignment);
+		to.addAssignment(assignment);
+		from.getAssignments().clear();
+		SemesterImpl expected = new SemesterImpl(semester);
+		journal.close();
+		assertTrue(journal.getJournalFile().length() > EMPTY_JOURNAL_LENGTH);
+		assertNotEquals(expected, new WctttBinder(snapshotFile).parse());
+
+		journal = new SemesterJournal(snapshotFile);
+		assertEquals(expected, new SemesterImpl(journal.open()));
+		journal.close();
+	}
+
+	@Test
+	void failedRecordIsCutOff() throws WctttBinderException, IOException {
+		FailingJournal journal = new FailingJournal(snapshotFile);
+		Semester semester = journal.open();
+		semester.setName("persisted");
+		long length = journal.getJournalFile().length();
+
+		// Neither the record nor the compaction succeeds:
+		journal.failWrites = true;
+		replaceSnapshotByDirectory();
+		assertThrows(UncheckedIOException.class,
+				() -> semester.setName("not-persisted"));
+		assertEquals(length, journal.getJournalFile().length());
+	}
+
+	@Test
+	void failedRecordIsPersistedByCompaction() throws WctttBinderException {
+		FailingJournal journal = new FailingJournal(snapshotFile);
+		Semester semester = journal.open();
+		semester.setName("journaled");
+		journal.failWrites = true;
+		semester.setName("compacted");
+		assertFalse(journal.failWrites);
+		assertEquals(EMPTY_JOURNAL_LENGTH, journal.getJournalFile().length());
+		assertEquals("compacted", new WctttBinder(snapshotFile).parse().
+				getName());
+
+		semester.setName("journaled-again");
+		assertTrue(journal.getJournalFile().length() > EMPTY_JOURNAL_LENGTH);
+		assertTrue(journal.isPersisted());
+		journal.close();
+		journal = new FailingJournal(snapshotFile);
+		assertEquals("journaled-again", journal.open().getName());
+		journal.close();
+	}
+
+	@Test
+	void editsAreRefusedUntilCompacted() throws WctttBinderException,
+			IOException {
+		FailingJournal journal = new FailingJournal(snapshotFile);
+		Semester semester = journal.open();
+		journal.failWrites = true;
+		Path snapshot = replaceSnapshotByDirectory();
+		assertThrows(UncheckedIOException.class,
+				() -> semester.setName("not-persisted"));
+		assertFalse(journal.isPersisted());
+
+		// Further edits are refused before they change the semester:
+		assertThrows(UncheckedIOException.class,
+				() -> semester.setName("refused"));
+		assertEquals("not-persisted", semester.getName());
+		assertThrows(WctttBinderException.class, journal::compact);
+		assertThrows(UncheckedIOException.class,
+				() -> semester.setName("refused"));
+
+		Files.delete(snapshot.resolve("blocker"));
+		Files.delete(snapshot);
+		journal.failWrites = false;
+		journal.compact();
+		assertTrue(journal.isPersisted());
+		semester.setName("persisted");
+		journal.close();
+		journal = new FailingJournal(snapshotFile);
+		assertEquals("persisted", journal.open().getName());
+		journal.close();
+	}
+
+	@Test
+	void closeCompactsUnpersistedEdits() throws WctttBinderException,
+			IOException {
+		FailingJournal journal = new FailingJournal(snapshotFile);
+		Semester semester = journal.open();
+		journal.failWrites = true;
+		Path snapshot = replaceSnapshotByDirectory();
+		assertThrows(UncheckedIOException.class,
+				() -> semester.setName("not-persisted"));
+		Files.delete(snapshot.resolve("blocker"));
+		Files.delete(snapshot);
+		journal.close();
+		assertEquals("not-persisted", new WctttBinder(snapshotFile).parse().
+				getName());
+	}
+
+	@Test
+	void closeDetectsDriftIfVerified() throws WctttBinderException {
+		SemesterJournal journal = new SemesterJournal(snapshotFile);
+		Semester semester = journal.open();
+		semester.getChairs().get(0).setName("unjournaled");
+		assertFalse(journal.isPersisted());
+		// Not verified, the edit is lost:
+		journal.close();
+		assertNotEquals("unjournaled", new WctttBinder(snapshotFile).parse().
+				getChairs().get(0).getName());
+
+		journal = new SemesterJournal(snapshotFile);
+		journal.setVerifyOnClose(true);
+		semester = journal.open();
+		semester.getChairs().get(0).setName("unjournaled");
+		journal.close();
+		assertEquals("unjournaled", new WctttBinder(snapshotFile).parse().
+				getChairs().get(0).getName());
+		assertEquals(EMPTY_JOURNAL_LENGTH, journal.getJournalFile().length());
+	}
+
+	/**
+	 * Replaces the snapshot by a directory that is not empty, such that the
+	 * snapshot cannot be written anymore.
+	 */
+	private Path replaceSnapshotByDirectory() throws IOException {
+		Path snapshot = snapshotFile.toPath();
+		Files.delete(snapshot);
+		Files.createDirectory(snapshot);
+		Files.createFile(snapshot.resolve("blocker"));
+		return snapshot;
+	}
+
+	/**
+	 * Journal whose record writes can be made to fail after the first byte,
+	 * the failure is reset when the journal is compacted.
+	 */
+	private static class FailingJournal extends SemesterJournal {
+
+		private volatile boolean failWrites = false;
+
+		FailingJournal(File snapshotFile) throws WctttBinderException {
+			super(snapshotFile);
+		}
+
+		@Override
+		FileChannel openChannel() throws IOException {
+			failWrites = false;
+			return new FailingChannel(super.openChannel());
+		}
+
+		private class FailingChannel extends FileChannel {
+
+			private final FileChannel channel;
+
+			FailingChannel(FileChannel channel) {
+				this.channel = channel;
+			}
+
+			@Override
+			public int write(ByteBuffer src) throws IOException {
+				if (failWrites) {
+					if (src.remaining() > 1) {
+						ByteBuffer first = src.duplicate();
+						first.limit(first.position() + 1);
+						channel.write(first);
+					}
+					throw new IOException("Disk full");
+				}
+				return channel.write(src);
+			}
+
+			@Override
+			public int read(ByteBuffer dst) throws IOException {
+				return channel.read(dst);
+			}
+
+			@Override
+			public long read(ByteBuffer[] dsts, int offset, int length)
+					throws IOException {
+				return channel.read(dsts, offset, length);
+			}
+
+			@Override
+			public long write(ByteBuffer[] srcs, int offset, int length)
+					throws IOException {
+				return channel.write(srcs, offset, length);
+			}
+
+			@Override
+			public long position() throws IOException {
+				return channel.position();
+			}
+
+			@Override
+			public FileChannel position(long newPosition) throws IOException {
+				channel.position(newPosition);
+				return this;
+			}
+
+			@Override
+			public long size() throws IOException {
+				return channel.size();
+			}
+
+			@Override
+			public FileChannel truncate(long size) throws IOException {
+				channel.truncate(size);
+				return this;
+			}
+
+			@Override
+			public void force(boolean metaData) throws IOException {
+				channel.force(metaData);
+			}
+
+			@Override
+			public long transferTo(long position, long count,
+			                       WritableByteChannel target)
+					throws IOException {
+				return channel.transferTo(position, count, target);
+			}
+
+			@Override
+			public long transferFrom(ReadableByteChannel src, long position,
+			                         long count) throws IOException {
+				return channel.transferFrom(src, position, count);
+			}
+
+			@Override
+			public int read(ByteBuffer dst, long position) throws IOException {
+				return channel.read(dst, position);
+			}
+
+			@Override
+			public int write(ByteBuffer src, long position)
+					throws IOException {
+				return channel.write(src, position);
+			}
+
+			@Override
+			public MappedByteBuffer map(MapMode mode, long position, long size)
+					throws IOException {
+				return channel.map(mode, position, size);
+			}
+
+			@Override
+			public FileLock lock(long position, long size, boolean shared)
+					throws IOException {
+				return channel.lock(position, size, shared);
+			}
+
+			@Override
+			public FileLock tryLock(long position, long size, boolean shared)
+					throws IOException {
+				return channel.tryLock(position, size, shared);
+			}
+
+			@Override
+			protected void implCloseChannel() throws IOException {
+				channel.close();
+			}
+		}
+	}
+}
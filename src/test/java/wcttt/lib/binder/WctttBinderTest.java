@@ -29,11 +29,21 @@ import org.junit.jupiter.api.Test;
 import wcttt.lib.model.*;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -149,4 +159,147 @@ class WctttBinderTest {
 		assertTrue(Arrays.equals(input, output));
 		Files.delete(outputFile.toPath());
 	}
+
+	@Test
+	void tinyWiaiCopyOutputEqualsInput() throws WctttBinderException,
+			IOException {
+		File inputFile = new File("src/test/resources/tiny-wiai.xml");
+		Semester tinyWiaiSem = new WctttBinder(inputFile).parse();
+
+		File outputFile = new File("libwcttt-test-tiny-wiai-copy-out.xml");
+		new WctttBinder(outputFile).write(new SemesterImpl(tinyWiaiSem));
+
+		byte[] input = Files.readAllBytes(inputFile.toPath());
+		byte[] output = Files.readAllBytes(outputFile.toPath());
+		assertTrue(Arrays.equals(input, output));
+		Files.delete(outputFile.toPath());
+	}
+
+	@Test
+	void failedWriteKeepsPreviousFile() throws WctttBinderException,
+			IOException {
+		Path directory = Files.createTempDirectory("libwcttt-test");
+		try {
+			File file = directory.resolve("semester.xml").toFile();
+			WctttBinder binder = new WctttBinder(file);
+			Semester semester = new WctttBinder(
+					new File("src/test/resources/tiny-wiai.xml")).parse();
+			binder.write(semester);
+			byte[] previous = Files.readAllBytes(file.toPath());
+
+			semester.getChairs().add(new Chair() {
+				@Override
+				public String getName() {
+					throw new IllegalStateException("Crash while writing");
+				}
+			});
+			assertThrows(IllegalStateException.class,
+					() -> binder.write(semester));
+			assertTrue(Arrays.equals(previous,
+					Files.readAllBytes(file.toPath())));
+			try (Stream<Path> files = Files.list(directory)) {
+				assertEquals(List.of(file.toPath()),
+						files.collect(Collectors.toList()));
+			}
+		} finally {
+			try (Stream<Path> files = Files.walk(directory)) {
+				files.sorted(Comparator.reverseOrder()).map(Path::toFile).
+						forEach(File::delete);
+			}
+		}
+	}
+
+	@Test
+	void compressedOutputParsesToInput() throws WctttBinderException,
+			IOException {
+		File inputFile = new File("src/test/resources/tiny-wiai.xml");
+		WctttBinder binderRead = new WctttBinder(inputFile);
+		Semester tinyWiaiSem = binderRead.parse();
+
+		File outputFile = new File("libwcttt-test-tiny-wiai-out.xml.gz");
+		WctttBinder binderCompressed = new WctttBinder(outputFile);
+		binderCompressed.write(tinyWiaiSem);
+
+		byte[] output = Files.readAllBytes(outputFile.toPath());
+		assertEquals((byte) 0x1f, output[0]);
+		assertEquals((byte) 0x8b, output[1]);
+		assertTrue(output.length < inputFile.length());
+
+		// Compression is detected by the magic bytes, not by the extension:
+		File renamedFile = new File("libwcttt-test-tiny-wiai-out.xml");
+		Files.move(outputFile.toPath(), renamedFile.toPath());
+		assertEquals(tinyWiaiSem, new WctttBinder(renamedFile).parse());
+		Files.delete(renamedFile.toPath());
+	}
+
+	@Test
+	void asyncWritesKeepNewestSemester() throws WctttBinderException,
+			WctttModelException, IOException {
+		File file = new File("libwcttt-test-async-semester.xml");
+		WctttBinder binder = new WctttBinder(file);
+
+		Semester semester = new SemesterImpl();
+		List<CompletableFuture<Void>> saves = new ArrayList<>();
+		for (int i = 1; i <= 5; i++) {
+			semester.setName("async-semester-" + i);
+			semester.setDaysPerWeek(i);
+			saves.add(binder.writeAsync(semester));
+		}
+		// Later edits must not affect the snapshots that are written:
+		semester.setName("not-written");
+		saves.forEach(CompletableFuture::join);
+
+		Semester semesterRead = binder.parse();
+		assertEquals("async-semester-5", semesterRead.getName());
+		assertEquals(5, semesterRead.getDaysPerWeek());
+		Files.delete(file.toPath());
+	}
+
+	@Test
+	void journalReplaysEditsOnSnapshot() throws WctttBinderException,
+			WctttModelException, IOException {
+		File file = new File("libwcttt-test-journal-semester.xml");
+		Files.copy(new File("src/test/resources/tiny-wiai.xml").toPath(),
+				file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		SemesterJournal journal = new SemesterJournal(file);
+		Files.deleteIfExists(journal.getJournalFile().toPath());
+		Semester semester = journal.open();
+		semester.setName("journal-semester");
+		Timetable timetable = new Timetable(semester.getTimetables().get(0));
+		timetable.setName("journal-timetable");
+		while (!semester.getTimetables().isEmpty()) {
+			semester.removeTimetable(semester.getTimetables().get(0));
+		}
+		Chair chair = semester.getChairs().get(0);
+		semester.updateChairId(chair, "journal-chair");
+		Teacher teacher = new Teacher("journal-teacher", "Journal Teacher");
+		teacher.addUnavailablePeriod(new Period(1, 2));
+		semester.addTeacherToChair(teacher, chair);
+		Course course = semester.getCourses().get(0);
+		semester.addCourseLecture(new InternalSession("journal-lecture",
+				"Journal Lecture", teacher, course, true, null, 10,
+				new RoomFeatures()), course);
+		semester.addTimetable(timetable);
+		SemesterImpl expected = new SemesterImpl(semester);
+		journal.close();
+
+		// A torn record at the end must be ignored:
+		try (FileOutputStream out = new FileOutputStream(
+				journal.getJournalFile(), true)) {
+			out.write(new byte[]{0, 0, 0, 42, 1, 2, 3});
+		}
+		journal = new SemesterJournal(file);
+		assertEquals(expected, new SemesterImpl(journal.open()));
+		journal.compact();
+		journal.close();
+		assertEquals(expected, new WctttBinder(file).parse());
+		assertEquals(20, journal.getJournalFile().length());
+
+		journal = new SemesterJournal(file);
+		assertEquals(expected, new SemesterImpl(journal.open()));
+		journal.close();
+		Files.delete(journal.getJournalFile().toPath());
+		Files.delete(file.toPath());
+	}
 }
@@ -0,0 +1,201 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the semester builder rejects the same
+ * invalid entities as the add methods of a semester with the same messages.
+ */
+class SemesterBuilderTest {
+
+	/**
+	 * The subset of the add methods that is offered by both, a semester and a
+	 * semester builder.
+	 */
+	private interface Target {
+		void addChair(Chair chair) throws WctttModelException;
+		void addTeacherToChair(Teacher teacher, Chair chair)
+				throws WctttModelException;
+		void addInternalRoom(InternalRoom room) throws WctttModelException;
+		void addCourse(Course course) throws WctttModelException;
+		void addCourseLecture(Session lecture, Course course)
+				throws WctttModelException;
+		void addCurriculum(Curriculum curriculum) throws WctttModelException;
+	}
+
+	private interface Scenario {
+		void run(Target target) throws WctttModelException;
+	}
+
+	@Test
+	void duplicateIdIsRejected() {
+		assertSameMessage(target -> {
+			Chair chair = new Chair("id", "Chair", "C");
+			target.addChair(chair);
+			target.addInternalRoom(new InternalRoom("id", "Room", 10,
+					new RoomFeatures()));
+		});
+		assertSameMessage(target -> {
+			Chair chair = new Chair("chair", "Chair", "C");
+			target.addChair(chair);
+			target.addTeacherToChair(new Teacher("teacher", "Teacher"), chair);
+			target.addTeacherToChair(new Teacher("teacher", "Teacher"), chair);
+		});
+	}
+
+	@Test
+	void chairNotInSemesterIsRejected() {
+		assertSameMessage(target -> {
+			target.addChair(new Chair("chair", "Chair", "C"));
+			target.addTeacherToChair(new Teacher("teacher", "Teacher"),
+					new Chair("other", "Other", "O"));
+		});
+		assertSameMessage(target -> {
+			target.addChair(new Chair("chair", "Chair", "C"));
+			target.addCourse(new Course("course", "Course", "CRS",
+					new Chair("other", "Other", "O"), CourseLevel.Bachelor, 1));
+		});
+	}
+
+	@Test
+	void courseOfCurriculumNotInSemesterIsRejected() {
+		assertSameMessage(target -> {
+			Chair chair = new Chair("chair", "Chair", "C");
+			target.addChair(chair);
+			target.addCourse(new Course("course", "Course", "CRS", chair,
+					CourseLevel.Bachelor, 1));
+			Curriculum curriculum = new Curriculum("curriculum", "Curriculum");
+			curriculum.getCourses().add(new Course("missing", "Missing", "M",
+					chair, CourseLevel.Master, 1));
+			target.addCurriculum(curriculum);
+		});
+	}
+
+	@Test
+	void sessionWithoutTeacherIsRejected() {
+		assertSameMessage(target -> {
+			Chair chair = new Chair("chair", "Chair", "C");
+			target.addChair(chair);
+			Course course = new Course("course", "Course", "CRS", chair,
+					CourseLevel.Bachelor, 1);
+			target.addCourse(course);
+			target.addCourseLecture(new InternalSession("lecture", "Lecture",
+					new Teacher("teacher", "Teacher"), course, false, null,
+					ValidationHelper.STUDENTS_MIN, new RoomFeatures()), course);
+		});
+	}
+
+	/**
+	 * Runs the scenario once against a semester and once against a builder
+	 * and checks that both fail with the same message. Every run creates its
+	 * own entities because the semester modifies them while adding.
+	 */
+	private static void assertSameMessage(Scenario scenario) {
+		Semester semester = new SemesterImpl();
+		WctttModelException expected = assertThrows(
+				WctttModelException.class, () -> scenario.run(new Target() {
+					@Override
+					public void addChair(Chair chair)
+							throws WctttModelException {
+						semester.addChair(chair);
+					}
+
+					@Override
+					public void addTeacherToChair(Teacher teacher, Chair chair)
+							throws WctttModelException {
+						semester.addTeacherToChair(teacher, chair);
+					}
+
+					@Override
+					public void addInternalRoom(InternalRoom room)
+							throws WctttModelException {
+						semester.addInternalRoom(room);
+					}
+
+					@Override
+					public void addCourse(Course course)
+							throws WctttModelException {
+						semester.addCourse(course);
+					}
+
+					@Override
+					public void addCourseLecture(Session lecture, Course course)
+							throws WctttModelException {
+						semester.addCourseLecture(lecture, course);
+					}
+
+					@Override
+					public void addCurriculum(Curriculum curriculum)
+							throws WctttModelException {
+						semester.addCurriculum(curriculum);
+					}
+				}));
+
+		SemesterBuilder builder = new SemesterBuilder();
+		WctttModelException actual = assertThrows(WctttModelException.class,
+				() -> {
+					scenario.run(new Target() {
+						@Override
+						public void addChair(Chair chair) {
+							builder.addChair(chair);
+						}
+
+						@Override
+						public void addTeacherToChair(Teacher teacher,
+						                              Chair chair) {
+							builder.addTeacherToChair(teacher, chair);
+						}
+
+						@Override
+						public void addInternalRoom(InternalRoom room) {
+							builder.addInternalRoom(room);
+						}
+
+						@Override
+						public void addCourse(Course course) {
+							builder.addCourse(course);
+						}
+
+						@Override
+						public void addCourseLecture(Session lecture,
+						                             Course course) {
+							builder.addCourseLecture(lecture, course);
+						}
+
+						@Override
+						public void addCurriculum(Curriculum curriculum) {
+							builder.addCurriculum(curriculum);
+						}
+					});
+					builder.build();
+				});
+		assertEquals(expected.getMessage(), actual.getMessage());
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the id registry of a semester finds
+ * every entity by its current id, no matter whether the entity was added by
+ * the semester methods or directly to the observable lists, and forgets ids
+ * that were changed or whose entities were removed.
+ */
+class SemesterImplTest {
+
+	@Test
+	void entitiesAreFoundById() throws WctttModelException {
+		Semester semester = new SemesterImpl();
+		Fixture fixture = new Fixture(semester);
+		assertSame(fixture.chair, semester.findById("chair").orElse(null));
+		assertSame(fixture.teacher, semester.findById("teacher").orElse(null));
+		assertSame(fixture.room, semester.findById("room").orElse(null));
+		assertSame(fixture.course, semester.findById("course").orElse(null));
+		assertSame(fixture.lecture, semester.findById("lecture",
+				Session.class).orElse(null));
+		assertSame(fixture.curriculum,
+				semester.findById("curriculum").orElse(null));
+		assertTrue(semester.findById("lecture", Course.class).isEmpty());
+		assertTrue(semester.findById("abc").isEmpty());
+	}
+
+	@Test
+	void updatedIdsAreReregistered() throws WctttModelException {
+		Semester semester = new SemesterImpl();
+		Fixture fixture = new Fixture(semester);
+		semester.updateChairId(fixture.chair, "chair2");
+		semester.updateTeacherId(fixture.teacher, fixture.chair, "teacher2");
+		semester.updateRoomId(fixture.room, "room2");
+		semester.updateCourseId(fixture.course, "course2");
+		semester.updateCourseSessionId(fixture.lecture, fixture.course,
+				"lecture2");
+		semester.updateCurriculumId(fixture.curriculum, "curriculum2");
+		for (String id : new String[]{"chair", "teacher", "room", "course",
+				"lecture", "curriculum"}) {
+			assertTrue(semester.findById(id).isEmpty(), id);
+		}
+		assertSame(fixture.chair, semester.findById("chair2").orElse(null));
+		assertSame(fixture.teacher,
+				semester.findById("teacher2").orElse(null));
+		assertSame(fixture.room, semester.findById("room2").orElse(null));
+		assertSame(fixture.course, semester.findById("course2").orElse(null));
+		assertSame(fixture.lecture,
+				semester.findById("lecture2").orElse(null));
+		assertSame(fixture.curriculum,
+				semester.findById("curriculum2").orElse(null));
+
+		// The old ids are available again:
+		Chair chair = new Chair("chair", "Chair", "C");
+		semester.addChair(chair);
+		assertSame(chair, semester.findById("chair").orElse(null));
+	}
+
+	@Test
+	void removedEntitiesAreUnregistered() throws WctttModelException {
+		Semester semester = new SemesterImpl();
+		Fixture fixture = new Fixture(semester);
+		assertTrue(semester.removeCurriculum(fixture.curriculum));
+		assertTrue(semester.removeCourseLecture(fixture.lecture));
+		assertTrue(semester.removeTeacherFromChair(fixture.teacher,
+				fixture.chair));
+		assertTrue(semester.removeInternalRoom(fixture.room));
+		for (String id : new String[]{"curriculum", "lecture", "teacher",
+				"room"}) {
+			assertTrue(semester.findById(id).isEmpty(), id);
+		}
+		assertTrue(semester.findById("course").isPresent());
+		assertTrue(semester.removeCourse(fixture.course));
+		assertTrue(semester.removeChair(fixture.chair));
+		assertTrue(semester.findById("course").isEmpty());
+		assertTrue(semester.findById("chair").isEmpty());
+	}
+
+	@Test
+	void entitiesAddedToListsAreRegistered() throws WctttModelException {
+		Semester semester = new SemesterImpl();
+		Chair chair = new Chair("chair", "Chair", "C");
+		Teacher teacher = new Teacher("teacher", "Teacher");
+		chair.getTeachers().add(teacher);
+		semester.getChairs().add(chair);
+		InternalRoom room = new InternalRoom("room", "Room", 10,
+				new RoomFeatures());
+		semester.getInternalRooms().add(room);
+		Course course = new Course("course", "Course", "C", chair,
+				CourseLevel.Bachelor, 1);
+		Session lecture = new InternalSession("lecture", "Lecture", teacher,
+				course, false, null, 1, new RoomFeatures());
+		course.getLectures().add(lecture);
+		semester.getCourses().add(course);
+		Curriculum curriculum = new Curriculum("curriculum", "Curriculum");
+		semester.getCurricula().add(curriculum);
+
+		assertSame(chair, semester.findById("chair").orElse(null));
+		assertSame(teacher, semester.findById("teacher").orElse(null));
+		assertSame(room, semester.findById("room").orElse(null));
+		assertSame(course, semester.findById("course").orElse(null));
+		assertSame(lecture, semester.findById("lecture").orElse(null));
+		assertSame(curriculum, semester.findById("curriculum").orElse(null));
+		assertThrows(WctttModelException.class,
+				() -> semester.addChair(new Chair("lecture", "Chair", "C")));
+
+		semester.getCourses().remove(course);
+		semester.getChairs().clear();
+		for (String id : new String[]{"chair", "teacher", "course",
+				"lecture"}) {
+			assertTrue(semester.findById(id).isEmpty(), id);
+		}
+		assertTrue(semester.findById("room").isPresent());
+	}
+
+	/**
+	 * A chair with a teacher, a room and a course with a lecture that is part
+	 * of a curriculum, all added by the semester methods.
+	 */
+	private static class Fixture {
+		final Chair chair = new Chair("chair", "Chair", "C");
+		final Teacher teacher = new Teacher("teacher", "Teacher");
+		final InternalRoom room;
+		final Course course;
+		final Session lecture;
+		final Curriculum curriculum =
+				new Curriculum("curriculum", "Curriculum");
+
+		Fixture(Semester semester) throws WctttModelException {
+			semester.addChair(chair);
+			semester.addTeacherToChair(teacher, chair);
+			room = new InternalRoom("room", "Room", 10, new RoomFeatures());
+			semester.addInternalRoom(room);
+			course = new Course("course", "Course", "C", chair,
+					CourseLevel.Bachelor, 1);
+			semester.addCourse(course);
+			lecture = new InternalSession("lecture", "Lecture", teacher, course,
+					false, null, 1, new RoomFeatures());
+			semester.addCourseLecture(lecture, course);
+			curriculum.getCourses().add(course);
+			semester.addCurriculum(curriculum);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.binder.WctttBinderException;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that a semester snapshot rejects every
+ * modification and is not affected by later edits of the original semester.
+ */
+class SemesterSnapshotTest {
+
+	@Test
+	void snapshotRejectsModifications() throws WctttBinderException {
+		SemesterSnapshot snapshot = (SemesterSnapshot) parseSemester().snapshot();
+		Chair chair = snapshot.getChairs().get(0);
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getChairs().add(new Chair()));
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getChairs().remove(chair));
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getInternalRooms().clear());
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getExternalRooms().clear());
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getCourses().remove(0));
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getCurricula().setAll());
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getTimetables().remove(0));
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getTeachers().clear());
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getSessions().clear());
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getSessions(snapshot.getCourses().get(0)).clear());
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.setName("changed"));
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.addChair(new Chair()));
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.removeChair(chair));
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.setConstrWeightings(new ConstraintWeightings()));
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getConstrWeightings().setS1(2.0));
+		assertThrows(UnsupportedOperationException.class,
+				() -> snapshot.getConstrWeightings().setS7(2.0));
+	}
+
+	@Test
+	void snapshotIsNotAffectedByLaterEdits()
+			throws WctttBinderException, WctttModelException {
+		Semester semester = parseSemester();
+		SemesterSnapshot snapshot = (SemesterSnapshot) semester.snapshot();
+		Semester expected = new SemesterImpl(semester);
+		assertEquals(expected.getConstrWeightings(),
+				snapshot.getConstrWeightings());
+
+		TimetablePeriod period = semester.getTimetables().get(0).getDays().
+				get(0).getPeriods().get(0);
+		period.getAssignments().clear();
+		// The timetables must be removed before the semester is edited:
+		while (!semester.getTimetables().isEmpty()) {
+			semester.removeTimetable(semester.getTimetables().get(0));
+		}
+		semester.setName("changed");
+		semester.getConstrWeightings().setS1(
+				semester.getConstrWeightings().getS1() + 1.0);
+		semester.addChair(new Chair("newChair", "New chair", "NC"));
+		Teacher teacher = semester.getChairs().get(0).getTeachers().get(0);
+		semester.updateTeacherData(teacher, "Changed teacher",
+				teacher.getUnfavorablePeriods(),
+				teacher.getUnavailablePeriods());
+		semester.removeCurriculum(semester.getCurricula().get(0));
+
+		assertEquals(expected, new SemesterImpl(snapshot));
+		assertEquals(expected.getName(), snapshot.getName());
+		assertEquals(expected.getConstrWeightings(),
+				snapshot.getConstrWeightings());
+		assertEquals(expected.getChairs().size(), snapshot.getChairs().size());
+		assertFalse(snapshot.findById("newChair").isPresent());
+		assertEquals(expected.getCurricula().size(),
+				snapshot.getCurricula().size());
+		assertEquals(expected.getChairs().get(0).getTeachers().get(0).getName(),
+				snapshot.getTeachers().get(0).getName());
+		assertEquals(expected.getTimetables(), snapshot.getTimetables());
+	}
+
+	private static Semester parseSemester() throws WctttBinderException {
+		return new WctttBinder(new File("src/test/resources/tiny-wiai.xml")).
+				parse();
+	}
+}
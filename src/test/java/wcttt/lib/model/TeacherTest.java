@@ -0,0 +1,99 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the cached period sets of a teacher
+ * reflect every modification of its periods, also the ones that bypass the
+ * add/remove methods of the teacher.
+ */
+class TeacherTest {
+
+	@Test
+	void periodSetReflectsModifiedPeriod() throws WctttModelException {
+		Teacher teacher = new Teacher();
+		Period period = new Period(1, 1);
+		teacher.addUnfavorablePeriod(period);
+		assertEquals(PeriodSet.of(new Period(1, 1)),
+				teacher.getUnfavorablePeriodSet());
+		period.setDay(2);
+		period.setTimeSlot(3);
+		assertEquals(PeriodSet.of(new Period(2, 3)),
+				teacher.getUnfavorablePeriodSet());
+	}
+
+	@Test
+	void periodSetReflectsReplacedPeriods() throws WctttModelException {
+		Teacher teacher = new Teacher();
+		teacher.addUnavailablePeriod(new Period(1, 1));
+		teacher.addUnavailablePeriod(new Period(1, 2));
+		List<Period> periods = teacher.getUnavailablePeriods();
+		assertEquals(PeriodSet.of(new Period(1, 1), new Period(1, 2)),
+				teacher.getUnavailablePeriodSet());
+
+		periods.subList(1, 2).set(0, new Period(3, 4));
+		assertEquals(PeriodSet.of(new Period(1, 1), new Period(3, 4)),
+				teacher.getUnavailablePeriodSet());
+
+		ListIterator<Period> iterator = periods.listIterator();
+		iterator.next();
+		iterator.set(new Period(5, 1));
+		assertEquals(PeriodSet.of(new Period(5, 1), new Period(3, 4)),
+				teacher.getUnavailablePeriodSet());
+
+		Collections.swap(periods, 0, 1);
+		periods.subList(0, 1).clear();
+		assertEquals(PeriodSet.of(new Period(5, 1)),
+				teacher.getUnavailablePeriodSet());
+	}
+
+	@Test
+	void periodSetIsCachedUntilModified() throws WctttModelException {
+		Teacher teacher = new Teacher();
+		Period period = new Period(1, 1);
+		teacher.addUnfavorablePeriod(period);
+		PeriodSet cached = teacher.getUnfavorablePeriodSet();
+		assertSame(cached, teacher.getUnfavorablePeriodSet());
+
+		// Periods that are not part of a cached set do not invalidate it:
+		new Period(2, 2).setDay(3);
+		assertSame(cached, teacher.getUnfavorablePeriodSet());
+
+		period.setTimeSlot(2);
+		PeriodSet modified = teacher.getUnfavorablePeriodSet();
+		assertNotSame(cached, modified);
+		assertEquals(PeriodSet.of(new Period(1, 2)), modified);
+		assertSame(modified, teacher.getUnfavorablePeriodSet());
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.model;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.binder.WctttBinderException;
+
+import javafx.collections.ObservableList;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that a derived timetable and the timetable
+ * it was derived from do not affect each other, whichever of both is changed
+ * and however the assignments of a period are changed.
+ */
+class TimetableTest {
+
+	private static final Map<String, Consumer<ObservableList<TimetableAssignment>>>
+			EDITS = new LinkedHashMap<>();
+
+	static {
+		EDITS.put("add", list -> list.add(list.get(0)));
+		EDITS.put("addAll", list -> list.addAll(new ArrayList<>(list)));
+		EDITS.put("remove", list -> list.remove(0));
+		EDITS.put("set", list -> list.set(0, list.get(list.size() - 1)));
+		EDITS.put("clear", List::clear);
+		EDITS.put("setAll", list -> list.setAll(list.get(0)));
+		EDITS.put("removeIf", list -> list.removeIf(assgmt -> true));
+		EDITS.put("sort", list -> list.sort(Comparator.comparing(
+				(TimetableAssignment assgmt) -> assgmt.getSession().getId()).
+				reversed()));
+		EDITS.put("iterator", list -> {
+			Iterator<TimetableAssignment> iterator = list.iterator();
+			iterator.next();
+			iterator.remove();
+		});
+		EDITS.put("listIterator", list -> {
+			ListIterator<TimetableAssignment> iterator = list.listIterator();
+			iterator.next();
+			iterator.set(list.get(list.size() - 1));
+			iterator.add(list.get(0));
+		});
+		EDITS.put("subList", list -> list.subList(0, 1).clear());
+	}
+
+	@Test
+	void derivedTimetableEqualsOriginal() throws WctttBinderException {
+		for (Timetable timetable : parseSemester().getTimetables()) {
+			Timetable derived = timetable.derive();
+			assertEquals(timetable, derived);
+			assertEquals(timetable, derived.derive());
+		}
+	}
+
+	@Test
+	void editsOfDerivedTimetableDoNotLeak() throws WctttBinderException {
+		for (Map.Entry<String, Consumer<ObservableList<TimetableAssignment>>>
+				edit : EDITS.entrySet()) {
+			Timetable original = occupiedTimetable();
+			Timetable expected = new Timetable(original);
+			Timetable derived = original.derive();
+			edit.getValue().accept(firstOccupiedPeriod(derived).
+					getAssignments());
+			assertNotEquals(expected, derived, edit.getKey());
+			assertEquals(expected, original, edit.getKey());
+		}
+	}
+
+	@Test
+	void editsOfOriginalTimetableDoNotLeak() throws WctttBinderException {
+		for (Map.Entry<String, Consumer<ObservableList<TimetableAssignment>>>
+				edit : EDITS.entrySet()) {
+			Timetable original = occupiedTimetable();
+			Timetable derived = original.derive();
+			Timetable secondDerived = original.derive();
+			Timetable expected = new Timetable(original);
+			edit.getValue().accept(firstOccupiedPeriod(original).
+					getAssignments());
+			assertNotEquals(expected, original, edit.getKey());
+			assertEquals(expected, derived, edit.getKey());
+			assertEquals(expected, secondDerived, edit.getKey());
+		}
+	}
+
+	@Test
+	void sharedListsCopyOnlyOnWrite() {
+		SharedList<String> original = new SharedList<>();
+		original.addAll(Arrays.asList("a", "b", "c"));
+		SharedList<String> derived = new SharedList<>(original);
+		SharedList<String> derivedTwice = new SharedList<>(derived);
+
+		derived.set(0, "x");
+		derivedTwice.remove("c");
+		original.clear();
+		assertEquals(Collections.emptyList(), original);
+		assertEquals(Arrays.asList("x", "b", "c"), derived);
+		assertEquals(Arrays.asList("a", "b"), derivedTwice);
+
+		derived.add("d");
+		assertEquals(Arrays.asList("x", "b", "c", "d"), derived);
+		assertEquals(Arrays.asList("a", "b"), derivedTwice);
+	}
+
+	/**
+	 * Returns a timetable whose first occupied period contains at least two
+	 * distinguishable assignments.
+	 */
+	private static Timetable occupiedTimetable() throws WctttBinderException {
+		for (Timetable timetable : parseSemester().getTimetables()) {
+			if (firstOccupiedPeriod(timetable).getAssignments().size() >= 2) {
+				return timetable;
+			}
+		}
+		throw new IllegalStateException("No suitable timetable");
+	}
+
+	private static TimetablePeriod firstOccupiedPeriod(Timetable timetable) {
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				if (!period.getAssignments().isEmpty()) {
+					return period;
+				}
+			}
+		}
+		throw new IllegalStateException("Timetable is empty");
+	}
+
+	private static Semester parseSemester() throws WctttBinderException {
+		return new WctttBinder(new File("src/test/resources/tiny-wiai.xml")).
+				parse();
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.binder.WctttBinderException;
+import wcttt.lib.model.*;
+
+import java.io.File;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the conflict matrices keyed by the
+ * identity of the entities are equal to the ones keyed by their equality.
+ */
+class ConflictMatrixCalculatorTest {
+
+	@Test
+	void tinyWiaiIdentityMatricesEqualEqualityMatrices()
+			throws WctttBinderException {
+		assertIdentityMatricesEqual(new WctttBinder(
+				new File("src/test/resources/tiny-wiai.xml")).parse());
+	}
+
+	@Test
+	void generatedIdentityMatricesEqualEqualityMatrices() {
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setDoubleSessionRate(0.3);
+		generator.setUnavailablePeriodRate(0.2);
+		generator.setUnfavorablePeriodRate(0.2);
+		assertIdentityMatricesEqual(generator.generate(5));
+	}
+
+	private static void assertIdentityMatricesEqual(Semester semester) {
+		ConflictMatrixCalculator equality =
+				new ConflictMatrixCalculator(semester, false);
+		ConflictMatrixCalculator identity =
+				new ConflictMatrixCalculator(semester, true);
+		assertMatricesEqual(equality.calcSessionSessionConflicts(),
+				identity.calcSessionSessionConflicts(),
+				conflict -> conflict.isSessionConflict() + " " +
+						conflict.isTeacherConflict() + " " +
+						conflict.getCurricula());
+		assertMatricesEqual(equality.calcSessionRoomConflicts(),
+				identity.calcSessionRoomConflicts(),
+				conflict -> conflict.getCapacityDeviation() + " " +
+						conflict.fullfillsFeatures());
+		assertMatricesEqual(equality.calcTeacherPeriodConflicts(),
+				identity.calcTeacherPeriodConflicts(),
+				conflict -> conflict.isUnfavorable() + " " +
+						conflict.isUnavailable());
+	}
+
+	private static <R, C, V> void assertMatricesEqual(
+			Map<R, Map<C, V>> expected, Map<R, Map<C, V>> actual,
+			Function<V, String> describe) {
+		assertFalse(expected.isEmpty());
+		assertEquals(expected.size(), actual.size());
+		for (Map.Entry<R, Map<C, V>> row : expected.entrySet()) {
+			Map<C, V> actualRow = actual.get(row.getKey());
+			assertNotNull(actualRow, row.getKey().toString());
+			assertEquals(row.getValue().size(), actualRow.size());
+			for (Map.Entry<C, V> cell : row.getValue().entrySet()) {
+				assertTrue(actualRow.containsKey(cell.getKey()));
+				V actualCell = actualRow.get(cell.getKey());
+				if (cell.getValue() == null) {
+					assertNull(actualCell);
+				} else {
+					assertEquals(describe.apply(cell.getValue()),
+							describe.apply(actualCell),
+							row.getKey() + " / " + cell.getKey());
+				}
+			}
+		}
+	}
+}
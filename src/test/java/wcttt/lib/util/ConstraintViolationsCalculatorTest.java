@@ -0,0 +1,257 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.algorithms.WctttAlgorithmException;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.SaturationDegreeHeuristic;
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.binder.WctttBinderException;
+import wcttt.lib.model.*;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprises unit tests to ensure that the soft constraint penalty of the
+ * constraint violations calculator matches the stored penalties of the test
+ * semester and a straightforward calculation of every soft constraint, also
+ * for infeasible timetables.
+ */
+class ConstraintViolationsCalculatorTest {
+
+	@Test
+	void penaltyMatchesStoredPenalties() throws WctttBinderException {
+		Semester semester = new WctttBinder(
+				new File("src/test/resources/tiny-wiai.xml")).parse();
+		ConstraintViolationsCalculator calculator =
+				new ConstraintViolationsCalculator(semester);
+		for (Timetable timetable : semester.getTimetables()) {
+			assertEquals(timetable.getSoftConstraintPenalty(),
+					calculator.calcTimetablePenalty(timetable), 1e-9);
+		}
+	}
+
+	@Test
+	void penaltyMatchesReferenceForInfeasibleTimetables()
+			throws WctttAlgorithmException, WctttModelException {
+		Random random = new Random(7);
+		for (int courses : new int[]{5, 15, 30}) {
+			SemesterGenerator generator = new SemesterGenerator();
+			generator.setCourses(courses);
+			generator.setDoubleSessionRate(0.2);
+			Semester semester = generator.generate(courses);
+			ConstraintViolationsCalculator calculator =
+					new ConstraintViolationsCalculator(semester);
+			Timetable timetable = new SaturationDegreeHeuristic(semester).
+					generateFeasibleSolutions(1, new AtomicBoolean(false)).get(0);
+			List<TimetablePeriod> periods = new ArrayList<>();
+			timetable.getDays().forEach(day -> periods.addAll(day.getPeriods()));
+			for (int i = 0; i < 100; i++) {
+				ConstraintWeightings weightings = semester.getConstrWeightings();
+				weightings.setS1(random.nextInt(5));
+				weightings.setS3(random.nextInt(5));
+				weightings.setS6(random.nextInt(5));
+				assertEquals(referencePenalty(semester, timetable),
+						calculator.calcTimetablePenalty(timetable), 1e-9);
+				moveRandomAssignment(periods, random);
+			}
+		}
+	}
+
+	/**
+	 * Moves an assignment to a random period, ignoring the hard constraints.
+	 */
+	static void moveRandomAssignment(List<TimetablePeriod> periods,
+	                                 Random random) throws WctttModelException {
+		TimetablePeriod from = periods.get(random.nextInt(periods.size()));
+		if (from.getAssignments().isEmpty()) {
+			return;
+		}
+		TimetableAssignment assignment = from.getAssignments().get(
+				random.nextInt(from.getAssignments().size()));
+		TimetablePeriod to = periods.get(random.nextInt(periods.size()));
+		if (!to.getAssignments().contains(assignment)) {
+			from.removeAssignment(assignment);
+			to.addAssignment(assignment);
+		}
+	}
+
+	private static double referencePenalty(Semester semester,
+	                                       Timetable timetable) {
+		ConstraintWeightings weightings = semester.getConstrWeightings();
+		int s1 = 0, s2 = 0, s3 = 0, s4 = 0, s5 = 0, s6 = 0, s7 = 0;
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				for (TimetableAssignment assgmt : period.getAssignments()) {
+					s1 += capacityDeviation(assgmt);
+					s3 += isolatedLectures(semester, timetable, period, assgmt);
+					if (assgmt.getSession().getTeacher().
+							getUnfavorablePeriodSet().contains(period)) {
+						s5++;
+					}
+				}
+			}
+			s6 += teacherWindows(day);
+		}
+		for (Course course : semester.getCourses()) {
+			s2 += Math.max(0, course.getMinNumberOfDays() -
+					((ValidationHelper.DAYS_PER_WEEK_MAX -
+							ValidationHelper.PERIOD_DAY_MIN) + 1));
+			s4 += roomChanges(course, timetable);
+		}
+		for (Curriculum curriculum : semester.getCurricula()) {
+			s7 += excessLectures(semester, curriculum, timetable);
+		}
+		return weightings.getS1() * (s1 + s7) + weightings.getS2() * s2 +
+				weightings.getS3() * s3 + weightings.getS4() * s4 +
+				weightings.getS5() * s5 + weightings.getS6() * s6;
+	}
+
+	private static int capacityDeviation(TimetableAssignment assgmt) {
+		if (assgmt.getRoom() instanceof InternalRoom &&
+				assgmt.getSession() instanceof InternalSession) {
+			return Math.abs(((InternalRoom) assgmt.getRoom()).getCapacity() -
+					((InternalSession) assgmt.getSession()).getStudents());
+		}
+		return 0;
+	}
+
+	private static boolean isCurriculumLecture(Curriculum curriculum,
+	                                           TimetableAssignment assgmt) {
+		return assgmt.getSession().isLecture() &&
+				curriculum.getCourses().contains(assgmt.getSession().getCourse());
+	}
+
+	private static int isolatedLectures(Semester semester, Timetable timetable,
+	                                    TimetablePeriod period,
+	                                    TimetableAssignment assgmt) {
+		if (semester.getTimeSlotsPerDay() == 1) {
+			return 0;
+		}
+		List<TimetablePeriod> dayPeriods =
+				timetable.getDays().get(period.getDay() - 1).getPeriods();
+		int counter = 0;
+		for (Curriculum curriculum : semester.getCurricula()) {
+			if (!isCurriculumLecture(curriculum, assgmt)) {
+				continue;
+			}
+			boolean adjacent = false;
+			for (int slot : new int[]{period.getTimeSlot() - 1,
+					period.getTimeSlot() + 1}) {
+				if (slot < 1 || slot > semester.getTimeSlotsPerDay()) {
+					continue;
+				}
+				for (TimetableAssignment other :
+						dayPeriods.get(slot - 1).getAssignments()) {
+					adjacent |= isCurriculumLecture(curriculum, other);
+				}
+			}
+			if (!adjacent) {
+				counter++;
+			}
+		}
+		return counter;
+	}
+
+	private static int roomChanges(Course course, Timetable timetable) {
+		int counter = 0;
+		Room room = null;
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				for (TimetableAssignment assgmt : period.getAssignments()) {
+					if (assgmt.getSession().getCourse().equals(course) &&
+							assgmt.getSession().isLecture()) {
+						if (room == null) {
+							room = assgmt.getRoom();
+						} else if (!room.equals(assgmt.getRoom())) {
+							counter++;
+						}
+					}
+				}
+			}
+		}
+		return counter;
+	}
+
+	/**
+	 * Counts the time slots of the blocks of more than two consecutive time
+	 * slots in which a teacher is active. A block that lasts until the end of
+	 * the day is counted once for every start of a block of more than two
+	 * time slots within it, like in the original calculation.
+	 */
+	private static int teacherWindows(TimetableDay day) {
+		Map<Teacher, boolean[]> active = new HashMap<>();
+		int slots = day.getPeriods().size();
+		for (TimetablePeriod period : day.getPeriods()) {
+			for (TimetableAssignment assgmt : period.getAssignments()) {
+				active.computeIfAbsent(assgmt.getSession().getTeacher(),
+						teacher -> new boolean[slots])[period.getTimeSlot() - 1] =
+						true;
+			}
+		}
+		int counter = 0;
+		for (boolean[] slotsActive : active.values()) {
+			for (int i = 0; i < slots - 2; i++) {
+				if (!slotsActive[i]) {
+					continue;
+				}
+				int end = i;
+				while (end < slots && slotsActive[end]) {
+					end++;
+				}
+				if (end - i > 2) {
+					counter += end - i;
+					if (end < slots) {
+						i = end;
+					}
+				}
+			}
+		}
+		return counter;
+	}
+
+	private static int excessLectures(Semester semester, Curriculum curriculum,
+	                                  Timetable timetable) {
+		int counter = 0;
+		for (TimetableDay day : timetable.getDays()) {
+			int lectures = 0;
+			for (TimetablePeriod period : day.getPeriods()) {
+				for (TimetableAssignment assgmt : period.getAssignments()) {
+					if (isCurriculumLecture(curriculum, assgmt)) {
+						lectures++;
+					}
+				}
+			}
+			counter += Math.max(0,
+					lectures - semester.getMaxDailyLecturesPerCur());
+		}
+		return counter;
+	}
+}
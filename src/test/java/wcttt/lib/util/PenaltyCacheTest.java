@@ -0,0 +1,181 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Test;
+import wcttt.lib.algorithms.WctttAlgorithmException;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.SaturationDegreeHeuristic;
+import wcttt.lib.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the penalty cache evicts the least
+ * recently used penalties, returns the penalties of the constraint violations
+ * calculator and never keeps penalties that are based on outdated constraint
+ * weightings.
+ */
+class PenaltyCacheTest {
+
+	@Test
+	void leastRecentlyUsedPenaltyIsEvicted() {
+		Semester semester = new SemesterGenerator().generate(1);
+		ProblemIndex index = new ProblemIndex(semester);
+		PenaltyCache cache = new PenaltyCache(index, 2);
+		assertTrue(cache.put(1, 1.0, index));
+		assertTrue(cache.put(2, 2.0, index));
+		assertEquals(1.0, cache.lookup(1).getAsDouble());
+		assertTrue(cache.put(3, 3.0, index));
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertFalse(cache.lookup(2).isPresent());
+		assertEquals(1.0, cache.lookup(1).getAsDouble());
+		assertEquals(3.0, cache.lookup(3).getAsDouble());
+		assertEquals(3, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	void cachedPenaltiesMatchCalculator()
+			throws WctttAlgorithmException, WctttModelException {
+		Semester semester = generateSemester();
+		ConstraintViolationsCalculator calculator =
+				new ConstraintViolationsCalculator(semester);
+		PenaltyCache cache = new PenaltyCache(new ProblemIndex(semester), 8);
+		Timetable timetable = generateTimetable(semester);
+		List<TimetablePeriod> periods = new ArrayList<>();
+		timetable.getDays().forEach(day -> periods.addAll(day.getPeriods()));
+		Random random = new Random(11);
+		for (int i = 0; i < 20; i++) {
+			double penalty = calculator.calcTimetablePenalty(timetable);
+			assertEquals(penalty, cache.calcTimetablePenalty(timetable));
+			assertEquals(penalty, cache.calcTimetablePenalty(timetable));
+			ConstraintViolationsCalculatorTest.moveRandomAssignment(periods,
+					random);
+		}
+		// Moves that do not change the timetable lead to additional hits:
+		assertTrue(cache.getHits() >= 20);
+		assertEquals(40, cache.getHits() + cache.getMisses());
+	}
+
+	@Test
+	void weightingChangeInvalidatesCache()
+			throws WctttAlgorithmException, WctttModelException {
+		Semester semester = generateSemester();
+		ConstraintViolationsCalculator calculator =
+				new ConstraintViolationsCalculator(semester);
+		PenaltyCache cache = new PenaltyCache(new ProblemIndex(semester), 8);
+		Timetable timetable = generateTimetable(semester);
+		cache.calcTimetablePenalty(timetable);
+		assertEquals(1, cache.size());
+
+		ConstraintWeightings weightings = semester.getConstrWeightings();
+		weightings.setS1(weightings.getS1() + 1.0);
+		weightings.setS6(weightings.getS6() + 2.0);
+		assertEquals(calculator.calcTimetablePenalty(timetable),
+				cache.calcTimetablePenalty(timetable));
+		assertEquals(1, cache.getInvalidations());
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void penaltyOfOutdatedIndexIsNotCached()
+			throws WctttAlgorithmException, WctttModelException {
+		Semester semester = generateSemester();
+		ProblemIndex index = new ProblemIndex(semester);
+		PenaltyCache cache = new PenaltyCache(index, 8);
+		Timetable timetable = generateTimetable(semester);
+		SolutionState state = new SolutionState(index, timetable);
+		long hash = index.hash(timetable);
+
+		ConstraintWeightings weightings = semester.getConstrWeightings();
+		weightings.setS3(weightings.getS3() + 1.0);
+		assertFalse(cache.put(hash, state.getPenalty(), index));
+		assertFalse(cache.lookup(hash).isPresent());
+		assertEquals(0, cache.size());
+
+		ProblemIndex currentIndex = new ProblemIndex(semester);
+		SolutionState currentState = new SolutionState(currentIndex, timetable);
+		assertTrue(cache.put(hash, currentState.getPenalty(),
+				currentIndex));
+		assertEquals(new ConstraintViolationsCalculator(semester).
+				calcTimetablePenalty(timetable), cache.lookup(hash).getAsDouble(),
+				1e-9);
+	}
+
+	@Test
+	void penaltyCalculatedDuringWeightingChangeIsNotCached()
+			throws WctttAlgorithmException {
+		Semester semester = generateSemester();
+		ProblemIndex index = new ProblemIndex(semester);
+		PenaltyCache cache = new PenaltyCache(index, 8);
+		Timetable generated = generateTimetable(semester);
+		long hash = index.hash(generated);
+		ConstraintWeightings weightings = semester.getConstrWeightings();
+		// Changes the weightings as soon as the calculation reads the
+		// timetable, i.e. after the cache checked them:
+		Timetable timetable = new Timetable(generated) {
+			private boolean changed = false;
+
+			@Override
+			public ObservableList<TimetableDay> getDays() {
+				if (!changed) {
+					changed = true;
+					try {
+						weightings.setS1(weightings.getS1() + 1.0);
+					} catch (WctttModelException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+				return super.getDays();
+			}
+		};
+
+		cache.calcAndPut(timetable, hash);
+		assertFalse(cache.lookup(hash).isPresent());
+		assertEquals(1, cache.getInvalidations());
+		assertEquals(0, cache.size());
+	}
+
+	private static Semester generateSemester() {
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setCourses(10);
+		return generator.generate(3);
+	}
+
+	private static Timetable generateTimetable(Semester semester)
+			throws WctttAlgorithmException {
+		return new SaturationDegreeHeuristic(semester).generateFeasibleSolutions(
+				1, new AtomicBoolean(false)).get(0);
+	}
+}
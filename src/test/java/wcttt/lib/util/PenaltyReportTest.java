@@ -0,0 +1,137 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.algorithms.WctttAlgorithmException;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.SaturationDegreeHeuristic;
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.binder.WctttBinderException;
+import wcttt.lib.model.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the penalty report is consistent with
+ * the penalty of the constraint violations calculator.
+ */
+class PenaltyReportTest {
+
+	@Test
+	void reportMatchesStoredPenalties() throws WctttBinderException {
+		Semester semester = new WctttBinder(
+				new File("src/test/resources/tiny-wiai.xml")).parse();
+		ConstraintViolationsCalculator calculator =
+				new ConstraintViolationsCalculator(semester);
+		for (Timetable timetable : semester.getTimetables()) {
+			PenaltyReport report = calculator.calcPenaltyReport(timetable, 3);
+			assertEquals(timetable.getSoftConstraintPenalty(),
+					report.getTotalPenalty(), 1e-9);
+			assertReportConsistent(report, 3);
+		}
+		PenaltyReport report = calculator.calcPenaltyReport(
+				semester.getTimetables().get(0), 0);
+		for (ConstraintType type : ConstraintType.values()) {
+			assertTrue(report.getHotSpots(type).isEmpty());
+		}
+	}
+
+	@Test
+	void reportMatchesPenaltyForInfeasibleTimetables()
+			throws WctttAlgorithmException, WctttModelException {
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setCourses(20);
+		Semester semester = generator.generate(5);
+		ConstraintViolationsCalculator calculator =
+				new ConstraintViolationsCalculator(semester);
+		Timetable timetable = new SaturationDegreeHeuristic(semester).
+				generateFeasibleSolutions(1, new AtomicBoolean(false)).get(0);
+		List<TimetablePeriod> periods = new ArrayList<>();
+		timetable.getDays().forEach(day -> periods.addAll(day.getPeriods()));
+		Random random = new Random(3);
+		for (int i = 0; i < 100; i++) {
+			double penalty = calculator.calcTimetablePenalty(timetable);
+			PenaltyReport full =
+					calculator.calcPenaltyReport(timetable, Integer.MAX_VALUE);
+			PenaltyReport top = calculator.calcPenaltyReport(timetable, 3);
+			assertEquals(penalty, full.getTotalPenalty());
+			assertEquals(penalty, top.getTotalPenalty());
+			assertReportConsistent(full, Integer.MAX_VALUE);
+			for (ConstraintType type : ConstraintType.values()) {
+				// Hot spots account for all violations:
+				long violations = 0;
+				for (PenaltyReport.HotSpot hotSpot : full.getHotSpots(type)) {
+					violations += hotSpot.getViolations();
+				}
+				assertEquals(full.getViolations(type), violations);
+				// The top hot spots are a prefix of all hot spots:
+				List<PenaltyReport.HotSpot> allHotSpots = full.getHotSpots(type);
+				List<PenaltyReport.HotSpot> topHotSpots = top.getHotSpots(type);
+				assertEquals(Math.min(3, allHotSpots.size()), topHotSpots.size());
+				for (int j = 0; j < topHotSpots.size(); j++) {
+					assertSame(allHotSpots.get(j).getEntity(),
+							topHotSpots.get(j).getEntity());
+					assertEquals(allHotSpots.get(j).getViolations(),
+							topHotSpots.get(j).getViolations());
+				}
+			}
+			ConstraintViolationsCalculatorTest.moveRandomAssignment(periods,
+					random);
+		}
+	}
+
+	/**
+	 * Checks that the penalties of the constraints sum up to the total
+	 * penalty and that the hot spots are ordered and weighted correctly.
+	 */
+	private void assertReportConsistent(PenaltyReport report, int hotSpots) {
+		double penalty = 0.0;
+		for (ConstraintType type : ConstraintType.values()) {
+			penalty += report.getPenalty(type);
+			List<PenaltyReport.HotSpot> typeHotSpots = report.getHotSpots(type);
+			assertTrue(typeHotSpots.size() <= hotSpots);
+			for (int i = 0; i < typeHotSpots.size(); i++) {
+				PenaltyReport.HotSpot hotSpot = typeHotSpots.get(i);
+				assertTrue(hotSpot.getViolations() > 0);
+				assertEquals(report.getPenalty(type) /
+								report.getViolations(type) *
+								hotSpot.getViolations(),
+						hotSpot.getPenalty(), 1e-9);
+				if (i > 0) {
+					assertTrue(typeHotSpots.get(i - 1).getViolations() >=
+							hotSpot.getViolations());
+				}
+			}
+		}
+		assertEquals(report.getTotalPenalty(), penalty, 1e-9);
+	}
+}
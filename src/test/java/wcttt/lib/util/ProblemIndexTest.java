@@ -0,0 +1,184 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.algorithms.AlgorithmTestHelper;
+import wcttt.lib.algorithms.WctttAlgorithmException;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.SaturationDegreeHeuristic;
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.binder.WctttBinderException;
+import wcttt.lib.model.*;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the period domains of the problem
+ * index contain exactly the periods a session can start in, with respect to
+ * the constraints that are checked before and propagated from sessions with
+ * a single possible period, and that they never exclude a feasible period.
+ */
+class ProblemIndexTest {
+
+	@Test
+	void periodDomainsAreReducedByConstraints() throws WctttModelException {
+		SemesterImpl semester = new SemesterImpl();
+		semester.setDaysPerWeek(3);
+		semester.setTimeSlotsPerDay(4);
+		Chair chair = new Chair("chair", "Chair", "C");
+		semester.addChair(chair);
+		Teacher t1 = addTeacher(semester, chair, "t1");
+		t1.addUnavailablePeriod(new Period(1, 2));
+		Teacher t2 = addTeacher(semester, chair, "t2");
+		Teacher t3 = addTeacher(semester, chair, "t3");
+		Teacher t4 = addTeacher(semester, chair, "t4");
+		Teacher t5 = addTeacher(semester, chair, "t5");
+		semester.addInternalRoom(new InternalRoom("room", "Room", 100,
+				new RoomFeatures()));
+		Course a = addCourse(semester, chair, "a");
+		Course b = addCourse(semester, chair, "b");
+		Course d = addCourse(semester, chair, "d");
+		Course e = addCourse(semester, chair, "e");
+		Curriculum curriculum = new Curriculum("curriculum", "Curriculum");
+		curriculum.getCourses().add(b);
+		curriculum.getCourses().add(d);
+		semester.addCurriculum(curriculum);
+
+		// Double lecture, h7 for both halves, the last slots and the h6/h8
+		// propagation of a2 remove all periods but day 1 slot 3 and day 2:
+		Session a1 = addLecture(semester, a, "a1", t1, true, null);
+		// Single lecture pre-assigned to the last slot of day 3 (h9):
+		Session a2 = addLecture(semester, a, "a2", t1, false,
+				new Period(3, 4));
+		// Pre-assigned lecture that blocks the others (h9):
+		Session b1 = addLecture(semester, b, "b1", t2, false,
+				new Period(2, 2));
+		// Another lecture of the same course loses day 2 (h8):
+		Session b2 = addLecture(semester, b, "b2", t3, false, null);
+		// The only practical of the course loses the period of b1 (h1):
+		Session bp = new InternalSession("bp", "bp", t3, b, false, null, 1,
+				new RoomFeatures());
+		semester.addCoursePractical(bp, b);
+		// Double lecture of the same curriculum can neither start in the
+		// period of b1 nor directly before it (h4):
+		Session d1 = addLecture(semester, d, "d1", t4, true, null);
+		// Same teacher as b1 (h6):
+		Session e1 = addLecture(semester, e, "e1", t2, false, null);
+		// Not related to any fixed session:
+		Session e2 = addLecture(semester, e, "e2", t5, false, null);
+
+		ProblemIndex index = new ProblemIndex(semester);
+		assertDomain(index, a1, p(1, 3), p(2, 1), p(2, 2), p(2, 3));
+		assertDomain(index, a2, p(3, 4));
+		assertDomain(index, b1, p(2, 2));
+		assertDomain(index, b2, p(1, 1), p(1, 2), p(1, 3), p(1, 4),
+				p(3, 1), p(3, 2), p(3, 3), p(3, 4));
+		assertDomain(index, bp, p(1, 1), p(1, 2), p(1, 3), p(1, 4),
+				p(2, 1), p(2, 3), p(2, 4),
+				p(3, 1), p(3, 2), p(3, 3), p(3, 4));
+		assertDomain(index, d1, p(1, 1), p(1, 2), p(1, 3), p(2, 3),
+				p(3, 1), p(3, 2), p(3, 3));
+		assertDomain(index, e1, p(1, 1), p(1, 2), p(1, 3), p(1, 4),
+				p(2, 1), p(2, 3), p(2, 4),
+				p(3, 1), p(3, 2), p(3, 3), p(3, 4));
+		assertEquals(12, Long.bitCount(index.getPeriodDomain(
+				index.indexOf(e2))));
+	}
+
+	@Test
+	void feasibleTimetablesAreWithinDomains() throws WctttBinderException,
+			WctttAlgorithmException {
+		assertWithinDomains(new WctttBinder(
+				new File("src/test/resources/tiny-wiai.xml")).parse());
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setDoubleSessionRate(0.3);
+		generator.setPreAssignmentRate(0.2);
+		generator.setUnavailablePeriodRate(0.2);
+		assertWithinDomains(generator.generate(13));
+	}
+
+	private static void assertWithinDomains(Semester semester)
+			throws WctttAlgorithmException {
+		ProblemIndex index = new ProblemIndex(semester);
+		for (Timetable timetable : new SaturationDegreeHeuristic(semester).
+				generateFeasibleSolutions(3, new AtomicBoolean(false))) {
+			AlgorithmTestHelper.assertFeasible(semester, timetable);
+			SolutionState state = new SolutionState(index, timetable);
+			for (int session = 0; session < index.getSessionCount();
+			     session++) {
+				assertTrue(index.isInDomain(session, state.getPeriod(session)),
+						index.getSession(session).getId());
+			}
+		}
+	}
+
+	private static Teacher addTeacher(Semester semester, Chair chair,
+	                                  String id) throws WctttModelException {
+		Teacher teacher = new Teacher(id, id);
+		semester.addTeacherToChair(teacher, chair);
+		return teacher;
+	}
+
+	private static Course addCourse(Semester semester, Chair chair, String id)
+			throws WctttModelException {
+		Course course = new Course(id, id, id, chair, CourseLevel.Bachelor, 1);
+		semester.addCourse(course);
+		return course;
+	}
+
+	private static Session addLecture(Semester semester, Course course,
+	                                  String id, Teacher teacher,
+	                                  boolean doubleSession,
+	                                  Period preAssignment)
+			throws WctttModelException {
+		Session lecture = new InternalSession(id, id, teacher, course,
+				doubleSession, preAssignment, 1, new RoomFeatures());
+		semester.addCourseLecture(lecture, course);
+		return lecture;
+	}
+
+	private static Period p(int day, int timeSlot) {
+		try {
+			return new Period(day, timeSlot);
+		} catch (WctttModelException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	private static void assertDomain(ProblemIndex index, Session session,
+	                                 Period... periods) {
+		long expected = 0;
+		for (Period period : periods) {
+			expected |= 1L << index.toPeriod(period);
+		}
+		assertEquals(index.toPeriodSet(expected), index.toPeriodSet(
+				index.getPeriodDomain(index.indexOf(session))),
+				session.getId());
+	}
+}
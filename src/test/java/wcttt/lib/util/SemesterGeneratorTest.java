@@ -0,0 +1,69 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.binder.WctttBinder;
+import wcttt.lib.binder.WctttBinderException;
+import wcttt.lib.model.Semester;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Comprises unit tests to ensure that the generated semesters are
+ * reproducible and valid.
+ */
+class SemesterGeneratorTest {
+
+	@Test
+	void sameSeedGeneratesSameSemester() {
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setCourses(50);
+		generator.setPreAssignmentRate(0.2);
+		generator.setExternalSessionRate(0.1);
+		assertEquals(generator.generate(42), generator.generate(42));
+		assertNotEquals(generator.generate(42), generator.generate(43));
+	}
+
+	@Test
+	void generatedSemesterWritesAndParses() throws WctttBinderException,
+			IOException {
+		File file = new File("libwcttt-test-generated-semester.xml");
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setDoubleSessionRate(0.5);
+		generator.setPreAssignmentRate(0.5);
+		generator.generate(7, file);
+
+		Semester semesterRead = new WctttBinder(file).parse();
+		assertEquals(generator.generate(7), semesterRead);
+		Files.delete(file.toPath());
+	}
+}
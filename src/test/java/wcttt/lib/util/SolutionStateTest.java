@@ -0,0 +1,169 @@
+/*
+ * WCT³ (WIAI Course Timetabling Tool) is a software that strives to automate
+ * the timetabling process at the WIAI faculty of the University of Bamberg.
+ *
+ * libwcttt comprises the data model, a binder (parser + emitter) to store the
+ * data as XML files, the implementations of the algorithms as well as
+ * functionality to calculate conflicts and their violations.
+ *
+ * Copyright (C) 2018 Nicolas Gross
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package wcttt.lib.util;
+
+import org.junit.jupiter.api.Test;
+import wcttt.lib.algorithms.WctttAlgorithmException;
+import wcttt.lib.algorithms.tabu_based_memetic_approach.*;
+import wcttt.lib.model.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprises unit tests to ensure that the incrementally calculated penalty of
+ * a solution state is equal to the one of the constraint violations
+ * calculator, that sampled moves are feasible and that only changed periods
+ * are written back to a timetable.
+ */
+class SolutionStateTest {
+
+	private static final List<ConstraintType> SYMMETRIC_HARD_CONSTRAINTS =
+			Arrays.asList(ConstraintType.h3, ConstraintType.h6,
+					ConstraintType.h7, ConstraintType.h8, ConstraintType.h9,
+					ConstraintType.h10);
+
+	@Test
+	void penaltyMatchesCalculatorAfterMoves() throws WctttAlgorithmException,
+			WctttModelException {
+		SemesterGenerator generator = new SemesterGenerator();
+		generator.setDoubleSessionRate(0.2);
+		generator.setPreAssignmentRate(0.1);
+		Semester semester = generator.generate(11);
+		Timetable initial = new SaturationDegreeHeuristic(semester).
+				generateFeasibleSolutions(1, new AtomicBoolean(false)).get(0);
+		ConstraintViolationsCalculator calculator =
+				new ConstraintViolationsCalculator(semester);
+
+		SolutionState state =
+				new SolutionState(new ProblemIndex(semester), initial);
+		assertEquals(calculator.calcTimetablePenalty(initial),
+				state.getPenalty(), 1e-9);
+
+		List<NeighborhoodStructure> nbsList = Arrays.asList(
+				new NeighborhoodStructure1(), new NeighborhoodStructure2(),
+				new NeighborhoodStructure3(), new NeighborhoodStructure4(),
+				new NeighborhoodStructure5(), new NeighborhoodStructure6(),
+				new NeighborhoodStructure7(), new NeighborhoodStructure8());
+		Random random = new Random(3);
+		for (int i = 0; i < 2000; i++) {
+			Move move = nbsList.get(random.nextInt(nbsList.size())).sample(
+					state, random);
+			if (move == null) {
+				continue;
+			}
+			double expected = state.getPenalty() + state.delta(move);
+			move.apply();
+			assertEquals(expected, state.getPenalty(), 1e-9);
+			if (random.nextBoolean()) {
+				move.undo();
+			}
+			if (i % 100 == 0) {
+				assertStateMatchesCalculator(state, calculator);
+			}
+		}
+		assertStateMatchesCalculator(new SolutionState(state), calculator);
+
+		double penalty = state.getPenalty();
+		RoomAssignmentOptimizer.optimize(state);
+		assertTrue(state.getPenalty() <= penalty);
+		assertStateMatchesCalculator(state, calculator);
+	}
+
+	@Test
+	void writeToOnlyRewritesChangedPeriods() throws WctttAlgorithmException {
+		Semester semester = new SemesterGenerator().generate(12);
+		Timetable initial = new SaturationDegreeHeuristic(semester).
+				generateFeasibleSolutions(1, new AtomicBoolean(false)).get(0);
+		Timetable expectedInitial = new Timetable(initial);
+		ProblemIndex index = new ProblemIndex(semester);
+		Timetable derived = initial.derive();
+		SolutionState state = new SolutionState(index, derived);
+		state.clearChangedPeriods();
+		assertEquals(0, state.getChangedPeriods());
+
+		NeighborhoodStructure nbs = new NeighborhoodStructure5();
+		Random random = new Random(5);
+		int applied = 0;
+		while (applied < 3) {
+			Move move = nbs.sample(state, random);
+			if (move != null) {
+				move.apply();
+				applied++;
+			}
+		}
+		long changed = state.getChangedPeriods();
+		assertNotEquals(0, changed);
+		state.writeTo(derived, changed);
+
+		// The order of the assignments within a period may differ:
+		Timetable expected = state.toTimetable();
+		for (int i = 0; i < expected.getDays().size(); i++) {
+			for (int j = 0; j < semester.getTimeSlotsPerDay(); j++) {
+				assertEquals(new HashSet<>(expected.getDays().get(i).
+						getPeriods().get(j).getAssignments()),
+						new HashSet<>(derived.getDays().get(i).getPeriods().
+								get(j).getAssignments()));
+			}
+		}
+		assertEquals(state.getPenalty(), derived.getSoftConstraintPenalty());
+		assertEquals(expectedInitial, initial);
+		for (TimetableDay day : derived.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				if ((changed & (1L << index.toPeriod(period))) == 0) {
+					assertEquals(initial.getDays().get(day.getDay() - 1).
+							getPeriods().get(period.getTimeSlot() - 1),
+							period);
+				}
+			}
+		}
+	}
+
+	private void assertStateMatchesCalculator(
+			SolutionState state, ConstraintViolationsCalculator calculator)
+			throws WctttModelException {
+		Timetable timetable = state.toTimetable();
+		assertEquals(calculator.calcTimetablePenalty(timetable),
+				state.getPenalty(), 1e-9);
+		for (TimetableDay day : timetable.getDays()) {
+			for (TimetablePeriod period : day.getPeriods()) {
+				for (TimetableAssignment assignment :
+						new ArrayList<>(period.getAssignments())) {
+					period.removeAssignment(assignment);
+					List<ConstraintType> violations = calculator.
+							calcAssignmentHardViolations(timetable, period,
+									assignment);
+					violations.retainAll(SYMMETRIC_HARD_CONSTRAINTS);
+					assertTrue(violations.isEmpty(), assignment + " in " +
+							period + " violates " + violations);
+					period.addAssignment(assignment);
+				}
+			}
+		}
+	}
+}